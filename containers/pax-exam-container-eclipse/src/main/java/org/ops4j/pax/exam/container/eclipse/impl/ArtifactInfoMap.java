@@ -27,6 +27,9 @@ import org.osgi.framework.VersionRange;
 
 /**
  * A Map for finding {@link ArtifactInfo} of a given symbolic name and version
+ * <p>
+ * The artifacts of each symbolic name are kept sorted by version (highest first), so lookups use a
+ * binary search instead of iterating over all versions.
  * 
  * @author Christoph Läubrich
  *
@@ -39,6 +42,8 @@ public class ArtifactInfoMap<BundleInfoContext> {
 
     private final Map<String, List<ArtifactInfo<BundleInfoContext>>> artifacts;
 
+    private List<ArtifactInfo<BundleInfoContext>> sortedArtifacts;
+
     public ArtifactInfoMap() {
         this(32);
     }
@@ -58,8 +63,21 @@ public class ArtifactInfoMap<BundleInfoContext> {
             list = new ArrayList<>();
             artifacts.put(bundleInfo.getId(), list);
         }
-        list.add(bundleInfo);
-        Collections.sort(list, Collections.reverseOrder());
+        // insert behind all artifacts with the same or a higher version
+        Version version = bundleInfo.getVersion();
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list.get(mid).getVersion().compareTo(version) >= 0) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        list.add(low, bundleInfo);
+        sortedArtifacts = null;
     }
 
     public ArtifactInfo<BundleInfoContext> get(EclipseVersionedArtifact bundle) {
@@ -77,12 +95,11 @@ public class ArtifactInfoMap<BundleInfoContext> {
             return get(symbolicName, HIGHEST_VERSION);
         }
         List<ArtifactInfo<BundleInfoContext>> list = artifacts.get(symbolicName);
-        if (list != null && !list.isEmpty()) {
-            for (ArtifactInfo<BundleInfoContext> bundleInfo : list) {
-                if (version.equals(bundleInfo.getVersion())) {
-                    // perfect match...
-                    return bundleInfo;
-                }
+        if (list != null) {
+            int index = indexOfFirstBelow(list, version, true);
+            if (index < list.size() && version.equals(list.get(index).getVersion())) {
+                // perfect match...
+                return list.get(index);
             }
         }
         return null;
@@ -96,24 +113,64 @@ public class ArtifactInfoMap<BundleInfoContext> {
      */
     public ArtifactInfo<BundleInfoContext> get(String symbolicName, VersionRange versionRange) {
         List<ArtifactInfo<BundleInfoContext>> list = artifacts.get(symbolicName);
-        if (list != null && !list.isEmpty()) {
-            for (ArtifactInfo<BundleInfoContext> bundleInfo : list) {
-                if (versionRange.includes(bundleInfo.getVersion())) {
-                    return bundleInfo;
-                }
+        if (list != null) {
+            // the first artifact not above the right end is the highest candidate, if it does not
+            // match the left end none of the lower versions will
+            Version right = versionRange.getRight();
+            int index = right == null ? 0
+                : indexOfFirstBelow(list, right,
+                    versionRange.getRightType() == VersionRange.RIGHT_CLOSED);
+            if (index < list.size() && versionRange.includes(list.get(index).getVersion())) {
+                return list.get(index);
             }
         }
         return null;
     }
 
+    /**
+     * 
+     * @param list
+     *            artifacts sorted by version, highest first
+     * @param version
+     * @param inclusive
+     *            if artifacts with the given version should be included
+     * @return the index of the first artifact with a version below (or equal to) the given one, or
+     *         the size of the list if there is none
+     */
+    static int indexOfFirstBelow(List<? extends ArtifactInfo<?>> list, Version version,
+        boolean inclusive) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = list.get(mid).getVersion().compareTo(version);
+            if (cmp > 0 || (cmp == 0 && !inclusive)) {
+                low = mid + 1;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 
+     * @return an unmodifiable list of all artifacts sorted by symbolic name and version
+     */
     public List<ArtifactInfo<BundleInfoContext>> getArtifacts() {
-        List<ArtifactInfo<BundleInfoContext>> list = new ArrayList<>();
-        for (List<ArtifactInfo<BundleInfoContext>> eclipseBundleOption : artifacts.values()) {
-            for (ArtifactInfo<BundleInfoContext> bundleInfo : eclipseBundleOption) {
-                list.add(bundleInfo);
+        List<ArtifactInfo<BundleInfoContext>> list = sortedArtifacts;
+        if (list == null) {
+            list = new ArrayList<>();
+            for (List<ArtifactInfo<BundleInfoContext>> eclipseBundleOption : artifacts.values()) {
+                for (ArtifactInfo<BundleInfoContext> bundleInfo : eclipseBundleOption) {
+                    list.add(bundleInfo);
+                }
             }
+            Collections.sort(list);
+            list = Collections.unmodifiableList(list);
+            sortedArtifacts = list;
         }
-        Collections.sort(list);
         return list;
     }
 
@@ -20,9 +20,14 @@ import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
@@ -48,8 +53,8 @@ public abstract class AbstractParser {
     private static final VersionRange EMPTY_RANGE = new VersionRange(VersionRange.LEFT_CLOSED,
         Version.emptyVersion, null, VersionRange.RIGHT_CLOSED);
 
-    private static final Map<String, Version> versionCache = new HashMap<>();
-    private static final Map<String, VersionRange> versionRangeCache = new HashMap<>();
+    private static final Map<String, Version> versionCache = new ConcurrentHashMap<>();
+    private static final Map<String, VersionRange> versionRangeCache = new ConcurrentHashMap<>();
 
     private static final ThreadLocal<DocumentBuilderFactory> DBF = new ThreadLocal<DocumentBuilderFactory>() {
 
@@ -61,6 +66,17 @@ public abstract class AbstractParser {
         }
     };
 
+    private static final ThreadLocal<XMLInputFactory> XIF = new ThreadLocal<XMLInputFactory>() {
+
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            return factory;
+        }
+    };
+
     private static final ThreadLocal<XPath> XPF = new ThreadLocal<XPath>() {
 
         @Override
@@ -89,6 +105,107 @@ public abstract class AbstractParser {
         }
     }
 
+    /**
+     * Creates a streaming reader for large files like P2 repository files, where building a
+     * document would need too much memory. The caller is responsible for closing the stream.
+     * 
+     * @param stream
+     * @return a reader positioned at the start of the document
+     * @throws IOException
+     */
+    protected static XMLStreamReader createStreamReader(InputStream stream) throws IOException {
+        try {
+            return XIF.get().createXMLStreamReader(stream);
+        }
+        catch (XMLStreamException e) {
+            throw new IOException("parsing stream failed", e);
+        }
+    }
+
+    /**
+     * Moves the reader to the next child element of the current element
+     * 
+     * @param reader
+     * @return true if the reader is positioned at the start of a child element, false if the end
+     *         of the current element (or document) is reached
+     * @throws XMLStreamException
+     */
+    protected static boolean nextChildElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Skips the current element including all of its children, the reader is positioned at the
+     * end of the element afterwards
+     * 
+     * @param reader
+     * @throws XMLStreamException
+     */
+    protected static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            }
+            else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Get an Attribute from the current element of the reader and throwing an exception in the
+     * case it is required but not present
+     * 
+     * @param reader
+     * @param name
+     * @param required
+     * @return
+     */
+    protected static String getAttribute(XMLStreamReader reader, String name, boolean required) {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null) {
+            if (required) {
+                throw new IllegalArgumentException(reader.getLocalName() + " at line "
+                    + reader.getLocation().getLineNumber() + " has no " + name + " attribute");
+            }
+            return "";
+        }
+        return value;
+    }
+
+    protected static Map<String, String> attributesToMap(XMLStreamReader reader) {
+        Map<String, String> flags = new HashMap<>();
+        int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            flags.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+        }
+        return flags;
+    }
+
+    protected static int getSize(XMLStreamReader reader, int defaultSize) {
+        String attribute = getAttribute(reader, "size", false);
+        if (!attribute.isEmpty()) {
+            try {
+                return Integer.parseInt(attribute);
+            }
+            catch (NumberFormatException e) {
+                // ignore then
+            }
+        }
+        return defaultSize;
+    }
+
     /**
      * 
      * @return the thread-local xpath instance
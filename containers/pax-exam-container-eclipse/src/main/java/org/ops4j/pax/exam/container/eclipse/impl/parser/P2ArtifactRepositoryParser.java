@@ -16,13 +16,17 @@
 package org.ops4j.pax.exam.container.eclipse.impl.parser;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import javax.xml.xpath.XPathExpressionException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.eclipse.osgi.internal.framework.FilterImpl;
 import org.ops4j.pax.exam.container.eclipse.impl.ArtifactInfo;
@@ -33,11 +37,10 @@ import org.osgi.framework.Version;
 import org.osgi.framework.VersionRange;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
 
 /**
- * Parses the artifacts file from a repro
+ * Parses the artifacts file from a repro, the file is read as a stream so only the artifacts are
+ * kept in memory
  * 
  * @author Christoph Läubrich
  *
@@ -48,20 +51,59 @@ public class P2ArtifactRepositoryParser extends AbstractParser {
 
     private final Map<String, ArtifactInfoMap<URL>> artifactMap = new HashMap<>();
 
-    public P2ArtifactRepositoryParser(URL baseUrl, Element artifacts)
-        throws IOException, XPathExpressionException, InvalidSyntaxException {
+    /**
+     * parse (and close) the artifacts stream
+     * 
+     * @param baseUrl
+     * @param artifacts
+     * @throws IOException
+     * @throws InvalidSyntaxException
+     */
+    public P2ArtifactRepositoryParser(URL baseUrl, InputStream artifacts)
+        throws IOException, InvalidSyntaxException {
         Map<Filter, String> outputMap = new LinkedHashMap<>();
-        for (Node node : evaluate(artifacts, "/repository/mappings/rule")) {
-            String filterString = getAttribute(node, "filter", true);
-            String output = getAttribute(node, "output", true);
-            FilterImpl filter = FilterImpl.newInstance(filterString, false);
-            LOG.debug("put filter {} for output mapping {}...", filter, output);
-            outputMap.put(filter, output);
+        List<Map<String, String>> artifactAttributes = new ArrayList<>();
+        try {
+            XMLStreamReader reader = createStreamReader(artifacts);
+            try {
+                if (nextChildElement(reader)) {
+                    while (nextChildElement(reader)) {
+                        String name = reader.getLocalName();
+                        if ("mappings".equals(name)) {
+                            readMappings(reader, outputMap);
+                        }
+                        else if ("artifacts".equals(name)) {
+                            while (nextChildElement(reader)) {
+                                if ("artifact".equals(reader.getLocalName())) {
+                                    getAttribute(reader, "classifier", true);
+                                    getAttribute(reader, "id", true);
+                                    artifactAttributes.add(attributesToMap(reader));
+                                }
+                                skipElement(reader);
+                            }
+                        }
+                        else {
+                            skipElement(reader);
+                        }
+                    }
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (XMLStreamException e) {
+            throw new IOException("parsing stream failed", e);
+        }
+        finally {
+            artifacts.close();
+        }
+        String externalForm = baseUrl.toExternalForm();
+        if (externalForm.endsWith("/")) {
+            externalForm = externalForm.substring(0, externalForm.length() - 1);
         }
-        for (Node node : evaluate(artifacts, "/repository/artifacts/artifact")) {
-            String classifier = getAttribute(node, "classifier", true);
-            ArtifactInfoMap<URL> map = getArtifacts(classifier);
-            Map<String, String> attributes = attributesToMap(node);
+        for (Map<String, String> attributes : artifactAttributes) {
+            ArtifactInfoMap<URL> map = getArtifacts(attributes.get("classifier"));
             String output = null;
             for (Entry<Filter, String> entry : outputMap.entrySet()) {
                 if (entry.getKey().matches(attributes)) {
@@ -73,18 +115,28 @@ public class P2ArtifactRepositoryParser extends AbstractParser {
                 throw new IOException("No output mapping found for attribute set " + attributes
                     + " and filters " + outputMap);
             }
-            String externalForm = baseUrl.toExternalForm();
-            if (externalForm.endsWith("/")) {
-                externalForm = externalForm.substring(0, externalForm.length() - 1);
-            }
+            String id = attributes.get("id");
+            Version version = stringToVersion(attributes.get("version"));
             attributes.put("repoUrl", externalForm);
             URL artifactURL = new URL(replaceAttributes(output, attributes));
-            String id = getAttribute(node, "id", true);
-            Version version = stringToVersion(getAttribute(node, "version", false));
             map.add(new ArtifactInfo<URL>(id, version, artifactURL));
         }
     }
 
+    private void readMappings(XMLStreamReader reader, Map<Filter, String> outputMap)
+        throws XMLStreamException, InvalidSyntaxException {
+        while (nextChildElement(reader)) {
+            if ("rule".equals(reader.getLocalName())) {
+                String filterString = getAttribute(reader, "filter", true);
+                String output = getAttribute(reader, "output", true);
+                FilterImpl filter = FilterImpl.newInstance(filterString, false);
+                LOG.debug("put filter {} for output mapping {}...", filter, output);
+                outputMap.put(filter, output);
+            }
+            skipElement(reader);
+        }
+    }
+
     private String replaceAttributes(String output, Map<String, String> attributes) {
         for (Entry<String, String> entry : attributes.entrySet()) {
             output = output.replace("${" + entry.getKey() + "}", entry.getValue());
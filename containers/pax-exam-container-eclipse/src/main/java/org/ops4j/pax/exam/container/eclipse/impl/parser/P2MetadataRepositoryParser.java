@@ -16,15 +16,14 @@
 package org.ops4j.pax.exam.container.eclipse.impl.parser;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathException;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathExpressionException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.ops4j.pax.exam.container.eclipse.impl.ArtifactInfo;
 import org.ops4j.pax.exam.container.eclipse.impl.ArtifactInfoMap;
@@ -32,46 +31,98 @@ import org.ops4j.pax.exam.container.eclipse.impl.repository.Artifact;
 import org.ops4j.pax.exam.container.eclipse.impl.repository.Provides;
 import org.ops4j.pax.exam.container.eclipse.impl.repository.Requires;
 import org.ops4j.pax.exam.container.eclipse.impl.repository.Unit;
-import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.Version;
 import org.osgi.framework.VersionRange;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
 
 /**
- * parses the content file from a repro
+ * parses the content file from a repro, the file is read as a stream so only the units are kept
+ * in memory
  * 
  * @author Christoph Läubrich
  *
  */
 public class P2MetadataRepositoryParser extends AbstractParser {
 
-    private final ArtifactInfoMap<Unit> unitMap;
-    private final List<Unit> units;
-
-    public P2MetadataRepositoryParser(Element content)
-        throws IOException, XPathException, InvalidSyntaxException {
-        Node unitsNode = getNode(content, "/repository/units");
-        int cap = getSize(unitsNode, 10);
-        unitMap = new ArtifactInfoMap<>(Math.max(10, cap / 3));
-        units = new ArrayList<>(cap);
-        XPath x = getXPath();
-        XPathExpression provideExpression = x.compile("./provides/provided");
-        XPathExpression requireExpression = x.compile("./requires/required");
-        XPathExpression artifactExpression = x.compile("./artifacts/artifact");
-        XPathExpression unitExpression = x.compile("./unit");
-        for (Node node : evaluate(unitsNode, unitExpression, true)) {
-            String unitID = getAttribute(node, "id", true);
-            Version unitVersion = stringToVersion(getAttribute(node, "version", false));
-            List<Provides> provides = readProvides(evaluate(node, provideExpression));
-            List<Requires> requires = readRequires(evaluate(node, requireExpression));
-            List<Artifact> artifacts = readArtifacts(evaluate(node, artifactExpression));
-            Unit unit = new Unit(unitID, unitVersion, provides, requires, artifacts);
-            unitMap.add(new ArtifactInfo<Unit>(unitID, unitVersion, unit));
-            units.add(unit);
+    private ArtifactInfoMap<Unit> unitMap;
+    private List<Unit> units;
+
+    /**
+     * parse (and close) the content stream
+     * 
+     * @param content
+     * @throws IOException
+     */
+    public P2MetadataRepositoryParser(InputStream content) throws IOException {
+        try {
+            XMLStreamReader reader = createStreamReader(content);
+            try {
+                if (nextChildElement(reader)) {
+                    readRepository(reader);
+                }
+            }
+            finally {
+                reader.close();
+            }
+        }
+        catch (XMLStreamException e) {
+            throw new IOException("parsing stream failed", e);
+        }
+        finally {
+            content.close();
+        }
+        if (units == null) {
+            unitMap = new ArtifactInfoMap<>(10);
+            units = new ArrayList<>();
         }
     }
 
+    private void readRepository(XMLStreamReader reader) throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if ("units".equals(reader.getLocalName())) {
+                int cap = getSize(reader, 10);
+                unitMap = new ArtifactInfoMap<>(Math.max(10, cap / 3));
+                units = new ArrayList<>(cap);
+                while (nextChildElement(reader)) {
+                    if ("unit".equals(reader.getLocalName())) {
+                        readUnit(reader);
+                    }
+                    else {
+                        skipElement(reader);
+                    }
+                }
+            }
+            else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private void readUnit(XMLStreamReader reader) throws XMLStreamException {
+        String unitID = getAttribute(reader, "id", true);
+        Version unitVersion = stringToVersion(getAttribute(reader, "version", false));
+        List<Provides> provides = new ArrayList<>();
+        List<Requires> requires = new ArrayList<>();
+        List<Artifact> artifacts = new ArrayList<>();
+        while (nextChildElement(reader)) {
+            String name = reader.getLocalName();
+            if ("provides".equals(name)) {
+                readProvides(reader, provides);
+            }
+            else if ("requires".equals(name)) {
+                readRequires(reader, requires);
+            }
+            else if ("artifacts".equals(name)) {
+                readArtifacts(reader, artifacts);
+            }
+            else {
+                skipElement(reader);
+            }
+        }
+        Unit unit = new Unit(unitID, unitVersion, provides, requires, artifacts);
+        unitMap.add(new ArtifactInfo<Unit>(unitID, unitVersion, unit));
+        units.add(unit);
+    }
+
     public Collection<Unit> getUnits() {
         return Collections.unmodifiableCollection(units);
     }
@@ -88,52 +139,61 @@ public class P2MetadataRepositoryParser extends AbstractParser {
         return units.size();
     }
 
-    private List<Artifact> readArtifacts(Iterable<Node> evaluate) {
-        List<Artifact> map = new ArrayList<>();
-        for (Node node : evaluate) {
-            map.add(new Artifact(getAttribute(node, "id", true),
-                stringToVersion(getAttribute(node, "version", false)),
-                getAttribute(node, "classifier", true)));
+    private void readArtifacts(XMLStreamReader reader, List<Artifact> list)
+        throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if ("artifact".equals(reader.getLocalName())) {
+                list.add(new Artifact(getAttribute(reader, "id", true),
+                    stringToVersion(getAttribute(reader, "version", false)),
+                    getAttribute(reader, "classifier", true)));
+            }
+            skipElement(reader);
         }
-        return map;
     }
 
-    private List<Requires> readRequires(Iterable<Node> evaluate)
-        throws IOException, XPathExpressionException {
-        ArrayList<Requires> list = new ArrayList<>();
-        for (Node node : evaluate) {
-            VersionRange range = stringToVersionRange(getAttribute(node, "range", false));
-            String namespace = getAttribute(node, "namespace", false);
-            String match = getAttribute(node, "match", false);
-            String name = getAttribute(node, "name", false);
-            String matchParameters = getAttribute(node, "matchParameters", false);
-            Boolean optional = Boolean.parseBoolean(getAttribute(node, "optional", false));
-            Boolean greedy = Boolean.parseBoolean(getAttribute(node, "greedy", false));
-            list.add(new Requires(namespace, name, range, match, matchParameters, optional, greedy,
-                getFilter(node)));
+    private void readRequires(XMLStreamReader reader, List<Requires> list)
+        throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if ("required".equals(reader.getLocalName())) {
+                VersionRange range = stringToVersionRange(getAttribute(reader, "range", false));
+                String namespace = getAttribute(reader, "namespace", false);
+                String match = getAttribute(reader, "match", false);
+                String name = getAttribute(reader, "name", false);
+                String matchParameters = getAttribute(reader, "matchParameters", false);
+                Boolean optional = Boolean.parseBoolean(getAttribute(reader, "optional", false));
+                Boolean greedy = Boolean.parseBoolean(getAttribute(reader, "greedy", false));
+                list.add(new Requires(namespace, name, range, match, matchParameters, optional,
+                    greedy, readFilter(reader)));
+            }
+            else {
+                skipElement(reader);
+            }
         }
-        return list;
     }
 
-    private String getFilter(Node node) throws XPathExpressionException {
-        Node filternode = getNode(node, "./filter");
-        if (filternode != null) {
-            String textContent = filternode.getTextContent();
-            if (textContent != null) {
-                return textContent.trim();
+    private String readFilter(XMLStreamReader reader) throws XMLStreamException {
+        String filter = null;
+        while (nextChildElement(reader)) {
+            if (filter == null && "filter".equals(reader.getLocalName())) {
+                filter = reader.getElementText().trim();
+            }
+            else {
+                skipElement(reader);
             }
         }
-        return null;
+        return filter;
     }
 
-    private List<Provides> readProvides(Iterable<Node> evaluate) {
-        ArrayList<Provides> list = new ArrayList<>();
-        for (Node node : evaluate) {
-            list.add(new Provides(getAttribute(node, "namespace", true),
-                getAttribute(node, "name", true),
-                stringToVersion(getAttribute(node, "version", false))));
+    private void readProvides(XMLStreamReader reader, List<Provides> list)
+        throws XMLStreamException {
+        while (nextChildElement(reader)) {
+            if ("provided".equals(reader.getLocalName())) {
+                list.add(new Provides(getAttribute(reader, "namespace", true),
+                    getAttribute(reader, "name", true),
+                    stringToVersion(getAttribute(reader, "version", false))));
+            }
+            skipElement(reader);
         }
-        return list;
     }
 
 }
@@ -82,6 +82,26 @@ public final class Requires extends VersionRangeSerializable
         return namespace + ":" + name + ":" + getVersionRange();
     }
 
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getMatch() {
+        return match;
+    }
+
+    public String getMatchParameters() {
+        return matchParameters;
+    }
+
+    public String getFilter() {
+        return filterString;
+    }
+
     @Override
     public boolean isGreedy() {
         return greedy;
@@ -22,8 +22,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
-import javax.xml.xpath.XPathExpressionException;
-
 import org.ops4j.pax.exam.container.eclipse.impl.ArtifactInfo;
 import org.ops4j.pax.exam.container.eclipse.impl.parser.AbstractParser;
 import org.ops4j.pax.exam.container.eclipse.impl.parser.P2ArtifactRepositoryParser;
@@ -59,25 +57,25 @@ public class P2ArtifactRepository extends BundleAndFeatureSource {
 
     public P2ArtifactRepository(String name, P2RepositoryFile root) throws IOException {
         this.name = name;
-        try {
-            lastModified = addFile(root);
-        }
-        catch (XPathExpressionException | InvalidSyntaxException e) {
-            throw new IOException(e);
-        }
+        lastModified = addFile(root);
     }
 
-    private long addFile(P2RepositoryFile file)
-        throws XPathExpressionException, IOException, InvalidSyntaxException {
-        if (file.isComposite()) {
-            long lastmod = -1;
-            List<P2RepositoryFile> childs = file.getChilds();
-            for (P2RepositoryFile child : childs) {
-                lastmod = Math.max(lastmod, addFile(child));
+    private long addFile(P2RepositoryFile root) throws IOException {
+        List<P2RepositoryFile> files = P2ParallelLoader.collectRepositories(root);
+        long lastmod = -1;
+        for (ParsedArtifacts parsed : P2ParallelLoader.loadAll(files, this::parseFile)) {
+            if (parsed != null) {
+                bundleSource.addBundles(parsed.reproName, parsed.bundles);
+                featureSource.addFeatures(parsed.reproName, parsed.features);
+                lastmod = Math.max(lastmod, parsed.lastModified);
             }
-            return lastmod;
         }
-        else if (file.isArtifactRepository()) {
+        return lastmod;
+    }
+
+    private ParsedArtifacts parseFile(P2RepositoryFile file)
+        throws IOException, InvalidSyntaxException {
+        if (file.isArtifactRepository()) {
             List<ArtifactInfo<URL>> bundles;
             List<ArtifactInfo<URL>> features;
             String reproName = name + file.getURL();
@@ -103,7 +101,7 @@ public class P2ArtifactRepository extends BundleAndFeatureSource {
                 cache.clear(CACHE_KEY_BUNDLE);
                 LOG.info("Parse {}@{}...", file.getType(), file.getURL());
                 P2ArtifactRepositoryParser parser = new P2ArtifactRepositoryParser(
-                    file.getIndex().getURL(), file.getRespository());
+                    file.getIndex().getURL(), file.openRepository());
                 LOG.info("... {} artifacts parsed.", parser.getCount());
                 bundles = parser.getArtifacts(EclipseClassifiedVersionedArtifact.CLASSIFIER_BUNDLE)
                     .getArtifacts();
@@ -122,13 +120,11 @@ public class P2ArtifactRepository extends BundleAndFeatureSource {
                 cache.setProperty(CACHE_KEY_LASTMODIFIED, file.getLastModified());
                 cache.store();
             }
-            bundleSource.addBundles(reproName, bundles);
-            featureSource.addFeatures(reproName, features);
-            return file.getLastModified();
+            return new ParsedArtifacts(reproName, bundles, features, file.getLastModified());
         }
         else {
             LOG.info("Ignore P2RepositoryFile of type {}@{}...", file.getType(), file.getURL());
-            return -1;
+            return null;
         }
 
     }
@@ -155,4 +151,20 @@ public class P2ArtifactRepository extends BundleAndFeatureSource {
         return lastModified;
     }
 
+    private static final class ParsedArtifacts {
+
+        private final String reproName;
+        private final List<ArtifactInfo<URL>> bundles;
+        private final List<ArtifactInfo<URL>> features;
+        private final long lastModified;
+
+        private ParsedArtifacts(String reproName, List<ArtifactInfo<URL>> bundles,
+            List<ArtifactInfo<URL>> features, long lastModified) {
+            this.reproName = reproName;
+            this.bundles = bundles;
+            this.features = features;
+            this.lastModified = lastModified;
+        }
+    }
+
 }
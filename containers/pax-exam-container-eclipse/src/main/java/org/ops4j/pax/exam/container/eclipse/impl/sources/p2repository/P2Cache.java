@@ -27,6 +27,10 @@ import java.io.Reader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.InvalidPropertiesFormatException;
 import java.util.Map;
@@ -34,6 +38,7 @@ import java.util.Properties;
 import java.util.Set;
 
 import org.apache.commons.io.IOUtils;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Unit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -110,7 +115,9 @@ public class P2Cache {
         try {
             InputStream stream = connection.getInputStream();
             LOG.debug("...success!");
-            return new P2CacheStream(stream, -1);
+            // local files report their modification time, so parsed data can be cached as well
+            long lastModified = connection.getLastModified();
+            return new P2CacheStream(stream, lastModified > 0 ? lastModified : -1);
         }
         catch (FileNotFoundException e) {
             LOG.debug("...failed with error {}!", e.getMessage());
@@ -118,6 +125,73 @@ public class P2Cache {
         }
     }
 
+    /**
+     * Loads the units of a metadata repository from the binary unit index
+     * 
+     * @param url
+     *            url of the repository file
+     * @param lastModified
+     *            last modification time of the repository file
+     * @return the units, or null if there is no index for this url and modification time
+     */
+    public static Collection<Unit> loadUnits(URL url, long lastModified) {
+        if (lastModified < 0) {
+            return null;
+        }
+        File indexFile = getUnitIndexFile(url);
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try {
+            return P2UnitIndex.read(Files.readAllBytes(indexFile.toPath()), lastModified);
+        }
+        catch (IOException | RuntimeException e) {
+            LOG.debug("Loading unit index {} failed: {}", indexFile, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the units of a metadata repository into the binary unit index, so that the
+     * repository file does not need to be parsed again as long as it is not modified
+     * 
+     * @param url
+     *            url of the repository file
+     * @param lastModified
+     *            last modification time of the repository file
+     * @param units
+     *            the parsed units
+     */
+    public static void storeUnits(URL url, long lastModified, Collection<Unit> units) {
+        if (lastModified < 0
+            || !(FILE_CACHE_LOACATION.exists() || FILE_CACHE_LOACATION.mkdirs())) {
+            return;
+        }
+        File indexFile = getUnitIndexFile(url);
+        Path tmpFile = null;
+        try {
+            // unique per writer, since several processes may share the cache
+            tmpFile = Files.createTempFile(FILE_CACHE_LOACATION.toPath(), indexFile.getName(),
+                ".tmp");
+            try (OutputStream stream = Files.newOutputStream(tmpFile)) {
+                P2UnitIndex.write(stream, lastModified, units);
+            }
+            Files.move(tmpFile, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            LOG.debug("Storing unit index {} failed: {}", indexFile, e.toString());
+            if (tmpFile != null) {
+                tmpFile.toFile().delete();
+            }
+        }
+    }
+
+    private static File getUnitIndexFile(URL url) {
+        File cacheFile = getCacheFile(url);
+        return new File(cacheFile.getParentFile(), cacheFile.getName() + ".units");
+    }
+
     public static File getCacheFile(URL url) {
         String key = url.toExternalForm().replaceAll("[^a-zA-Z0-9_\\.-]", "_");
         File file = new File(FILE_CACHE_LOACATION, key);
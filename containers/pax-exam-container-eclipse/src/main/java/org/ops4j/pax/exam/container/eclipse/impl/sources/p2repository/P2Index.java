@@ -29,7 +29,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarInputStream;
 
-import javax.xml.xpath.XPathExpressionException;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.ops4j.pax.exam.container.eclipse.impl.parser.AbstractParser;
 import org.ops4j.pax.exam.container.eclipse.impl.sources.p2repository.P2Cache.MetaDataProperties;
@@ -37,8 +38,6 @@ import org.ops4j.pax.exam.container.eclipse.impl.sources.p2repository.P2Cache.P2
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.tukaani.xz.XZInputStream;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
 
 /**
  * Handles the concept of a "P2 Index", that can consit of a p2.index file and a default search
@@ -103,7 +102,8 @@ public final class P2Index {
         return url;
     }
 
-    public P2RepositoryFile getMetadataRepository() throws MalformedURLException, IOException {
+    public synchronized P2RepositoryFile getMetadataRepository()
+        throws MalformedURLException, IOException {
         if (metadataRepository == null) {
             metadataRepository = fromMetaCache("meta");
             if (metadataRepository == null) {
@@ -113,8 +113,8 @@ public final class P2Index {
                         file.name + "," + METADATA_FACTORY_DEFAULT);
                     writeProperties();
                 }
-                metadataRepository = new P2RepositoryFileImpl(this, file.root, file.url,
-                    file.lastModified);
+                metadataRepository = new P2RepositoryFileImpl(this, file.type, file.name,
+                    file.url, file.lastModified);
                 String type = metadataRepository.getType();
                 storeMeta("meta", file, type);
             }
@@ -160,7 +160,8 @@ public final class P2Index {
 
     }
 
-    public P2RepositoryFile getArtifactRepository() throws MalformedURLException, IOException {
+    public synchronized P2RepositoryFile getArtifactRepository()
+        throws MalformedURLException, IOException {
         if (artifactRepository == null) {
             artifactRepository = fromMetaCache("artifact");
             if (artifactRepository == null) {
@@ -169,8 +170,8 @@ public final class P2Index {
                     throw new IOException("none of the required names " + artifactNames
                         + " found at " + url + ", is this a valid repository?");
                 }
-                artifactRepository = new P2RepositoryFileImpl(this, file.root, file.url,
-                    file.lastModified);
+                artifactRepository = new P2RepositoryFileImpl(this, file.type, file.name,
+                    file.url, file.lastModified);
                 if (isdefault) {
                     indexProperties.put(PROPERTY_ARTIFACT_FACTORY,
                         file.name + "," + ARTIFACTS_FACTORY_DEFAULT);
@@ -185,7 +186,6 @@ public final class P2Index {
 
     public static class P2RepositoryFileImpl implements P2RepositoryFile {
 
-        private Element root;
         private final P2Index index;
         private final String type;
         private final URL reproURL;
@@ -195,20 +195,12 @@ public final class P2Index {
         public P2RepositoryFileImpl(P2Index index, String type, String name, URL reproURL,
             long lastModified) {
             this.index = index;
-            this.type = type;
+            this.type = type == null ? "-null-" : type;
             this.name = name;
             this.reproURL = reproURL;
             this.lastModified = lastModified;
         }
 
-        public P2RepositoryFileImpl(P2Index index, Element root, URL reproURL, long lastModified) {
-            this.index = index;
-            this.root = root;
-            this.reproURL = reproURL;
-            this.lastModified = lastModified;
-            this.type = root == null ? "-null-" : Parser.getType(root);
-        }
-
         @Override
         public URL getURL() {
             return reproURL;
@@ -253,21 +245,18 @@ public final class P2Index {
             return lastModified;
         }
 
-        private synchronized Element getRoot() throws IOException {
-            if (root == null) {
-                ReproOpenResult file = Parser.readReproFile(name, reproURL);
-                if (file == null) {
-                    throw new IllegalStateException(
-                        "invalid root for url " + reproURL + ", try to clear cache!");
-                }
-                root = file.root;
-                lastModified = file.lastModified;
+        private synchronized InputStream openStream() throws IOException {
+            ReproStream stream = Parser.openReproFile(name, reproURL);
+            if (stream == null) {
+                throw new IllegalStateException(
+                    "invalid root for url " + reproURL + ", try to clear cache!");
             }
-            return root;
+            lastModified = stream.lastModified;
+            return stream.stream;
         }
 
         @Override
-        public Element getRespository() throws IOException {
+        public InputStream openRepository() throws IOException {
             if (!isRepository()) {
                 if (isComposite()) {
                     throw new IllegalStateException(
@@ -277,7 +266,7 @@ public final class P2Index {
                     throw new IllegalStateException("not a valid repository");
                 }
             }
-            return getRoot();
+            return openStream();
         }
 
         @Override
@@ -285,39 +274,43 @@ public final class P2Index {
             if (!isComposite()) {
                 throw new IllegalStateException("can only be called on composite repositories!");
             }
-            try {
-                List<String> childs = Parser.parseChilds(getRoot());
-                List<P2RepositoryFile> result = new ArrayList<>();
-                for (String child : childs) {
-                    URL childUrl;
-                    try {
-                        // first check if this already is a valid url...
-                        childUrl = new URL(child);
-                    }
-                    catch (MalformedURLException e) {
-                        childUrl = appendSegment(index.url, child);
-                    }
-                    String key = childUrl.toExternalForm();
-                    P2Index childIndex = index.cache.get(key);
-                    if (childIndex == null) {
-                        childIndex = new P2Index(childUrl, index.cache);
-                        P2Index put = index.cache.putIfAbsent(key, childIndex);
-                        if (put != null) {
-                            childIndex = put;
-                        }
-                    }
-                    if (isArtifactRepository()) {
-                        result.add(childIndex.getArtifactRepository());
-                    }
-                    else if (isMetadataRepository()) {
-                        result.add(childIndex.getMetadataRepository());
-                    }
+            List<URL> childUrls = new ArrayList<>();
+            for (String child : Parser.parseChilds(openStream())) {
+                try {
+                    // first check if this already is a valid url...
+                    childUrls.add(new URL(child));
                 }
-                return result;
+                catch (MalformedURLException e) {
+                    childUrls.add(appendSegment(index.url, child));
+                }
+            }
+            List<P2RepositoryFile> childs = P2ParallelLoader.loadAll(childUrls, this::loadChild);
+            List<P2RepositoryFile> result = new ArrayList<>();
+            for (P2RepositoryFile child : childs) {
+                if (child != null) {
+                    result.add(child);
+                }
+            }
+            return result;
+        }
+
+        private P2RepositoryFile loadChild(URL childUrl) throws IOException {
+            String key = childUrl.toExternalForm();
+            P2Index childIndex = index.cache.get(key);
+            if (childIndex == null) {
+                childIndex = new P2Index(childUrl, index.cache);
+                P2Index put = index.cache.putIfAbsent(key, childIndex);
+                if (put != null) {
+                    childIndex = put;
+                }
+            }
+            if (isArtifactRepository()) {
+                return childIndex.getArtifactRepository();
             }
-            catch (XPathExpressionException e) {
-                throw new IOException(e);
+            else if (isMetadataRepository()) {
+                return childIndex.getMetadataRepository();
             }
+            return null;
         }
 
     }
@@ -351,16 +344,59 @@ public final class P2Index {
 
     private static class Parser extends AbstractParser {
 
-        private static List<String> parseChilds(Element root) throws XPathExpressionException {
+        private static List<String> parseChilds(InputStream stream) throws IOException {
             List<String> locations = new ArrayList<>();
-            for (Node node : evaluate(root, "/repository/children/child")) {
-                locations.add(getAttribute(node, "location", true));
+            try {
+                XMLStreamReader reader = createStreamReader(stream);
+                try {
+                    if (nextChildElement(reader)) {
+                        while (nextChildElement(reader)) {
+                            if ("children".equals(reader.getLocalName())) {
+                                while (nextChildElement(reader)) {
+                                    if ("child".equals(reader.getLocalName())) {
+                                        locations.add(getAttribute(reader, "location", true));
+                                    }
+                                    skipElement(reader);
+                                }
+                            }
+                            else {
+                                skipElement(reader);
+                            }
+                        }
+                    }
+                }
+                finally {
+                    reader.close();
+                }
+            }
+            catch (XMLStreamException e) {
+                throw new IOException("parsing stream failed", e);
+            }
+            finally {
+                stream.close();
             }
             return locations;
         }
 
-        private static String getType(Element element) {
-            return getAttribute(element, "type", true);
+        private static String readType(InputStream stream) throws IOException {
+            try {
+                XMLStreamReader reader = createStreamReader(stream);
+                try {
+                    if (!nextChildElement(reader)) {
+                        throw new IOException("empty repository file");
+                    }
+                    return getAttribute(reader, "type", true);
+                }
+                finally {
+                    reader.close();
+                }
+            }
+            catch (XMLStreamException e) {
+                throw new IOException("parsing stream failed", e);
+            }
+            finally {
+                stream.close();
+            }
         }
 
         private static ReproOpenResult tryReproFiles(URL url, List<String> names)
@@ -376,54 +412,83 @@ public final class P2Index {
         }
 
         private static ReproOpenResult readReproFile(String name, URL openUrl) throws IOException {
+            ReproStream open = openReproFile(name, openUrl);
+            if (open != null) {
+                return new ReproOpenResult(readType(open.stream), openUrl, name,
+                    open.lastModified);
+            }
+            return null;
+        }
+
+        /**
+         * opens the xml content of a repository file, compressed files are uncompressed while
+         * reading
+         */
+        private static ReproStream openReproFile(String name, URL openUrl) throws IOException {
             P2CacheStream open = P2Cache.tryOpen(openUrl);
             if (open != null) {
                 if (name.endsWith(".xml")) {
-                    return new ReproOpenResult(parse(open), openUrl, name, open.getLastModified());
+                    return new ReproStream(open, open.getLastModified());
                 }
                 else if (name.endsWith(".jar")) {
+                    JarInputStream stream = new JarInputStream(open);
                     try {
-                        try (JarInputStream stream = new JarInputStream(open)) {
-                            JarEntry entry;
-                            while ((entry = stream.getNextJarEntry()) != null) {
-                                if (entry.getName()
-                                    .equals(name.substring(0, name.length() - 3) + "xml")) {
-                                    return new ReproOpenResult(parse(stream), openUrl, name,
-                                        open.getLastModified());
-                                }
+                        String entryName = name.substring(0, name.length() - 3) + "xml";
+                        JarEntry entry;
+                        while ((entry = stream.getNextJarEntry()) != null) {
+                            if (entry.getName().equals(entryName)) {
+                                ReproStream result = new ReproStream(stream,
+                                    open.getLastModified());
+                                stream = null;
+                                return result;
                             }
                         }
                     }
                     finally {
-                        open.close();
+                        if (stream != null) {
+                            stream.close();
+                        }
                     }
                 }
                 else if (name.endsWith(".xz")) {
                     try {
-                        return new ReproOpenResult(parse(new XZInputStream(open)), openUrl, name,
-                            open.getLastModified());
+                        return new ReproStream(new XZInputStream(open), open.getLastModified());
                     }
-                    finally {
+                    catch (IOException e) {
                         open.close();
+                        throw e;
                     }
                 }
                 else {
                     // TODO content type guessing by reading first bytes??
+                    open.close();
                 }
             }
             return null;
         }
     }
 
+    private static final class ReproStream {
+
+        private final InputStream stream;
+        private final long lastModified;
+
+        private ReproStream(InputStream stream, long lastModified) {
+            this.stream = stream;
+            this.lastModified = lastModified;
+        }
+
+    }
+
     private static final class ReproOpenResult {
 
-        private final Element root;
+        private final String type;
         private final URL url;
         private final String name;
         private final long lastModified;
 
-        public ReproOpenResult(Element parse, URL openUrl, String name, long lastModified) {
-            this.root = parse;
+        public ReproOpenResult(String type, URL openUrl, String name, long lastModified) {
+            this.type = type;
             this.url = openUrl;
             this.name = name;
             this.lastModified = lastModified;
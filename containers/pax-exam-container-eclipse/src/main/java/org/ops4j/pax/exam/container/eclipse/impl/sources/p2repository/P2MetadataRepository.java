@@ -16,17 +16,15 @@
 package org.ops4j.pax.exam.container.eclipse.impl.sources.p2repository;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
 
-import javax.xml.xpath.XPathException;
-
 import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit;
 import org.ops4j.pax.exam.container.eclipse.impl.ArtifactInfo;
 import org.ops4j.pax.exam.container.eclipse.impl.parser.P2MetadataRepositoryParser;
 import org.ops4j.pax.exam.container.eclipse.impl.repository.Unit;
 import org.ops4j.pax.exam.container.eclipse.impl.sources.AbstractEclipseUnitSource;
-import org.osgi.framework.InvalidSyntaxException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,39 +48,45 @@ public class P2MetadataRepository extends AbstractEclipseUnitSource<P2Unit> {
         P2ArtifactRepository artifactRepository) throws IOException {
         this.name = name;
         this.artifactRepository = artifactRepository;
-        try {
-            lastModified = addFile(root);
-        }
-        catch (XPathException | InvalidSyntaxException e) {
-            throw new IOException(e);
-        }
+        lastModified = addFile(root);
     }
 
-    private long addFile(P2RepositoryFile file)
-        throws IOException, InvalidSyntaxException, XPathException {
-        if (file.isComposite()) {
-            long lastm = -1;
-            List<P2RepositoryFile> childs = file.getChilds();
-            for (P2RepositoryFile child : childs) {
-                lastm = Math.max(lastm, addFile(child));
+    private long addFile(P2RepositoryFile root) throws IOException {
+        List<P2RepositoryFile> files = P2ParallelLoader.collectRepositories(root);
+        long lastm = -1;
+        for (ParsedUnits parsed : P2ParallelLoader.loadAll(files, this::parseFile)) {
+            if (parsed != null) {
+                for (Unit unit : parsed.units) {
+                    add(new ArtifactInfo<P2Unit>(unit, new P2Unit(unit, parsed.reproName)));
+                }
+                lastm = Math.max(lastm, parsed.lastModified);
             }
-            return lastm;
         }
-        else if (file.isMetadataRepository()) {
+        return lastm;
+    }
+
+    private ParsedUnits parseFile(P2RepositoryFile file) throws IOException {
+        if (file.isMetadataRepository()) {
             String reproName = name + file.getURL();
-            LOG.info("Parse {}@{}...", file.getType(), file.getURL());
-            P2MetadataRepositoryParser parser = new P2MetadataRepositoryParser(
-                file.getRespository());
-            LOG.info("... {} units parsed.", parser.getCount());
-            Collection<Unit> units = parser.getUnits();
-            for (Unit unit : units) {
-                add(new ArtifactInfo<P2Unit>(unit, new P2Unit(unit, reproName)));
+            // opening the file refreshes its modification time before the index is checked
+            InputStream stream = file.openRepository();
+            Collection<Unit> units = P2Cache.loadUnits(file.getURL(), file.getLastModified());
+            if (units != null) {
+                stream.close();
+                LOG.info("Use cached units for {}@{}...", file.getType(), file.getURL());
+            }
+            else {
+                LOG.info("Parse {}@{}...", file.getType(), file.getURL());
+                P2MetadataRepositoryParser parser = new P2MetadataRepositoryParser(stream);
+                LOG.info("... {} units parsed.", parser.getCount());
+                units = parser.getUnits();
+                P2Cache.storeUnits(file.getURL(), file.getLastModified(), units);
             }
-            return file.getLastModified();
+            return new ParsedUnits(reproName, units, file.getLastModified());
         }
         else {
             LOG.info("Ignore P2RepositoryFile of type {}@{}...", file.getType(), file.getURL());
-            return -1;
+            return null;
         }
 
     }
@@ -96,4 +100,17 @@ public class P2MetadataRepository extends AbstractEclipseUnitSource<P2Unit> {
         return lastModified;
     }
 
+    private static final class ParsedUnits {
+
+        private final String reproName;
+        private final Collection<Unit> units;
+        private final long lastModified;
+
+        private ParsedUnits(String reproName, Collection<Unit> units, long lastModified) {
+            this.reproName = reproName;
+            this.units = units;
+            this.lastModified = lastModified;
+        }
+    }
+
 }
@@ -0,0 +1,177 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.container.eclipse.impl.sources.p2repository;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the children of composite P2 repositories concurrently on a bounded thread pool. The
+ * results are always returned in the order of the children, so that merging them is deterministic.
+ * The number of threads can be set with the system property <code>exam.p2.parallel</code>, a value
+ * of 1 loads all children sequentially on the calling thread.
+ * <p>
+ * All loads share a single pool, so the number of threads does not grow with the nesting depth of
+ * composite repositories. Loads started from a pool thread run on that thread.
+ */
+final class P2ParallelLoader {
+
+    private static final int PARALLELISM = Math.max(1, Integer.getInteger("exam.p2.parallel", 4));
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    /**
+     * A task loading a single item.
+     *
+     * @param <T>
+     *            item type
+     * @param <R>
+     *            result type
+     */
+    interface Task<T, R> {
+
+        R load(T item) throws Exception;
+    }
+
+    private P2ParallelLoader() {
+    }
+
+    /**
+     * Applies the given task to all items and returns the results in item order.
+     *
+     * @param items
+     *            items to be loaded
+     * @param task
+     *            task to be applied to each item
+     * @return list of results, in the same order as the items
+     * @throws IOException
+     *             if loading any of the items failed
+     */
+    static <T, R> List<R> loadAll(List<T> items, Task<T, R> task) throws IOException {
+        List<R> results = new ArrayList<>(items.size());
+        if (PARALLELISM <= 1 || items.size() <= 1
+            || Thread.currentThread() instanceof LoaderThread) {
+            for (T item : items) {
+                results.add(load(task, item));
+            }
+            return results;
+        }
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        try {
+            for (T item : items) {
+                futures.add(EXECUTOR.submit(() -> task.load(item)));
+            }
+            for (Future<R> future : futures) {
+                results.add(get(future));
+            }
+            return results;
+        }
+        finally {
+            for (Future<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(PARALLELISM, PARALLELISM, 10,
+            TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), LoaderThread::new);
+        // no threads are kept when there is nothing to load
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Collects the non-composite repositories reachable from the given repository file, in
+     * depth-first order. The children of each composite are loaded concurrently.
+     *
+     * @param file
+     *            repository file, composite or not
+     * @return list of non-composite repository files
+     * @throws IOException
+     *             if loading a composite failed
+     */
+    static List<P2RepositoryFile> collectRepositories(P2RepositoryFile file) throws IOException {
+        List<P2RepositoryFile> result = new ArrayList<>();
+        collectRepositories(file, result);
+        return result;
+    }
+
+    private static void collectRepositories(P2RepositoryFile file, List<P2RepositoryFile> result)
+        throws IOException {
+        if (file.isComposite()) {
+            for (P2RepositoryFile child : file.getChilds()) {
+                collectRepositories(child, result);
+            }
+        }
+        else {
+            result.add(file);
+        }
+    }
+
+    private static <T, R> R load(Task<T, R> task, T item) throws IOException {
+        try {
+            return task.load(item);
+        }
+        catch (IOException | RuntimeException e) {
+            throw e;
+        }
+        // CHECKSTYLE:SKIP : catch all wanted
+        catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static <R> R get(Future<R> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("loading repositories was interrupted", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static final class LoaderThread extends Thread {
+
+        LoaderThread(Runnable runnable) {
+            super(runnable, "p2-loader-" + THREAD_COUNT.incrementAndGet());
+            setDaemon(true);
+        }
+    }
+}
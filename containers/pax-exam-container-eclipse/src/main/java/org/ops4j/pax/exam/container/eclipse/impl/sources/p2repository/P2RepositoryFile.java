@@ -16,11 +16,10 @@
 package org.ops4j.pax.exam.container.eclipse.impl.sources.p2repository;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.List;
 
-import org.w3c.dom.Element;
-
 /**
  * Interface that represents an entry in a P2 index
  * 
@@ -43,7 +42,11 @@ public interface P2RepositoryFile {
 
     List<P2RepositoryFile> getChilds() throws IOException;
 
-    Element getRespository() throws IOException;
+    /**
+     * Opens the (uncompressed) xml content of a non-composite repository, the caller is
+     * responsible for closing the stream
+     */
+    InputStream openRepository() throws IOException;
 
     URL getURL();
 
@@ -0,0 +1,233 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.container.eclipse.impl.sources.p2repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit.UnitProviding;
+import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit.UnitRequirement;
+import org.ops4j.pax.exam.container.eclipse.impl.parser.AbstractParser;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Artifact;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.EclipseClassifiedVersionedArtifact;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Provides;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Requires;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Unit;
+import org.osgi.framework.Version;
+import org.osgi.framework.VersionRange;
+
+/**
+ * Compact binary format for the parsed units of a metadata repository. All strings (ids,
+ * namespaces, versions, ...) are stored once in a string table and referenced by index, so the
+ * index is much smaller than the xml and can be read without any xml parsing.
+ *
+ * <pre>
+ * int magic, int version, long lastModified
+ * int stringCount, (int length, utf-8 bytes)*
+ * int unitCount, unit*
+ * unit:     ref id, ref version, int count, provides*, int count, requires*, int count, artifact*
+ * provides: ref namespace, ref name, ref version
+ * requires: ref namespace, ref name, ref range, ref match, ref matchParameters, byte flags,
+ *           ref filter
+ * artifact: ref id, ref version, ref classifier
+ * </pre>
+ *
+ * A ref is an index into the string table, or -1 for null.
+ */
+final class P2UnitIndex {
+
+    private static final int MAGIC = 0x50325549;
+    private static final int VERSION = 1;
+
+    private static final int FLAG_OPTIONAL = 1;
+    private static final int FLAG_GREEDY = 2;
+
+    private P2UnitIndex() {
+    }
+
+    /**
+     * Writes the units to the given stream
+     *
+     * @param out
+     * @param lastModified
+     *            last modification time of the repository the units were parsed from
+     * @param units
+     * @throws IOException
+     */
+    static void write(OutputStream out, long lastModified, Collection<Unit> units)
+        throws IOException {
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bytes);
+        body.writeInt(units.size());
+        for (Unit unit : units) {
+            writeRef(body, unit.getId(), strings, table);
+            writeRef(body, unit.getVersion().toString(), strings, table);
+            List<UnitProviding> provides = unit.getProvides();
+            body.writeInt(provides.size());
+            for (UnitProviding providing : provides) {
+                writeRef(body, providing.getNamespace(), strings, table);
+                writeRef(body, providing.getName(), strings, table);
+                writeRef(body, providing.getVersion().toString(), strings, table);
+            }
+            List<UnitRequirement> requires = unit.getRequires();
+            body.writeInt(requires.size());
+            for (UnitRequirement requirement : requires) {
+                Requires req = (Requires) requirement;
+                writeRef(body, req.getNamespace(), strings, table);
+                writeRef(body, req.getName(), strings, table);
+                writeRef(body, req.getVersionRange().toString(), strings, table);
+                writeRef(body, req.getMatch(), strings, table);
+                writeRef(body, req.getMatchParameters(), strings, table);
+                body.writeByte((req.isOptional() ? FLAG_OPTIONAL : 0)
+                    | (req.isGreedy() ? FLAG_GREEDY : 0));
+                writeRef(body, req.getFilter(), strings, table);
+            }
+            List<EclipseClassifiedVersionedArtifact> artifacts = unit.getArtifacts();
+            body.writeInt(artifacts.size());
+            for (EclipseClassifiedVersionedArtifact artifact : artifacts) {
+                writeRef(body, artifact.getId(), strings, table);
+                writeRef(body, artifact.getVersion().toString(), strings, table);
+                writeRef(body, artifact.getClassifier(), strings, table);
+            }
+        }
+        body.flush();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeLong(lastModified);
+        data.writeInt(table.size());
+        for (String string : table) {
+            byte[] utf = string.getBytes(StandardCharsets.UTF_8);
+            data.writeInt(utf.length);
+            data.write(utf);
+        }
+        bytes.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * Reads the units from the given index data
+     *
+     * @param data
+     *            the complete content of an index
+     * @param lastModified
+     *            last modification time of the repository
+     * @return the units, or null if the index does not match the given modification time
+     * @throws IOException
+     *             if the index is not valid
+     */
+    static List<Unit> read(byte[] data, long lastModified) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("not a unit index");
+        }
+        if (in.readLong() != lastModified) {
+            return null;
+        }
+        String[] table = new String[in.readInt()];
+        for (int i = 0; i < table.length; i++) {
+            byte[] utf = new byte[in.readInt()];
+            in.readFully(utf);
+            table[i] = new String(utf, StandardCharsets.UTF_8);
+        }
+        Version[] versions = new Version[table.length];
+        VersionRange[] ranges = new VersionRange[table.length];
+        int unitCount = in.readInt();
+        List<Unit> units = new ArrayList<>(unitCount);
+        for (int u = 0; u < unitCount; u++) {
+            String id = readString(in, table);
+            Version version = readVersion(in, table, versions);
+            int count = in.readInt();
+            List<Provides> provides = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                provides.add(new Provides(readString(in, table), readString(in, table),
+                    readVersion(in, table, versions)));
+            }
+            count = in.readInt();
+            List<Requires> requires = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String namespace = readString(in, table);
+                String name = readString(in, table);
+                VersionRange range = readVersionRange(in, table, ranges);
+                String match = readString(in, table);
+                String matchParameters = readString(in, table);
+                int flags = in.readByte();
+                String filter = readString(in, table);
+                requires.add(new Requires(namespace, name, range, match, matchParameters,
+                    (flags & FLAG_OPTIONAL) != 0, (flags & FLAG_GREEDY) != 0, filter));
+            }
+            count = in.readInt();
+            List<Artifact> artifacts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                artifacts.add(new Artifact(readString(in, table), readVersion(in, table, versions),
+                    readString(in, table)));
+            }
+            units.add(new Unit(id, version, provides, requires, artifacts));
+        }
+        return units;
+    }
+
+    private static void writeRef(DataOutputStream out, String value, Map<String, Integer> strings,
+        List<String> table) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        Integer ref = strings.get(value);
+        if (ref == null) {
+            ref = table.size();
+            table.add(value);
+            strings.put(value, ref);
+        }
+        out.writeInt(ref);
+    }
+
+    private static String readString(DataInputStream in, String[] table) throws IOException {
+        int ref = in.readInt();
+        return ref < 0 ? null : table[ref];
+    }
+
+    private static Version readVersion(DataInputStream in, String[] table, Version[] versions)
+        throws IOException {
+        int ref = in.readInt();
+        if (versions[ref] == null) {
+            versions[ref] = AbstractParser.stringToVersion(table[ref]);
+        }
+        return versions[ref];
+    }
+
+    private static VersionRange readVersionRange(DataInputStream in, String[] table,
+        VersionRange[] ranges) throws IOException {
+        int ref = in.readInt();
+        if (ranges[ref] == null) {
+            ranges[ref] = AbstractParser.stringToVersionRange(table[ref]);
+        }
+        return ranges[ref];
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.container.eclipse.impl.sources.unit;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ops4j.pax.exam.container.eclipse.EclipseArtifactSource.EclipseUnitSource;
+import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit;
+import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit.UnitProviding;
+import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit.UnitRequirement;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Requires;
+import org.osgi.framework.Version;
+
+/**
+ * Index from capability namespace and name to the units providing it, built once per unit source
+ * and used to resolve requirements without iterating over all units and their capabilities.
+ * <p>
+ * The providers of a capability are sorted by version (highest first) so the lookup can stop as
+ * soon as the versions fall below the requested range. If several units match, the one that comes
+ * first in {@link EclipseUnitSource#getAllUnits()} is returned, like a linear search would do.
+ */
+final class CapabilityIndex {
+
+    private final Map<EclipseUnitSource, SourceIndex> sources = new IdentityHashMap<>();
+
+    /**
+     *
+     * @param source
+     * @param requires
+     * @return the first unit of the source that provides a capability matching the requirement,
+     *         or <code>null</code> if there is none
+     * @throws IOException
+     */
+    EclipseInstallableUnit findProvider(EclipseUnitSource source, UnitRequirement requires)
+        throws IOException {
+        SourceIndex index = sources.get(source);
+        if (index == null) {
+            index = new SourceIndex(source.getAllUnits());
+            sources.put(source, index);
+        }
+        return index.findProvider(requires);
+    }
+
+    private static final class SourceIndex {
+
+        private final List<EclipseInstallableUnit> units;
+        private final Map<String, Map<String, List<Provider>>> providers = new HashMap<>();
+
+        private SourceIndex(Iterable<EclipseInstallableUnit> allUnits) {
+            units = new ArrayList<>();
+            for (EclipseInstallableUnit unit : allUnits) {
+                int order = units.size();
+                units.add(unit);
+                for (UnitProviding providing : unit.getProvided()) {
+                    Map<String, List<Provider>> names = providers.get(providing.getNamespace());
+                    if (names == null) {
+                        names = new HashMap<>();
+                        providers.put(providing.getNamespace(), names);
+                    }
+                    List<Provider> list = names.get(providing.getName());
+                    if (list == null) {
+                        list = new ArrayList<>(1);
+                        names.put(providing.getName(), list);
+                    }
+                    list.add(new Provider(providing, order));
+                }
+            }
+            for (Map<String, List<Provider>> names : providers.values()) {
+                for (List<Provider> list : names.values()) {
+                    Collections.sort(list);
+                }
+            }
+        }
+
+        private EclipseInstallableUnit findProvider(UnitRequirement requires) {
+            if (!(requires instanceof Requires)) {
+                // unknown requirement type, we can only ask every capability
+                for (EclipseInstallableUnit unit : units) {
+                    for (UnitProviding providing : unit.getProvided()) {
+                        if (requires.matches(providing)) {
+                            return unit;
+                        }
+                    }
+                }
+                return null;
+            }
+            Requires req = (Requires) requires;
+            Map<String, List<Provider>> names = providers.get(req.getNamespace());
+            List<Provider> list = names == null ? null : names.get(req.getName());
+            if (list == null) {
+                return null;
+            }
+            Version minimum = req.getVersionRange().getLeft();
+            int found = -1;
+            for (Provider provider : list) {
+                if (provider.providing.getVersion().compareTo(minimum) < 0) {
+                    break;
+                }
+                if ((found < 0 || provider.order < found) && req.matches(provider.providing)) {
+                    found = provider.order;
+                }
+            }
+            return found < 0 ? null : units.get(found);
+        }
+    }
+
+    private static final class Provider implements Comparable<Provider> {
+
+        private final UnitProviding providing;
+        private final int order;
+
+        private Provider(UnitProviding providing, int order) {
+            this.providing = providing;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Provider other) {
+            int compare = other.providing.getVersion().compareTo(providing.getVersion());
+            return compare != 0 ? compare : Integer.compare(order, other.order);
+        }
+    }
+}
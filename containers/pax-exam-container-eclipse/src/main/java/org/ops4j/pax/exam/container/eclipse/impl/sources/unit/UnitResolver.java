@@ -30,7 +30,6 @@ import org.ops4j.pax.exam.container.eclipse.EclipseEnvironment.ModifiableEclipse
 import org.ops4j.pax.exam.container.eclipse.EclipseFeatureOption;
 import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit;
 import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit.ResolvedArtifacts;
-import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit.UnitProviding;
 import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit.UnitRequirement;
 import org.ops4j.pax.exam.container.eclipse.EclipseProvision.IncludeMode;
 import org.ops4j.pax.exam.container.eclipse.EclipseRepository;
@@ -78,9 +77,10 @@ public class UnitResolver extends BundleAndFeatureSource implements CacheableSou
             localEnviroument.set("org.eclipse.update.install.features", "true");
         }
         ResolvedRequirements resolvedRequirements = new ResolvedRequirements();
+        CapabilityIndex capabilities = new CapabilityIndex();
         for (EclipseInstallableUnit unit : units) {
             resolveUnit(unit, unitToPath(unit), mode, resolvedRequirements, enviroument,
-                bundleSource, featureSource, unitSource, repositories);
+                bundleSource, featureSource, unitSource, repositories, capabilities);
         }
         this.featureSource = featureSource;
         this.bundleSource = bundleSource;
@@ -106,8 +106,8 @@ public class UnitResolver extends BundleAndFeatureSource implements CacheableSou
     private static Set<String> resolveUnit(EclipseInstallableUnit unit, String sourcePath,
         IncludeMode mode, ResolvedRequirements resolvedRequirements, EclipseEnvironment enviroument,
         ContextEclipseBundleSource bundleSource, ContextEclipseFeatureSource featureSource,
-        ContextEclipseUnitSource unitSource, Collection<? extends EclipseUnitSource> repositories)
-        throws ArtifactNotFoundException, IOException {
+        ContextEclipseUnitSource unitSource, Collection<? extends EclipseUnitSource> repositories,
+        CapabilityIndex capabilities) throws ArtifactNotFoundException, IOException {
         if (unitSource.containsUnit(unit) || resolvedRequirements.containsUnit(unit)) {
             LOG.debug("Skip resolving of {}, already resolved or resolving in progress...", unit);
             return Collections.emptySet();
@@ -133,12 +133,12 @@ public class UnitResolver extends BundleAndFeatureSource implements CacheableSou
             }
             LOG.debug("Try to resolve {}...", requires);
             EclipseInstallableUnit resolvedUnit = resolveRequirement(requires, unit,
-                resolvedRequirements, sourcePath, mode, repositories);
+                resolvedRequirements, sourcePath, mode, repositories, capabilities);
             if (resolvedUnit != null) {
                 result.addAll(resolveUnit(resolvedUnit,
                     sourcePath + " -> " + requires.getID() + " -> " + unitToPath(resolvedUnit),
                     mode, resolvedRequirements, enviroument, bundleSource, featureSource,
-                    unitSource, repositories));
+                    unitSource, repositories, capabilities));
             }
         }
         return result;
@@ -146,16 +146,13 @@ public class UnitResolver extends BundleAndFeatureSource implements CacheableSou
 
     private static EclipseInstallableUnit resolveRequirement(UnitRequirement requires,
         EclipseInstallableUnit unit, ResolvedRequirements resolvedRequirements, String sourcePath,
-        IncludeMode mode, Collection<? extends EclipseUnitSource> repositories) throws IOException {
+        IncludeMode mode, Collection<? extends EclipseUnitSource> repositories,
+        CapabilityIndex capabilities) throws IOException {
         EclipseUnitSource primarySource = unit.getSource();
         try {
-            Collection<EclipseInstallableUnit> allUnits = primarySource.getAllUnits();
-            for (EclipseInstallableUnit reproUnit : allUnits) {
-                for (UnitProviding providing : reproUnit.getProvided()) {
-                    if (requires.matches(providing)) {
-                        return reproUnit;
-                    }
-                }
+            EclipseInstallableUnit provider = capabilities.findProvider(primarySource, requires);
+            if (provider != null) {
+                return provider;
             }
             throw failedRequirement(requires, sourcePath);
         }
@@ -177,14 +174,9 @@ public class UnitResolver extends BundleAndFeatureSource implements CacheableSou
                 continue;
             }
             try {
-                Collection<EclipseInstallableUnit> allUnits = unitSource.getAllUnits();
-                for (EclipseInstallableUnit reproUnit : allUnits) {
-                    Collection<UnitProviding> provided = reproUnit.getProvided();
-                    for (UnitProviding providing : provided) {
-                        if (requires.matches(providing)) {
-                            return reproUnit;
-                        }
-                    }
+                EclipseInstallableUnit provider = capabilities.findProvider(unitSource, requires);
+                if (provider != null) {
+                    return provider;
                 }
             }
             catch (ArtifactNotFoundException anfe) {
@@ -0,0 +1,184 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.container.eclipse.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.osgi.framework.Version;
+import org.osgi.framework.VersionRange;
+
+public class ArtifactInfoMapTest {
+
+    private static final String ID = "org.example.bundle";
+
+    private static ArtifactInfo<String> info(String id, String version, String context) {
+        return new ArtifactInfo<String>(id, Version.parseVersion(version), context);
+    }
+
+    /**
+     * The lookup as implemented before the artifacts were kept sorted: all artifacts of an id,
+     * stably sorted by version (highest first), are searched for the first one in range.
+     */
+    private static ArtifactInfo<String> linearGet(List<ArtifactInfo<String>> added, String id,
+        VersionRange range) {
+        List<ArtifactInfo<String>> list = new ArrayList<>();
+        for (ArtifactInfo<String> info : added) {
+            if (info.getId().equals(id)) {
+                list.add(info);
+            }
+        }
+        Collections.sort(list, Collections.reverseOrder());
+        for (ArtifactInfo<String> info : list) {
+            if (range.includes(info.getVersion())) {
+                return info;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void findFirstBelow() {
+        List<ArtifactInfo<String>> list = Arrays.asList(info(ID, "3.0.0", "a"),
+            info(ID, "2.0.0", "b"), info(ID, "2.0.0", "c"), info(ID, "1.0.0", "d"));
+        Version two = new Version(2, 0, 0);
+        assertEquals(1, ArtifactInfoMap.indexOfFirstBelow(list, two, true));
+        assertEquals(3, ArtifactInfoMap.indexOfFirstBelow(list, two, false));
+        assertEquals(0, ArtifactInfoMap.indexOfFirstBelow(list, new Version(4, 0, 0), true));
+        assertEquals(0, ArtifactInfoMap.indexOfFirstBelow(list, new Version(3, 0, 0), true));
+        assertEquals(1, ArtifactInfoMap.indexOfFirstBelow(list, new Version(3, 0, 0), false));
+        assertEquals(4, ArtifactInfoMap.indexOfFirstBelow(list, new Version(0, 5, 0), true));
+        assertEquals(0, ArtifactInfoMap.indexOfFirstBelow(
+            Collections.<ArtifactInfo<String>> emptyList(), two, true));
+    }
+
+    @Test
+    public void getByRange() {
+        ArtifactInfoMap<String> map = new ArtifactInfoMap<>();
+        map.add(info(ID, "1.0.0", "1.0"));
+        map.add(info(ID, "2.0.0", "2.0"));
+        map.add(info(ID, "1.5.0", "1.5"));
+
+        assertEquals("2.0", map.get(ID, new VersionRange("[1.0,2.0]")).getContext());
+        assertEquals("1.5", map.get(ID, new VersionRange("[1.0,2.0)")).getContext());
+        assertEquals("2.0", map.get(ID, new VersionRange("1.0")).getContext());
+        assertEquals("2.0", map.get(ID, ArtifactInfoMap.HIGHEST_VERSION).getContext());
+        assertEquals("1.0", map.get(ID, new VersionRange("[1.0,1.0]")).getContext());
+        assertNull(map.get(ID, new VersionRange("(1.0,1.5)")));
+        assertNull(map.get(ID, new VersionRange("(2.0,3.0)")));
+        assertNull(map.get(ID, new VersionRange("[0.1,0.9]")));
+        assertNull(map.get("org.example.missing", ArtifactInfoMap.HIGHEST_VERSION));
+    }
+
+    @Test
+    public void getByVersion() {
+        ArtifactInfoMap<String> map = new ArtifactInfoMap<>();
+        assertNull(map.get(ID, new Version(1, 0, 0)));
+        map.add(info(ID, "1.0.0", "1.0"));
+        map.add(info(ID, "2.0.0", "2.0"));
+
+        assertEquals("1.0", map.get(ID, new Version(1, 0, 0)).getContext());
+        assertEquals("2.0", map.get(ID, Version.emptyVersion).getContext());
+        assertNull(map.get(ID, new Version(1, 5, 0)));
+    }
+
+    @Test
+    public void keepFirstOfEqualVersions() {
+        ArtifactInfoMap<String> map = new ArtifactInfoMap<>();
+        map.add(info(ID, "1.0.0", "first"));
+        map.add(info(ID, "2.0.0", "higher"));
+        map.add(info(ID, "1.0.0", "second"));
+
+        assertEquals("first", map.get(ID, new Version(1, 0, 0)).getContext());
+        assertEquals("first", map.get(ID, new VersionRange("[1.0,2.0)")).getContext());
+    }
+
+    @Test
+    public void matchLinearLookup() {
+        String[] versions = { "1.0.0", "1.0.0.a", "1.0.0.b", "1.1.0", "2.0.0", "2.0.0", "0.9.0",
+            "3.0.0" };
+        ArtifactInfoMap<String> map = new ArtifactInfoMap<>();
+        List<ArtifactInfo<String>> added = new ArrayList<>();
+        for (int i = 0; i < versions.length; i++) {
+            ArtifactInfo<String> info = info(i % 3 == 0 ? "other" : ID, versions[i], "#" + i);
+            map.add(info);
+            added.add(info);
+        }
+
+        String[] bounds = { "0.0.0", "0.9.0", "1.0.0", "1.0.0.a", "1.1.0", "1.5.0", "2.0.0",
+            "3.0.0", "4.0.0" };
+        char[] lefts = { VersionRange.LEFT_CLOSED, VersionRange.LEFT_OPEN };
+        char[] rights = { VersionRange.RIGHT_CLOSED, VersionRange.RIGHT_OPEN };
+        for (String id : Arrays.asList(ID, "other", "missing")) {
+            for (String left : bounds) {
+                for (char leftType : lefts) {
+                    VersionRange unbounded = new VersionRange(leftType,
+                        Version.parseVersion(left), null, VersionRange.RIGHT_OPEN);
+                    assertSame(unbounded.toString(), linearGet(added, id, unbounded),
+                        map.get(id, unbounded));
+                    for (String right : bounds) {
+                        for (char rightType : rights) {
+                            VersionRange range = new VersionRange(leftType,
+                                Version.parseVersion(left), Version.parseVersion(right),
+                                rightType);
+                            assertSame(range.toString(), linearGet(added, id, range),
+                                map.get(id, range));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void cacheSortedArtifacts() {
+        ArtifactInfoMap<String> map = new ArtifactInfoMap<>();
+        assertTrue(map.getArtifacts().isEmpty());
+        map.add(info(ID, "2.0.0", "b2"));
+        map.add(info("org.example.api", "1.0.0", "a1"));
+        map.add(info(ID, "1.0.0", "b1"));
+
+        List<ArtifactInfo<String>> artifacts = map.getArtifacts();
+        assertSame(artifacts, map.getArtifacts());
+        assertEquals("a1", artifacts.get(0).getContext());
+        assertEquals("b1", artifacts.get(1).getContext());
+        assertEquals("b2", artifacts.get(2).getContext());
+        try {
+            artifacts.add(info(ID, "3.0.0", "b3"));
+            fail("expected UnsupportedOperationException");
+        }
+        catch (UnsupportedOperationException exc) {
+            // expected
+        }
+
+        map.add(info(ID, "3.0.0", "b3"));
+        List<ArtifactInfo<String>> updated = map.getArtifacts();
+        assertNotSame(artifacts, updated);
+        assertEquals(4, updated.size());
+        assertEquals("b3", updated.get(3).getContext());
+        assertEquals(3, artifacts.size());
+    }
+}
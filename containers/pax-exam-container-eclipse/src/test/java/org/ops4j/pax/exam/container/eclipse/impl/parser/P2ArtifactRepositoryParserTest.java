@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.container.eclipse.impl.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.pax.exam.container.eclipse.impl.ArtifactInfo;
+import org.ops4j.pax.exam.container.eclipse.impl.ArtifactInfoMap;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.Version;
+import org.osgi.framework.VersionRange;
+
+public class P2ArtifactRepositoryParserTest {
+
+    private static final String REPO_URL = "http://example.org/p2";
+
+    private P2ArtifactRepositoryParser parser;
+
+    @Before
+    public void parse() throws IOException, InvalidSyntaxException {
+        parser = new P2ArtifactRepositoryParser(new URL(REPO_URL + "/"),
+            getClass().getResourceAsStream("artifacts.xml"));
+    }
+
+    @Test
+    public void mapArtifactsToUrls() {
+        ArtifactInfo<URL> bundle = parser.getArtifact("osgi.bundle", "org.example.bundle",
+            new VersionRange("[1.0.0,2.0.0)"));
+        assertEquals(new Version(1, 2, 3, "v20170101"), bundle.getVersion());
+        assertEquals(REPO_URL + "/plugins/org.example.bundle_1.2.3.v20170101.jar",
+            bundle.getContext().toExternalForm());
+
+        ArtifactInfo<URL> feature = parser.getArtifact("org.eclipse.update.feature",
+            "org.example.feature", ArtifactInfoMap.HIGHEST_VERSION);
+        assertEquals(REPO_URL + "/features/org.example.feature_1.0.0.jar",
+            feature.getContext().toExternalForm());
+
+        ArtifactInfo<URL> binary = parser.getArtifact("binary", "org.example.launcher",
+            ArtifactInfoMap.HIGHEST_VERSION);
+        assertEquals(REPO_URL + "/binary/org.example.launcher_1.0.0",
+            binary.getContext().toExternalForm());
+    }
+
+    @Test
+    public void matchRulesOnArtifactProperties() {
+        ArtifactInfo<URL> packed = parser.getArtifact("osgi.bundle", "org.example.packed",
+            ArtifactInfoMap.HIGHEST_VERSION);
+        assertEquals(REPO_URL + "/plugins/org.example.packed_1.0.0.jar.pack.gz",
+            packed.getContext().toExternalForm());
+    }
+
+    @Test
+    public void findHighestVersionInRange() {
+        assertEquals(new Version(2, 0, 0), parser.getArtifact("osgi.bundle",
+            "org.example.bundle", ArtifactInfoMap.HIGHEST_VERSION).getVersion());
+        assertNull(parser.getArtifact("osgi.bundle", "org.example.bundle",
+            new VersionRange("[3.0.0,4.0.0)")));
+        assertNull(parser.getArtifact("binary", "org.example.bundle",
+            ArtifactInfoMap.HIGHEST_VERSION));
+        assertTrue(parser.getArtifacts("source").getArtifacts().isEmpty());
+        // artifacts are counted by id and classifier
+        assertEquals(4, parser.getCount());
+    }
+
+    @Test
+    public void failWithoutMatchingRule() throws InvalidSyntaxException {
+        String artifacts = "<repository><mappings>"
+            + "<rule filter='(classifier=osgi.bundle)' output='${repoUrl}/${id}.jar'/>"
+            + "</mappings><artifacts>"
+            + "<artifact classifier='binary' id='org.example.launcher' version='1.0.0'/>"
+            + "</artifacts></repository>";
+        try {
+            new P2ArtifactRepositoryParser(new URL(REPO_URL),
+                new ByteArrayInputStream(artifacts.getBytes(StandardCharsets.UTF_8)));
+            fail("expected IOException");
+        }
+        catch (IOException exc) {
+            assertTrue(exc.getMessage().startsWith("No output mapping found"));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.container.eclipse.impl.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit.UnitProviding;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.EclipseClassifiedVersionedArtifact;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Requires;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Unit;
+import org.osgi.framework.Version;
+import org.osgi.framework.VersionRange;
+
+public class P2MetadataRepositoryParserTest {
+
+    private static final Version VERSION = new Version(1, 2, 3, "v20170101");
+
+    private P2MetadataRepositoryParser parser;
+
+    @Before
+    public void parse() throws IOException {
+        parser = new P2MetadataRepositoryParser(getClass().getResourceAsStream("content.xml"));
+    }
+
+    @Test
+    public void readUnits() {
+        assertEquals(3, parser.getCount());
+        List<String> ids = new ArrayList<>();
+        for (Unit unit : parser.getUnits()) {
+            ids.add(unit.getId() + ":" + unit.getVersion());
+        }
+        assertEquals("[org.example.bundle:1.2.3.v20170101, org.example.bundle:2.0.0, "
+            + "org.example.feature.feature.group:1.0.0]", ids.toString());
+
+        assertEquals(VERSION, parser.getUnit("org.example.bundle", VERSION).getVersion());
+        assertEquals(new Version(2, 0, 0),
+            parser.getUnit("org.example.bundle", Version.emptyVersion).getVersion());
+        assertNull(parser.getUnit("org.example.bundle", new Version(1, 0, 0)));
+        assertNull(parser.getUnit("org.example.missing", Version.emptyVersion));
+    }
+
+    @Test
+    public void readProvides() {
+        List<UnitProviding> provides = parser.getUnit("org.example.bundle", VERSION)
+            .getProvides();
+        assertEquals(2, provides.size());
+        assertEquals("org.eclipse.equinox.p2.iu", provides.get(0).getNamespace());
+        assertEquals("org.example.bundle", provides.get(0).getName());
+        assertEquals(VERSION, provides.get(0).getVersion());
+        assertEquals("java.package", provides.get(1).getNamespace());
+        assertEquals("org.example.api", provides.get(1).getName());
+        assertEquals(new Version(1, 0, 0), provides.get(1).getVersion());
+    }
+
+    @Test
+    public void readRequires() {
+        Unit unit = parser.getUnit("org.example.bundle", VERSION);
+        assertEquals(3, unit.getRequires().size());
+
+        Requires optional = (Requires) unit.getRequires().get(0);
+        assertEquals("java.package", optional.getNamespace());
+        assertEquals("org.example.spi", optional.getName());
+        assertEquals(new VersionRange("[1.0.0,2.0.0)"), optional.getVersionRange());
+        assertTrue(optional.isOptional());
+        assertFalse(optional.isGreedy());
+        assertNull(optional.getFilter());
+
+        Requires filtered = (Requires) unit.getRequires().get(1);
+        assertEquals("org.example.linux", filtered.getName());
+        assertEquals(new VersionRange("0.0.0"), filtered.getVersionRange());
+        assertFalse(filtered.isOptional());
+        assertTrue(filtered.isGreedy());
+        assertEquals("(osgi.os=linux)", filtered.getFilter());
+
+        Requires match = (Requires) unit.getRequires().get(2);
+        assertEquals("providedCapabilities.exists(x | x.name == $0 && x.namespace == $1)",
+            match.getMatch());
+        assertEquals("['org.example.service', 'osgi.service']", match.getMatchParameters());
+        assertNull(match.getFilter());
+    }
+
+    @Test
+    public void readArtifacts() {
+        List<EclipseClassifiedVersionedArtifact> artifacts = parser
+            .getUnit("org.example.bundle", VERSION).getArtifacts();
+        assertEquals(1, artifacts.size());
+        assertEquals("org.example.bundle", artifacts.get(0).getId());
+        assertEquals(VERSION, artifacts.get(0).getVersion());
+        assertEquals("osgi.bundle", artifacts.get(0).getClassifier());
+
+        Unit feature = parser.getUnit("org.example.feature.feature.group",
+            new Version(1, 0, 0));
+        assertTrue(feature.getArtifacts().isEmpty());
+        assertTrue(feature.getProvides().isEmpty());
+        Requires requires = (Requires) feature.getRequires().get(0);
+        assertEquals(new VersionRange("[1.2.3.v20170101,1.2.3.v20170101]"),
+            requires.getVersionRange());
+    }
+
+    @Test
+    public void readEmptyRepository() throws IOException {
+        P2MetadataRepositoryParser empty = new P2MetadataRepositoryParser(
+            new ByteArrayInputStream("<repository/>".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(0, empty.getCount());
+        assertTrue(empty.getUnits().isEmpty());
+        assertNull(empty.getUnit("org.example.bundle", Version.emptyVersion));
+    }
+}
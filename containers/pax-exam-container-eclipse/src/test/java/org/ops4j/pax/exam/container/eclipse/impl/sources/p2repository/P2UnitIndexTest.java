@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.container.eclipse.impl.sources.p2repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.ops4j.pax.exam.container.eclipse.EclipseInstallableUnit.UnitProviding;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Artifact;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.EclipseClassifiedVersionedArtifact;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Provides;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Requires;
+import org.ops4j.pax.exam.container.eclipse.impl.repository.Unit;
+import org.osgi.framework.Version;
+import org.osgi.framework.VersionRange;
+
+public class P2UnitIndexTest {
+
+    private static byte[] write(long lastModified, Unit... units) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        P2UnitIndex.write(out, lastModified, Arrays.asList(units));
+        return out.toByteArray();
+    }
+
+    @Test
+    public void readWrittenUnits() throws IOException {
+        Version version = new Version(1, 2, 3, "v20170101");
+        Unit unit = new Unit("org.example.bundle", version,
+            Collections.singletonList(new Provides("osgi.bundle", "org.example.bundle", version)),
+            Arrays.asList(
+                new Requires("java.package", "org.example.api", new VersionRange("[1.0,2.0)"),
+                    null, null, true, false, null),
+                new Requires(null, null, new VersionRange("0.0.0"), "providedCapabilities",
+                    "(name=foo)", false, true, "(osgi.os=linux)")),
+            Collections.singletonList(new Artifact("org.example.bundle", version, "osgi.bundle")));
+        Unit empty = new Unit("empty", Version.emptyVersion, Collections.<Provides> emptyList(),
+            Collections.<Requires> emptyList(), Collections.<Artifact> emptyList());
+
+        List<Unit> units = P2UnitIndex.read(write(42, unit, empty), 42);
+
+        assertEquals(2, units.size());
+        Unit read = units.get(0);
+        assertEquals("org.example.bundle", read.getId());
+        assertEquals(version, read.getVersion());
+
+        UnitProviding providing = read.getProvides().get(0);
+        assertEquals("osgi.bundle", providing.getNamespace());
+        assertEquals("org.example.bundle", providing.getName());
+        assertEquals(version, providing.getVersion());
+
+        Requires optional = (Requires) read.getRequires().get(0);
+        assertEquals("java.package", optional.getNamespace());
+        assertEquals("org.example.api", optional.getName());
+        assertEquals(new VersionRange("[1.0,2.0)"), optional.getVersionRange());
+        assertNull(optional.getMatch());
+        assertNull(optional.getMatchParameters());
+        assertTrue(optional.isOptional());
+        assertFalse(optional.isGreedy());
+        assertNull(optional.getFilter());
+
+        Requires greedy = (Requires) read.getRequires().get(1);
+        assertNull(greedy.getNamespace());
+        assertNull(greedy.getName());
+        assertEquals(new VersionRange("0.0.0"), greedy.getVersionRange());
+        assertEquals("providedCapabilities", greedy.getMatch());
+        assertEquals("(name=foo)", greedy.getMatchParameters());
+        assertFalse(greedy.isOptional());
+        assertTrue(greedy.isGreedy());
+        assertEquals("(osgi.os=linux)", greedy.getFilter());
+
+        EclipseClassifiedVersionedArtifact artifact = read.getArtifacts().get(0);
+        assertEquals("org.example.bundle", artifact.getId());
+        assertEquals(version, artifact.getVersion());
+        assertEquals("osgi.bundle", artifact.getClassifier());
+
+        Unit readEmpty = units.get(1);
+        assertEquals("empty", readEmpty.getId());
+        assertEquals(Version.emptyVersion, readEmpty.getVersion());
+        assertTrue(readEmpty.getProvides().isEmpty());
+        assertTrue(readEmpty.getRequires().isEmpty());
+        assertTrue(readEmpty.getArtifacts().isEmpty());
+    }
+
+    @Test
+    public void ignoreIndexOfOtherModification() throws IOException {
+        assertNull(P2UnitIndex.read(write(42), 43));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectInvalidIndex() throws IOException {
+        P2UnitIndex.read(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }, 42);
+    }
+}
@@ -37,9 +37,10 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.ops4j.exec.ExecutionException;
-import org.ops4j.net.FreePort;
 import org.ops4j.pax.exam.ExamJavaRunner;
 import org.ops4j.pax.exam.TestContainerException;
+import org.ops4j.pax.exam.util.Backoff;
+import org.ops4j.pax.exam.util.FreePorts;
 import org.ops4j.pax.swissbox.framework.RemoteFramework;
 import org.ops4j.pax.swissbox.framework.RemoteFrameworkImpl;
 import org.ops4j.pax.swissbox.tracker.ServiceLookup;
@@ -63,6 +64,10 @@ public class ForkedFrameworkFactory {
     // TODO make this configurable
     private static final long TIMEOUT = 60 * 1000;
 
+    private static final long INITIAL_LOOKUP_DELAY = 10;
+
+    private static final long MAX_LOOKUP_DELAY = 500;
+
     private FrameworkFactory frameworkFactory;
     private Registry registry;
 
@@ -143,7 +148,7 @@ public class ForkedFrameworkFactory {
             // fails if user configure a wrong port value
             int lowerBound = Integer.parseInt(System.getProperty(EXAM_FORKED_INVOKER_PORT_RANGE_LOWERBOUND, "21000"));
             int upperBound = Integer.parseInt(System.getProperty(EXAM_FORKED_INVOKER_PORT_RANGE_UPPERBOUND, "21099"));
-            return new FreePort(lowerBound, upperBound).getPort();
+            return FreePorts.reserve(lowerBound, upperBound);
         }
     }
 
@@ -225,18 +230,26 @@ public class ForkedFrameworkFactory {
         return klass.getProtectionDomain().getCodeSource().getLocation().toURI().getPath();
     }
 
+    /**
+     * Looks up the remote framework in our own registry, which does not take a network round
+     * trip. Since the forked framework does not signal its readiness, the lookup is retried with
+     * exponential backoff until the remote framework has been bound.
+     */
     private RemoteFramework findRemoteFramework(String address, int _port, String rmiName) {
         RemoteFramework framework = null;
         Throwable reason = null;
         long startedTrying = System.currentTimeMillis();
+        Backoff backoff = new Backoff(INITIAL_LOOKUP_DELAY, MAX_LOOKUP_DELAY);
         LOG.info("Connecting to host: " + address + " port: " + _port);
         do {
             try {
-                Registry reg = LocateRegistry.getRegistry(address, _port);
-                framework = (RemoteFramework) reg.lookup(rmiName);
+                framework = (RemoteFramework) registry.lookup(rmiName);
             }
             catch (RemoteException | NotBoundException e) {
                 reason = e;
+                if (!backoff.sleep()) {
+                    break;
+                }
             }
         }
         while (framework == null && System.currentTimeMillis() < startedTrying + TIMEOUT);
@@ -263,5 +276,8 @@ public class ForkedFrameworkFactory {
         catch (NoSuchObjectException exc) {
             throw new TestContainerException(exc);
         }
+        finally {
+            FreePorts.release(port);
+        }
     }
 }
@@ -29,13 +29,12 @@ import static org.osgi.framework.Constants.FRAMEWORK_BOOTDELEGATION;
 import static org.osgi.framework.Constants.FRAMEWORK_STORAGE;
 import static org.osgi.framework.Constants.FRAMEWORK_SYSTEMPACKAGES_EXTRA;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
-import java.net.ServerSocket;
 import java.net.URL;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
@@ -43,12 +42,9 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 import org.ops4j.io.StreamUtils;
-import org.ops4j.net.FreePort;
 import org.ops4j.pax.exam.ConfigurationManager;
 import org.ops4j.pax.exam.ExamConfigurationException;
 import org.ops4j.pax.exam.ExamSystem;
@@ -71,7 +67,8 @@ import org.ops4j.pax.exam.options.UrlReference;
 import org.ops4j.pax.exam.options.ValueOption;
 import org.ops4j.pax.exam.options.extra.RepositoryOption;
 import org.ops4j.pax.exam.options.extra.VMOption;
-import org.ops4j.pax.exam.spi.listener.TestListenerTask;
+import org.ops4j.pax.exam.spi.listener.TestEventChannel;
+import org.ops4j.pax.exam.util.FreePorts;
 import org.ops4j.pax.swissbox.framework.RemoteFramework;
 import org.ops4j.pax.swissbox.framework.RemoteServiceReference;
 import org.osgi.framework.Bundle;
@@ -101,6 +98,7 @@ public class ForkedTestContainer implements TestContainer {
     private final String name;
 
     private int port;
+    private TestEventChannel eventChannel;
     private HashMap<Long, String> bundlesById;
 
     public ForkedTestContainer(ExamSystem system, FrameworkFactory frameworkFactory) {
@@ -111,20 +109,33 @@ public class ForkedTestContainer implements TestContainer {
     }
 
     private long install(InputStream stream) {
+        // the forked framework runs on the same host, so we let it read the probe from a file
+        // instead of packing the probe into memory and passing it via RMI
+        File file = null;
         try {
-            long bundleId = remoteFramework.installBundle("local", pack(stream));
+            File probeDir = new File(system.getTempFolder(), "pax-exam-probes");
+            probeDir.mkdirs();
+            file = File.createTempFile("probe", ".jar", probeDir);
+            StreamUtils.copyStream(stream, new FileOutputStream(file), true);
+            long bundleId = remoteFramework.installBundle(file.toURI().toURL().toString());
             remoteFramework.startBundle(bundleId);
             return bundleId;
         }
-        catch (RemoteException | BundleException exc) {
+        catch (IOException | BundleException exc) {
             throw new TestContainerException(exc);
         }
+        finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
     }
 
     @Override
     public void start() throws IOException {
         try {
             port = getPort();
+            eventChannel = new TestEventChannel(port);
             system = system.fork(new Option[] {
                 systemProperty("java.protocol.handler.pkgs").value("org.ops4j.pax.url"),
                 systemProperty(EXAM_INVOKER_PORT).value(port)
@@ -173,34 +184,28 @@ public class ForkedTestContainer implements TestContainer {
             // fails if user configure a wrong port value
             int lowerBound = Integer.parseInt(System.getProperty(EXAM_INVOKER_PORT_RANGE_LOWERBOUND, "20000"));
             int upperBound = Integer.parseInt(System.getProperty(EXAM_INVOKER_PORT_RANGE_UPPERBOUND, "21000"));
-            return new FreePort(lowerBound, upperBound).getPort();
+            return FreePorts.reserve(lowerBound, upperBound);
         }
     }
 
     @Override
     public void stop() {
         try {
+            if (eventChannel != null) {
+                eventChannel.close();
+                eventChannel = null;
+            }
             remoteFramework.stop();
             system.clear();
         }
-        catch (RemoteException | BundleException exc) {
+        catch (IOException | BundleException exc) {
             throw new TestContainerException(exc);
         }
         frameworkFactory.join();
+        FreePorts.release(port);
         system.clear();
     }
 
-    private byte[] pack(InputStream stream) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try {
-            StreamUtils.copyStream(stream, out, true);
-        }
-        catch (IOException e) {
-
-        }
-        return out.toByteArray();
-    }
-
     private Map<String, Object> createFrameworkProperties() throws IOException {
         final Map<String, Object> p = new HashMap<String, Object>();
         p.put(FRAMEWORK_STORAGE, system.getTempFolder().getAbsolutePath());
@@ -215,7 +220,10 @@ public class ForkedTestContainer implements TestContainer {
         }
 
         for (SystemPropertyOption option : system.getOptions(SystemPropertyOption.class)) {
-            System.setProperty(option.getKey(), option.getValue());
+            // the invoker port differs for containers started concurrently
+            if (!EXAM_INVOKER_PORT.equals(option.getKey())) {
+                System.setProperty(option.getKey(), option.getValue());
+            }
         }
         return p;
     }
@@ -372,26 +380,24 @@ public class ForkedTestContainer implements TestContainer {
     @Override
     public void runTest(TestDescription description, TestListener listener) {
         String filterExpression = "(&(objectClass=org.ops4j.pax.exam.ProbeInvoker))";
+        long runId = eventChannel.register(listener);
         try {
-            ServerSocket serverSocket = new ServerSocket(port);
-            TestListenerTask task = new TestListenerTask(serverSocket, listener);
-            ExecutorService executor = Executors.newSingleThreadExecutor();
-            executor.submit(task);
-
             RemoteServiceReference[] references = remoteFramework.getServiceReferences(
                 filterExpression, system.getTimeout().getValue(), TimeUnit.MILLISECONDS);
-            remoteFramework.invokeMethodOnService(references[0], "runTestClass", description.toString());
-            executor.shutdown();
-            serverSocket.close();
+            remoteFramework.invokeMethodOnService(references[0], "runTestClass",
+                description.toString(runId));
         }
         catch (InvocationTargetException exc) {
+            eventChannel.cancel(runId);
             LOG.error("", exc.getCause());
             throw new TestContainerException(exc.getCause());
         }
         // CHECKSTYLE:SKIP
         catch (Exception exc) {
+            eventChannel.cancel(runId);
             throw new TestContainerException(exc);
         }
+        eventChannel.await(runId, system.getTimeout());
     }
 
     @Override
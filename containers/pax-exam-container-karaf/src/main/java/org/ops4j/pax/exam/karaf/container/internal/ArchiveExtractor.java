@@ -18,10 +18,8 @@ package org.ops4j.pax.exam.karaf.container.internal;
 
 import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URL;
 
@@ -77,28 +75,14 @@ public class ArchiveExtractor {
 
     private static void extractTarGzDistribution(URL sourceDistribution, File _targetFolder)
         throws IOException {
-        File uncompressedFile = File.createTempFile("uncompressedTarGz-", ".tar");
-        extractGzArchive(sourceDistribution.openStream(), uncompressedFile);
-        extract(new TarArchiveInputStream(new FileInputStream(uncompressedFile)), _targetFolder);
-        FileUtils.forceDelete(uncompressedFile);
+        extract(new TarArchiveInputStream(new GzipCompressorInputStream(new BufferedInputStream(
+            sourceDistribution.openStream()))), _targetFolder);
     }
 
     private static void extractZipDistribution(URL sourceDistribution, File _targetFolder)
         throws IOException {
-        extract(new ZipArchiveInputStream(sourceDistribution.openStream()), _targetFolder);
-    }
-
-    private static void extractGzArchive(InputStream tarGz, File tar) throws IOException {
-        BufferedInputStream in = new BufferedInputStream(tarGz);
-        FileOutputStream out = new FileOutputStream(tar);
-        GzipCompressorInputStream gzIn = new GzipCompressorInputStream(in);
-        final byte[] buffer = new byte[1000];
-        int n = 0;
-        while (-1 != (n = gzIn.read(buffer))) {
-            out.write(buffer, 0, n);
-        }
-        out.close();
-        gzIn.close();
+        extract(new ZipArchiveInputStream(new BufferedInputStream(sourceDistribution.openStream())),
+            _targetFolder);
     }
 
     private static void extract(ArchiveInputStream is, File targetDir) throws IOException {
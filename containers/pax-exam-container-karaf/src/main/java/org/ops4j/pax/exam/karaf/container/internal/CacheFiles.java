@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * File operations shared by {@link DistributionCache} and {@link FeatureResolutionCache}, and by
+ * everything writing into an installation which may share files with these caches.
+ */
+final class CacheFiles {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CacheFiles.class);
+
+    private static volatile boolean linksSupported = true;
+
+    /** Hidden utility class constructor. */
+    private CacheFiles() {
+    }
+
+    /**
+     * Creates a hard link to the given file, or a copy if the file system does not support hard
+     * links. After the first failure, all further files are copied.
+     *
+     * @param file
+     *            existing file
+     * @param link
+     *            link or copy to be created
+     * @throws IOException
+     *             if the file cannot be copied
+     */
+    static void linkOrCopy(Path file, Path link) throws IOException {
+        if (linksSupported) {
+            try {
+                Files.createLink(link, file);
+                return;
+            }
+            catch (IOException | UnsupportedOperationException exc) {
+                LOG.debug("cannot create hard links, copying files instead", exc);
+                linksSupported = false;
+            }
+        }
+        Files.copy(file, link, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    /**
+     * Replaces the given file by a new file with the given content. A file of an installation may
+     * be hard linked to a cache, so it must never be written through.
+     *
+     * @param file
+     *            file to be replaced, which need not exist
+     * @param content
+     *            new content
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    static void replace(Path file, InputStream content) throws IOException {
+        Files.deleteIfExists(file);
+        Files.copy(content, file);
+    }
+
+    /**
+     * Replaces the given file by a new file with the given content, see
+     * {@link #replace(Path, InputStream)}.
+     *
+     * @param file
+     *            file to be replaced, which need not exist
+     * @param content
+     *            new content
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    static void replace(Path file, byte[] content) throws IOException {
+        replace(file, new ByteArrayInputStream(content));
+    }
+
+    /**
+     * Deletes the least recently modified entries of a cache, keeping the given number of
+     * entries. Entries are the subdirectories of the cache directory, except for temporary
+     * directories ending with {@code .tmp}.
+     *
+     * @param cacheDir
+     *            cache directory
+     * @param maxEntries
+     *            maximum number of entries to keep
+     * @return true if any entry was deleted
+     */
+    static boolean pruneLru(File cacheDir, int maxEntries) {
+        File[] entries = cacheDir.listFiles(f -> f.isDirectory() && !f.getName().endsWith(".tmp"));
+        if (entries == null || entries.length <= maxEntries) {
+            return false;
+        }
+        List<File> sorted = new ArrayList<>(Arrays.asList(entries));
+        Collections.sort(sorted, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+        for (File entry : sorted.subList(maxEntries, sorted.size())) {
+            LOG.debug("removing cache entry {}", entry);
+            FileUtils.deleteQuietly(entry);
+        }
+        return true;
+    }
+}
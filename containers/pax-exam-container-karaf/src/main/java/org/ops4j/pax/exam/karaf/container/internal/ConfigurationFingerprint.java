@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ops4j.pax.exam.Option;
+import org.ops4j.pax.exam.karaf.options.KarafFeaturesOption;
+import org.ops4j.pax.exam.options.extra.WorkingDirectoryOption;
+
+/**
+ * Computes a fingerprint of the configuration of a Karaf installation, before it is prepared.
+ * Two installations prepared from the same distribution with the same fingerprint behave the
+ * same, so a running instance of one can be used in place of the other.
+ * <p>
+ * The fingerprint covers the launch settings and the state of all options, except the feature
+ * options (which are compared separately) and the working directory. The state of an option is
+ * taken from its fields. Files referenced by options are represented by their content.
+ * Objects which have neither fields known to this class nor their own {@code toString()} are
+ * represented by their identity, so that an installation configured by them is never reused.
+ */
+public class ConfigurationFingerprint {
+
+    private static final List<Class<?>> IGNORED_OPTIONS = Arrays.<Class<?>> asList(
+        KarafFeaturesOption.class, WorkingDirectoryOption.class);
+
+    /** Hidden utility class constructor. */
+    private ConfigurationFingerprint() {
+    }
+
+    /**
+     * Computes the fingerprint of the given configuration.
+     *
+     * @param settings
+     *            launch settings which are not reflected by options
+     * @param options
+     *            options of the container
+     * @return fingerprint
+     * @throws IOException
+     *             if a file referenced by an option cannot be read
+     */
+    public static String compute(List<String> settings, Option[] options) throws IOException {
+        MessageDigest digest = createDigest();
+        for (String setting : settings) {
+            update(digest, setting);
+        }
+        for (Option option : options) {
+            if (!IGNORED_OPTIONS.contains(option.getClass())) {
+                StringBuilder sb = new StringBuilder();
+                Set<Object> visited = Collections
+                    .newSetFromMap(new IdentityHashMap<Object, Boolean>());
+                describe(option, sb, visited);
+                update(digest, sb.toString());
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, String entry) {
+        digest.update(entry.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    static void describe(Object value, StringBuilder sb, Set<Object> visited) throws IOException {
+        if (value == null || value instanceof String || value instanceof Number
+            || value instanceof Boolean || value instanceof Character || value instanceof Enum
+            || value instanceof URL || value instanceof URI) {
+            sb.append(value);
+        }
+        else if (value instanceof Class) {
+            sb.append(((Class<?>) value).getName());
+        }
+        else if (value instanceof File) {
+            File file = (File) value;
+            if (file.isFile()) {
+                sb.append(toHex(createDigest().digest(Files.readAllBytes(file.toPath()))));
+            }
+            else {
+                sb.append(file.getAbsolutePath());
+            }
+        }
+        else if (!visited.add(value)) {
+            sb.append("<cycle>");
+        }
+        else if (value.getClass().isArray()) {
+            sb.append('[');
+            for (int i = 0; i < Array.getLength(value); i++) {
+                describe(Array.get(value, i), sb, visited);
+                sb.append(',');
+            }
+            sb.append(']');
+        }
+        else if (value instanceof Iterable) {
+            sb.append('[');
+            for (Object element : (Iterable<?>) value) {
+                describe(element, sb, visited);
+                sb.append(',');
+            }
+            sb.append(']');
+        }
+        else if (value instanceof Map) {
+            sb.append('{');
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                describe(entry.getKey(), sb, visited);
+                sb.append('=');
+                describe(entry.getValue(), sb, visited);
+                sb.append(',');
+            }
+            sb.append('}');
+        }
+        else if (value.getClass().getName().startsWith("org.ops4j.")) {
+            describeFields(value, sb, visited);
+        }
+        else if (hasOwnToString(value.getClass())) {
+            sb.append(value.getClass().getName()).append(':').append(value);
+        }
+        else {
+            sb.append(value.getClass().getName()).append('@')
+                .append(System.identityHashCode(value));
+        }
+    }
+
+    private static void describeFields(Object value, StringBuilder sb, Set<Object> visited)
+        throws IOException {
+        sb.append(value.getClass().getName()).append('{');
+        for (Class<?> klass = value.getClass(); klass != Object.class; klass = klass
+            .getSuperclass()) {
+            for (Field field : klass.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+                    || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                sb.append(field.getName()).append('=');
+                try {
+                    describe(field.get(value), sb, visited);
+                }
+                catch (IllegalAccessException exc) {
+                    throw new IllegalStateException(exc);
+                }
+                sb.append(',');
+            }
+        }
+        sb.append('}');
+    }
+
+    private static boolean hasOwnToString(Class<?> klass) {
+        try {
+            return klass.getMethod("toString").getDeclaringClass() != Object.class;
+        }
+        catch (NoSuchMethodException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    static String mask(byte[] content, String[] locations) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : new String(content, StandardCharsets.ISO_8859_1).split("\r?\n")) {
+            if (line.startsWith("#")) {
+                continue;
+            }
+            for (String location : locations) {
+                line = line.replace(location, "${karaf.base}");
+            }
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -19,9 +19,14 @@ package org.ops4j.pax.exam.karaf.container.internal;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 import javax.xml.stream.XMLOutputFactory;
@@ -34,14 +39,20 @@ import org.ops4j.pax.exam.karaf.options.KarafFeaturesOption;
 import org.ops4j.pax.exam.options.BootClasspathLibraryOption;
 import org.ops4j.pax.exam.options.ProvisionOption;
 import org.ops4j.pax.exam.options.UrlReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Deploys exam and the user specified dependencies and creates the 
  * KarafFeatureOption for the exam feature.
  */
 public class DependenciesDeployer {
-    
+
+    private static final Logger LOG = LoggerFactory.getLogger(DependenciesDeployer.class);
+
     private static final String KARAF_FEATURE_NS = "http://karaf.apache.org/xmlns/features/v1.0.0";
+    private static final String MVN_PREFIX = "mvn:";
+    private static final String WRAP_PREFIX = "wrap:";
     private ExamSystem subsystem;
     private File karafBase;
     private File karafHome;
@@ -114,24 +125,144 @@ public class DependenciesDeployer {
      * @return feature option for dependencies
      */
     public KarafFeaturesOption getDependenciesFeature() {
+        return getDependenciesFeature(false);
+    }
+
+    /**
+     * Create a feature for the test dependencies
+     * specified as ProvisionOption in the system
+     * 
+     * @param seedSystemFolder if Maven dependencies should be resolved now and copied
+     *      into the system folder, so that the feature references local files only
+     * @return feature option for dependencies
+     */
+    public KarafFeaturesOption getDependenciesFeature(boolean seedSystemFolder) {
         if (subsystem == null) {
             return null;
         }
 
         try {
-            File featuresXmlFile = new File(karafBase, "test-dependencies.xml");
+            ProvisionOption<?>[] provisionOptions = subsystem.getOptions(ProvisionOption.class);
+            Map<String, String> localUrls = seedSystemFolder
+                ? seedSystemFolder(provisionOptions)
+                : Collections.<String, String> emptyMap();
+            File featuresXmlFile = getDependenciesFeatureFile();
             Writer wr = new OutputStreamWriter(new FileOutputStream(featuresXmlFile), "UTF-8");
-            writeDependenciesFeature(wr, subsystem.getOptions(ProvisionOption.class));
+            writeDependenciesFeature(wr, localUrls, provisionOptions);
             wr.close();
-            String repoUrl = "file:"
-                + featuresXmlFile.toString().replaceAll("\\\\", "/").replaceAll(" ", "%20");
-            return new KarafFeaturesOption(repoUrl, "test-dependencies");
+            return getDependenciesFeatureOption();
         }
         catch (IOException e) {
             throw new RuntimeException(e.getMessage(), e);
         }
     }
+
+    /**
+     * Get the feature option for the dependencies feature, without creating the feature
+     * 
+     * @return feature option for dependencies
+     */
+    public KarafFeaturesOption getDependenciesFeatureOption() {
+        String repoUrl = "file:" + getDependenciesFeatureFile().toString()
+            .replaceAll("\\\\", "/").replaceAll(" ", "%20");
+        return new KarafFeaturesOption(repoUrl, "test-dependencies");
+    }
+
+    private File getDependenciesFeatureFile() {
+        return new File(karafBase, "test-dependencies.xml");
+    }
     
+    /**
+     * Resolve the Maven dependencies specified as ProvisionOption and copy them into the
+     * Maven layout of the system folder
+     * 
+     * @param provisionOptions dependencies
+     * @return local file urls of the copied dependencies, by their original url
+     */
+    private Map<String, String> seedSystemFolder(ProvisionOption<?>[] provisionOptions) {
+        Map<String, String> localUrls = new HashMap<>();
+        File system = new File(karafHome, "system");
+        for (ProvisionOption<?> provisionOption : provisionOptions) {
+            String url = provisionOption.getURL();
+            try {
+                String localUrl = seedSystemFolder(url, system);
+                if (localUrl != null) {
+                    localUrls.put(url, localUrl);
+                }
+            }
+            catch (IOException e) {
+                LOG.warn("Cannot copy {} to the system folder, Karaf has to resolve it: {}", url,
+                    e.getMessage());
+            }
+        }
+        return localUrls;
+    }
+
+    private String seedSystemFolder(String url, File system) throws IOException {
+        // wrapped artifacts keep their wrap instructions
+        String prefix = "";
+        String mavenUrl = url;
+        String suffix = "";
+        if (url.startsWith(WRAP_PREFIX)) {
+            prefix = WRAP_PREFIX;
+            mavenUrl = url.substring(WRAP_PREFIX.length());
+            int instructions = mavenUrl.indexOf('$');
+            if (instructions >= 0) {
+                suffix = mavenUrl.substring(instructions);
+                mavenUrl = mavenUrl.substring(0, instructions);
+            }
+        }
+        String path = getSystemPath(mavenUrl);
+        if (path == null) {
+            return null;
+        }
+        File target = new File(system, path);
+        // released artifacts shipped with the distribution can be used as they are, anything
+        // else is replaced
+        if (!target.isFile() || path.contains("SNAPSHOT")) {
+            LOG.debug("Copying {} to {}", mavenUrl, target);
+            target.getParentFile().mkdirs();
+            try (InputStream is = new URL(mavenUrl).openStream()) {
+                CacheFiles.replace(target.toPath(), is);
+            }
+        }
+        return prefix + target.toURI().toString() + suffix;
+    }
+
+    /**
+     * Get the path of an artifact in a Maven repository layout
+     * 
+     * @param url mvn url of the artifact
+     * @return repository path, or null if the url does not denote a fixed artifact version
+     */
+    static String getSystemPath(String url) {
+        if (!url.startsWith(MVN_PREFIX)) {
+            return null;
+        }
+        String coordinates = url.substring(MVN_PREFIX.length());
+        int repository = coordinates.lastIndexOf('!');
+        if (repository >= 0) {
+            coordinates = coordinates.substring(repository + 1);
+        }
+        String[] segments = coordinates.split("/", -1);
+        if (segments.length < 3 || segments.length > 5) {
+            return null;
+        }
+        String groupId = segments[0];
+        String artifactId = segments[1];
+        String version = segments[2];
+        if (groupId.isEmpty() || artifactId.isEmpty() || version.isEmpty()
+            || "LATEST".equals(version) || "RELEASE".equals(version)
+            || version.startsWith("[") || version.startsWith("(")) {
+            return null;
+        }
+        String type = segments.length > 3 && !segments[3].isEmpty() ? segments[3] : "jar";
+        String classifier = segments.length > 4 && !segments[4].isEmpty()
+            ? "-" + segments[4] : "";
+        return groupId.replace('.', '/') + "/" + artifactId + "/" + version + "/" + artifactId
+            + "-" + version + classifier + "." + type;
+    }
+
     /**
      * Write a feature xml structure for test dependencies specified as ProvisionOption
      * in system to the given writer
@@ -140,6 +271,20 @@ public class DependenciesDeployer {
      * @param provisionOptions dependencies
      */
     static void writeDependenciesFeature(Writer writer, ProvisionOption<?>... provisionOptions) {
+        writeDependenciesFeature(writer, Collections.<String, String> emptyMap(),
+            provisionOptions);
+    }
+
+    /**
+     * Write a feature xml structure for test dependencies specified as ProvisionOption
+     * in system to the given writer
+     * 
+     * @param writer where to write the feature xml
+     * @param localUrls urls to be used instead of the urls of the dependencies
+     * @param provisionOptions dependencies
+     */
+    static void writeDependenciesFeature(Writer writer, Map<String, String> localUrls,
+        ProvisionOption<?>... provisionOptions) {
         XMLOutputFactory xof =  XMLOutputFactory.newInstance();
         xof.setProperty("javax.xml.stream.isRepairingNamespaces", true);
         XMLStreamWriter sw = null;
@@ -164,7 +309,8 @@ public class DependenciesDeployer {
                 if (provisionOption.getStartLevel() != null) {
                     sw.writeAttribute("start-level", provisionOption.getStartLevel().toString());
                 }
-                sw.writeCharacters(provisionOption.getURL());
+                String url = localUrls.get(provisionOption.getURL());
+                sw.writeCharacters(url != null ? url : provisionOption.getURL());
                 endElement(sw);
             }
             endElement(sw);
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of extracted Karaf distributions, keyed by the SHA-1 checksum of the
+ * distribution archive. Each distribution is extracted only once. Containers get their own copy of
+ * the pristine extraction: files below {@code system/} and {@code lib/} are never modified, so
+ * they are hard linked where the file system permits, all other files are copied.
+ * <p>
+ * To avoid reading the whole archive for each container, the checksum is remembered for the URL,
+ * size and modification time of the archive, where the URL provides them.
+ */
+public class DistributionCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DistributionCache.class);
+
+    /**
+     * Maximum number of distributions kept in the cache.
+     */
+    private static final int MAX_ENTRIES = 4;
+
+    private static final String CHECKSUM_SUFFIX = ".checksum";
+
+    private static final List<String> LINKED_FOLDERS = Arrays.asList("system", "lib");
+
+    private final File cacheDir;
+
+    /**
+     * @param cacheDir
+     *            directory holding the extracted distributions
+     */
+    public DistributionCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Provides the given distribution in the target folder, extracting it into the cache first if
+     * needed. Any existing content of the target folder is deleted.
+     *
+     * @param sourceURL
+     *            url of the zip or tar.gz archive
+     * @param targetFolder
+     *            where to provide the distribution
+     * @throws IOException
+     *             on I/O error
+     */
+    public void extract(URL sourceURL, File targetFolder) throws IOException {
+        File checksumFile = getChecksumFile(sourceURL);
+        File pristine = lookup(checksumFile);
+        if (pristine != null) {
+            LOG.debug("using cached distribution {} for {}", pristine, sourceURL);
+            pristine.setLastModified(System.currentTimeMillis());
+        }
+        else {
+            pristine = extractIntoCache(sourceURL, checksumFile);
+        }
+        if (targetFolder.exists()) {
+            FileUtils.forceDelete(targetFolder);
+        }
+        materialize(pristine.toPath(), targetFolder.toPath());
+    }
+
+    /**
+     * Finds the extraction of an archive by its metadata, without reading the archive.
+     *
+     * @return extracted distribution, or null if unknown
+     */
+    private File lookup(File checksumFile) throws IOException {
+        if (checksumFile == null || !checksumFile.isFile()) {
+            return null;
+        }
+        String checksum = new String(Files.readAllBytes(checksumFile.toPath()),
+            StandardCharsets.UTF_8).trim();
+        File pristine = new File(cacheDir, checksum);
+        return pristine.isDirectory() ? pristine : null;
+    }
+
+    private File extractIntoCache(URL sourceURL, File checksumFile) throws IOException {
+        cacheDir.mkdirs();
+        String checksum = checksum(sourceURL);
+        File pristine = new File(cacheDir, checksum);
+        if (pristine.isDirectory()) {
+            LOG.debug("using cached distribution {} for {}", pristine, sourceURL);
+            pristine.setLastModified(System.currentTimeMillis());
+        }
+        else {
+            populate(sourceURL, pristine);
+        }
+        if (checksumFile != null) {
+            File temp = File.createTempFile("checksum", ".tmp", cacheDir);
+            try {
+                Files.write(temp.toPath(), checksum.getBytes(StandardCharsets.UTF_8));
+                Files.move(temp.toPath(), checksumFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temp.toPath());
+            }
+        }
+        return pristine;
+    }
+
+    /**
+     * Returns the file remembering the checksum of an archive, named after the URL, size and
+     * modification time of the archive.
+     *
+     * @return checksum file, or null if the URL does not provide size or modification time
+     */
+    private File getChecksumFile(URL sourceURL) throws IOException {
+        long size;
+        long lastModified;
+        if ("file".equals(sourceURL.getProtocol())) {
+            File file = FileUtils.toFile(sourceURL);
+            size = file.length();
+            lastModified = file.lastModified();
+        }
+        else {
+            URLConnection connection = sourceURL.openConnection();
+            try {
+                size = connection.getContentLengthLong();
+                lastModified = connection.getLastModified();
+            }
+            finally {
+                if (connection instanceof HttpURLConnection) {
+                    ((HttpURLConnection) connection).disconnect();
+                }
+            }
+        }
+        if (size <= 0 || lastModified <= 0) {
+            return null;
+        }
+        MessageDigest digest = ConfigurationFingerprint.createDigest();
+        digest.update((sourceURL + "\n" + size + "\n" + lastModified)
+            .getBytes(StandardCharsets.UTF_8));
+        String name = ConfigurationFingerprint.toHex(digest.digest()) + CHECKSUM_SUFFIX;
+        return new File(cacheDir, name);
+    }
+
+    private void populate(URL sourceURL, File pristine) throws IOException {
+        LOG.info("extracting {} into distribution cache", sourceURL);
+        File temp = new File(cacheDir, pristine.getName() + "-" + UUID.randomUUID() + ".tmp");
+        try {
+            ArchiveExtractor.extract(sourceURL, temp);
+            Files.move(temp.toPath(), pristine.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException exc) {
+            if (!pristine.isDirectory()) {
+                throw exc;
+            }
+            // extracted concurrently by another process
+            LOG.debug("distribution {} already cached", pristine);
+        }
+        finally {
+            if (temp.exists()) {
+                FileUtils.deleteQuietly(temp);
+            }
+        }
+        prune();
+    }
+
+    private void materialize(final Path source, final Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                throws IOException {
+                Path relative = source.relativize(file);
+                Path copy = target.resolve(relative.toString());
+                if (relative.getNameCount() > 1
+                    && LINKED_FOLDERS.contains(relative.getName(0).toString())) {
+                    CacheFiles.linkOrCopy(file, copy);
+                }
+                else {
+                    Files.copy(file, copy, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void prune() {
+        if (!CacheFiles.pruneLru(cacheDir, MAX_ENTRIES)) {
+            return;
+        }
+        File[] checksumFiles = cacheDir.listFiles(f -> f.getName().endsWith(CHECKSUM_SUFFIX));
+        for (File checksumFile : checksumFiles) {
+            try {
+                String checksum = new String(Files.readAllBytes(checksumFile.toPath()),
+                    StandardCharsets.UTF_8).trim();
+                if (!new File(cacheDir, checksum).isDirectory()) {
+                    Files.deleteIfExists(checksumFile.toPath());
+                }
+            }
+            catch (IOException exc) {
+                LOG.debug("cannot remove checksum {}", checksumFile, exc);
+            }
+        }
+    }
+
+    static String checksum(URL sourceURL) throws IOException {
+        MessageDigest digest = ConfigurationFingerprint.createDigest();
+        try (InputStream is = new DigestInputStream(sourceURL.openStream(), digest)) {
+            byte[] buffer = new byte[64 * 1024];
+            while (is.read(buffer) != -1) {
+                // only digest
+            }
+        }
+        return ConfigurationFingerprint.toHex(digest.digest());
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.ops4j.pax.exam.karaf.options.KarafFeaturesOption;
+import org.ops4j.pax.exam.rbc.internal.InstalledBundle;
+import org.ops4j.pax.exam.util.Backoff;
+import org.osgi.framework.Bundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of the bundles resolved by the Karaf features service at boot time. After the
+ * first successful run of an installation, the installed bundles and their start levels are
+ * recorded under a key computed from the distribution, the boot configuration and the content of
+ * all feature repositories. Later starts with the same key get these bundles in
+ * {@code etc/startup.properties} and an empty {@code featuresBoot}, so the features resolver does
+ * not run at all.
+ * <p>
+ * All bundles are installed from the {@code system/} folder: bundles with released Maven
+ * locations are stored in the cache and copied to their usual place, Maven snapshots are resolved
+ * again on each start. Bundles with other locations get a generated Maven location. Configurations
+ * defined by features are not applied on cached starts, and the features service does not know
+ * about the installed features.
+ * <p>
+ * The resolution is recorded right after the boot features have been started, before any probe
+ * is installed, so that bundles installed by tests never end up in the cache.
+ */
+public class FeatureResolutionCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FeatureResolutionCache.class);
+
+    /**
+     * Maximum number of resolutions kept in the cache.
+     */
+    private static final int MAX_ENTRIES = 8;
+
+    /**
+     * Milliseconds without any bundle being installed or started, after which a boot with
+     * inactive bundles is considered to be stuck.
+     */
+    static final long BOOT_SETTLE_MILLIS = 10000;
+
+    private static final long INITIAL_POLL_DELAY = 50;
+
+    private static final long MAX_POLL_DELAY = 1000;
+
+    private static final String BUNDLES_FILE = "bundles.list";
+
+    private static final String KARAF_BASE = "${karaf.base}";
+
+    private static final String MVN_PREFIX = "mvn:";
+
+    private static final String GENERATED_GROUP = "org.ops4j.pax.exam.resolved";
+
+    /**
+     * Prefix of a bundle source stored in the cache entry.
+     */
+    private static final String ENTRY_SOURCE = "entry:";
+
+    /**
+     * Prefix of a bundle source resolved again on each start.
+     */
+    private static final String URL_SOURCE = "url:";
+
+    private final File cacheDir;
+
+    /**
+     * @param cacheDir
+     *            directory holding the cached resolutions
+     */
+    public FeatureResolutionCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Computes the key of a prepared installation, before it is started.
+     *
+     * @param karafBase
+     *            Karaf base directory
+     * @param karafEtc
+     *            location of the Karaf etc directory
+     * @param stage
+     *            staged configuration of the installation
+     * @param frameworkUrl
+     *            url of the distribution
+     * @param featuresOptions
+     *            feature repositories and features which are installed at boot time
+     * @return key
+     * @throws IOException
+     *             if a feature repository cannot be read
+     */
+    public static String computeKey(File karafBase, String karafEtc,
+        KarafConfigurationStage stage, String frameworkUrl,
+        List<KarafFeaturesOption> featuresOptions) throws IOException {
+        String[] locations = getLocations(karafBase);
+        MessageDigest digest = ConfigurationFingerprint.createDigest();
+        update(digest, frameworkUrl);
+        for (String name : Arrays.asList("startup.properties", "org.apache.karaf.features.cfg")) {
+            File file = new File(new File(karafBase, karafEtc), name);
+            update(digest, ConfigurationFingerprint.mask(stage.read(file), locations));
+        }
+        for (KarafFeaturesOption featuresOption : featuresOptions) {
+            update(digest, mask(featuresOption.getURL(), locations));
+            update(digest, Arrays.toString(featuresOption.getFeatures()));
+            try (InputStream is = new URL(featuresOption.getURL()).openStream()) {
+                update(digest, ConfigurationFingerprint.mask(IOUtils.toByteArray(is), locations));
+            }
+        }
+        return ConfigurationFingerprint.toHex(digest.digest());
+    }
+
+    /**
+     * Replaces the boot configuration of the given installation by the cached resolution, if
+     * there is one. The installation is only modified if all bundles could be provided.
+     *
+     * @param key
+     *            key of the installation
+     * @param karafHome
+     *            Karaf home directory
+     * @param karafEtc
+     *            location of the Karaf etc directory
+     * @param stage
+     *            staged configuration, which receives the changed boot features
+     * @return true if the cached resolution has been applied
+     * @throws IOException
+     *             on I/O error
+     */
+    public boolean apply(String key, File karafHome, String karafEtc,
+        KarafConfigurationStage stage) throws IOException {
+        File entry = new File(cacheDir, key);
+        File list = new File(entry, BUNDLES_FILE);
+        if (!list.isFile()) {
+            return false;
+        }
+        String[] locations = getLocations(karafHome);
+        List<String[]> bundles = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(list.toPath(),
+            StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] bundle = line.split("\t");
+                if (bundle.length != 3) {
+                    throw new IOException("invalid cached resolution " + list);
+                }
+                bundles.add(bundle);
+            }
+        }
+
+        File system = new File(karafHome, "system");
+        for (String[] bundle : bundles) {
+            File target = new File(system, DependenciesDeployer.getSystemPath(bundle[1]));
+            String source = bundle[2];
+            if (source.startsWith(ENTRY_SOURCE)) {
+                if (!target.isFile()) {
+                    target.getParentFile().mkdirs();
+                    CacheFiles.linkOrCopy(
+                        new File(entry, source.substring(ENTRY_SOURCE.length())).toPath(),
+                        target.toPath());
+                }
+            }
+            else {
+                String url = unmask(source.substring(URL_SOURCE.length()), locations);
+                target.getParentFile().mkdirs();
+                try (InputStream is = new URL(url).openStream()) {
+                    CacheFiles.replace(target.toPath(), is);
+                }
+            }
+        }
+
+        stage.get(karafEtc + "/org.apache.karaf.features.cfg").put("featuresBoot", "");
+        File startup = new File(new File(karafHome, karafEtc), "startup.properties");
+        StringBuilder properties = new StringBuilder(
+            "# Bundles resolved by the features service, cached by Pax Exam\n");
+        for (String[] bundle : bundles) {
+            properties.append(escape(bundle[1])).append(" = ").append(bundle[0]).append('\n');
+        }
+        CacheFiles.replace(startup.toPath(),
+            properties.toString().getBytes(StandardCharsets.UTF_8));
+        entry.setLastModified(System.currentTimeMillis());
+        return true;
+    }
+
+    /**
+     * Waits for the boot features of a freshly started installation to be started. The features
+     * service installs the boot features asynchronously, so the installed bundles are polled
+     * until all of them are active.
+     *
+     * @param installedBundles
+     *            supplies the bundles currently installed in the running installation
+     * @param settleMillis
+     *            milliseconds without progress, after which waiting is given up
+     * @return bundles installed at boot time, or null if some bundle did not become active
+     */
+    public static InstalledBundle[] awaitBootBundles(Supplier<InstalledBundle[]> installedBundles,
+        long settleMillis) {
+        Backoff backoff = new Backoff(INITIAL_POLL_DELAY, MAX_POLL_DELAY);
+        InstalledBundle[] bundles = installedBundles.get();
+        int inactive = countInactive(bundles);
+        long lastProgress = System.currentTimeMillis();
+        while (inactive > 0) {
+            if (System.currentTimeMillis() - lastProgress > settleMillis || !backoff.sleep()) {
+                return null;
+            }
+            InstalledBundle[] current = installedBundles.get();
+            int currentInactive = countInactive(current);
+            if (current.length != bundles.length || currentInactive != inactive) {
+                lastProgress = System.currentTimeMillis();
+            }
+            bundles = current;
+            inactive = currentInactive;
+        }
+        return bundles;
+    }
+
+    private static int countInactive(InstalledBundle[] bundles) {
+        int inactive = 0;
+        for (InstalledBundle bundle : bundles) {
+            if (!isSettled(bundle)) {
+                inactive++;
+            }
+        }
+        return inactive;
+    }
+
+    private static boolean isSettled(InstalledBundle bundle) {
+        return bundle.getBundleId() == 0 || bundle.isFragment()
+            || bundle.getState() == Bundle.ACTIVE;
+    }
+
+    /**
+     * Stores the bundles of a started installation. Nothing is stored if some bundle is not
+     * active, since its state cannot be expressed in {@code etc/startup.properties}.
+     *
+     * @param key
+     *            key of the installation, computed before it was started
+     * @param bundles
+     *            bundles installed in the running installation
+     * @param karafHome
+     *            Karaf home directory
+     * @throws IOException
+     *             on I/O error
+     */
+    public void store(String key, InstalledBundle[] bundles, File karafHome) throws IOException {
+        File entry = new File(cacheDir, key);
+        if (entry.isDirectory()) {
+            return;
+        }
+        for (InstalledBundle bundle : bundles) {
+            if (!isSettled(bundle)) {
+                LOG.info("Not caching feature resolution, bundle {} is not active",
+                    bundle.getLocation());
+                return;
+            }
+        }
+
+        String[] locations = getLocations(karafHome);
+        File system = new File(karafHome, "system");
+        cacheDir.mkdirs();
+        File temp = new File(cacheDir, key + "-" + UUID.randomUUID() + ".tmp");
+        try {
+            temp.mkdirs();
+            StringBuilder list = new StringBuilder();
+            for (InstalledBundle bundle : bundles) {
+                if (bundle.getBundleId() == 0) {
+                    continue;
+                }
+                String location = bundle.getLocation();
+                String path = DependenciesDeployer.getSystemPath(location);
+                String source;
+                if (path == null) {
+                    String masked = mask(location, locations);
+                    location = MVN_PREFIX + GENERATED_GROUP + "/bundle-" + bundle.getBundleId()
+                        + "/0.0.0";
+                    if (!masked.equals(bundle.getLocation())) {
+                        // a file of the installation, which is provided again for each start
+                        source = URL_SOURCE + masked;
+                    }
+                    else {
+                        source = store(bundle, temp, null);
+                    }
+                }
+                else if (path.contains("SNAPSHOT")) {
+                    source = URL_SOURCE + location;
+                }
+                else {
+                    source = store(bundle, temp, new File(system, path));
+                }
+                list.append(Math.max(1, bundle.getStartLevel())).append('\t').append(location)
+                    .append('\t').append(source).append('\n');
+            }
+            Files.write(new File(temp, BUNDLES_FILE).toPath(),
+                list.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            LOG.info("Cached feature resolution {} with {} bundles", key, bundles.length - 1);
+        }
+        catch (IOException exc) {
+            if (!entry.isDirectory()) {
+                throw exc;
+            }
+            // stored concurrently by another process
+            LOG.debug("feature resolution {} already cached", key);
+        }
+        finally {
+            if (temp.exists()) {
+                FileUtils.deleteQuietly(temp);
+            }
+        }
+        CacheFiles.pruneLru(cacheDir, MAX_ENTRIES);
+    }
+
+    private String store(InstalledBundle bundle, File entry, File installed) throws IOException {
+        String name = bundle.getBundleId() + ".jar";
+        Path target = new File(entry, name).toPath();
+        if (installed != null && installed.isFile()) {
+            CacheFiles.linkOrCopy(installed.toPath(), target);
+        }
+        else {
+            try (InputStream is = new URL(bundle.getLocation()).openStream()) {
+                Files.copy(is, target);
+            }
+        }
+        return ENTRY_SOURCE + name;
+    }
+
+    private static String[] getLocations(File karafBase) {
+        return new String[] { karafBase.getAbsolutePath(), karafBase.toURI().toString() };
+    }
+
+    private static String mask(String value, String[] locations) {
+        for (String location : locations) {
+            value = value.replace(location, KARAF_BASE);
+        }
+        return value;
+    }
+
+    private static String unmask(String value, String[] locations) {
+        return value.replace(KARAF_BASE, locations[0]);
+    }
+
+    /**
+     * Escapes a key of a properties file.
+     */
+    static String escape(String key) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : key.toCharArray()) {
+            if (c == ':' || c == '=' || c == ' ' || c == '#' || c == '!' || c == '\\') {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -18,9 +18,10 @@
 package org.ops4j.pax.exam.karaf.container.internal;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.Properties;
 
 public class KarafCfgFile extends KarafConfigurationFile {
@@ -32,20 +33,23 @@ public class KarafCfgFile extends KarafConfigurationFile {
     }
 
     @Override
-    public void store() throws IOException {
-        final FileOutputStream fos = new FileOutputStream(file);
-        properties.store(fos, "Modified by paxexam");
-        fos.close();
+    protected void write(final OutputStream os) throws IOException {
+        properties.store(os, "Modified by paxexam");
     }
 
     @Override
-    public void load() throws IOException {
-        if (!file.exists()) {
-            return;
-        }
-        final FileInputStream fis = new FileInputStream(file);
-        properties.load(fis);
-        fis.close();
+    protected void read(final InputStream is) throws IOException {
+        properties.clear();
+        properties.load(is);
+    }
+
+    @Override
+    protected Object getState() {
+        return new HashMap<>(properties);
+    }
+
+    Properties getProperties() {
+        return properties;
     }
 
     @Override
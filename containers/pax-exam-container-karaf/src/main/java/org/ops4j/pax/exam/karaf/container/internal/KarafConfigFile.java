@@ -18,10 +18,11 @@
 package org.ops4j.pax.exam.karaf.container.internal;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Dictionary;
 import java.util.Hashtable;
@@ -37,21 +38,25 @@ public class KarafConfigFile extends KarafConfigurationFile {
     }
 
     @Override
-    public void store() throws IOException {
-        final FileOutputStream fos = new FileOutputStream(file);
-        ConfigurationHandler.write(fos, configuration);
-        fos.close();
+    protected void write(final OutputStream os) throws IOException {
+        ConfigurationHandler.write(os, configuration);
     }
 
     @SuppressWarnings("unchecked")
     @Override
-    public void load() throws IOException {
-        if (!file.exists()) {
-            return;
+    protected void read(final InputStream is) throws IOException {
+        configuration = ConfigurationHandler.read(is);
+    }
+
+    @Override
+    protected Object getState() {
+        // values may be arrays, so the state is compared in serialized form
+        try {
+            return new String(toByteArray(), StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(e);
         }
-        final FileInputStream fis = new FileInputStream(file);
-        configuration = ConfigurationHandler.read(fis);
-        fis.close();
     }
 
     @Override
@@ -17,15 +17,20 @@
  */
 package org.ops4j.pax.exam.karaf.container.internal;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-
-import org.apache.commons.io.FileUtils;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 
 public abstract class KarafConfigurationFile {
 
     protected final File file;
 
+    /** Content after the last load or store, to detect modifications. */
+    private Object storedState;
+
     public KarafConfigurationFile(final File karafHome, final String location) {
         if (location.startsWith("/")) {
             file = new File(karafHome + location);
@@ -35,22 +40,60 @@ public abstract class KarafConfigurationFile {
         }
     }
 
+    public File getFile() {
+        return file;
+    }
+
     public boolean exists() {
         return file.exists();
     }
 
     public void replace(final File source) {
         try {
-            FileUtils.copyFile(source, file);
+            CacheFiles.replace(file.toPath(), Files.readAllBytes(source.toPath()));
         }
         catch (IOException e) {
             throw new IllegalStateException("Error occured while replacing file " + file, e);
         }
     }
 
-    public abstract void store() throws IOException;
+    public void store() throws IOException {
+        CacheFiles.replace(file.toPath(), toByteArray());
+        storedState = getState();
+    }
+
+    public void load() throws IOException {
+        if (file.exists()) {
+            try (InputStream is = Files.newInputStream(file.toPath())) {
+                read(is);
+            }
+        }
+        storedState = getState();
+    }
+
+    /**
+     * Returns true if the content has been changed since it was loaded or stored. Setting a value
+     * which is already present is not a modification.
+     */
+    public boolean isModified() {
+        return !getState().equals(storedState);
+    }
+
+    public byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        write(os);
+        return os.toByteArray();
+    }
+
+    protected abstract void read(InputStream is) throws IOException;
+
+    protected abstract void write(OutputStream os) throws IOException;
 
-    public abstract void load() throws IOException;
+    /**
+     * Returns a value object representing the current content, which equals the state of any
+     * file with the same content.
+     */
+    protected abstract Object getState();
 
     public abstract void put(final String key, final Object value);
 
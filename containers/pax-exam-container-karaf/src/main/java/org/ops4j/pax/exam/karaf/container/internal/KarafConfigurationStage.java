@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects all changes to the configuration files of a Karaf installation in memory, so that
+ * each file is read once and written at most once, when the changes are committed. Files whose
+ * content is not changed are not written at all.
+ * <p>
+ * For existing installations, the original content of each written file is kept, so that
+ * {@link #restore()} can undo the changes by rewriting only the files which differ.
+ */
+public class KarafConfigurationStage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KarafConfigurationStage.class);
+
+    private final File karafHome;
+
+    private final Map<File, KarafConfigurationFile> files = new LinkedHashMap<>();
+
+    private final Map<File, File> replacements = new LinkedHashMap<>();
+
+    /** Original content of written files, null for files which did not exist. */
+    private final Map<File, byte[]> originals;
+
+    /**
+     * @param karafHome
+     *            Karaf home directory, which configuration file locations are relative to
+     * @param keepOriginals
+     *            true if the original content of written files shall be kept for
+     *            {@link #restore()}
+     */
+    public KarafConfigurationStage(File karafHome, boolean keepOriginals) {
+        this.karafHome = karafHome;
+        this.originals = keepOriginals ? new LinkedHashMap<File, byte[]>() : null;
+    }
+
+    /**
+     * Returns the staged configuration file at the given location, loading it on first access.
+     *
+     * @param location
+     *            location relative to the Karaf home directory
+     * @return configuration file
+     * @throws IOException
+     *             if the file cannot be loaded
+     */
+    public KarafConfigurationFile get(String location) throws IOException {
+        KarafConfigurationFile configurationFile = KarafConfigurationFileFactory.create(karafHome,
+            location);
+        File key = configurationFile.getFile().getAbsoluteFile();
+        KarafConfigurationFile staged = files.get(key);
+        if (staged == null) {
+            configurationFile.load();
+            File replacement = replacements.remove(key);
+            if (replacement != null) {
+                // further changes apply to the replacement, which is then stored as modified
+                try (InputStream is = Files.newInputStream(replacement.toPath())) {
+                    configurationFile.read(is);
+                }
+            }
+            files.put(key, configurationFile);
+            staged = configurationFile;
+        }
+        return staged;
+    }
+
+    /**
+     * Replaces the file at the given location by a copy of the given source. Changes made to the
+     * same file by {@link #get(String)} before are discarded, later ones apply to the replacement.
+     *
+     * @param location
+     *            location relative to the Karaf home directory
+     * @param source
+     *            replacement
+     */
+    public void replace(String location, File source) {
+        KarafConfigurationFile configurationFile = KarafConfigurationFileFactory.create(karafHome,
+            location);
+        File key = configurationFile.getFile().getAbsoluteFile();
+        files.remove(key);
+        replacements.put(key, source);
+    }
+
+    /**
+     * Returns the content the given file will have after the staged changes are committed.
+     *
+     * @param file
+     *            any file
+     * @return content of the file, empty if the file does not exist
+     * @throws IOException
+     *             if the file cannot be read
+     */
+    public byte[] read(File file) throws IOException {
+        File key = file.getAbsoluteFile();
+        File replacement = replacements.get(key);
+        if (replacement != null) {
+            return Files.readAllBytes(replacement.toPath());
+        }
+        KarafConfigurationFile staged = files.get(key);
+        if (staged != null && staged.isModified()) {
+            return staged.toByteArray();
+        }
+        return file.exists() ? Files.readAllBytes(file.toPath()) : new byte[0];
+    }
+
+    /**
+     * Writes all modified and replaced files. The stage may be used for further changes
+     * afterwards, which are written by the next commit.
+     *
+     * @throws IOException
+     *             if a file cannot be written
+     */
+    public void commit() throws IOException {
+        for (Map.Entry<File, File> replacement : replacements.entrySet()) {
+            File file = replacement.getKey();
+            if (file.exists() && FileUtils.contentEquals(replacement.getValue(), file)) {
+                continue;
+            }
+            keepOriginal(file);
+            CacheFiles.replace(file.toPath(), Files.readAllBytes(replacement.getValue().toPath()));
+        }
+        replacements.clear();
+        for (Map.Entry<File, KarafConfigurationFile> staged : files.entrySet()) {
+            if (staged.getValue().isModified()) {
+                keepOriginal(staged.getKey());
+                staged.getValue().store();
+            }
+        }
+    }
+
+    private void keepOriginal(File file) throws IOException {
+        if (originals != null && !originals.containsKey(file)) {
+            originals.put(file, file.exists() ? Files.readAllBytes(file.toPath()) : null);
+        }
+    }
+
+    /**
+     * Restores the original content of all files written by {@link #commit()}, as far as they
+     * differ from it. Failures are logged and do not prevent the other files from being
+     * restored.
+     */
+    public void restore() {
+        if (originals == null) {
+            return;
+        }
+        for (Map.Entry<File, byte[]> original : originals.entrySet()) {
+            File file = original.getKey();
+            try {
+                if (original.getValue() == null) {
+                    Files.deleteIfExists(file.toPath());
+                }
+                else if (!file.exists()
+                    || !Arrays.equals(original.getValue(), Files.readAllBytes(file.toPath()))) {
+                    CacheFiles.replace(file.toPath(), original.getValue());
+                }
+            }
+            catch (IOException exc) {
+                LOG.warn("Can't restore config file {}", file, exc);
+            }
+        }
+        originals.clear();
+    }
+}
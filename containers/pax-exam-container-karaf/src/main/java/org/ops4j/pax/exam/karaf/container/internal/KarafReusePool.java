@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import java.io.File;
+import java.rmi.NoSuchObjectException;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.ops4j.pax.exam.container.remote.RBCRemoteTarget;
+import org.ops4j.pax.exam.karaf.container.internal.runner.Runner;
+import org.ops4j.pax.exam.util.FreePorts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps at most one running Karaf instance alive after its test container has been stopped. A
+ * subsequent test container with the same configuration fingerprint may take over the instance
+ * instead of launching a new one. The parked instance is shut down when another instance is
+ * parked or when the JVM exits.
+ */
+public final class KarafReusePool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(KarafReusePool.class);
+
+    private static Instance parked;
+
+    private static boolean shutdownHookRegistered;
+
+    /** Hidden utility class constructor. */
+    private KarafReusePool() {
+    }
+
+    /**
+     * Removes the parked instance from the pool.
+     *
+     * @return parked instance, or null
+     */
+    public static synchronized Instance take() {
+        Instance instance = parked;
+        parked = null;
+        return instance;
+    }
+
+    /**
+     * Parks the given instance, shutting down any instance parked before.
+     *
+     * @param instance
+     *            running instance
+     */
+    public static synchronized void park(Instance instance) {
+        if (parked != null) {
+            parked.discard();
+        }
+        parked = instance;
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread("karaf-reuse-shutdown") {
+
+                @Override
+                public void run() {
+                    Instance remaining = take();
+                    if (remaining != null) {
+                        remaining.discard();
+                    }
+                }
+            });
+            shutdownHookRegistered = true;
+        }
+    }
+
+    /**
+     * A running Karaf instance together with everything required to talk to it and to decide
+     * whether it can be reused.
+     */
+    public static class Instance {
+
+        final String name;
+        final int port;
+        final int invokerPort;
+        final Registry registry;
+        final Runner runner;
+        final RBCRemoteTarget target;
+        final File targetFolder;
+        final File karafBase;
+        final boolean deleteRuntime;
+        final String fingerprint;
+        final Map<String, String> repositories;
+        final Set<String> features;
+
+        // CHECKSTYLE:SKIP - more than 10 params
+        Instance(String name, int port, int invokerPort, Registry registry, Runner runner,
+            RBCRemoteTarget target, File targetFolder, File karafBase, boolean deleteRuntime,
+            String fingerprint, Map<String, String> repositories, Set<String> features) {
+            this.name = name;
+            this.port = port;
+            this.invokerPort = invokerPort;
+            this.registry = registry;
+            this.runner = runner;
+            this.target = target;
+            this.targetFolder = targetFolder;
+            this.karafBase = karafBase;
+            this.deleteRuntime = deleteRuntime;
+            this.fingerprint = fingerprint;
+            this.repositories = repositories;
+            this.features = features;
+        }
+
+        /**
+         * Can this instance be used for a container with the given configuration? The
+         * fingerprints must be equal, and the instance must not have any feature repositories or
+         * features which are not requested.
+         *
+         * @param otherFingerprint
+         *            configuration fingerprint of the new container
+         * @param otherRepositories
+         *            feature repositories of the new container
+         * @param otherFeatures
+         *            features of the new container
+         * @return true if the instance can be reused
+         */
+        boolean accepts(String otherFingerprint, Map<String, String> otherRepositories,
+            Set<String> otherFeatures) {
+            return fingerprint.equals(otherFingerprint)
+                && otherRepositories.keySet().containsAll(repositories.keySet())
+                && otherFeatures.containsAll(features);
+        }
+
+        /**
+         * Shuts down this instance and releases its ports.
+         */
+        void discard() {
+            shutdown();
+            FreePorts.release(port);
+            FreePorts.release(invokerPort);
+        }
+
+        /**
+         * Shuts down this instance. The ports stay reserved for a new instance with the same
+         * name and ports.
+         */
+        void shutdown() {
+            LOG.info("Shutting down reused Karaf instance {}", name);
+            try {
+                target.stop();
+                target.getClientRBC().stop();
+                if (runner != null) {
+                    runner.shutdown();
+                }
+                UnicastRemoteObject.unexportObject(registry, true);
+            }
+            catch (NoSuchObjectException | RuntimeException exc) {
+                LOG.warn("Cannot shut down Karaf instance " + name, exc);
+            }
+            finally {
+                if (deleteRuntime) {
+                    FileUtils.deleteQuietly(targetFolder);
+                }
+            }
+        }
+    }
+}
@@ -16,6 +16,10 @@
  */
 package org.ops4j.pax.exam.karaf.container.internal;
 
+import static org.ops4j.pax.exam.Constants.EXAM_KARAF_DISTRIBUTION_CACHE_KEY;
+import static org.ops4j.pax.exam.Constants.EXAM_KARAF_FEATURES_CACHE_KEY;
+import static org.ops4j.pax.exam.Constants.EXAM_KARAF_REUSE_KEY;
+import static org.ops4j.pax.exam.Constants.EXAM_KARAF_SYSTEM_DEPENDENCIES_KEY;
 import static org.ops4j.pax.exam.CoreOptions.maven;
 import static org.ops4j.pax.exam.CoreOptions.options;
 import static org.ops4j.pax.exam.CoreOptions.systemProperty;
@@ -28,10 +32,11 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.rmi.NoSuchObjectException;
 import java.rmi.registry.LocateRegistry;
@@ -42,7 +47,7 @@ import java.util.*;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.WildcardFileFilter;
-import org.ops4j.net.FreePort;
+import org.ops4j.pax.exam.ConfigurationManager;
 import org.ops4j.pax.exam.ExamSystem;
 import org.ops4j.pax.exam.Info;
 import org.ops4j.pax.exam.Option;
@@ -80,6 +85,8 @@ import org.ops4j.pax.exam.options.SystemPropertyOption;
 import org.ops4j.pax.exam.options.extra.EnvironmentOption;
 import org.ops4j.pax.exam.options.extra.VMOption;
 import org.ops4j.pax.exam.rbc.client.RemoteBundleContextClient;
+import org.ops4j.pax.exam.rbc.internal.InstalledBundle;
+import org.ops4j.pax.exam.util.FreePorts;
 import org.osgi.framework.Bundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,7 +101,9 @@ public class KarafTestContainer implements TestContainer {
         .groupId("org.ops4j.pax.exam").artifactId("pax-exam-features")
         .version(Info.getPaxExamVersion()).type("xml");
 
-    private final Runner runner;
+    private static final String FEATURES_SERVICE = "org.apache.karaf.features.FeaturesService";
+
+    private Runner runner;
     private final ExamSystem system;
     private KarafDistributionBaseConfigurationOption framework;
     @SuppressWarnings("unused")
@@ -107,6 +116,21 @@ public class KarafTestContainer implements TestContainer {
 
     private Registry registry;
 
+    private boolean reuse;
+    private String rmiName;
+    private int rmiPort;
+    private int invokerPort;
+    private String fingerprint;
+    private Map<String, String> repositories;
+    private Set<String> features;
+    /**
+     * Key of the feature resolution to be cached once the container has run, or null.
+     */
+    private String resolutionKey;
+    /**
+     * Configuration changes made to an existing installation, to be undone when stopped.
+     */
+    private KarafConfigurationStage existingConfiguration;
 
     private static boolean isJava9Compatible;
     
@@ -127,20 +151,26 @@ public class KarafTestContainer implements TestContainer {
 
     @Override
     public synchronized void start() throws IOException {
-            String name = system.createID(KARAF_TEST_CONTAINER);
+            reuse = shouldReuseRuntime();
+            KarafReusePool.Instance parked = reuse ? KarafReusePool.take() : null;
+            String name = parked != null ? parked.name : system.createID(KARAF_TEST_CONTAINER);
 
             Option invokerConfiguration = getInvokerConfiguration();
 
-            //registry.selectGracefully();
-            FreePort freePort = new FreePort(21000, 21099);
-            int port = freePort.getPort();
+            // ports are reserved, as containers may be started concurrently
+            int port = parked != null ? parked.port : FreePorts.reserve(21000, 21099);
 
             String host = InetAddress.getLoopbackAddress().getHostAddress();
-            LOGGER.info("Creating RMI registry server on {}:{}", host, port);
             System.setProperty("java.rmi.server.hostname", host);
-            registry = LocateRegistry.createRegistry(port);
-            FreePort invokerPortRange = new FreePort(21100, 21199);
-            int invokerPort = invokerPortRange.getPort();
+            if (parked == null) {
+                LOGGER.info("Creating RMI registry server on {}:{}", host, port);
+                registry = LocateRegistry.createRegistry(port);
+            }
+            int invokerPort = parked != null ? parked.invokerPort
+                : FreePorts.reserve(21100, 21199);
+            rmiName = name;
+            rmiPort = port;
+            this.invokerPort = invokerPort;
 
             ExamSystem subsystem = system
                 .fork(options(
@@ -157,12 +187,26 @@ public class KarafTestContainer implements TestContainer {
 
             System.setProperty("java.protocol.handler.pkgs", "org.ops4j.pax.url");
 
+            if (reuse) {
+                // the distribution is only extracted if the parked instance cannot be used
+                fingerprint = ConfigurationFingerprint.compute(getLaunchSettings(subsystem),
+                    subsystem.getOptions(Option.class));
+                if (reuseOrRelease(parked, subsystem)) {
+                    started = true;
+                    return;
+                }
+                if (parked != null) {
+                    registry = LocateRegistry.createRegistry(port);
+                }
+            }
+
             if (framework.getExisting() != null) {
                 targetFolder = framework.getExisting();
             } else {
                 URL sourceDistribution = new URL(framework.getFrameworkURL());
-                targetFolder = retrieveFinalTargetFolder(subsystem);
-                ArchiveExtractor.extract(sourceDistribution, targetFolder);
+                targetFolder = reuse ? retrieveReusableTargetFolder(subsystem, parked)
+                    : retrieveFinalTargetFolder(subsystem);
+                extractDistribution(sourceDistribution, targetFolder);
             }
 
             karafBase = searchKarafBase(targetFolder);
@@ -173,57 +217,236 @@ public class KarafTestContainer implements TestContainer {
                 karafHome);
             deployer.copyBootClasspathLibraries();
 
+            KarafConfigurationStage stage = new KarafConfigurationStage(karafHome,
+                framework.getExisting() != null);
             if (framework.getExisting() != null) {
-                backupConfigFiles();
+                existingConfiguration = stage;
             }
-            setupSystemProperties(karafHome, subsystem);
-            updateLogProperties(karafHome, subsystem);
+            setupSystemProperties(stage, subsystem);
+            updateLogProperties(karafHome, stage, subsystem);
 
             List<KarafDistributionConfigurationFileOption> options = new ArrayList<>(
                 Arrays.asList(subsystem.getOptions(KarafDistributionConfigurationFileOption.class)));
-            options.addAll(fromFeatureOptions(subsystem.getOptions(KarafFeaturesOption.class)));
-            String usedExamFeature = shouldInjectJUnitBundles(system)
-                    ? "exam"
-                    : "exam-no-junit";
-            options.addAll(fromFeatureOptions(KarafDistributionOption.features(EXAM_REPO_URL, usedExamFeature)));
-
+            List<KarafFeaturesOption> featuresOptions = getFeaturesOptions(subsystem, deployer,
+                true);
             if (framework.isUseDeployFolder()) {
                 deployer.copyReferencedArtifactsToDeployFolder();
             }
-            else {
-                options.addAll(fromFeatureOptions(deployer.getDependenciesFeature()));
+            if (reuse) {
+                setFeatures(karafBase, featuresOptions);
             }
 
+            options.addAll(fromFeatureOptions(
+                featuresOptions.toArray(new KarafFeaturesOption[featuresOptions.size()])));
             options.addAll(configureBootDelegation(subsystem));
             options.addAll(configureSystemPackages(subsystem));
-            updateUserSetProperties(karafHome, options);
+            updateUserSetProperties(karafHome, stage, options);
 
+            applyFeatureResolutionCache(karafHome, stage, featuresOptions);
+            stage.commit();
             startKaraf(subsystem, karafBase, karafHome);
             started = true;
     }
 
-    private void backupConfigFiles() {
+    private boolean shouldReuseRuntime() {
+        ConfigurationManager cm = new ConfigurationManager();
+        return framework.getExisting() == null
+            && Boolean.parseBoolean(cm.getProperty(EXAM_KARAF_REUSE_KEY, "false"));
+    }
+
+    private boolean shouldCacheFeatureResolution() {
+        ConfigurationManager cm = new ConfigurationManager();
+        // Karaf 2.x lists the startup bundles by path, not by Maven location. Existing
+        // installations are not modified beyond the files which are restored after the run.
+        return framework.getExisting() == null
+            && Boolean.parseBoolean(cm.getProperty(EXAM_KARAF_FEATURES_CACHE_KEY, "false"))
+            && !framework.getKarafVersion().startsWith("2.");
+    }
+
+    private FeatureResolutionCache getFeatureResolutionCache() {
+        return new FeatureResolutionCache(
+            new File(System.getProperty("user.home"), ".pax/karaf/features"));
+    }
+
+    /**
+     * Replaces the boot features by the bundles resolved for the same configuration in a
+     * previous run, if there is such a resolution. Otherwise, the resolution of this run is
+     * stored as soon as the boot features have been started.
+     */
+    private void applyFeatureResolutionCache(File karafHome, KarafConfigurationStage stage,
+        List<KarafFeaturesOption> featuresOptions) {
+        resolutionKey = null;
+        if (!shouldCacheFeatureResolution()) {
+            return;
+        }
+        String karafEtc = framework.getKarafEtc();
         try {
-            File karafEtc = new File(karafBase, framework.getKarafEtc());
-            FileUtils.copyFile(new File(karafEtc, "config.properties"), new File(karafEtc, "config.properties.paxexam"));
-            FileUtils.copyFile(new File(karafEtc, "system.properties"), new File(karafEtc, "system.properties.paxexam"));
-            FileUtils.copyFile(new File(karafEtc, "org.apache.karaf.features.cfg"), new File(karafEtc, "org.apache.karaf.features.cfg.paxexam"));
-            FileUtils.copyFile(new File(karafEtc, "org.ops4j.pax.logging.cfg"), new File(karafEtc, "org.ops4j.pax.logging.cfg.paxexam"));
-        } catch (Exception e) {
-            LOGGER.warn("Can't backup config files", e);
+            String key = FeatureResolutionCache.computeKey(karafBase, karafEtc, stage,
+                framework.getFrameworkURL(), featuresOptions);
+            if (getFeatureResolutionCache().apply(key, karafHome, karafEtc, stage)) {
+                LOGGER.info("Using cached feature resolution {}", key);
+            }
+            else {
+                resolutionKey = key;
+            }
+        }
+        catch (IOException exc) {
+            LOGGER.warn("Cannot use cached feature resolution, resolving features", exc);
+        }
+    }
+
+    /**
+     * Stores the resolution of the boot features, before any probe has been installed.
+     */
+    private void storeFeatureResolution() {
+        if (resolutionKey == null) {
+            return;
+        }
+        try {
+            InstalledBundle[] bundles = FeatureResolutionCache.awaitBootBundles(
+                target.getClientRBC()::getInstalledBundles,
+                FeatureResolutionCache.BOOT_SETTLE_MILLIS);
+            if (bundles == null) {
+                LOGGER.info("Not caching feature resolution, boot features have not been started");
+            }
+            else {
+                getFeatureResolutionCache().store(resolutionKey, bundles, karafBase);
+            }
+        }
+        catch (IOException | RuntimeException exc) {
+            LOGGER.warn("Cannot cache feature resolution", exc);
+        }
+        resolutionKey = null;
+    }
+
+    private boolean shouldSeedSystemFolder() {
+        ConfigurationManager cm = new ConfigurationManager();
+        return Boolean.parseBoolean(cm.getProperty(EXAM_KARAF_SYSTEM_DEPENDENCIES_KEY, "false"));
+    }
+
+    private File retrieveReusableTargetFolder(ExamSystem subsystem,
+        KarafReusePool.Instance parked) {
+        // the prepared folder must not clash with the folder of the parked instance
+        File folder = framework.getUnpackDirectory() == null ? null
+            : retrieveFinalTargetFolder(subsystem);
+        if (folder == null || (parked != null && folder.equals(parked.targetFolder))) {
+            File parent = framework.getUnpackDirectory() == null ? subsystem.getConfigFolder()
+                : transformToAbsolutePath(framework.getUnpackDirectory());
+            folder = new File(parent, UUID.randomUUID().toString());
+        }
+        return folder;
+    }
+
+    /**
+     * Returns the feature options of the container, including the exam feature and the feature
+     * of the test dependencies.
+     *
+     * @param deployer
+     *            deployer for the Karaf installation
+     * @param create
+     *            true if the feature of the test dependencies shall be created, false if only
+     *            its option is required
+     */
+    private List<KarafFeaturesOption> getFeaturesOptions(ExamSystem subsystem,
+        DependenciesDeployer deployer, boolean create) {
+        List<KarafFeaturesOption> featuresOptions = new ArrayList<>(
+            Arrays.asList(subsystem.getOptions(KarafFeaturesOption.class)));
+        String usedExamFeature = shouldInjectJUnitBundles(system)
+                ? "exam"
+                : "exam-no-junit";
+        featuresOptions.add(KarafDistributionOption.features(EXAM_REPO_URL, usedExamFeature));
+        if (!framework.isUseDeployFolder()) {
+            featuresOptions.add(create ? deployer.getDependenciesFeature(shouldSeedSystemFolder())
+                : deployer.getDependenciesFeatureOption());
+        }
+        return featuresOptions;
+    }
+
+    /**
+     * Records the feature repositories and features of the container, with the location of the
+     * given Karaf installation masked.
+     */
+    private void setFeatures(File base, List<KarafFeaturesOption> featuresOptions) {
+        repositories = new LinkedHashMap<>();
+        features = new LinkedHashSet<>();
+        String[] locations = new String[] { base.getAbsolutePath(), base.toURI().toString() };
+        for (KarafFeaturesOption featuresOption : featuresOptions) {
+            String url = featuresOption.getURL();
+            String masked = url;
+            for (String location : locations) {
+                masked = masked.replace(location, "${karaf.base}");
+            }
+            repositories.put(masked, url);
+            features.addAll(Arrays.asList(featuresOption.getFeatures()));
         }
     }
 
-    private void restoreConfigFiles() {
+    /**
+     * Takes over the parked Karaf instance if its fingerprint matches the configuration of this
+     * container, installing any missing feature repositories and features. Otherwise, the parked
+     * instance is shut down.
+     *
+     * @return true if the parked instance has been taken over
+     */
+    private boolean reuseOrRelease(KarafReusePool.Instance parked, ExamSystem subsystem)
+        throws IOException {
+        if (parked == null) {
+            return false;
+        }
+        setFeatures(parked.karafBase, getFeaturesOptions(subsystem,
+            new DependenciesDeployer(subsystem, parked.karafBase, parked.karafBase), false));
+        if (!parked.accepts(fingerprint, repositories, features)) {
+            LOGGER.info("Configuration differs from reusable Karaf instance, starting a new one");
+            parked.shutdown();
+            return false;
+        }
+
+        LOGGER.info("Reusing running Karaf instance {}", parked.name);
+        targetFolder = parked.targetFolder;
+        karafBase = parked.karafBase;
+        registry = parked.registry;
+        runner = parked.runner;
+        target = parked.target;
         try {
-            File karafEtc = new File(karafBase, framework.getKarafEtc());
-            FileUtils.copyFile(new File(karafEtc, "config.properties.paxexam"), new File(karafEtc, "config.properties"));
-            FileUtils.copyFile(new File(karafEtc, "system.properties.paxexam"), new File(karafEtc, "system.properties"));
-            FileUtils.copyFile(new File(karafEtc, "org.apache.karaf.features.cfg.paxexam"), new File(karafEtc, "org.apache.karaf.features.cfg"));
-            FileUtils.copyFile(new File(karafEtc, "org.ops4j.pax.logging.cfg.paxexam"), new File(karafEtc, "org.ops4j.pax.logging.cfg"));
-        } catch (Exception e) {
-            LOGGER.warn("Can't restore config files", e);
+            for (Map.Entry<String, String> repository : repositories.entrySet()) {
+                if (!parked.repositories.containsKey(repository.getKey())) {
+                    target.getClientRBC().callService(FEATURES_SERVICE, "addRepository",
+                        new Class<?>[] { URI.class }, new URI(repository.getValue()));
+                }
+            }
+        }
+        catch (URISyntaxException exc) {
+            throw new TestContainerException(exc);
         }
+        for (String feature : features) {
+            if (!parked.features.contains(feature)) {
+                target.getClientRBC().callService(FEATURES_SERVICE, "installFeature",
+                    new Class<?>[] { String.class }, feature);
+            }
+        }
+        return true;
+    }
+
+    private List<String> getLaunchSettings(ExamSystem subsystem) {
+        List<String> settings = new ArrayList<>();
+        settings.add(framework.getFrameworkURL());
+        settings.add(framework.getKarafMain());
+        settings.add(runner == null ? "" : runner.getClass().getName());
+        ArrayList<String> javaOpts = new ArrayList<>();
+        appendVmSettingsFromSystem(javaOpts, subsystem);
+        settings.addAll(javaOpts);
+        for (EnvironmentOption environmentOption : subsystem.getOptions(EnvironmentOption.class)) {
+            settings.add(environmentOption.getEnvironment());
+        }
+        for (PropagateSystemPropertyOption option : subsystem
+            .getOptions(PropagateSystemPropertyOption.class)) {
+            settings.add(option.getKey() + "=" + System.getProperty(option.getKey()));
+        }
+        settings.add(shouldLocalConsoleBeStarted(subsystem));
+        settings.add(shouldRemoteShellBeStarted(subsystem));
+        settings.add(Boolean.toString(shouldMBeanServerBuilderBeEnabled(subsystem)));
+        settings.add(Integer.toString(subsystem.getOptions(ServerModeOption.class).length));
+        return settings;
     }
 
     private boolean shouldInjectJUnitBundles(ExamSystem _system) {
@@ -287,6 +510,7 @@ public class KarafTestContainer implements TestContainer {
         if (subsystem.getOptions(ServerModeOption.class).length == 0) {
             waitForState(org.ops4j.pax.exam.karaf.container.internal.Constants.SYSTEM_BUNDLE,
                 Bundle.ACTIVE, subsystem.getTimeout());
+            storeFeatureResolution();
         }
         else {
             LOGGER
@@ -370,6 +594,19 @@ public class KarafTestContainer implements TestContainer {
         }
     }
 
+    private void extractDistribution(URL sourceDistribution, File folder) throws IOException {
+        ConfigurationManager cm = new ConfigurationManager();
+        boolean useCache = Boolean.parseBoolean(cm.getProperty(
+            EXAM_KARAF_DISTRIBUTION_CACHE_KEY, "false"));
+        if (useCache) {
+            File cacheDir = new File(System.getProperty("user.home"), ".pax/karaf/distributions");
+            new DistributionCache(cacheDir).extract(sourceDistribution, folder);
+        }
+        else {
+            ArchiveExtractor.extract(sourceDistribution, folder);
+        }
+    }
+
     private File retrieveFinalTargetFolder(ExamSystem subsystem) {
         if (framework.getUnpackDirectory() == null) {
             return subsystem.getConfigFolder();
@@ -398,7 +635,7 @@ public class KarafTestContainer implements TestContainer {
         }
     }
 
-    private void updateUserSetProperties(File karafHome,
+    private void updateUserSetProperties(File karafHome, KarafConfigurationStage stage,
         List<KarafDistributionConfigurationFileOption> options) throws IOException {
         HashMap<String, HashMap<String, List<KarafDistributionConfigurationFileOption>>> optionMap = new HashMap<>();
         for (KarafDistributionConfigurationFileOption option : options) {
@@ -428,49 +665,49 @@ public class KarafTestContainer implements TestContainer {
         String karafEtc = framework.getKarafEtc();
         Set<String> configFiles = optionMap.keySet();
         for (String configFile : configFiles) {
-            KarafConfigurationFile karafConfigurationFile = KarafConfigurationFileFactory.create(karafHome, configFile);
-            if (!karafConfigurationFile.exists()) {
+            String location = configFile;
+            if (!KarafConfigurationFileFactory.create(karafHome, configFile).exists()) {
                 // some property options will come from Pax-Exam and use the default data/etc locations,
                 // in those cases when the property file doesn't exist and we have custom data/etc paths
                 // we need to consider the custom location and use that - but only if it matches+exists
-                KarafConfigurationFile customConfigurationFile = null;
+                String customLocation = null;
                 if (configFile.startsWith("data/") && !configFile.startsWith(karafData)) {
-                    customConfigurationFile = KarafConfigurationFileFactory.create(karafHome, karafData + configFile.substring(4));
+                    customLocation = karafData + configFile.substring(4);
                 }
                 if (configFile.startsWith("etc/") && !configFile.startsWith(karafEtc)) {
-                    customConfigurationFile = KarafConfigurationFileFactory.create(karafHome, karafEtc + configFile.substring(3));
+                    customLocation = karafEtc + configFile.substring(3);
                 }
-                if (customConfigurationFile != null && customConfigurationFile.exists()) {
-                    karafConfigurationFile = customConfigurationFile;
+                if (customLocation != null
+                    && KarafConfigurationFileFactory.create(karafHome, customLocation).exists()) {
+                    location = customLocation;
                 }
             }
-            karafConfigurationFile.load();
             Collection<List<KarafDistributionConfigurationFileOption>> optionsToApply = optionMap
                 .get(configFile).values();
-            boolean store = true;
+            KarafDistributionConfigurationFileReplacementOption replacement = null;
+            for (List<KarafDistributionConfigurationFileOption> optionListToApply : optionsToApply) {
+                for (KarafDistributionConfigurationFileOption optionToApply : optionListToApply) {
+                    if (optionToApply instanceof KarafDistributionConfigurationFileReplacementOption) {
+                        replacement = (KarafDistributionConfigurationFileReplacementOption) optionToApply;
+                    }
+                }
+            }
+            if (replacement != null) {
+                // a replaced file is not modified by any other option
+                stage.replace(location, replacement.getSource());
+                continue;
+            }
+            KarafConfigurationFile karafConfigurationFile = stage.get(location);
             for (List<KarafDistributionConfigurationFileOption> optionListToApply : optionsToApply) {
                 for (KarafDistributionConfigurationFileOption optionToApply : optionListToApply) {
                     if (optionToApply instanceof KarafDistributionConfigurationFilePutOption) {
                         karafConfigurationFile.put(optionToApply.getKey(), optionToApply.getValue());
                     }
-                    else if (optionToApply instanceof KarafDistributionConfigurationFileReplacementOption) {
-                        karafConfigurationFile
-                            .replace(((KarafDistributionConfigurationFileReplacementOption) optionToApply)
-                                .getSource());
-                        store = false;
-                        break;
-                    }
                     else {
                         karafConfigurationFile
                             .extend(optionToApply.getKey(), optionToApply.getValue());
                     }
                 }
-                if (!store) {
-                    break;
-                }
-            }
-            if (store) {
-                karafConfigurationFile.store();
             }
         }
     }
@@ -506,29 +743,25 @@ public class KarafTestContainer implements TestContainer {
         return retVal;
     }
 
-    private void setupSystemProperties(File karafHome, ExamSystem _system) throws IOException {
-        File customPropertiesFile = new File(karafHome, framework.getKarafEtc() + "/system.properties");
+    private void setupSystemProperties(KarafConfigurationStage stage, ExamSystem _system)
+        throws IOException {
+        KarafConfigurationFile karafPropertyFile = stage.get(framework.getKarafEtc()
+            + "/system.properties");
         SystemPropertyOption[] customProps = _system.getOptions(SystemPropertyOption.class);
-        Properties karafPropertyFile = new Properties();
-        try (final FileInputStream customPropertiesInStream = new FileInputStream(customPropertiesFile)) {
-            karafPropertyFile.load(customPropertiesInStream);
-            for (SystemPropertyOption systemPropertyOption : customProps) {
-                karafPropertyFile.put(systemPropertyOption.getKey(), systemPropertyOption.getValue());
-            }
-            for (PropagateSystemPropertyOption option : system.getOptions(PropagateSystemPropertyOption.class)) {
-                String key = option.getKey();
-                String value = System.getProperty(key);
-                if (value != null) {
-                    karafPropertyFile.put(key, value);
-                }
-            }
-            try (final FileOutputStream customPropertiesOutStream = new FileOutputStream(customPropertiesFile)) {
-                karafPropertyFile.store(customPropertiesOutStream, "updated by pax-exam");
+        for (SystemPropertyOption systemPropertyOption : customProps) {
+            karafPropertyFile.put(systemPropertyOption.getKey(), systemPropertyOption.getValue());
+        }
+        for (PropagateSystemPropertyOption option : system.getOptions(PropagateSystemPropertyOption.class)) {
+            String key = option.getKey();
+            String value = System.getProperty(key);
+            if (value != null) {
+                karafPropertyFile.put(key, value);
             }
         }
     }
 
-    private void updateLogProperties(File karafHome, ExamSystem _system) throws IOException {
+    private void updateLogProperties(File karafHome, KarafConfigurationStage stage,
+        ExamSystem _system) throws IOException {
         DoNotModifyLogOption[] modifyLog = _system.getOptions(DoNotModifyLogOption.class);
         if (modifyLog != null && modifyLog.length != 0) {
             LOGGER.info("Log file should not be modified by the test framework");
@@ -538,15 +771,10 @@ public class KarafTestContainer implements TestContainer {
         LoggingBackend loggingBackend = getLoggingBackend(karafHome);
         String realLogLevel = retrieveRealLogLevel(_system);
 
-        File customPropertiesFile = new File(karafHome, framework.getKarafEtc() + "/org.ops4j.pax.logging.cfg");
-        Properties karafPropertyFile = new Properties();
-        try (final FileInputStream customPropertiesInStream = new FileInputStream(customPropertiesFile)) {
-            karafPropertyFile.load(customPropertiesInStream);
-            loggingBackend.updatePaxLoggingConfiguration(karafPropertyFile, realLogLevel);
-            try (final FileOutputStream customPropertiesOutStream = new FileOutputStream(customPropertiesFile)) {
-                karafPropertyFile.store(customPropertiesOutStream, "updated by pax-exam");
-            }
-        }
+        KarafCfgFile karafPropertyFile = (KarafCfgFile) stage.get(framework.getKarafEtc()
+            + "/org.ops4j.pax.logging.cfg");
+        loggingBackend.updatePaxLoggingConfiguration(karafPropertyFile.getProperties(),
+            realLogLevel);
     }
 
     private LoggingBackend getLoggingBackend(File karafHome) throws IOException, FileNotFoundException {
@@ -637,6 +865,9 @@ public class KarafTestContainer implements TestContainer {
 
     @Override
     public synchronized void stop() {
+        if (reuse && started && park()) {
+            return;
+        }
         LOGGER.debug("Shutting down the test container (Pax Runner)");
         try {
             if (started) {
@@ -669,8 +900,11 @@ public class KarafTestContainer implements TestContainer {
         finally {
             started = false;
             target = null;
-            if (framework.getExisting() != null) {
-                restoreConfigFiles();
+            FreePorts.release(rmiPort);
+            FreePorts.release(invokerPort);
+            if (existingConfiguration != null) {
+                existingConfiguration.restore();
+                existingConfiguration = null;
             }
             if (shouldDeleteRuntime()) {
                 system.clear();
@@ -684,6 +918,32 @@ public class KarafTestContainer implements TestContainer {
         }
     }
 
+    /**
+     * Keeps the running instance for reuse by the next test container, after uninstalling the
+     * probes.
+     *
+     * @return true if the instance has been parked
+     */
+    private boolean park() {
+        try {
+            // keeps the event channel open for the next container
+            target.getClientRBC().cleanup();
+        }
+        catch (RuntimeException exc) {
+            LOGGER.warn("Cannot clean up Karaf instance for reuse", exc);
+            return false;
+        }
+        KarafReusePool.park(new KarafReusePool.Instance(rmiName, rmiPort, invokerPort, registry,
+            runner, target, targetFolder, karafBase, shouldDeleteRuntime(), fingerprint,
+            repositories, features));
+        started = false;
+        target = null;
+        if (shouldDeleteRuntime()) {
+            system.clear();
+        }
+        return true;
+    }
+
     private void forceCleanup() {
         LOGGER.info("Can't remove runtime system; shedule it for exit of the jvm.");
         try {
@@ -16,10 +16,13 @@
  */
 package org.ops4j.pax.exam.karaf.container.internal;
 
+import static org.ops4j.pax.exam.Constants.EXAM_KARAF_EMBEDDED_SHARED_KEY;
+
 import java.util.ArrayList;
 import java.util.List;
 
 import org.kohsuke.MetaInfServices;
+import org.ops4j.pax.exam.ConfigurationManager;
 import org.ops4j.pax.exam.ExamSystem;
 import org.ops4j.pax.exam.TestContainer;
 import org.ops4j.pax.exam.TestContainerFactory;
@@ -67,7 +70,8 @@ public class KarafTestContainerFactory implements TestContainerFactory {
                 system.getOptions(KarafDistributionConfigurationOption.class);
         for (KarafDistributionBaseConfigurationOption testContainer : options) {
             if (testContainer.isRunEmbedded()) {
-                containers.add(new KarafTestContainer(system, testContainer, new KarafEmbeddedRunner()));
+                containers.add(new KarafTestContainer(system, testContainer,
+                    new KarafEmbeddedRunner(shouldShareEmbeddedLauncher())));
             }
             else {
                 containers.add(new KarafTestContainer(system, testContainer, new KarafJavaRunner()));
@@ -76,4 +80,9 @@ public class KarafTestContainerFactory implements TestContainerFactory {
         return containers.get(0);
     }
 
+    private boolean shouldShareEmbeddedLauncher() {
+        ConfigurationManager cm = new ConfigurationManager();
+        return Boolean.parseBoolean(cm.getProperty(EXAM_KARAF_EMBEDDED_SHARED_KEY, "false"));
+    }
+
 }
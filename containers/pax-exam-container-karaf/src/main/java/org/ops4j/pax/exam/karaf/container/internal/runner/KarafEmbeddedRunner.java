@@ -18,6 +18,7 @@ package org.ops4j.pax.exam.karaf.container.internal.runner;
 
 import static java.util.Collections.emptyList;
 import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
 import java.io.File;
@@ -32,24 +33,53 @@ import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.stream.Stream;
 
 /**
  * Very simple asynchronous implementation of Java Runner.
  * Exec is being invoked in a fresh Thread.
+ * <p>
+ * In shared mode, the class loader of the Karaf launcher is kept for the lifetime of the VM and
+ * reused by all embedded instances of the same distribution, so that the launcher classes are
+ * loaded and compiled only once.
  */
 public class KarafEmbeddedRunner implements Runner {
 
+    /**
+     * Shared launcher class loaders by distribution key.
+     */
+    private static final Map<String, SharedLauncher> SHARED_LAUNCHERS = new HashMap<>();
+
     private InternalRunner runner;
     private List<Runnable> resetTasks;
+    private volatile Object karafInstance;
+    private final boolean shared;
 
     public KarafEmbeddedRunner() {
+        this(false);
+    }
+
+    /**
+     * @param shared
+     *            true if the launcher class loader shall be shared with other embedded instances
+     *            of the same distribution
+     */
+    public KarafEmbeddedRunner(final boolean shared) {
         runner = new InternalRunner();
+        this.shared = shared;
     }
 
     @Override
@@ -74,6 +104,11 @@ public class KarafEmbeddedRunner implements Runner {
         final String cp = String.join(File.pathSeparator, classPath);
 
         resetTasks = new ArrayList<>();
+        if (shared) {
+            // Karaf does not override system properties set by a previous instance, so the ones
+            // it sets are reset for the next instance sharing the launcher
+            resetTasks.add(resetKarafSystemProperties(karafEtc));
+        }
         resetTasks.add(setSystemProperty("karaf.instances", karafHome + "/instances"));
         resetTasks.add(setSystemProperty("karaf.home", karafHome));
         resetTasks.add(setSystemProperty("karaf.base", karafBase.getAbsolutePath()));
@@ -105,40 +140,21 @@ public class KarafEmbeddedRunner implements Runner {
                 }
             }
             if (!mainBundles.isEmpty()) {
-                final URL[] bundleUrls = mainBundles.stream().map(it -> {
-                    try {
-                        return it.toURI().toURL();
-                    } catch (final MalformedURLException e) {
-                        throw new IllegalArgumentException(e);
-                    }
-                }).toArray(URL[]::new);
-
-                final File jrePropsFile = new File(karafBase, "etc/jre.properties");
-                final Properties jreProps = loadProps(jrePropsFile);
-                final File configPropsFile = new File(karafBase, "etc/config.properties");
-                final Properties configProps = loadProps(configPropsFile);
-                if (!configProps.isEmpty()) {
-                    final String property = configProps.getProperty("org.osgi.framework.bootdelegation");
-                    if (property != null && !property.contains("com.intellij.rt.")) {
-                        try (final OutputStream outputStream = new FileOutputStream(configPropsFile)) {
-                            configProps.put("org.osgi.framework.bootdelegation", property + getCustomBootDelegation() + ",com.intellij.rt.*");
-                            configProps.store(outputStream, "adding intellij in delegation");
+                final ClassLoader parent = thread.getContextClassLoader();
+                final URLClassLoader urlCl;
+                if (shared) {
+                    urlCl = getSharedClassLoader(karafBase, mainBundles, parent);
+                } else {
+                    final URLClassLoader mainCl = createMainClassLoader(karafBase, mainBundles, parent);
+                    resetTasks.add(() -> {
+                        try {
+                            mainCl.close();
                         } catch (final IOException e) {
-                            throw new IllegalStateException(e);
+                            // no-op: not important
                         }
-                    }
+                    });
+                    urlCl = mainCl;
                 }
-
-                final URLClassLoader urlCl = new MainClassLoader(bundleUrls, new FilteringClassLoader(
-                        thread.getContextClassLoader(),
-                        findJre(jreProps, configProps)));
-                resetTasks.add(() -> {
-                    try {
-                        urlCl.close();
-                    } catch (final IOException e) {
-                        // no-op: not important
-                    }
-                });
                 thread.setContextClassLoader(urlCl); // no need to reset, this thread is single use
                 final Class<?> mainClass = urlCl.loadClass(main);
                 final Constructor<?> constructor = mainClass.getConstructor(String[].class);
@@ -146,17 +162,109 @@ public class KarafEmbeddedRunner implements Runner {
                 final Object karafInstance = constructor.newInstance(new Object[]{arguments});
                 final Method method = mainClass.getMethod("launch", (Class<?>[]) null);
                 method.invoke(karafInstance, (Object[]) null);
+                this.karafInstance = karafInstance;
             } else {
                 throw new RuntimeException("No Karaf main found");
             }
 
         } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException
                 | IllegalArgumentException | InvocationTargetException | NoSuchMethodException
-                | SecurityException e) {
+                | SecurityException | IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    private URLClassLoader createMainClassLoader(final File karafBase, final List<File> mainBundles,
+                                                 final ClassLoader parent) {
+        final URL[] bundleUrls = mainBundles.stream().map(it -> {
+            try {
+                return it.toURI().toURL();
+            } catch (final MalformedURLException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }).toArray(URL[]::new);
+
+        final File jrePropsFile = new File(karafBase, "etc/jre.properties");
+        final Properties jreProps = loadProps(jrePropsFile);
+        final File configPropsFile = new File(karafBase, "etc/config.properties");
+        final Properties configProps = loadProps(configPropsFile);
+        if (!configProps.isEmpty()) {
+            final String property = configProps.getProperty("org.osgi.framework.bootdelegation");
+            if (property != null && !property.contains("com.intellij.rt.")) {
+                try (final OutputStream outputStream = new FileOutputStream(configPropsFile)) {
+                    configProps.put("org.osgi.framework.bootdelegation", property + getCustomBootDelegation() + ",com.intellij.rt.*");
+                    configProps.store(outputStream, "adding intellij in delegation");
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        return new MainClassLoader(bundleUrls, new FilteringClassLoader(parent, findJre(jreProps, configProps)));
+    }
+
+    /**
+     * Returns the launcher class loader shared by all instances of the same distribution,
+     * creating it on first use. The distribution is identified by the content of the launcher
+     * jars and of the configuration the class loader is derived from. For further instances, the
+     * configuration is not parsed again, the patched {@code etc/config.properties} is only
+     * written.
+     */
+    private URLClassLoader getSharedClassLoader(final File karafBase, final List<File> mainBundles,
+                                                final ClassLoader parent) throws IOException {
+        final File configPropsFile = new File(karafBase, "etc/config.properties");
+        final List<File> keyFiles = new ArrayList<>(mainBundles);
+        keyFiles.add(new File(karafBase, "etc/jre.properties"));
+        keyFiles.add(configPropsFile);
+        // the class loader also depends on the customizations of the boot delegation
+        final String key = Stream.of(digest(keyFiles), getCustomBootDelegation(),
+                getCustomJvmPackages().collect(joining(",")), getForcedOsgiPackages().collect(joining(",")))
+                .collect(joining("@"));
+        synchronized (SHARED_LAUNCHERS) {
+            final SharedLauncher launcher = SHARED_LAUNCHERS.get(key);
+            if (launcher != null && launcher.parent == parent) {
+                if (launcher.config != null && !Arrays.equals(launcher.config, Files.readAllBytes(configPropsFile.toPath()))) {
+                    Files.write(configPropsFile.toPath(), launcher.config);
+                }
+                return launcher.classLoader;
+            }
+            // the launcher jars of this instance are deleted with it, so the class loader uses copies
+            final File folder = Files.createTempDirectory("pax-exam-karaf-launcher").toFile();
+            folder.deleteOnExit();
+            final List<File> copies = new ArrayList<>();
+            for (final File mainBundle : mainBundles) {
+                final File copy = new File(folder, copies.size() + "-" + mainBundle.getName());
+                Files.copy(mainBundle.toPath(), copy.toPath());
+                copy.deleteOnExit();
+                copies.add(copy);
+            }
+            final URLClassLoader classLoader = createMainClassLoader(karafBase, copies, parent);
+            final byte[] config = configPropsFile.exists() ? Files.readAllBytes(configPropsFile.toPath()) : null;
+            SHARED_LAUNCHERS.put(key, new SharedLauncher(parent, classLoader, config));
+            return classLoader;
+        }
+    }
+
+    private String digest(final List<File> files) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (final File file : files) {
+            digest.update(file.getName().getBytes(StandardCharsets.UTF_8));
+            if (file.exists()) {
+                digest.update(Files.readAllBytes(file.toPath()));
+            }
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
     private Runnable setSystemProperty(final String key, final String value) {
         final String old = System.getProperty(key);
         System.setProperty(key, value);
@@ -164,11 +272,41 @@ public class KarafEmbeddedRunner implements Runner {
             if (old == null) {
                 System.clearProperty(key);
             } else {
-                System.setProperty(key, value);
+                System.setProperty(key, old);
+            }
+        };
+    }
+
+    /**
+     * Records the system properties Karaf's {@code Main} may set, which are the ones listed in
+     * {@code etc/system.properties} and the {@code karaf.*} properties.
+     *
+     * @return task restoring the recorded values
+     */
+    private Runnable resetKarafSystemProperties(final String karafEtc) {
+        final Set<String> keys = loadProps(new File(karafEtc, "system.properties")).stringPropertyNames();
+        final Properties previous = new Properties();
+        for (final String key : System.getProperties().stringPropertyNames()) {
+            if (isKarafSystemProperty(keys, key)) {
+                previous.setProperty(key, System.getProperty(key));
+            }
+        }
+        return () -> {
+            for (final String key : System.getProperties().stringPropertyNames()) {
+                if (isKarafSystemProperty(keys, key) && !previous.containsKey(key)) {
+                    System.clearProperty(key);
+                }
+            }
+            for (final String key : previous.stringPropertyNames()) {
+                System.setProperty(key, previous.getProperty(key));
             }
         };
     }
 
+    private static boolean isKarafSystemProperty(final Set<String> keys, final String key) {
+        return key.startsWith("karaf.") || keys.contains(key);
+    }
+
     private Properties loadProps(final File file) {
         final Properties props = new Properties();
         if (file.exists()) {
@@ -300,12 +438,45 @@ public class KarafEmbeddedRunner implements Runner {
     @Override
     public synchronized void shutdown() {
         runner.shutdown();
+        destroyKaraf();
         if (resetTasks != null) {
             resetTasks.forEach(Runnable::run);
             resetTasks.clear();
         }
     }
 
+    /**
+     * Lets Karaf release its lock and stop its monitor thread, which would otherwise exit the VM
+     * as soon as the data directory is deleted.
+     */
+    private void destroyKaraf() {
+        final Object instance = karafInstance;
+        karafInstance = null;
+        if (instance == null) {
+            return;
+        }
+        try {
+            instance.getClass().getMethod("destroy").invoke(instance);
+        } catch (final NoSuchMethodException e) {
+            // no-op: nothing to release
+        } catch (final IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class SharedLauncher {
+        private final ClassLoader parent;
+        private final URLClassLoader classLoader;
+        // patched etc/config.properties
+        private final byte[] config;
+
+        SharedLauncher(final ClassLoader parent, final URLClassLoader classLoader, final byte[] config) {
+            this.parent = parent;
+            this.classLoader = classLoader;
+            this.config = config;
+        }
+    }
+
     private static class MainClassLoader extends URLClassLoader {
         static {
             registerAsParallelCapable();
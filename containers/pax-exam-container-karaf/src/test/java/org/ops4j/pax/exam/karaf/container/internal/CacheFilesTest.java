@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheFilesTest {
+
+    private File workDir;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("cache-files").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(workDir);
+    }
+
+    @Test
+    public void replaceDoesNotWriteThroughLink() throws IOException {
+        Path cached = new File(workDir, "cached.properties").toPath();
+        Path installed = new File(workDir, "installed.properties").toPath();
+        Files.write(cached, "a=b".getBytes(StandardCharsets.UTF_8));
+        CacheFiles.linkOrCopy(cached, installed);
+
+        CacheFiles.replace(installed, "a=c".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertEquals("a=b", new String(Files.readAllBytes(cached), StandardCharsets.UTF_8));
+        Assert.assertEquals("a=c",
+            new String(Files.readAllBytes(installed), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void pruneLeastRecentlyModifiedEntries() throws IOException {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 4; i++) {
+            File entry = new File(workDir, "entry" + i);
+            entry.mkdir();
+            entry.setLastModified(now - i * 60000L);
+        }
+        new File(workDir, "entry9.tmp").mkdir();
+
+        Assert.assertFalse(CacheFiles.pruneLru(workDir, 4));
+        Assert.assertTrue(CacheFiles.pruneLru(workDir, 2));
+
+        Assert.assertTrue(new File(workDir, "entry0").isDirectory());
+        Assert.assertTrue(new File(workDir, "entry1").isDirectory());
+        Assert.assertFalse(new File(workDir, "entry2").exists());
+        Assert.assertFalse(new File(workDir, "entry3").exists());
+        Assert.assertTrue(new File(workDir, "entry9.tmp").isDirectory());
+    }
+}
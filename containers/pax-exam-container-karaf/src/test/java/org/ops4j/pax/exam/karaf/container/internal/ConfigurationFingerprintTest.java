@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import static org.ops4j.pax.exam.CoreOptions.systemProperty;
+import static org.ops4j.pax.exam.CoreOptions.workingDirectory;
+import static org.ops4j.pax.exam.karaf.options.KarafDistributionOption.editConfigurationFilePut;
+import static org.ops4j.pax.exam.karaf.options.KarafDistributionOption.features;
+import static org.ops4j.pax.exam.karaf.options.KarafDistributionOption.replaceConfigurationFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.pax.exam.Option;
+
+public class ConfigurationFingerprintTest {
+
+    private static final List<String> SETTINGS = Arrays.asList("-Xmx512m");
+
+    private File workDir;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("fingerprint").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(workDir);
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(workDir, name);
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private Option[] createOptions(String name, String level, File logConfig) {
+        return new Option[] {
+            workingDirectory(new File(workDir, name).getPath()),
+            systemProperty("foo").value("bar"),
+            editConfigurationFilePut("etc/org.ops4j.pax.logging.cfg", "log4j2.rootLogger.level",
+                level),
+            replaceConfigurationFile("etc/log4j2.xml", logConfig),
+            features("mvn:org.apache.karaf.features/standard/4.2.0/xml/features", name) };
+    }
+
+    @Test
+    public void ignoreWorkingDirectoryFeaturesAndFileNames() throws IOException {
+        Option[] first = createOptions("first", "INFO", write("first.xml", "<Configuration/>"));
+        Option[] second = createOptions("second", "INFO", write("second.xml", "<Configuration/>"));
+        Assert.assertEquals(ConfigurationFingerprint.compute(SETTINGS, first),
+            ConfigurationFingerprint.compute(SETTINGS, second));
+    }
+
+    @Test
+    public void detectConfigurationChanges() throws IOException {
+        File logConfig = write("log4j2.xml", "<Configuration/>");
+        String fingerprint = ConfigurationFingerprint.compute(SETTINGS,
+            createOptions("first", "INFO", logConfig));
+
+        Assert.assertNotEquals(fingerprint, ConfigurationFingerprint.compute(
+            Arrays.asList("-Xmx1g"), createOptions("first", "INFO", logConfig)));
+        Assert.assertNotEquals(fingerprint, ConfigurationFingerprint.compute(SETTINGS,
+            createOptions("first", "DEBUG", logConfig)));
+
+        write("log4j2.xml", "<Configuration status=\"debug\"/>");
+        Assert.assertNotEquals(fingerprint, ConfigurationFingerprint.compute(SETTINGS,
+            createOptions("first", "INFO", logConfig)));
+    }
+
+    @Test
+    public void describeUnknownStateByIdentity() throws IOException {
+        StringBuilder first = new StringBuilder();
+        ConfigurationFingerprint.describe(new Object(), first, new HashSet<Object>());
+        StringBuilder second = new StringBuilder();
+        ConfigurationFingerprint.describe(new Object(), second, new HashSet<Object>());
+        Assert.assertNotEquals(first.toString(), second.toString());
+    }
+}
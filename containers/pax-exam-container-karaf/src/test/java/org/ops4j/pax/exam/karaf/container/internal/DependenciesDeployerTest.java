@@ -4,6 +4,7 @@ import static org.ops4j.pax.exam.CoreOptions.mavenBundle;
 import static org.ops4j.pax.exam.CoreOptions.wrappedBundle;
 
 import java.io.StringWriter;
+import java.util.Collections;
 
 import org.hamcrest.core.StringContains;
 import org.junit.Assert;
@@ -54,4 +55,27 @@ public class DependenciesDeployerTest {
             "</feature>\n" + 
             "</features>\n", wr.toString());
     }
+
+    @Test
+    public void testDependencyFeatureWithLocalUrl() {
+        MavenArtifactProvisionOption option = mavenBundle().groupId("mygroup").artifactId("myArtifactId").version("1.0");
+        StringWriter wr = new StringWriter();
+        DependenciesDeployer.writeDependenciesFeature(wr, Collections.singletonMap(
+            "mvn:mygroup/myArtifactId/1.0", "file:/karaf/system/mygroup/myArtifactId/1.0/myArtifactId-1.0.jar"), option);
+        Assert.assertThat(wr.toString(), StringContains.containsString(
+            "<bundle>file:/karaf/system/mygroup/myArtifactId/1.0/myArtifactId-1.0.jar</bundle>"));
+    }
+
+    @Test
+    public void testSystemPath() {
+        Assert.assertEquals("my/group/myArtifactId/1.0/myArtifactId-1.0.jar",
+            DependenciesDeployer.getSystemPath("mvn:my.group/myArtifactId/1.0"));
+        Assert.assertEquals("my/group/myArtifactId/1.0/myArtifactId-1.0-tests.war",
+            DependenciesDeployer.getSystemPath("mvn:my.group/myArtifactId/1.0/war/tests"));
+        Assert.assertEquals("my/group/myArtifactId/1.0/myArtifactId-1.0.jar",
+            DependenciesDeployer.getSystemPath("mvn:http://repo.example.org/maven2!my.group/myArtifactId/1.0"));
+        Assert.assertNull(DependenciesDeployer.getSystemPath("mvn:my.group/myArtifactId"));
+        Assert.assertNull(DependenciesDeployer.getSystemPath("mvn:my.group/myArtifactId/[1.0,2.0)"));
+        Assert.assertNull(DependenciesDeployer.getSystemPath("file:/tmp/myArtifactId-1.0.jar"));
+    }
 }
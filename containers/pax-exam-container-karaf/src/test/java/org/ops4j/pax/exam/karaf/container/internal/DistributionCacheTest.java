@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DistributionCacheTest {
+
+    private File workDir;
+    private File archive;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("distribution-cache").toFile();
+        archive = new File(workDir, "karaf.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(archive))) {
+            addEntry(zos, "karaf/system/org/foo/foo.jar", "foo");
+            addEntry(zos, "karaf/etc/config.properties", "a=b");
+        }
+    }
+
+    private void addEntry(ZipOutputStream zos, String name, String content) throws IOException {
+        zos.putNextEntry(new ZipEntry(name));
+        zos.write(content.getBytes(StandardCharsets.UTF_8));
+        zos.closeEntry();
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(workDir);
+    }
+
+    @Test
+    public void extractOnceAndLinkSystemFiles() throws IOException {
+        File cacheDir = new File(workDir, "cache");
+        DistributionCache cache = new DistributionCache(cacheDir);
+        File first = new File(workDir, "first");
+        File second = new File(workDir, "second");
+        cache.extract(archive.toURI().toURL(), first);
+        cache.extract(archive.toURI().toURL(), second);
+
+        File[] entries = cacheDir.listFiles(File::isDirectory);
+        Assert.assertEquals(1, entries.length);
+        File pristine = entries[0];
+        Assert.assertEquals("a=b", FileUtils.readFileToString(new File(second,
+            "etc/config.properties"), StandardCharsets.UTF_8));
+        Assert.assertTrue(Files.isSameFile(new File(first, "system/org/foo/foo.jar").toPath(),
+            new File(second, "system/org/foo/foo.jar").toPath()));
+        Assert.assertFalse(Files.isSameFile(new File(pristine, "etc/config.properties").toPath(),
+            new File(second, "etc/config.properties").toPath()));
+    }
+
+    @Test
+    public void lookUpChecksumByMetadata() throws IOException {
+        File cacheDir = new File(workDir, "cache");
+        DistributionCache cache = new DistributionCache(cacheDir);
+        cache.extract(archive.toURI().toURL(), new File(workDir, "first"));
+
+        // the archive is not read again as long as size and modification time are unchanged
+        long lastModified = archive.lastModified();
+        Files.write(archive.toPath(), new byte[(int) archive.length()]);
+        archive.setLastModified(lastModified);
+        File second = new File(workDir, "second");
+        cache.extract(archive.toURI().toURL(), second);
+        Assert.assertEquals("a=b", FileUtils.readFileToString(new File(second,
+            "etc/config.properties"), StandardCharsets.UTF_8));
+
+        archive.setLastModified(lastModified - 10000);
+        try {
+            cache.extract(archive.toURI().toURL(), new File(workDir, "third"));
+            Assert.fail("changed archive not extracted again");
+        }
+        catch (IOException exc) {
+            // expected, the archive is no longer valid
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.hamcrest.core.StringContains;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.pax.exam.karaf.options.KarafFeaturesOption;
+import org.ops4j.pax.exam.rbc.internal.InstalledBundle;
+import org.osgi.framework.Bundle;
+
+public class FeatureResolutionCacheTest {
+
+    private File workDir;
+    private File first;
+    private File second;
+    private File external;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("feature-resolution-cache").toFile();
+        first = createInstallation("first", "fragment 1");
+        second = createInstallation("second", "fragment 2");
+        write(new File(first, "system/org/foo/foo/1.0/foo-1.0.jar"), "foo");
+        external = new File(workDir, "external.jar");
+        write(external, "external");
+    }
+
+    private File createInstallation(String name, String fragment) throws IOException {
+        File karafBase = new File(workDir, name);
+        write(new File(karafBase, "etc/startup.properties"), "mvn\\:org.foo/foo/1.0 = 5\n");
+        write(new File(karafBase, "etc/org.apache.karaf.features.cfg"), "featuresBoot = standard\n");
+        write(new File(karafBase, "test-dependencies.xml"), "<bundle>"
+            + new File(karafBase, "deploy/fragment.jar").toURI() + "</bundle>\n");
+        write(new File(karafBase, "deploy/fragment.jar"), fragment);
+        return karafBase;
+    }
+
+    private void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(workDir);
+    }
+
+    private String computeKey(File karafBase) throws IOException {
+        List<KarafFeaturesOption> featuresOptions = Collections.singletonList(
+            new KarafFeaturesOption(new File(karafBase, "test-dependencies.xml").toURI()
+                .toString(), "test-dependencies"));
+        return FeatureResolutionCache.computeKey(karafBase, "etc",
+            new KarafConfigurationStage(karafBase, false),
+            "mvn:org.apache.karaf/apache-karaf/4.0.0/zip", featuresOptions);
+    }
+
+    private boolean apply(FeatureResolutionCache cache, String key, File karafBase)
+        throws IOException {
+        KarafConfigurationStage stage = new KarafConfigurationStage(karafBase, false);
+        boolean applied = cache.apply(key, karafBase, "etc", stage);
+        stage.commit();
+        return applied;
+    }
+
+    @Test
+    public void applyStoredResolution() throws IOException {
+        FeatureResolutionCache cache = new FeatureResolutionCache(new File(workDir, "cache"));
+        String key = computeKey(first);
+        Assert.assertEquals(key, computeKey(second));
+        Assert.assertFalse(apply(cache, key, second));
+
+        cache.store(key, new InstalledBundle[] {
+            new InstalledBundle(0, "System Bundle", Bundle.ACTIVE, 0, false),
+            new InstalledBundle(1, "mvn:org.foo/foo/1.0", Bundle.ACTIVE, 5, false),
+            new InstalledBundle(2, external.toURI().toString(), Bundle.ACTIVE, 80, false),
+            new InstalledBundle(3, new File(first, "deploy/fragment.jar").toURI().toString(),
+                Bundle.RESOLVED, 80, true) }, first);
+        Assert.assertTrue(apply(cache, key, second));
+
+        String startup = FileUtils.readFileToString(new File(second, "etc/startup.properties"),
+            StandardCharsets.UTF_8);
+        Assert.assertThat(startup, StringContains.containsString("mvn\\:org.foo/foo/1.0 = 5\n"));
+        Assert.assertThat(startup, StringContains.containsString(
+            "mvn\\:org.ops4j.pax.exam.resolved/bundle-2/0.0.0 = 80\n"));
+        Assert.assertThat(startup, StringContains.containsString(
+            "mvn\\:org.ops4j.pax.exam.resolved/bundle-3/0.0.0 = 80\n"));
+        File system = new File(second, "system");
+        Assert.assertEquals("foo", FileUtils.readFileToString(
+            new File(system, "org/foo/foo/1.0/foo-1.0.jar"), StandardCharsets.UTF_8));
+        Assert.assertEquals("external", FileUtils.readFileToString(new File(system,
+            "org/ops4j/pax/exam/resolved/bundle-2/0.0.0/bundle-2-0.0.0.jar"),
+            StandardCharsets.UTF_8));
+        // files of the installation are taken from the new installation
+        Assert.assertEquals("fragment 2", FileUtils.readFileToString(new File(system,
+            "org/ops4j/pax/exam/resolved/bundle-3/0.0.0/bundle-3-0.0.0.jar"),
+            StandardCharsets.UTF_8));
+
+        KarafConfigurationFile featuresCfg = KarafConfigurationFileFactory.create(
+            new File(second, "etc"), "org.apache.karaf.features.cfg");
+        featuresCfg.load();
+        Assert.assertEquals("", featuresCfg.get("featuresBoot"));
+    }
+
+    @Test
+    public void doNotStoreInactiveBundles() throws IOException {
+        FeatureResolutionCache cache = new FeatureResolutionCache(new File(workDir, "cache"));
+        String key = computeKey(first);
+        cache.store(key, new InstalledBundle[] {
+            new InstalledBundle(1, "mvn:org.foo/foo/1.0", Bundle.RESOLVED, 5, false) }, first);
+        Assert.assertFalse(apply(cache, key, second));
+    }
+
+    @Test
+    public void doNotCacheBundlesInstalledAfterBoot() throws IOException {
+        FeatureResolutionCache cache = new FeatureResolutionCache(new File(workDir, "cache"));
+        String key = computeKey(first);
+        InstalledBundle system = new InstalledBundle(0, "System Bundle", Bundle.ACTIVE, 0, false);
+        InstalledBundle starting = new InstalledBundle(1, "mvn:org.foo/foo/1.0", Bundle.STARTING,
+            5, false);
+        InstalledBundle active = new InstalledBundle(1, "mvn:org.foo/foo/1.0", Bundle.ACTIVE, 5,
+            false);
+        InstalledBundle probe = new InstalledBundle(2, external.toURI().toString(),
+            Bundle.ACTIVE, 80, false);
+        // the probe is only installed once the boot features have been started
+        Iterator<InstalledBundle[]> states = Arrays.asList(
+            new InstalledBundle[] { system, starting },
+            new InstalledBundle[] { system, active },
+            new InstalledBundle[] { system, active, probe }).iterator();
+
+        InstalledBundle[] bundles = FeatureResolutionCache.awaitBootBundles(states::next, 5000);
+        Assert.assertEquals(2, bundles.length);
+        Assert.assertTrue(states.hasNext());
+        cache.store(key, bundles, first);
+        Assert.assertTrue(apply(cache, key, second));
+
+        String startup = FileUtils.readFileToString(new File(second, "etc/startup.properties"),
+            StandardCharsets.UTF_8);
+        Assert.assertThat(startup, StringContains.containsString("mvn\\:org.foo/foo/1.0 = 5\n"));
+        Assert.assertFalse(startup.contains("bundle-2"));
+    }
+
+    @Test
+    public void giveUpWhenBootDoesNotSettle() {
+        InstalledBundle[] bundles = new InstalledBundle[] {
+            new InstalledBundle(1, "mvn:org.foo/foo/1.0", Bundle.RESOLVED, 5, false) };
+        Assert.assertNull(FeatureResolutionCache.awaitBootBundles(() -> bundles, 100));
+    }
+}
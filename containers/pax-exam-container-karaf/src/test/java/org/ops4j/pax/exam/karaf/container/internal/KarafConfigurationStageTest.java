@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.karaf.container.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KarafConfigurationStageTest {
+
+    private static final String SYSTEM = "# original\nfoo = bar\n";
+
+    private static final String CONFIG = "# original\norg.osgi.framework.bootdelegation = a\n";
+
+    private File karafHome;
+
+    @Before
+    public void setUp() throws IOException {
+        karafHome = Files.createTempDirectory("karaf-configuration-stage").toFile();
+        write("etc/system.properties", SYSTEM);
+        write("etc/config.properties", CONFIG);
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(karafHome);
+    }
+
+    private void write(String location, String content) throws IOException {
+        File file = new File(karafHome, location);
+        file.getParentFile().mkdirs();
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+    }
+
+    private String read(String location) throws IOException {
+        return FileUtils.readFileToString(new File(karafHome, location), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void writeModifiedFilesOnly() throws IOException {
+        KarafConfigurationStage stage = new KarafConfigurationStage(karafHome, false);
+        stage.get("etc/system.properties").put("foo", "bar");
+        stage.get("etc/config.properties").extend("org.osgi.framework.bootdelegation", "b");
+        stage.get("etc/config.properties").put("other", "value");
+        Assert.assertEquals(CONFIG, read("etc/config.properties"));
+        stage.commit();
+
+        // unchanged content is not rewritten, so the comment is kept
+        Assert.assertEquals(SYSTEM, read("etc/system.properties"));
+        KarafConfigurationFile config = KarafConfigurationFileFactory.create(karafHome,
+            "etc/config.properties");
+        config.load();
+        Assert.assertEquals("a,b", config.get("org.osgi.framework.bootdelegation"));
+        Assert.assertEquals("value", config.get("other"));
+    }
+
+    @Test
+    public void readStagedContent() throws IOException {
+        KarafConfigurationStage stage = new KarafConfigurationStage(karafHome, false);
+        File system = new File(karafHome, "etc/system.properties");
+        Assert.assertEquals(SYSTEM, new String(stage.read(system), StandardCharsets.UTF_8));
+        stage.get("etc/system.properties").put("foo", "baz");
+        Assert.assertTrue(new String(stage.read(system), StandardCharsets.UTF_8)
+            .contains("foo=baz"));
+        Assert.assertEquals(SYSTEM, read("etc/system.properties"));
+    }
+
+    @Test
+    public void replaceAndExtend() throws IOException {
+        write("replacement.cfg", "replaced = true\n");
+        KarafConfigurationStage stage = new KarafConfigurationStage(karafHome, false);
+        stage.get("etc/system.properties").put("discarded", "true");
+        stage.replace("etc/system.properties", new File(karafHome, "replacement.cfg"));
+        stage.commit();
+        Assert.assertEquals("replaced = true\n", read("etc/system.properties"));
+
+        stage.replace("etc/config.properties", new File(karafHome, "replacement.cfg"));
+        stage.get("etc/config.properties").put("extended", "true");
+        stage.commit();
+        KarafConfigurationFile config = KarafConfigurationFileFactory.create(karafHome,
+            "etc/config.properties");
+        config.load();
+        Assert.assertEquals("true", config.get("replaced"));
+        Assert.assertEquals("true", config.get("extended"));
+    }
+
+    @Test
+    public void restoreOriginals() throws IOException {
+        KarafConfigurationStage stage = new KarafConfigurationStage(karafHome, true);
+        stage.get("etc/system.properties").put("foo", "baz");
+        stage.get("etc/custom.cfg").put("key", "value");
+        stage.commit();
+        Assert.assertTrue(new File(karafHome, "etc/custom.cfg").exists());
+
+        stage.restore();
+        Assert.assertEquals(SYSTEM, read("etc/system.properties"));
+        Assert.assertEquals(CONFIG, read("etc/config.properties"));
+        Assert.assertFalse(new File(karafHome, "etc/custom.cfg").exists());
+    }
+}
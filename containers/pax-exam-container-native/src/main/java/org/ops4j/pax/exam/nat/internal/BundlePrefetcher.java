@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.nat.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.ops4j.pax.exam.util.ParallelTasks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Downloads bundles to local files concurrently, so that URL handler I/O for all bundles can run
+ * in parallel before the bundles are installed in provisioning order.
+ * <p>
+ * Locations which only the framework can handle, like {@code reference:} URLs or URLs with a
+ * protocol unknown on the host, are not prefetched, so that the framework installs them from
+ * their location as usual.
+ */
+class BundlePrefetcher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BundlePrefetcher.class);
+
+    private final int threads;
+
+    private final File prefetchDir;
+
+    /**
+     * @param threads
+     *            maximum number of concurrent downloads
+     * @param prefetchDir
+     *            directory for the downloaded files
+     */
+    BundlePrefetcher(int threads, File prefetchDir) {
+        this.threads = threads;
+        this.prefetchDir = prefetchDir;
+    }
+
+    /**
+     * Downloads the bundles at the given locations. If any download fails, the files downloaded so
+     * far are deleted.
+     *
+     * @param locations
+     *            bundle locations
+     * @return local files, in the order of the locations, or null for locations which are not
+     *         prefetched. The caller must delete the files by {@link #delete(File)}.
+     */
+    List<File> prefetch(List<String> locations) {
+        prefetchDir.mkdirs();
+        return new ParallelTasks(threads).map(locations, this::prefetch, BundlePrefetcher::delete);
+    }
+
+    private File prefetch(String location) throws IOException {
+        URL url = toPrefetchableUrl(location);
+        if (url == null) {
+            return null;
+        }
+        LOG.debug("Prefetching {}", location);
+        File file = File.createTempFile("bundle", ".jar", prefetchDir);
+        try (InputStream is = url.openStream()) {
+            Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException | RuntimeException exc) {
+            delete(file);
+            throw exc;
+        }
+        return file;
+    }
+
+    static URL toPrefetchableUrl(String location) {
+        if (location.startsWith("reference:")) {
+            return null;
+        }
+        try {
+            return new URL(location);
+        }
+        catch (MalformedURLException exc) {
+            LOG.debug("Not prefetching {}: {}", location, exc.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Deletes a prefetched file.
+     *
+     * @param file
+     *            prefetched file, may be null
+     */
+    static void delete(File file) {
+        if (file != null && file.exists() && !file.delete()) {
+            LOG.warn("cannot delete prefetched bundle {}", file);
+        }
+    }
+}
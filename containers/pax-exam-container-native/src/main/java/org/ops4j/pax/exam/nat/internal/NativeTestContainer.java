@@ -18,7 +18,9 @@
 package org.ops4j.pax.exam.nat.internal;
 
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static org.ops4j.pax.exam.Constants.EXAM_FAIL_ON_UNRESOLVED_KEY;
+import static org.ops4j.pax.exam.Constants.EXAM_PROVISION_PREFETCH_THREADS_KEY;
 import static org.ops4j.pax.exam.Constants.EXAM_SERVICE_TIMEOUT_DEFAULT;
 import static org.ops4j.pax.exam.Constants.EXAM_SERVICE_TIMEOUT_KEY;
 import static org.ops4j.pax.exam.Constants.START_LEVEL_TEST_BUNDLE;
@@ -31,10 +33,13 @@ import static org.osgi.framework.Constants.FRAMEWORK_STORAGE_CLEAN;
 import static org.osgi.framework.Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT;
 import static org.osgi.framework.Constants.FRAMEWORK_SYSTEMPACKAGES_EXTRA;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.Stack;
@@ -72,6 +77,7 @@ import org.osgi.framework.launch.Framework;
 import org.osgi.framework.launch.FrameworkFactory;
 import org.osgi.framework.startlevel.BundleStartLevel;
 import org.osgi.framework.startlevel.FrameworkStartLevel;
+import org.osgi.framework.wiring.FrameworkWiring;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -90,6 +96,7 @@ public class NativeTestContainer implements TestContainer {
 
     private static final Logger LOG = LoggerFactory.getLogger(NativeTestContainer.class);
     private final Stack<Bundle> installed = new Stack<>();
+    private final Map<Long, BundleSnapshot> snapshot = new HashMap<>();
 
     private final FrameworkFactory frameworkFactory;
     private ExamSystem system;
@@ -153,6 +160,66 @@ public class NativeTestContainer implements TestContainer {
         }
     }
 
+    private synchronized void takeSnapshot() {
+        snapshot.clear();
+        for (Bundle bundle : framework.getBundleContext().getBundles()) {
+            snapshot.put(bundle.getBundleId(), new BundleSnapshot(bundle));
+        }
+    }
+
+    /**
+     * Uninstalls the probe and all bundles installed after startup, refreshes the framework and
+     * restarts or stops bundles to match the bundle states captured after startup. Returns false
+     * when a bundle from the snapshot has been uninstalled or updated.
+     */
+    @Override
+    public synchronized boolean reset() {
+        if (framework == null || snapshot.isEmpty()) {
+            return false;
+        }
+        try {
+            cleanup();
+            for (Bundle bundle : framework.getBundleContext().getBundles()) {
+                if (!snapshot.containsKey(bundle.getBundleId())) {
+                    LOG.debug("Uninstalling bundle [{}] installed by test", bundle);
+                    bundle.uninstall();
+                }
+            }
+            refreshFramework();
+            Bundle[] bundles = framework.getBundleContext().getBundles();
+            if (bundles.length != snapshot.size()) {
+                return false;
+            }
+            for (Bundle bundle : bundles) {
+                if (!snapshot.get(bundle.getBundleId()).restore(bundle)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch (BundleException exc) {
+            LOG.warn("Cannot reset container", exc);
+            return false;
+        }
+    }
+
+    private void refreshFramework() {
+        final CountDownLatch latch = new CountDownLatch(1);
+        framework.adapt(FrameworkWiring.class).refreshBundles(null, frameworkEvent -> {
+            latch.countDown();
+        });
+        try {
+            long timeout = system.getTimeout().getValue();
+            if (!latch.await(timeout, TimeUnit.MILLISECONDS)) {
+                throw new TestContainerException("framework has not been refreshed within "
+                    + timeout + " ms");
+            }
+        }
+        catch (InterruptedException exc) {
+            throw new TestContainerException(exc);
+        }
+    }
+
     public void setBundleStartLevel(long bundleId, int startLevel) {
         Bundle bundle = framework.getBundleContext().getBundle(bundleId);
         BundleStartLevel sl = bundle.adapt(BundleStartLevel.class);
@@ -172,6 +239,7 @@ public class NativeTestContainer implements TestContainer {
             createFramework(createFrameworkProperties());
             installAndStartBundles();
             startFramework();
+            takeSnapshot();
         }
         catch (BundleException exc) {
             throw new TestContainerException("Problem starting test container.", exc);
@@ -224,6 +292,7 @@ public class NativeTestContainer implements TestContainer {
                 cleanup();
                 stopOrAbort();
                 framework = null;
+                snapshot.clear();
                 system.clear();
             }
             catch (BundleException exc) {
@@ -296,13 +365,30 @@ public class NativeTestContainer implements TestContainer {
     }
 
     private void installAndStartBundles() throws BundleException {
-        Arrays.stream(system.getOptions(ProvisionOption.class))
-            .forEach(this::installAndStartBundle);
+        ProvisionOption<?>[] bundles = system.getOptions(ProvisionOption.class);
+        ConfigurationManager cm = new ConfigurationManager();
+        int threads = Integer.parseInt(cm.getProperty(EXAM_PROVISION_PREFETCH_THREADS_KEY, "1"));
+        if (threads <= 1) {
+            Arrays.stream(bundles).forEach(b -> installAndStartBundle(b, null));
+            return;
+        }
+
+        File prefetchDir = new File(system.getTempFolder(), "prefetch");
+        List<File> files = new BundlePrefetcher(threads, prefetchDir).prefetch(
+            Arrays.stream(bundles).map(ProvisionOption::getURL).collect(toList()));
+        try {
+            for (int i = 0; i < bundles.length; i++) {
+                installAndStartBundle(bundles[i], files.get(i));
+            }
+        }
+        finally {
+            files.forEach(BundlePrefetcher::delete);
+        }
     }
 
-    private void installAndStartBundle(ProvisionOption<?> bundle) {
+    private void installAndStartBundle(ProvisionOption<?> bundle, File prefetched) {
         try {
-            Bundle b = framework.getBundleContext().installBundle(bundle.getURL());
+            Bundle b = installBundle(bundle.getURL(), prefetched);
             int startLevel = getStartLevel(bundle);
             BundleStartLevel sl = b.adapt(BundleStartLevel.class);
             sl.setStartLevel(startLevel);
@@ -319,6 +405,19 @@ public class NativeTestContainer implements TestContainer {
         }
     }
 
+    private Bundle installBundle(String location, File prefetched) throws BundleException {
+        BundleContext bc = framework.getBundleContext();
+        if (prefetched == null) {
+            return bc.installBundle(location);
+        }
+        try (InputStream is = new FileInputStream(prefetched)) {
+            return bc.installBundle(location, is);
+        }
+        catch (IOException exc) {
+            throw new TestContainerException("Cannot read prefetched bundle " + location, exc);
+        }
+    }
+
     private void setFrameworkStartLevel() throws ExamConfigurationException {
         FrameworkStartLevel sl = framework.adapt(FrameworkStartLevel.class);
         final int startLevel = getStartLevel();
@@ -423,6 +522,42 @@ public class NativeTestContainer implements TestContainer {
         }
     }
 
+    /**
+     * State of a bundle right after container startup.
+     */
+    private static class BundleSnapshot {
+
+        private final boolean active;
+        private final long lastModified;
+
+        private BundleSnapshot(Bundle bundle) {
+            this.active = bundle.getState() == Bundle.ACTIVE;
+            this.lastModified = bundle.getLastModified();
+        }
+
+        /**
+         * Starts or stops the given bundle to match this snapshot.
+         *
+         * @return false if the bundle has been updated since the snapshot was taken
+         */
+        private boolean restore(Bundle bundle) throws BundleException {
+            if (bundle.getLastModified() != lastModified) {
+                return false;
+            }
+            if (bundle.getBundleId() == 0) {
+                return true;
+            }
+            boolean isActive = bundle.getState() == Bundle.ACTIVE;
+            if (active && !isActive) {
+                bundle.start();
+            }
+            else if (!active && isActive) {
+                bundle.stop();
+            }
+            return true;
+        }
+    }
+
     @Override
     public synchronized void installProbe(InputStream stream) throws IOException {
         install(stream);
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.nat.internal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.pax.exam.TestContainerException;
+
+public class BundlePrefetcherTest {
+
+    private File workDir;
+
+    private File prefetchDir;
+
+    @Before
+    public void setUp() throws IOException {
+        workDir = Files.createTempDirectory("bundle-prefetcher").toFile();
+        prefetchDir = new File(workDir, "prefetch");
+    }
+
+    @After
+    public void tearDown() {
+        deleteRecursively(workDir);
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private String createBundle(String name) throws IOException {
+        File file = new File(workDir, name);
+        Files.write(file.toPath(), name.getBytes(StandardCharsets.UTF_8));
+        return file.toURI().toString();
+    }
+
+    @Test
+    public void prefetchInOrder() throws IOException {
+        String first = createBundle("first.jar");
+        String second = createBundle("second.jar");
+        String reference = "reference:" + first;
+        List<File> files = new BundlePrefetcher(2, prefetchDir).prefetch(
+            Arrays.asList(first, reference, second));
+
+        assertThat(new String(Files.readAllBytes(files.get(0).toPath()), StandardCharsets.UTF_8),
+            is("first.jar"));
+        assertThat(files.get(1), is(nullValue()));
+        assertThat(new String(Files.readAllBytes(files.get(2).toPath()), StandardCharsets.UTF_8),
+            is("second.jar"));
+
+        files.forEach(BundlePrefetcher::delete);
+        assertThat(prefetchDir.list().length, is(0));
+    }
+
+    @Test
+    public void doNotPrefetchFrameworkLocations() {
+        assertThat(BundlePrefetcher.toPrefetchableUrl("reference:file:/tmp/foo.jar"),
+            is(nullValue()));
+        assertThat(BundlePrefetcher.toPrefetchableUrl("unknown:foo"), is(nullValue()));
+    }
+
+    @Test
+    public void deleteFilesOnFailure() throws IOException {
+        String first = createBundle("first.jar");
+        String missing = new File(workDir, "missing.jar").toURI().toString();
+        try {
+            new BundlePrefetcher(2, prefetchDir).prefetch(Arrays.asList(first, missing, first));
+            fail("missing bundle not reported");
+        }
+        catch (TestContainerException exc) {
+            // expected
+        }
+        assertThat(prefetchDir.list().length, is(0));
+    }
+}
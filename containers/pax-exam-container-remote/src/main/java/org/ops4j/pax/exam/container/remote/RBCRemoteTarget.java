@@ -19,9 +19,6 @@ package org.ops4j.pax.exam.container.remote;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.ServerSocket;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import org.ops4j.pax.exam.RelativeTimeout;
 import org.ops4j.pax.exam.TestContainer;
@@ -30,7 +27,7 @@ import org.ops4j.pax.exam.TestDescription;
 import org.ops4j.pax.exam.TestListener;
 import org.ops4j.pax.exam.rbc.client.RemoteBundleContextClient;
 import org.ops4j.pax.exam.rbc.client.intern.RemoteBundleContextClientImpl;
-import org.ops4j.pax.exam.spi.listener.TestListenerTask;
+import org.ops4j.pax.exam.spi.listener.TestEventChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,9 +44,12 @@ public class RBCRemoteTarget implements TestContainer {
 
     private RemoteBundleContextClient remoteBundleContextClient;
     private int invokerPort;
+    private RelativeTimeout timeout;
+    private TestEventChannel eventChannel;
 
     public RBCRemoteTarget(String name, Integer registry, int invokerPort, RelativeTimeout timeout) {
         this.invokerPort = invokerPort;
+        this.timeout = timeout;
         remoteBundleContextClient = new RemoteBundleContextClientImpl(name, registry, timeout);
     }
 
@@ -63,8 +63,21 @@ public class RBCRemoteTarget implements TestContainer {
         return remoteBundleContextClient;
     }
 
+    /**
+     * Opens the event channel on the invoker port, unless already open. The channel is also
+     * opened on demand by the first test run, so callers need not invoke this method.
+     */
     @Override
-    public void start() {
+    public synchronized void start() {
+        if (eventChannel == null) {
+            try {
+                eventChannel = new TestEventChannel(invokerPort);
+            }
+            catch (IOException exc) {
+                throw new TestContainerException("cannot open event channel on port "
+                    + invokerPort, exc);
+            }
+        }
     }
 
     private long install(String location, InputStream probe) {
@@ -80,9 +93,25 @@ public class RBCRemoteTarget implements TestContainer {
         return install("local", probe);
     }
 
+    /**
+     * Uninstalls all probes and closes the event channel.
+     */
     @Override
-    public void stop() {
-        remoteBundleContextClient.cleanup();
+    public synchronized void stop() {
+        try {
+            remoteBundleContextClient.cleanup();
+        }
+        finally {
+            if (eventChannel != null) {
+                try {
+                    eventChannel.close();
+                }
+                catch (IOException exc) {
+                    LOG.debug("cannot close event channel", exc);
+                }
+                eventChannel = null;
+            }
+        }
     }
 
     @Override
@@ -92,13 +121,20 @@ public class RBCRemoteTarget implements TestContainer {
 
     @Override
     public void runTest(TestDescription description, TestListener listener) throws IOException {
-            ServerSocket serverSocket = new ServerSocket(invokerPort);
-            TestListenerTask task = new TestListenerTask(serverSocket, listener);
-            ExecutorService executor = Executors.newSingleThreadExecutor();
-            executor.submit(task);
-            remoteBundleContextClient.runTestClass(description);
-            executor.shutdown();
-            serverSocket.close();
+        TestEventChannel channel;
+        synchronized (this) {
+            start();
+            channel = eventChannel;
+        }
+        long runId = channel.register(listener);
+        try {
+            remoteBundleContextClient.runTestClass(description, runId);
+        }
+        catch (RuntimeException exc) {
+            channel.cancel(runId);
+            throw exc;
+        }
+        channel.await(runId, timeout);
     }
 
 }
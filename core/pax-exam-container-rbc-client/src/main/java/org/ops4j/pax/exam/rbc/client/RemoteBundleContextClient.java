@@ -21,6 +21,8 @@ import java.io.InputStream;
 
 import org.ops4j.pax.exam.RelativeTimeout;
 import org.ops4j.pax.exam.TestDescription;
+import org.ops4j.pax.exam.rbc.internal.BundleResult;
+import org.ops4j.pax.exam.rbc.internal.InstalledBundle;
 import org.ops4j.pax.exam.rbc.internal.RemoteBundleContext;
 
 /**
@@ -36,6 +38,37 @@ public interface RemoteBundleContextClient {
 
     void uninstall(long bundleId);
 
+    /**
+     * Installs the given bundles and optionally starts them, in a single remote call. Bundles
+     * which have been installed are uninstalled by {@link #cleanup()}.
+     *
+     * @param start
+     *            true if the bundles shall be started
+     * @param bundleUrls
+     *            urls of the bundles, which must be accessible from the remote framework
+     * @return result for each bundle, in the given order
+     */
+    BundleResult[] installBundles(boolean start, String... bundleUrls);
+
+    /**
+     * Returns the states of the given bundles, in a single remote call.
+     *
+     * @param bundleIds
+     *            bundle ids
+     * @return state of each bundle, in the given order
+     */
+    int[] getBundleStates(long... bundleIds);
+
+    /**
+     * Returns all bundles installed in the remote framework, in a single remote call.
+     *
+     * @return installed bundles, ordered by bundle id
+     */
+    InstalledBundle[] getInstalledBundles();
+
+    /**
+     * Uninstalls all bundles installed by this client, in a single remote call.
+     */
     void cleanup();
 
     void setBundleStartLevel(final long bundleId, final int startLevel);
@@ -46,5 +79,33 @@ public interface RemoteBundleContextClient {
 
     void waitForState(final long bundleId, final int state, final RelativeTimeout timeout);
 
-    void runTestClass(TestDescription description);
+    void waitForStates(final long[] bundleIds, final int state, final RelativeTimeout timeout);
+
+    /**
+     * Runs a test class in the remote framework. The remote probe invoker sends the events of the
+     * run, tagged with the given run id, to the event channel of the driver.
+     *
+     * @param description
+     *            test description
+     * @param runId
+     *            run id registered with the event channel
+     */
+    void runTestClass(TestDescription description, long runId);
+
+    /**
+     * Calls a method of a service in the remote framework. The service type need not be visible
+     * to the caller.
+     *
+     * @param serviceType
+     *            name of the service type
+     * @param methodName
+     *            method name
+     * @param methodParamTypes
+     *            method parameter types
+     * @param actualParams
+     *            actual parameters
+     * @return result of the method call
+     */
+    Object callService(String serviceType, String methodName, Class<?>[] methodParamTypes,
+        Object... actualParams);
 }
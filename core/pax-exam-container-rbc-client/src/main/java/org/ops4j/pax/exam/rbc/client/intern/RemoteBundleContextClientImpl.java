@@ -17,26 +17,40 @@
  */
 package org.ops4j.pax.exam.rbc.client.intern;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.rmi.NoSuchObjectException;
 import java.rmi.NotBoundException;
+import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.Arrays;
 import java.util.Stack;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.ops4j.io.StreamUtils;
 import org.ops4j.pax.exam.ProbeInvoker;
 import org.ops4j.pax.exam.RelativeTimeout;
 import org.ops4j.pax.exam.TestDescription;
+import org.ops4j.pax.exam.rbc.Constants;
+import org.ops4j.pax.exam.rbc.ReadinessListener;
 import org.ops4j.pax.exam.rbc.client.RemoteBundleContextClient;
+import org.ops4j.pax.exam.rbc.internal.BundleResult;
+import org.ops4j.pax.exam.rbc.internal.InstalledBundle;
 import org.ops4j.pax.exam.rbc.internal.NoSuchServiceException;
 import org.ops4j.pax.exam.rbc.internal.RemoteBundleContext;
+import org.ops4j.pax.exam.util.Backoff;
 import org.ops4j.pax.exam.util.Exceptions;
 import org.osgi.framework.BundleException;
 import org.slf4j.Logger;
@@ -55,8 +69,23 @@ public class RemoteBundleContextClientImpl implements RemoteBundleContextClient
     // TODO duplicate
     private static final String PROBE_SIGNATURE_KEY = "Probe-Signature";
 
+    /**
+     * Size of the chunks used for uploading bundles to a remote bundle context which does not
+     * share our file system.
+     */
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    private static final long INITIAL_LOOKUP_DELAY = 10;
+
+    private static final long MAX_LOOKUP_DELAY = 1000;
+
     private RemoteBundleContext remoteBundleContext;
 
+    /**
+     * Set to false as soon as the remote bundle context cannot see our files.
+     */
+    private volatile boolean sharedFileSystem = true;
+
     /**
      * Timeout for looking up the remote bundle context via RMI.
      */
@@ -115,13 +144,14 @@ public class RemoteBundleContextClientImpl implements RemoteBundleContextClient
 
     @Override
     public long install(String location, InputStream stream) {
-        // turn this into a local url because we don't want pass the stream any further.
+        // spool the probe to a file instead of packing it into memory, so that the remote side
+        // can read it directly when it shares our file system, or receive it in chunks otherwise
+        File file = null;
         try {
-            // URI location = store.getLocation( store.store( stream ) );
-            // pack as bytecode
-            byte[] packed = pack(stream);
+            file = File.createTempFile("pax-exam-probe", ".jar");
+            StreamUtils.copyStream(stream, new FileOutputStream(file), true);
 
-            long id = getRemoteBundleContext().installBundle(location, packed);
+            long id = transfer(location, file);
             installed.push(id);
             getRemoteBundleContext().startBundle(id);
             return id;
@@ -132,35 +162,106 @@ public class RemoteBundleContextClientImpl implements RemoteBundleContextClient
         catch (BundleException e) {
             throw new RuntimeException("Bundle cannot be installed", e);
         }
+        finally {
+            if (file != null) {
+                file.delete();
+            }
+        }
+    }
+
+    private long transfer(String location, File file) throws IOException, BundleException {
+        RemoteBundleContext rbc = getRemoteBundleContext();
+        if (sharedFileSystem) {
+            try {
+                return rbc.installBundleFromFile(location, file.getAbsolutePath(), file.length());
+            }
+            catch (FileNotFoundException exc) {
+                LOG.debug("Probe file not visible to remote bundle context, uploading in chunks");
+                sharedFileSystem = false;
+            }
+        }
+        String uploadId = rbc.beginBundleUpload();
+        byte[] buffer = new byte[CHUNK_SIZE];
+        try (InputStream is = new FileInputStream(file)) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                byte[] chunk = (read == buffer.length) ? buffer : Arrays.copyOf(buffer, read);
+                rbc.appendBundleChunk(uploadId, chunk);
+            }
+        }
+        catch (IOException | RuntimeException exc) {
+            abortUpload(rbc, uploadId);
+            throw exc;
+        }
+        return rbc.installUploadedBundle(uploadId, location);
     }
 
-    private byte[] pack(InputStream stream) {
-        LOG.debug("Packing probe into memory for true RMI. Hopefully things will fill in..");
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private void abortUpload(RemoteBundleContext rbc, String uploadId) {
         try {
-            StreamUtils.copyStream(stream, out, true);
+            rbc.abortBundleUpload(uploadId);
         }
-        catch (IOException e) {
+        catch (RemoteException exc) {
+            LOG.warn("Cannot abort upload " + uploadId, exc);
+        }
+    }
 
+    @Override
+    public BundleResult[] installBundles(boolean start, String... bundleUrls) {
+        try {
+            BundleResult[] results = getRemoteBundleContext().installBundles(bundleUrls, start);
+            for (BundleResult result : results) {
+                if (result.getBundleId() >= 0) {
+                    installed.push(result.getBundleId());
+                }
+            }
+            return results;
+        }
+        catch (RemoteException e) {
+            throw new RuntimeException("Remote exception", e);
+        }
+    }
+
+    @Override
+    public int[] getBundleStates(long... bundleIds) {
+        try {
+            return getRemoteBundleContext().getBundleStates(bundleIds);
+        }
+        catch (RemoteException e) {
+            throw new RuntimeException("Remote exception", e);
+        }
+    }
+
+    @Override
+    public InstalledBundle[] getInstalledBundles() {
+        try {
+            return getRemoteBundleContext().getInstalledBundles();
+        }
+        catch (RemoteException e) {
+            throw new RuntimeException("Remote exception", e);
         }
-        return out.toByteArray();
     }
 
     @Override
     public void cleanup() {
+        if (installed.isEmpty()) {
+            return;
+        }
+        // uninstall in reverse order of installation
+        long[] bundleIds = new long[installed.size()];
+        for (int i = 0; i < bundleIds.length; i++) {
+            bundleIds[i] = installed.pop();
+        }
         try {
-            while (!installed.isEmpty()) {
-                Long id = installed.pop();
-                getRemoteBundleContext().uninstallBundle(id);
+            for (BundleResult result : getRemoteBundleContext().uninstallBundles(bundleIds)) {
+                if (!result.isSuccess()) {
+                    LOG.error("Problem uninstalling " + result.getBundleId(),
+                        result.getFailure());
+                }
             }
         }
-        catch (IOException e) {
+        catch (RemoteException e) {
             throw new RuntimeException(e);
         }
-        catch (BundleException e) {
-            throw new RuntimeException("Bundle cannot be uninstalled", e);
-        }
-
     }
 
     @Override
@@ -217,9 +318,28 @@ public class RemoteBundleContextClientImpl implements RemoteBundleContextClient
         }
     }
 
+    @Override
+    public void waitForStates(final long[] bundleIds, final int state,
+        final RelativeTimeout timeout) {
+        try {
+            getRemoteBundleContext().waitForStates(bundleIds, state, timeout);
+        }
+        catch (RemoteException e) {
+            throw new RuntimeException("waitForStates", e);
+        }
+        catch (BundleException e) {
+            throw new RuntimeException("waitForStates", e);
+        }
+    }
+
     /**
      * Looks up the {@link RemoteBundleContext} via RMI. The lookup will timeout in the specified
      * number of millis.
+     * <p>
+     * Before the lookup, a {@link ReadinessListener} is bound in the registry, which the remote
+     * side notifies as soon as it has bound the remote bundle context. Between lookups, we wait
+     * for this notification with exponential backoff, so that we neither spin nor miss a remote
+     * side which does not notify us.
      *
      * @return remote bundle context
      */
@@ -234,21 +354,32 @@ public class RemoteBundleContextClientImpl implements RemoteBundleContextClient
             // TODO create registry here
             Throwable reason = null;
             long startedTrying = System.currentTimeMillis();
-
-            do {
-                try {
-                    remoteBundleContext = (RemoteBundleContext) getRegistry(registry).lookup(name);
-                }
-                catch (RemoteException e) {
-                    reason = e;
-                }
-                catch (NotBoundException e) {
-                    reason = e;
+            LatchReadinessListener listener = bindReadinessListener();
+            Backoff backoff = new Backoff(INITIAL_LOOKUP_DELAY, MAX_LOOKUP_DELAY);
+            try {
+                do {
+                    try {
+                        remoteBundleContext = (RemoteBundleContext) getRegistry(registry)
+                            .lookup(name);
+                    }
+                    catch (RemoteException e) {
+                        reason = e;
+                    }
+                    catch (NotBoundException e) {
+                        reason = e;
+                    }
+                    if (remoteBundleContext == null
+                        && !awaitReadiness(listener, backoff.nextDelay())) {
+                        break;
+                    }
                 }
+                while (remoteBundleContext == null
+                    && (rmiLookupTimeout.isNoTimeout() || System.currentTimeMillis() < startedTrying
+                        + rmiLookupTimeout.getValue()));
+            }
+            finally {
+                unbindReadinessListener(listener);
             }
-            while (remoteBundleContext == null
-                && (rmiLookupTimeout.isNoTimeout() || System.currentTimeMillis() < startedTrying
-                    + rmiLookupTimeout.getValue()));
             if (remoteBundleContext == null) {
                 throw new RuntimeException("Cannot get the remote bundle context", reason);
             }
@@ -259,6 +390,70 @@ public class RemoteBundleContextClientImpl implements RemoteBundleContextClient
 
     }
 
+    /**
+     * Binds a readiness listener for our remote bundle context. This fails if the registry is not
+     * on our host, so we fall back to polling.
+     *
+     * @return listener, or null
+     */
+    private LatchReadinessListener bindReadinessListener() {
+        LatchReadinessListener listener = new LatchReadinessListener();
+        try {
+            Remote stub = UnicastRemoteObject.exportObject(listener, 0);
+            getRegistry(registry).rebind(name + Constants.READINESS_LISTENER_SUFFIX, stub);
+            return listener;
+        }
+        catch (RemoteException exc) {
+            LOG.debug("Cannot bind readiness listener, polling for remote bundle context", exc);
+            unexport(listener);
+            return null;
+        }
+    }
+
+    private void unbindReadinessListener(LatchReadinessListener listener) {
+        if (listener == null) {
+            return;
+        }
+        try {
+            getRegistry(registry).unbind(name + Constants.READINESS_LISTENER_SUFFIX);
+        }
+        catch (RemoteException | NotBoundException exc) {
+            LOG.debug("Cannot unbind readiness listener", exc);
+        }
+        unexport(listener);
+    }
+
+    private static void unexport(Remote remote) {
+        try {
+            UnicastRemoteObject.unexportObject(remote, true);
+        }
+        catch (NoSuchObjectException exc) {
+            // not exported
+        }
+    }
+
+    /**
+     * Waits for the readiness notification, or for the given delay if there is no listener or
+     * if the notification has already been received.
+     *
+     * @return false if the current thread has been interrupted
+     */
+    private static boolean awaitReadiness(LatchReadinessListener listener, long delay) {
+        try {
+            if (listener == null || listener.ready.getCount() == 0) {
+                Thread.sleep(delay);
+            }
+            else {
+                listener.ready.await(delay, TimeUnit.MILLISECONDS);
+            }
+            return true;
+        }
+        catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     // TODO This utility is copy/pasted in pax-exam-container-forked's
     // ForkedFrameworkFactory, and ideally perhaps should be be put into a
     // shared utility module
@@ -292,15 +487,45 @@ public class RemoteBundleContextClientImpl implements RemoteBundleContextClient
     }
     
     @Override
-    public void runTestClass(TestDescription description) {
+    public void runTestClass(TestDescription description, long runId) {
             try {
                 getRemoteBundleContext().remoteCall(ProbeInvoker.class, "runTestClass",
                     new Class<?>[] { String.class }, null, rmiLookupTimeout,
-                    new Object[] { description.toString() });
+                    new Object[] { description.toString(runId) });
             }
             catch (RemoteException | NoSuchMethodException | IllegalAccessException
                 | InvocationTargetException | NoSuchServiceException exc) {
                 throw Exceptions.unchecked(exc);
             }
         }
+
+    @Override
+    public Object callService(String serviceType, String methodName,
+        Class<?>[] methodParamTypes, Object... actualParams) {
+        try {
+            return getRemoteBundleContext().remoteCall(serviceType, methodName, methodParamTypes,
+                null, rmiLookupTimeout, actualParams);
+        }
+        catch (InvocationTargetException exc) {
+            throw Exceptions.unchecked(exc.getCause());
+        }
+        catch (RemoteException | NoSuchMethodException | IllegalAccessException
+            | NoSuchServiceException exc) {
+            throw Exceptions.unchecked(exc);
+        }
+    }
+
+    /**
+     * Readiness listener which releases a latch.
+     */
+    private static class LatchReadinessListener implements ReadinessListener {
+
+        private final CountDownLatch ready = new CountDownLatch(1);
+
+        @Override
+        public void ready(String rbcName) {
+            LOG.debug("Remote bundle context {} is ready", rbcName);
+            ready.countDown();
+        }
+    }
 }
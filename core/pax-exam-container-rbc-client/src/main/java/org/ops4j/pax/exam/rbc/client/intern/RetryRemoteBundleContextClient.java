@@ -27,6 +27,8 @@ import org.ops4j.pax.exam.ExceptionHelper;
 import org.ops4j.pax.exam.RelativeTimeout;
 import org.ops4j.pax.exam.TestDescription;
 import org.ops4j.pax.exam.rbc.client.RemoteBundleContextClient;
+import org.ops4j.pax.exam.rbc.internal.BundleResult;
+import org.ops4j.pax.exam.rbc.internal.InstalledBundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -105,6 +107,21 @@ public class RetryRemoteBundleContextClient implements RemoteBundleContextClient
         return proxy.install(location, stream);
     }
 
+    @Override
+    public BundleResult[] installBundles(boolean start, String... bundleUrls) {
+        return proxy.installBundles(start, bundleUrls);
+    }
+
+    @Override
+    public int[] getBundleStates(long... bundleIds) {
+        return proxy.getBundleStates(bundleIds);
+    }
+
+    @Override
+    public InstalledBundle[] getInstalledBundles() {
+        return proxy.getInstalledBundles();
+    }
+
     @Override
     public void cleanup() {
         proxy.cleanup();
@@ -130,13 +147,24 @@ public class RetryRemoteBundleContextClient implements RemoteBundleContextClient
         proxy.waitForState(bundleId, state, timeout);
     }
 
+    @Override
+    public void waitForStates(long[] bundleIds, int state, RelativeTimeout timeout) {
+        proxy.waitForStates(bundleIds, state, timeout);
+    }
+
     @Override
     public void uninstall(long bundleId) {
         proxy.uninstall(bundleId);
     }
 
     @Override
-    public void runTestClass(TestDescription description) {
-        proxy.runTestClass(description);
+    public void runTestClass(TestDescription description, long runId) {
+        proxy.runTestClass(description, runId);
+    }
+
+    @Override
+    public Object callService(String serviceType, String methodName,
+        Class<?>[] methodParamTypes, Object... actualParams) {
+        return proxy.callService(serviceType, methodName, methodParamTypes, actualParams);
     }
 }
@@ -34,6 +34,12 @@ public class Constants {
     public static final String RMI_NAME_PROPERTY = "org.ops4j.pax.exam.rbc.rmi.name";
 
     public static final long WAIT_FOREVER = 0;
+
+    /**
+     * Suffix of the RMI name under which a client may bind a {@link ReadinessListener}, to be
+     * notified as soon as the remote bundle context has been bound.
+     */
+    public static final String READINESS_LISTENER_SUFFIX = ".ready";
     
     /** Hidden utility class constructor. */
     private Constants() {
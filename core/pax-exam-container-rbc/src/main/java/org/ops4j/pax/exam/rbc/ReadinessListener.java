@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.rbc;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+/**
+ * Callback of a client waiting for a remote bundle context. The client binds the listener in the
+ * RMI registry under the name of the remote bundle context with the suffix
+ * {@link Constants#READINESS_LISTENER_SUFFIX}. The remote bundle context notifies the listener
+ * right after binding itself, so that the client need not poll the registry.
+ */
+public interface ReadinessListener extends Remote {
+
+    /**
+     * Signals that the remote bundle context has been bound.
+     *
+     * @param name
+     *            RMI name of the remote bundle context
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     */
+    void ready(String name) throws RemoteException;
+}
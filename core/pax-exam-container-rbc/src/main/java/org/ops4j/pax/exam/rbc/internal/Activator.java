@@ -27,6 +27,8 @@ import java.rmi.server.UnicastRemoteObject;
 import java.util.concurrent.Callable;
 
 import org.ops4j.pax.exam.rbc.Constants;
+import org.ops4j.pax.exam.rbc.ReadinessListener;
+import org.ops4j.pax.exam.util.Backoff;
 import org.ops4j.pax.swissbox.core.ContextClassLoaderUtils;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
@@ -49,6 +51,8 @@ public class Activator implements BundleActivator {
     private static final Logger LOG = LoggerFactory.getLogger(Activator.class);
 
     private static final int MAXRETRYCOUNT = 14;
+    private static final long INITIAL_RETRY_DELAY = 50;
+    private static final long MAX_RETRY_DELAY = 1000;
     private static final String MSG_RETRY = "RBC bind stuff failed before. Will retry again perhaps.";
 
     /**
@@ -60,7 +64,7 @@ public class Activator implements BundleActivator {
      * garbage collect it and this will result in an java.rmi.NoSuchObjectException: no such object
      * in table
      */
-    private volatile RemoteBundleContext remoteBundleContext;
+    private volatile RemoteBundleContextImpl remoteBundleContext;
 
     private Thread registerRBCThread;
 
@@ -80,16 +84,14 @@ public class Activator implements BundleActivator {
             public void run() {
                 int retries = 0;
                 boolean valid = false;
+                Backoff backoff = new Backoff(INITIAL_RETRY_DELAY, MAX_RETRY_DELAY);
                 do {
                     retries++;
                     valid = register(bundleContext);
                     if (!valid) {
-                        try {
-                            LOG.debug(MSG_RETRY);
-                            Thread.sleep(500);
-                        }
-                        catch (InterruptedException e) {
-                            e.printStackTrace();
+                        LOG.debug(MSG_RETRY);
+                        if (!backoff.sleep()) {
+                            return;
                         }
                     }
                 }
@@ -120,6 +122,7 @@ public class Activator implements BundleActivator {
 
                         bindRBC(registry, name, bundleContext);
                         LOG.debug("Container with name " + name + " has added its RBC");
+                        notifyReadinessListener(registry, name);
 
                         return null;
                     }
@@ -145,6 +148,24 @@ public class Activator implements BundleActivator {
         _registry.rebind(getName(), remoteStub);
     }
 
+    /**
+     * Notifies the client waiting for this RBC, if it has bound a {@link ReadinessListener}.
+     * Otherwise, the client finds the RBC by polling the registry.
+     */
+    private void notifyReadinessListener(Registry _registry, String name) {
+        try {
+            ReadinessListener listener = (ReadinessListener) _registry.lookup(name
+                + Constants.READINESS_LISTENER_SUFFIX);
+            listener.ready(name);
+        }
+        catch (NotBoundException exc) {
+            LOG.debug("No readiness listener for {}", name);
+        }
+        catch (RemoteException | ClassCastException exc) {
+            LOG.debug("Cannot notify readiness listener for {}", name, exc);
+        }
+    }
+
     @Override
     public synchronized void stop(BundleContext bundleContext) throws Exception {
         if (registerRBCThread != null) {
@@ -157,6 +178,9 @@ public class Activator implements BundleActivator {
             catch (NotBoundException | NoSuchObjectException ex) {
                 LOG.warn("No such Object bound {}", name, ex);
             }
+            if (remoteBundleContext != null) {
+                remoteBundleContext.discardUploads();
+            }
             registry = null;
             remoteBundleContext = null;
             LOG.debug("Container with name " + name + " has removed its RBC");
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.rbc.internal;
+
+import java.io.Serializable;
+
+/**
+ * Result of a batch operation of a {@link RemoteBundleContext} for a single bundle.
+ */
+public class BundleResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Bundle id, or -1 if the bundle could not be installed.
+     */
+    private final long bundleId;
+    /**
+     * Bundle state after the operation.
+     */
+    private final int state;
+    /**
+     * Failure of the operation, or null.
+     */
+    private final Exception failure;
+
+    /**
+     * Constructor.
+     *
+     * @param bundleId
+     *            bundle id, or -1 if the bundle could not be installed
+     * @param state
+     *            bundle state after the operation
+     * @param failure
+     *            failure of the operation, or null
+     */
+    public BundleResult(long bundleId, int state, Exception failure) {
+        this.bundleId = bundleId;
+        this.state = state;
+        this.failure = failure;
+    }
+
+    /**
+     * @return bundle id, or -1 if the bundle could not be installed
+     */
+    public long getBundleId() {
+        return bundleId;
+    }
+
+    /**
+     * @return bundle state after the operation
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * @return failure of the operation, or null
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * @return true if the operation has succeeded
+     */
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    @Override
+    public String toString() {
+        return "BundleResult[bundleId=" + bundleId + ", state=" + state + ", failure=" + failure
+            + "]";
+    }
+}
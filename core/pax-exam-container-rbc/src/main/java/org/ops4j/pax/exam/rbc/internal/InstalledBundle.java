@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.rbc.internal;
+
+import java.io.Serializable;
+
+/**
+ * Description of a bundle installed in the framework of a {@link RemoteBundleContext}.
+ */
+public class InstalledBundle implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Bundle id.
+     */
+    private final long bundleId;
+    /**
+     * Bundle location.
+     */
+    private final String location;
+    /**
+     * Bundle state.
+     */
+    private final int state;
+    /**
+     * Start level of the bundle.
+     */
+    private final int startLevel;
+    /**
+     * Is the bundle a fragment?
+     */
+    private final boolean fragment;
+
+    /**
+     * Constructor.
+     *
+     * @param bundleId
+     *            bundle id
+     * @param location
+     *            bundle location
+     * @param state
+     *            bundle state
+     * @param startLevel
+     *            start level of the bundle
+     * @param fragment
+     *            true if the bundle is a fragment
+     */
+    public InstalledBundle(long bundleId, String location, int state, int startLevel,
+        boolean fragment) {
+        this.bundleId = bundleId;
+        this.location = location;
+        this.state = state;
+        this.startLevel = startLevel;
+        this.fragment = fragment;
+    }
+
+    /**
+     * @return bundle id
+     */
+    public long getBundleId() {
+        return bundleId;
+    }
+
+    /**
+     * @return bundle location
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * @return bundle state
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * @return start level of the bundle
+     */
+    public int getStartLevel() {
+        return startLevel;
+    }
+
+    /**
+     * @return true if the bundle is a fragment
+     */
+    public boolean isFragment() {
+        return fragment;
+    }
+
+    @Override
+    public String toString() {
+        return "InstalledBundle[bundleId=" + bundleId + ", location=" + location + ", state="
+            + state + ", startLevel=" + startLevel + ", fragment=" + fragment + "]";
+    }
+}
@@ -17,6 +17,8 @@
  */
 package org.ops4j.pax.exam.rbc.internal;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
@@ -75,6 +77,40 @@ public interface RemoteBundleContext extends Remote {
         NoSuchServiceException, NoSuchMethodException, IllegalAccessException,
         InvocationTargetException;
 
+    /**
+     * Makes a remote call on a service, given the name of its service type. Unlike
+     * {@link #remoteCall(Class, String, Class[], String, RelativeTimeout, Object...)}, this does
+     * not require the service type to be visible to the caller.
+     * 
+     * @param serviceType
+     *            name of the service type of the remote service
+     * @param methodName
+     *            method name
+     * @param methodParamTypes
+     *            method parameters types
+     * @param filter
+     *            service filter
+     * @param timeout
+     *            timeout for looking up the service
+     * @param actualParams
+     *            actual parameters (must match the given method params)
+     * @return remote call result
+     * @throws NoSuchServiceException
+     *             - If a service of the specified type cannot be located
+     * @throws NoSuchMethodException
+     *             - If the given method cannot be found
+     * @throws IllegalAccessException
+     *             - Specified method cannot be accessed
+     * @throws InvocationTargetException
+     *             - Wraps an eventual exception occured during method invocation
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     */
+    Object remoteCall(String serviceType, String methodName, Class<?>[] methodParamTypes,
+        String filter, RelativeTimeout timeout, Object... actualParams) throws RemoteException,
+        NoSuchServiceException, NoSuchMethodException, IllegalAccessException,
+        InvocationTargetException;
+
     /**
      * Installs a bundle remotly.
      * 
@@ -105,6 +141,84 @@ public interface RemoteBundleContext extends Remote {
     long installBundle(String bundleLocation, byte[] bundle) throws RemoteException,
         BundleException;
 
+    /**
+     * Installs a bundle remotely from a file which is expected to be visible to the remote OSGi
+     * container, e.g. because the container runs on the same host. This avoids transferring the
+     * bundle content via RMI.
+     * 
+     * @param bundleLocation
+     *            bundle location
+     * @param path
+     *            absolute path of the bundle file
+     * @param length
+     *            expected length of the bundle file, used to detect a different file with the same
+     *            path on the remote side
+     * @return bundle id of the installed bundle
+     * @throws FileNotFoundException
+     *             - If the given file is not visible to the remote container
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     * @throws BundleException
+     *             - Re-thrown from installing the bundle
+     */
+    long installBundleFromFile(String bundleLocation, String path, long length)
+        throws IOException, BundleException;
+
+    /**
+     * Starts a chunked upload of a bundle. The chunks are appended by
+     * {@link #appendBundleChunk(String, byte[])}, and the bundle is installed by
+     * {@link #installUploadedBundle(String, String)} when all chunks have been transferred. A
+     * failed upload must be discarded by {@link #abortBundleUpload(String)}.
+     * 
+     * @return id of the new upload
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     * @throws IOException
+     *             - If the upload cannot be stored
+     */
+    String beginBundleUpload() throws IOException;
+
+    /**
+     * Appends a chunk of bundle content to the given upload.
+     * 
+     * @param uploadId
+     *            id returned by {@link #beginBundleUpload()}
+     * @param chunk
+     *            next chunk of the bundle content
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     * @throws IOException
+     *             - If there is no such upload or the chunk cannot be stored
+     */
+    void appendBundleChunk(String uploadId, byte[] chunk) throws IOException;
+
+    /**
+     * Installs a bundle from the chunks of the given upload. The upload is finished afterwards,
+     * whether the bundle could be installed or not.
+     * 
+     * @param uploadId
+     *            id returned by {@link #beginBundleUpload()}
+     * @param bundleLocation
+     *            bundle location
+     * @return bundle id of the installed bundle
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     * @throws BundleException
+     *             - If there is no such upload or re-thrown from installing the bundle
+     */
+    long installUploadedBundle(String uploadId, String bundleLocation) throws RemoteException,
+        BundleException;
+
+    /**
+     * Discards the given upload. Unknown or finished uploads are ignored.
+     * 
+     * @param uploadId
+     *            id returned by {@link #beginBundleUpload()}
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     */
+    void abortBundleUpload(String uploadId) throws RemoteException;
+
     /**
      * Starts a bundle.
      * 
@@ -162,6 +276,26 @@ public interface RemoteBundleContext extends Remote {
     void waitForState(long bundleId, int state, RelativeTimeout timeout) throws RemoteException,
         BundleException;
 
+    /**
+     * Waits for all given bundles to be in a certain state and returns. This takes a single remote
+     * call for any number of bundles.
+     * 
+     * @param bundleIds
+     *            bundle ids
+     * @param state
+     *            expected state
+     * @param timeout
+     *            max time to wait for all bundles to reach the state
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     * @throws BundleException
+     *             - If a bundle cannot be found
+     * @throws org.ops4j.pax.exam.TimeoutException
+     *             - if timeout occured and expected state has not being reached
+     */
+    void waitForStates(long[] bundleIds, int state, RelativeTimeout timeout)
+        throws RemoteException, BundleException;
+
     /**
      * @param id
      *            of bundle to uninstall
@@ -171,4 +305,53 @@ public interface RemoteBundleContext extends Remote {
      *             - If bundle cannot be found
      */
     void uninstallBundle(long id) throws RemoteException, BundleException;
+
+    /**
+     * Installs the given bundles and optionally starts them, in a single remote call. A failure
+     * of one bundle does not prevent the other bundles from being installed and started.
+     * Fragments are not started.
+     * 
+     * @param bundleUrls
+     *            urls of the bundles to be installed. The urls must be accessible from the remote
+     *            OSGi container.
+     * @param start
+     *            true if the bundles shall be started after all bundles have been installed
+     * @return result for each bundle, in the given order
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     */
+    BundleResult[] installBundles(String[] bundleUrls, boolean start) throws RemoteException;
+
+    /**
+     * Uninstalls the given bundles in the given order, in a single remote call. A failure of one
+     * bundle does not prevent the other bundles from being uninstalled.
+     * 
+     * @param bundleIds
+     *            ids of the bundles to be uninstalled
+     * @return result for each bundle, in the given order
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     */
+    BundleResult[] uninstallBundles(long[] bundleIds) throws RemoteException;
+
+    /**
+     * Returns the states of the given bundles, in a single remote call.
+     * 
+     * @param bundleIds
+     *            bundle ids
+     * @return state of each bundle, in the given order, where bundles which are not installed
+     *         have the state {@link org.osgi.framework.Bundle#UNINSTALLED}
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     */
+    int[] getBundleStates(long[] bundleIds) throws RemoteException;
+
+    /**
+     * Returns all bundles installed in the framework, in a single remote call.
+     *
+     * @return installed bundles, ordered by bundle id
+     * @throws RemoteException
+     *             - Remote communication related exception (mandatory by RMI)
+     */
+    InstalledBundle[] getInstalledBundles() throws RemoteException;
 }
@@ -20,11 +20,21 @@ package org.ops4j.pax.exam.rbc.internal;
 import static org.ops4j.lang.NullArgumentException.validateNotNull;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.rmi.RemoteException;
+import java.util.Arrays;
 import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 import org.ops4j.pax.exam.RelativeTimeout;
 import org.ops4j.pax.exam.RerunTestException;
@@ -33,8 +43,12 @@ import org.ops4j.pax.exam.util.Exceptions;
 import org.ops4j.pax.swissbox.tracker.ServiceLookup;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
 import org.osgi.framework.BundleException;
+import org.osgi.framework.BundleListener;
 import org.osgi.framework.Constants;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.FrameworkListener;
 import org.osgi.framework.startlevel.BundleStartLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -54,10 +68,19 @@ public class RemoteBundleContextImpl implements RemoteBundleContext, Serializabl
      * JCL Logger.
      */
     private static final Logger LOG = LoggerFactory.getLogger(RemoteBundleContextImpl.class);
+
+    /**
+     * Maximum time to wait for a bundle or framework event before checking bundle states again.
+     */
+    private static final long MAX_EVENT_WAIT = 1000;
     /**
      * Bundle context (cannot be null).
      */
     private final transient BundleContext bundleContext;
+    /**
+     * Pending chunked uploads, by upload id.
+     */
+    private final transient Map<String, File> uploads = new HashMap<>();
 
     /**
      * Constructor.
@@ -95,6 +118,34 @@ public class RemoteBundleContextImpl implements RemoteBundleContext, Serializabl
         return obj;
     }
 
+    @Override
+    public Object remoteCall(final String serviceType, final String methodName,
+        final Class<?>[] methodParams, String filter, final RelativeTimeout timeout,
+        final Object... actualParams) throws NoSuchMethodException, IllegalAccessException,
+        InvocationTargetException {
+        LOG.trace("Remote call of [" + serviceType + "." + methodName + "]");
+        Object service = ServiceLookup.getService(bundleContext, serviceType, timeout.getValue(),
+            filter);
+        Class<?> type = findType(service.getClass(), serviceType);
+        if (type == null) {
+            throw new NoSuchMethodException(serviceType + "." + methodName);
+        }
+        return type.getMethod(methodName, methodParams).invoke(service, actualParams);
+    }
+
+    private static Class<?> findType(Class<?> klass, String typeName) {
+        if (klass == null || klass.getName().equals(typeName)) {
+            return klass;
+        }
+        for (Class<?> iface : klass.getInterfaces()) {
+            Class<?> type = findType(iface, typeName);
+            if (type != null) {
+                return type;
+            }
+        }
+        return findType(klass.getSuperclass(), typeName);
+    }
+
     @Override
     public long installBundle(final String bundleUrl) throws BundleException {
         LOG.trace("Install bundle from URL [" + bundleUrl + "]");
@@ -113,6 +164,94 @@ public class RemoteBundleContextImpl implements RemoteBundleContext, Serializabl
         }
     }
 
+    @Override
+    public long installBundleFromFile(final String bundleLocation, final String path,
+        final long length) throws BundleException, FileNotFoundException {
+        File file = new File(path);
+        if (!file.isFile() || file.length() != length) {
+            throw new FileNotFoundException(path);
+        }
+        LOG.trace("Install bundle [ location=" + bundleLocation + "] from file [" + path + "]");
+        return installBundle(bundleLocation, file);
+    }
+
+    @Override
+    public String beginBundleUpload() throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        File file = File.createTempFile("pax-exam-upload", ".jar");
+        synchronized (uploads) {
+            uploads.put(uploadId, file);
+        }
+        return uploadId;
+    }
+
+    @Override
+    public void appendBundleChunk(final String uploadId, final byte[] chunk) throws IOException {
+        synchronized (uploads) {
+            File file = uploads.get(uploadId);
+            if (file == null) {
+                throw new IOException("No pending upload " + uploadId);
+            }
+            try (OutputStream os = new FileOutputStream(file, true)) {
+                os.write(chunk);
+            }
+        }
+    }
+
+    @Override
+    public long installUploadedBundle(final String uploadId, final String bundleLocation)
+        throws BundleException {
+        File file;
+        synchronized (uploads) {
+            file = uploads.remove(uploadId);
+        }
+        if (file == null) {
+            throw new BundleException("No pending upload " + uploadId + " for location "
+                + bundleLocation);
+        }
+        LOG.trace("Install bundle [ location=" + bundleLocation + "] from uploaded chunks");
+        try {
+            return installBundle(bundleLocation, file);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Override
+    public void abortBundleUpload(final String uploadId) {
+        File file;
+        synchronized (uploads) {
+            file = uploads.remove(uploadId);
+        }
+        if (file != null) {
+            LOG.debug("Discarding upload " + uploadId);
+            file.delete();
+        }
+    }
+
+    /**
+     * Deletes the files of all uploads which have neither been installed nor aborted, e.g. because
+     * the client has gone away.
+     */
+    void discardUploads() {
+        synchronized (uploads) {
+            for (File file : uploads.values()) {
+                file.delete();
+            }
+            uploads.clear();
+        }
+    }
+
+    private long installBundle(String bundleLocation, File file) throws BundleException {
+        try (InputStream inp = new FileInputStream(file)) {
+            return bundleContext.installBundle(bundleLocation, inp).getBundleId();
+        }
+        catch (IOException exc) {
+            throw Exceptions.unchecked(exc);
+        }
+    }
+
     @Override
     public void uninstallBundle(long id) throws BundleException {
         LOG.trace("Uninstall bundle [" + id + "] ");
@@ -124,6 +263,87 @@ public class RemoteBundleContextImpl implements RemoteBundleContext, Serializabl
         }
     }
 
+    @Override
+    public BundleResult[] installBundles(final String[] bundleUrls, final boolean start) {
+        Bundle[] bundles = new Bundle[bundleUrls.length];
+        BundleResult[] results = new BundleResult[bundleUrls.length];
+        for (int i = 0; i < bundleUrls.length; i++) {
+            LOG.trace("Install bundle from URL [" + bundleUrls[i] + "]");
+            try {
+                bundles[i] = bundleContext.installBundle(bundleUrls[i]);
+            }
+            catch (BundleException | RuntimeException exc) {
+                results[i] = new BundleResult(-1, Bundle.UNINSTALLED, exc);
+            }
+        }
+        // start after installing all bundles, so that they can resolve against each other
+        for (int i = 0; i < bundles.length; i++) {
+            Bundle bundle = bundles[i];
+            if (bundle == null) {
+                continue;
+            }
+            Exception failure = null;
+            if (start) {
+                try {
+                    startBundle(bundle);
+                }
+                catch (BundleException | RuntimeException exc) {
+                    failure = exc;
+                }
+            }
+            results[i] = new BundleResult(bundle.getBundleId(), bundle.getState(), failure);
+        }
+        return results;
+    }
+
+    @Override
+    public BundleResult[] uninstallBundles(final long[] bundleIds) {
+        BundleResult[] results = new BundleResult[bundleIds.length];
+        for (int i = 0; i < bundleIds.length; i++) {
+            LOG.trace("Uninstall bundle [" + bundleIds[i] + "] ");
+            Bundle bundle = bundleContext.getBundle(bundleIds[i]);
+            if (bundle == null) {
+                results[i] = new BundleResult(bundleIds[i], Bundle.UNINSTALLED,
+                    new BundleException("Bundle " + bundleIds[i] + " is not installed"));
+                continue;
+            }
+            Exception failure = null;
+            try {
+                bundle.uninstall();
+            }
+            catch (BundleException | RuntimeException exc) {
+                failure = exc;
+            }
+            results[i] = new BundleResult(bundleIds[i], bundle.getState(), failure);
+        }
+        return results;
+    }
+
+    @Override
+    public int[] getBundleStates(final long[] bundleIds) {
+        int[] states = new int[bundleIds.length];
+        for (int i = 0; i < bundleIds.length; i++) {
+            Bundle bundle = bundleContext.getBundle(bundleIds[i]);
+            states[i] = (bundle == null) ? Bundle.UNINSTALLED : bundle.getState();
+        }
+        return states;
+    }
+
+    @Override
+    public InstalledBundle[] getInstalledBundles() {
+        Bundle[] bundles = bundleContext.getBundles();
+        InstalledBundle[] installed = new InstalledBundle[bundles.length];
+        for (int i = 0; i < bundles.length; i++) {
+            Bundle bundle = bundles[i];
+            BundleStartLevel startLevel = bundle.adapt(BundleStartLevel.class);
+            installed[i] = new InstalledBundle(bundle.getBundleId(), bundle.getLocation(),
+                bundle.getState(), startLevel == null ? 0 : startLevel.getStartLevel(),
+                bundle.getHeaders().get(Constants.FRAGMENT_HOST) != null);
+        }
+        Arrays.sort(installed, (a, b) -> Long.compare(a.getBundleId(), b.getBundleId()));
+        return installed;
+    }
+
     @Override
     public void startBundle(long bundleId) throws BundleException {
         startBundle(bundleContext.getBundle(bundleId));
@@ -144,32 +364,88 @@ public class RemoteBundleContextImpl implements RemoteBundleContext, Serializabl
 
     @Override
     public void waitForState(final long bundleId, final int state, final RelativeTimeout timeout) {
-        Bundle bundle = bundleContext.getBundle(bundleId);
-        if (bundle == null || (timeout.isNoWait() && (bundle == null || bundle.getState() < state))) {
-            throw new TimeoutException("There is no waiting timeout set and bundle has state '"
-                + bundleStateToString(bundle) + "' not '" + bundleStateToString(state)
-                + "' as expected");
-        }
-        long startedTrying = System.currentTimeMillis();
-        do {
-            bundle = bundleContext.getBundle(bundleId);
-            try {
-                Thread.sleep(50);
+        waitForStates(new long[] { bundleId }, state, timeout);
+    }
+
+    /**
+     * Waits for all given bundles to reach at least the given state. Instead of polling, the
+     * calling thread is woken up by bundle and framework events, so it returns as soon as the last
+     * bundle has reached the state.
+     */
+    @Override
+    public void waitForStates(final long[] bundleIds, final int state,
+        final RelativeTimeout timeout) {
+        for (long bundleId : bundleIds) {
+            Bundle bundle = bundleContext.getBundle(bundleId);
+            if (bundle == null || (timeout.isNoWait() && bundle.getState() < state)) {
+                throw new TimeoutException("There is no waiting timeout set and bundle has state '"
+                    + bundleStateToString(bundle) + "' not '" + bundleStateToString(state)
+                    + "' as expected");
             }
-            catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+        }
+
+        // asynchronous listeners, so that the framework never blocks on the lock held by the
+        // waiting thread while delivering events
+        final Object lock = new Object();
+        BundleListener bundleListener = new BundleListener() {
+
+            @Override
+            public void bundleChanged(BundleEvent event) {
+                synchronized (lock) {
+                    lock.notifyAll();
+                }
+            }
+        };
+        FrameworkListener frameworkListener = new FrameworkListener() {
+
+            @Override
+            public void frameworkEvent(FrameworkEvent event) {
+                synchronized (lock) {
+                    lock.notifyAll();
+                }
+            }
+        };
+        bundleContext.addBundleListener(bundleListener);
+        bundleContext.addFrameworkListener(frameworkListener);
+        try {
+            long deadline = System.currentTimeMillis() + timeout.getValue();
+            synchronized (lock) {
+                Long pending = findPendingBundle(bundleIds, state);
+                while (pending != null) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (!timeout.isNoTimeout() && remaining <= 0) {
+                        throw new TimeoutException("Timeout passed and bundle " + pending
+                            + " has state '" + bundleStateToString(bundleContext.getBundle(pending))
+                            + "' not '" + bundleStateToString(state) + "' as expected");
+                    }
+                    lock.wait(timeout.isNoTimeout() ? MAX_EVENT_WAIT : Math.min(remaining,
+                        MAX_EVENT_WAIT));
+                    pending = findPendingBundle(bundleIds, state);
+                }
             }
         }
-        while ((bundle == null || bundle.getState() < state)
-            && (timeout.isNoTimeout() || System.currentTimeMillis() < startedTrying
-                + timeout.getValue()));
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting for bundle state '"
+                + bundleStateToString(state) + "'");
+        }
+        finally {
+            bundleContext.removeFrameworkListener(frameworkListener);
+            bundleContext.removeBundleListener(bundleListener);
+        }
+    }
 
-        if (bundle == null || bundle.getState() < state) {
-            throw new TimeoutException("Timeout passed and bundle has state '"
-                + bundleStateToString(bundle.getState()) + "' not '" + bundleStateToString(state)
-                + "' as expected");
+    /**
+     * Returns the ID of the first bundle which has not yet reached the given state, or null.
+     */
+    private Long findPendingBundle(long[] bundleIds, int state) {
+        for (long bundleId : bundleIds) {
+            Bundle bundle = bundleContext.getBundle(bundleId);
+            if (bundle == null || bundle.getState() < state) {
+                return bundleId;
+            }
         }
+        return null;
     }
 
     /**
@@ -1,14 +1,39 @@
 package org.ops4j.pax.exam.rbc.internal;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.contains;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Hashtable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
+import org.ops4j.io.StreamUtils;
 import org.ops4j.pax.exam.RelativeTimeout;
+import org.ops4j.pax.exam.TimeoutException;
+import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.BundleListener;
+import org.osgi.framework.Constants;
+import org.osgi.framework.startlevel.BundleStartLevel;
 
 /**
  * Test cases for RemoteBundleContextImpl.
@@ -40,4 +65,182 @@ public class RemoteBundleContextImplTest {
         }
         verify(bundleContext).createFilter(contains(rightFilter));
     }
+
+    @Test
+    public void waitForStatesWakesUpOnBundleEvent() throws Exception {
+        BundleContext bundleContext = mock(BundleContext.class);
+        Bundle first = mock(Bundle.class);
+        Bundle second = mock(Bundle.class);
+        when(bundleContext.getBundle(1)).thenReturn(first);
+        when(bundleContext.getBundle(2)).thenReturn(second);
+        when(first.getState()).thenReturn(Bundle.ACTIVE);
+        final AtomicInteger secondState = new AtomicInteger(Bundle.RESOLVED);
+        when(second.getState()).thenAnswer(invocation -> secondState.get());
+
+        final AtomicReference<BundleListener> listener = new AtomicReference<BundleListener>();
+        doAnswer(invocation -> {
+            listener.set((BundleListener) invocation.getArguments()[0]);
+            return null;
+        }).when(bundleContext).addBundleListener(any(BundleListener.class));
+
+        Thread starter = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            }
+            catch (InterruptedException exc) {
+                return;
+            }
+            secondState.set(Bundle.ACTIVE);
+            listener.get().bundleChanged(new BundleEvent(BundleEvent.STARTED, second));
+        });
+
+        long startedAt = System.currentTimeMillis();
+        starter.start();
+        new RemoteBundleContextImpl(bundleContext).waitForStates(new long[] { 1, 2 },
+            Bundle.ACTIVE, new RelativeTimeout(5000));
+        assertTrue(System.currentTimeMillis() - startedAt < 900);
+        verify(bundleContext).removeBundleListener(listener.get());
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void waitForStatesTimesOut() throws Exception {
+        BundleContext bundleContext = mock(BundleContext.class);
+        Bundle bundle = mock(Bundle.class);
+        when(bundleContext.getBundle(1)).thenReturn(bundle);
+        when(bundle.getState()).thenReturn(Bundle.RESOLVED);
+
+        new RemoteBundleContextImpl(bundleContext).waitForState(1, Bundle.ACTIVE,
+            new RelativeTimeout(100));
+    }
+
+    @Test
+    public void installUploadedChunks() throws Exception {
+        BundleContext bundleContext = mock(BundleContext.class);
+        Bundle bundle = mock(Bundle.class);
+        when(bundle.getBundleId()).thenReturn(7L);
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        when(bundleContext.installBundle(eq("local"), any(InputStream.class))).thenAnswer(
+            invocation -> {
+                StreamUtils.copyStream((InputStream) invocation.getArguments()[1], content,
+                    false);
+                return bundle;
+            });
+
+        RemoteBundleContextImpl remoteBundleContext = new RemoteBundleContextImpl(bundleContext);
+        // an aborted upload must not leak into the next one for the same location
+        String aborted = remoteBundleContext.beginBundleUpload();
+        remoteBundleContext.appendBundleChunk(aborted, new byte[] { 9, 9 });
+        remoteBundleContext.abortBundleUpload(aborted);
+
+        String uploadId = remoteBundleContext.beginBundleUpload();
+        remoteBundleContext.appendBundleChunk(uploadId, new byte[] { 1, 2, 3 });
+        remoteBundleContext.appendBundleChunk(uploadId, new byte[] { 4, 5 });
+        assertEquals(7L, remoteBundleContext.installUploadedBundle(uploadId, "local"));
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 5 }, content.toByteArray());
+    }
+
+    @Test(expected = IOException.class)
+    public void appendToAbortedUploadFails() throws Exception {
+        RemoteBundleContextImpl remoteBundleContext = new RemoteBundleContextImpl(
+            mock(BundleContext.class));
+        String uploadId = remoteBundleContext.beginBundleUpload();
+        remoteBundleContext.appendBundleChunk(uploadId, new byte[] { 1 });
+        remoteBundleContext.abortBundleUpload(uploadId);
+        remoteBundleContext.appendBundleChunk(uploadId, new byte[] { 2 });
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void installFromInvisibleFileFails() throws Exception {
+        File file = File.createTempFile("probe", ".jar");
+        try {
+            new RemoteBundleContextImpl(mock(BundleContext.class)).installBundleFromFile("local",
+                file.getAbsolutePath(), 42);
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void installBundlesContinuesAfterFailure() throws Exception {
+        BundleContext bundleContext = mock(BundleContext.class);
+        Bundle bundle = mock(Bundle.class);
+        when(bundle.getBundleId()).thenReturn(5L);
+        when(bundle.getHeaders()).thenReturn(new Hashtable<String, String>());
+        when(bundle.getState()).thenReturn(Bundle.RESOLVED, Bundle.ACTIVE);
+        when(bundleContext.getBundle(5)).thenReturn(bundle);
+        when(bundleContext.installBundle("mvn:broken")).thenThrow(new BundleException("broken"));
+        when(bundleContext.installBundle("mvn:good")).thenReturn(bundle);
+
+        BundleResult[] results = new RemoteBundleContextImpl(bundleContext).installBundles(
+            new String[] { "mvn:broken", "mvn:good" }, true);
+
+        assertFalse(results[0].isSuccess());
+        assertEquals(-1, results[0].getBundleId());
+        assertTrue(results[1].isSuccess());
+        assertEquals(5, results[1].getBundleId());
+        assertEquals(Bundle.ACTIVE, results[1].getState());
+        verify(bundle).start();
+    }
+
+    @Test
+    public void uninstallBundlesContinuesAfterFailure() throws Exception {
+        BundleContext bundleContext = mock(BundleContext.class);
+        Bundle first = mock(Bundle.class);
+        Bundle second = mock(Bundle.class);
+        when(bundleContext.getBundle(1)).thenReturn(first);
+        when(bundleContext.getBundle(2)).thenReturn(second);
+        doThrow(new BundleException("busy")).when(first).uninstall();
+
+        BundleResult[] results = new RemoteBundleContextImpl(bundleContext).uninstallBundles(
+            new long[] { 1, 2, 3 });
+
+        assertFalse(results[0].isSuccess());
+        assertTrue(results[1].isSuccess());
+        assertFalse(results[2].isSuccess());
+        verify(second).uninstall();
+    }
+
+    @Test
+    public void getBundleStates() throws Exception {
+        BundleContext bundleContext = mock(BundleContext.class);
+        Bundle bundle = mock(Bundle.class);
+        when(bundleContext.getBundle(1)).thenReturn(bundle);
+        when(bundle.getState()).thenReturn(Bundle.RESOLVED);
+
+        assertArrayEquals(new int[] { Bundle.RESOLVED, Bundle.UNINSTALLED },
+            new RemoteBundleContextImpl(bundleContext).getBundleStates(new long[] { 1, 2 }));
+    }
+
+    @Test
+    public void getInstalledBundles() throws Exception {
+        BundleContext bundleContext = mock(BundleContext.class);
+        Bundle host = mock(Bundle.class);
+        Bundle fragment = mock(Bundle.class);
+        BundleStartLevel startLevel = mock(BundleStartLevel.class);
+        when(bundleContext.getBundles()).thenReturn(new Bundle[] { fragment, host });
+        when(host.getBundleId()).thenReturn(1L);
+        when(host.getLocation()).thenReturn("mvn:group/host/1.0");
+        when(host.getState()).thenReturn(Bundle.ACTIVE);
+        when(host.getHeaders()).thenReturn(new Hashtable<String, String>());
+        when(host.adapt(BundleStartLevel.class)).thenReturn(startLevel);
+        when(startLevel.getStartLevel()).thenReturn(30);
+        Hashtable<String, String> headers = new Hashtable<String, String>();
+        headers.put(Constants.FRAGMENT_HOST, "host");
+        when(fragment.getBundleId()).thenReturn(2L);
+        when(fragment.getLocation()).thenReturn("mvn:group/fragment/1.0");
+        when(fragment.getState()).thenReturn(Bundle.RESOLVED);
+        when(fragment.getHeaders()).thenReturn(headers);
+
+        InstalledBundle[] bundles = new RemoteBundleContextImpl(bundleContext)
+            .getInstalledBundles();
+        assertEquals(2, bundles.length);
+        assertEquals("mvn:group/host/1.0", bundles[0].getLocation());
+        assertEquals(Bundle.ACTIVE, bundles[0].getState());
+        assertEquals(30, bundles[0].getStartLevel());
+        assertFalse(bundles[0].isFragment());
+        assertEquals(2L, bundles[1].getBundleId());
+        assertEquals(0, bundles[1].getStartLevel());
+        assertTrue(bundles[1].isFragment());
+    }
 }
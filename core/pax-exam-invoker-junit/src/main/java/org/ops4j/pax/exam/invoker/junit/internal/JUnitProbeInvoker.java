@@ -17,13 +17,6 @@
  */
 package org.ops4j.pax.exam.invoker.junit.internal;
 
-import static org.ops4j.pax.exam.Constants.EXAM_INVOKER_PORT;
-
-import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.net.InetAddress;
-import java.net.Socket;
-
 import org.junit.runner.Description;
 import org.junit.runner.JUnitCore;
 import org.junit.runner.manipulation.Filter;
@@ -35,8 +28,10 @@ import org.ops4j.pax.exam.TestContainerException;
 import org.ops4j.pax.exam.TestDescription;
 import org.ops4j.pax.exam.TestFilter;
 import org.ops4j.pax.exam.TestListener;
+import org.ops4j.pax.exam.util.EventConnection;
 import org.ops4j.pax.exam.util.Exceptions;
 import org.ops4j.pax.exam.util.Injector;
+import org.ops4j.pax.exam.util.OutputStreamTestListener;
 import org.osgi.framework.BundleContext;
 
 /**
@@ -122,28 +117,13 @@ public class JUnitProbeInvoker implements ProbeInvoker {
 
     @Override
     public void runTestClass(String description) {
-        try (Socket socket = new Socket(InetAddress.getLocalHost(), getPort())) {
-            ObjectOutputStream oos = new ObjectOutputStream(socket.getOutputStream());
-            OutputStreamTestListener streamListener = new OutputStreamTestListener(oos);
-            runTestWithJUnit(TestDescription.parse(description), streamListener);
-        }
-        catch (IOException exc) {
-            new TestContainerException(exc);
-        }
-    }
-
-    private int getPort() {
-        String port = ctx.getProperty(EXAM_INVOKER_PORT);
-        if (port == null) {
-            throw new TestContainerException(
-                "System property " + EXAM_INVOKER_PORT + " is not set");
-        }
+        OutputStreamTestListener streamListener = EventConnection.createListener(ctx,
+            TestDescription.parseRunId(description));
         try {
-            return Integer.parseInt(port);
+            runTestWithJUnit(TestDescription.parse(description), streamListener);
         }
-        catch (NumberFormatException exc) {
-            throw new TestContainerException(
-                "Cannot parse value of system property " + EXAM_INVOKER_PORT, exc);
+        finally {
+            streamListener.runFinished();
         }
     }
 }
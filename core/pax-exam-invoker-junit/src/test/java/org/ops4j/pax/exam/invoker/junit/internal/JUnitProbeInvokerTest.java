@@ -17,6 +17,9 @@
  */
 package org.ops4j.pax.exam.invoker.junit.internal;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -24,6 +27,9 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.DataInputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -34,9 +40,15 @@ import org.junit.runner.manipulation.Filter;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.ops4j.pax.exam.Constants;
+import org.ops4j.pax.exam.TestContainerException;
 import org.ops4j.pax.exam.TestDescription;
+import org.ops4j.pax.exam.TestEvent;
+import org.ops4j.pax.exam.TestEventCodec;
+import org.ops4j.pax.exam.TestEventType;
 import org.ops4j.pax.exam.TestFilter;
 import org.ops4j.pax.exam.TestListener;
+import org.ops4j.pax.exam.util.EventConnection;
 import org.ops4j.pax.exam.util.Injector;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
@@ -70,6 +82,35 @@ public class JUnitProbeInvokerTest {
         verify(listener, times(3)).testStarted(any(TestDescription.class));
     }
 
+    @Test
+    public void runTestClassShouldFinishRunOnFailure() throws Exception {
+        when(bundleContext.getBundle()).thenReturn(bundle);
+        when(bundle.loadClass("NoSuchTest")).thenThrow(new ClassNotFoundException("NoSuchTest"));
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            when(bundleContext.getProperty(Constants.EXAM_INVOKER_PORT))
+                .thenReturn(Integer.toString(serverSocket.getLocalPort()));
+            JUnitProbeInvoker invoker = new JUnitProbeInvoker(bundleContext, injector);
+            try {
+                invoker.runTestClass(new TestDescription("NoSuchTest").toString(42));
+                fail("expected TestContainerException");
+            }
+            catch (TestContainerException exc) {
+                // expected
+            }
+
+            try (Socket socket = serverSocket.accept()) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                TestEventCodec.readHeader(in);
+                TestEvent event = TestEventCodec.read(in);
+                assertThat(event.getRunId(), is(42L));
+                assertThat(event.getType(), is(TestEventType.RUN_FINISHED));
+            }
+        }
+        finally {
+            EventConnection.close();
+        }
+    }
+
     interface DescriptionPredicate {
         boolean accept(Description description);
     }
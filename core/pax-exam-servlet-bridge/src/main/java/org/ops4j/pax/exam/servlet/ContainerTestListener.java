@@ -17,34 +17,47 @@
  */
 package org.ops4j.pax.exam.servlet;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 
 import org.junit.runner.Description;
 import org.junit.runner.notification.Failure;
 import org.junit.runner.notification.RunListener;
 import org.ops4j.pax.exam.TestDescription;
 import org.ops4j.pax.exam.TestEvent;
+import org.ops4j.pax.exam.TestEventCodec;
 import org.ops4j.pax.exam.TestEventType;
 import org.ops4j.pax.exam.WrappedTestContainerException;
 import org.ops4j.pax.exam.util.Exceptions;
 
 /**
+ * Sends the events of a test run to the driver. Events are encoded by {@link TestEventCodec}.
+ *
  * @author hwellmann
  *
  */
 public class ContainerTestListener extends RunListener {
 
-    private ObjectOutputStream oos;
-
+    private DataOutputStream out;
 
-    public ContainerTestListener(ObjectOutputStream oos) {
-        this.oos = oos;
+    /**
+     * Creates a listener writing to the given stream and writes the stream header.
+     *
+     * @param os
+     *            output stream
+     * @throws IOException
+     *             on I/O error
+     */
+    public ContainerTestListener(OutputStream os) throws IOException {
+        this.out = new DataOutputStream(os);
+        TestEventCodec.writeHeader(out);
     }
 
     private void writeEvent(TestEvent event) {
         try {
-            oos.writeObject(event);
+            TestEventCodec.write(out, event);
+            out.flush();
         }
         catch (IOException exc) {
             throw Exceptions.unchecked(exc);
@@ -18,7 +18,6 @@
 package org.ops4j.pax.exam.servlet;
 
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 
 import javax.servlet.ServletConfig;
@@ -101,9 +100,8 @@ public class TestRunnerServlet extends HttpServlet {
                 Description method = Description.createTestDescription(clazz, methodName);
                 runner.filter(Filter.matchMethodDescription(method));
             }
-            ObjectOutputStream oos = new ObjectOutputStream(os);
             JUnitCore junit = new JUnitCore();
-            junit.addListener(new ContainerTestListener(oos));
+            junit.addListener(new ContainerTestListener(os));
             junit.run(runner);
         }
         catch (InitializationError | NoTestsRemainException exc) {
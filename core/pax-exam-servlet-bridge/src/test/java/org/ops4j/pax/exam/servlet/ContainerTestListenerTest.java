@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.servlet;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Request;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.ops4j.pax.exam.TestDescription;
+import org.ops4j.pax.exam.TestFailure;
+import org.ops4j.pax.exam.TestListener;
+import org.ops4j.pax.exam.spi.listener.TestListenerTask;
+
+public class ContainerTestListenerTest {
+
+    public static class SampleTest {
+
+        @Test
+        public void succeed() {
+            // empty
+        }
+
+        @Test
+        public void fail() {
+            throw new IllegalStateException("failed");
+        }
+
+        @Ignore
+        @Test
+        public void ignore() {
+            // empty
+        }
+    }
+
+    private void runAndRead(String methodName, TestListener delegate) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        JUnitCore junit = new JUnitCore();
+        junit.addListener(new ContainerTestListener(os));
+        junit.run(Request.method(SampleTest.class, methodName));
+
+        // the servlet response as received by the probe invoker
+        final InputStream is = new ByteArrayInputStream(os.toByteArray());
+        FutureTask<InputStream> response = new FutureTask<InputStream>(new Callable<InputStream>() {
+
+            @Override
+            public InputStream call() {
+                return is;
+            }
+        });
+        response.run();
+        new TestListenerTask(response, delegate).run();
+    }
+
+    @Test
+    public void readSuccessfulTest() throws IOException {
+        TestListener delegate = mock(TestListener.class);
+        runAndRead("succeed", delegate);
+
+        TestDescription description = new TestDescription(SampleTest.class.getName(), "succeed");
+        InOrder inOrder = inOrder(delegate);
+        inOrder.verify(delegate).testStarted(description);
+        inOrder.verify(delegate).testFinished(description);
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void readFailedTest() throws IOException {
+        TestListener delegate = mock(TestListener.class);
+        runAndRead("fail", delegate);
+
+        TestDescription description = new TestDescription(SampleTest.class.getName(), "fail");
+        ArgumentCaptor<TestFailure> failure = ArgumentCaptor.forClass(TestFailure.class);
+        verify(delegate).testStarted(description);
+        verify(delegate).testFailure(failure.capture());
+        verify(delegate).testFinished(description);
+        assertThat(failure.getValue().getDescription(), is(equalTo(description)));
+        Throwable exc = failure.getValue().getException();
+        assertThat(exc.getClass().getName(), is(IllegalStateException.class.getName()));
+        assertThat(exc.getMessage(), is("failed"));
+    }
+
+    @Test
+    public void readIgnoredTest() throws IOException {
+        TestListener delegate = mock(TestListener.class);
+        runAndRead("ignore", delegate);
+
+        verify(delegate).testIgnored(new TestDescription(SampleTest.class.getName(), "ignore"));
+        verify(delegate, never()).testStarted(any(TestDescription.class));
+    }
+}
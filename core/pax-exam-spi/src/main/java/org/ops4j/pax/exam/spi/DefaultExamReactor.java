@@ -18,11 +18,11 @@
 package org.ops4j.pax.exam.spi;
 
 import static org.ops4j.pax.exam.CoreOptions.options;
+import static org.ops4j.pax.exam.OptionUtils.combine;
 
+import java.io.File;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import org.ops4j.pax.exam.ConfigurationFactory;
 import org.ops4j.pax.exam.ExamSystem;
@@ -30,6 +30,8 @@ import org.ops4j.pax.exam.Option;
 import org.ops4j.pax.exam.TestContainer;
 import org.ops4j.pax.exam.TestContainerFactory;
 import org.ops4j.pax.exam.TestProbeBuilder;
+import org.ops4j.pax.exam.options.extra.WorkingDirectoryOption;
+import org.ops4j.pax.exam.spi.intern.ParallelStaging;
 import org.ops4j.spi.ServiceProviderFinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -86,12 +88,30 @@ public class DefaultExamReactor implements ExamReactor {
             LOG.debug("No configuration given. Setting an empty one.");
             configurations.add(options());
         }
-        configurations.stream().map(system::fork).map(testContainerFactory::create).collect(Collectors.toList());
-        for (Option[] config : configurations) {
-            containers.addAll(Arrays.asList(testContainerFactory.create(system.fork(config))));
+        // reactors run all tests in containers of the first configuration, so additional copies
+        // are only staged for this one
+        int copies = factory.getCopiesOfFirstConfiguration();
+        List<ExamSystem> forks = new ArrayList<ExamSystem>();
+        Option[] first = configurations.get(0);
+        forks.add(system.fork(first));
+        for (int i = 1; i < copies; i++) {
+            forks.add(system.fork(combine(first, createWorkingDirectory())));
         }
+        for (Option[] config : configurations.subList(1, configurations.size())) {
+            forks.add(system.fork(config));
+        }
+        containers.addAll(new ParallelStaging().map(forks, testContainerFactory::create));
 
         return factory.create(containers, probes);
     }
 
+    /**
+     * Additional containers for the same configuration must not share the working directory of
+     * the first one.
+     */
+    private WorkingDirectoryOption createWorkingDirectory() {
+        File workingDirectory = new File(system.getTempFolder(), system.createID("container"));
+        return new WorkingDirectoryOption(workingDirectory.getAbsolutePath());
+    }
+
 }
@@ -17,8 +17,6 @@
  */
 package org.ops4j.pax.exam.spi;
 
-import static org.ops4j.pax.exam.OptionUtils.combine;
-import static org.ops4j.pax.exam.OptionUtils.expand;
 import static org.ops4j.pax.exam.OptionUtils.filter;
 
 import java.io.File;
@@ -32,6 +30,8 @@ import java.util.UUID;
 
 import org.ops4j.io.FileUtils;
 import org.ops4j.pax.exam.ConfigurationFactory;
+import org.ops4j.pax.exam.ConfigurationManager;
+import org.ops4j.pax.exam.Constants;
 import org.ops4j.pax.exam.ExamConfigurationException;
 import org.ops4j.pax.exam.ExamSystem;
 import org.ops4j.pax.exam.Info;
@@ -43,6 +43,8 @@ import org.ops4j.pax.exam.options.TimeoutOption;
 import org.ops4j.pax.exam.options.WarProbeOption;
 import org.ops4j.pax.exam.options.extra.CleanCachesOption;
 import org.ops4j.pax.exam.options.extra.WorkingDirectoryOption;
+import org.ops4j.pax.exam.spi.intern.OptionIndex;
+import org.ops4j.pax.exam.spi.intern.ProbeCache;
 import org.ops4j.pax.exam.spi.intern.TestProbeBuilderImpl;
 import org.ops4j.pax.exam.spi.war.WarTestProbeBuilderImpl;
 import org.ops4j.spi.ServiceProviderFinder;
@@ -72,7 +74,7 @@ public class DefaultExamSystem implements ExamSystem {
     private final CleanCachesOption clean;
     private final File cache;
 
-    private Option[] combinedOptions;
+    private OptionIndex combinedOptions;
 
     /**
      * Creates a fresh ExamSystem. Your options will be combined with internal defaults. If you need
@@ -80,14 +82,15 @@ public class DefaultExamSystem implements ExamSystem {
      * options again.
      *
      * @param options
-     *            options to be used to define the new system.
+     *            options to be used to define the new system. A forked system shares the options
+     *            of its parent.
      *
      * @throws IOException
      *             in case of an instantiation problem. (IO related)
      */
-    private DefaultExamSystem(Option[] options) throws IOException {
+    private DefaultExamSystem(OptionIndex options) throws IOException {
         subsystems = new Stack<ExamSystem>();
-        combinedOptions = expand(options);
+        combinedOptions = options;
         configDirectory = new File(System.getProperty("user.home") + "/.pax/exam/");
         configDirectory.mkdirs();
 
@@ -95,7 +98,7 @@ public class DefaultExamSystem implements ExamSystem {
         // make sure that working directory gets propagated to forked systems
         if (work == null) {
             work = new WorkingDirectoryOption(createTemp(null).getAbsolutePath());
-            combinedOptions = combine(combinedOptions, work);
+            combinedOptions = combinedOptions.append(work);
         }
 
         cache = createTemp(new File(work.getWorkingDirectory()));
@@ -126,7 +129,7 @@ public class DefaultExamSystem implements ExamSystem {
      */
     public static ExamSystem create(Option[] options) throws IOException {
         LOG.info("Pax Exam System (Version: " + Info.getPaxExamVersion() + ") created.");
-        return new DefaultExamSystem(options);
+        return new DefaultExamSystem(new OptionIndex(options));
 
     }
 
@@ -137,7 +140,7 @@ public class DefaultExamSystem implements ExamSystem {
     @Override
     public ExamSystem fork(Option[] options) {
         try {
-            ExamSystem sys = new DefaultExamSystem(combine(combinedOptions, options));
+            ExamSystem sys = new DefaultExamSystem(combinedOptions.append(options));
             subsystems.add(sys);
             return sys;
         }
@@ -169,14 +172,7 @@ public class DefaultExamSystem implements ExamSystem {
     @Override
     public <T extends Option> T getSingleOption(final Class<T> optionType) {
         requestedOptionTypes.add(optionType);
-        T[] filter = filter(optionType, combinedOptions);
-
-        if (filter.length > 0) {
-            return filter[filter.length - 1];
-        }
-        else {
-            return null;
-        }
+        return combinedOptions.getLast(optionType);
     }
 
     public <T extends Option> T getSingleOption(final Class<T> optionType, Option[] options) {
@@ -193,7 +189,7 @@ public class DefaultExamSystem implements ExamSystem {
     @Override
     public <T extends Option> T[] getOptions(final Class<T> optionType) {
         requestedOptionTypes.add(optionType);
-        return filter(optionType, combinedOptions);
+        return combinedOptions.get(optionType);
     }
 
     /**
@@ -250,7 +246,7 @@ public class DefaultExamSystem implements ExamSystem {
 
     private Set<String> findOptionTypes() {
         Set<String> missing = new HashSet<String>();
-        for (Option option : combinedOptions) {
+        for (Option option : combinedOptions.toArray()) {
             boolean found = false;
             for (Class<?> c : requestedOptionTypes) {
                 if (c.isAssignableFrom(option.getClass())) {
@@ -271,7 +267,8 @@ public class DefaultExamSystem implements ExamSystem {
         WarProbeOption warProbeOption = getSingleOption(WarProbeOption.class);
         if (warProbeOption == null) {
             LOG.debug("creating default probe");
-            TestProbeBuilderImpl testProbeBuilder = new TestProbeBuilderImpl(cache, store);
+            TestProbeBuilderImpl testProbeBuilder = new TestProbeBuilderImpl(cache, store,
+                createProbeCache());
             testProbeBuilder.setHeader("Bundle-SymbolicName", "PAXEXAM-PROBE-"
                 + createID("created probe"));
             return testProbeBuilder;
@@ -281,17 +278,35 @@ public class DefaultExamSystem implements ExamSystem {
                 .findAnyServiceProvider(ConfigurationFactory.class);
             LOG.debug("creating WAR probe");
             if (configurationFactory == null) {
-                return new WarTestProbeBuilderImpl(getTempFolder(), this);
+                return new WarTestProbeBuilderImpl(getTempFolder(), this,
+                    createWarCacheDir());
             }
             else {
                 Option[] configuration = configurationFactory.createConfiguration();
-                Option[] tempOptions = combine(combinedOptions, configuration);
-                warProbeOption = getSingleOption(WarProbeOption.class, tempOptions);
-                return new WarTestProbeBuilderImpl(getTempFolder(), warProbeOption);
+                warProbeOption = combinedOptions.append(configuration)
+                    .getLast(WarProbeOption.class);
+                return new WarTestProbeBuilderImpl(getTempFolder(), warProbeOption,
+                    createWarCacheDir());
             }
         }
     }
 
+    private ProbeCache createProbeCache() {
+        ConfigurationManager cm = new ConfigurationManager();
+        if (Boolean.parseBoolean(cm.getProperty(Constants.EXAM_PROBE_CACHE_KEY, "false"))) {
+            return new ProbeCache(new File(configDirectory, "probes"));
+        }
+        return null;
+    }
+
+    private File createWarCacheDir() {
+        ConfigurationManager cm = new ConfigurationManager();
+        if (Boolean.parseBoolean(cm.getProperty(Constants.EXAM_PROBE_CACHE_KEY, "false"))) {
+            return new File(configDirectory, "wars");
+        }
+        return null;
+    }
+
     @Override
     public String createID(String purposeText) {
         return UUID.randomUUID().toString();
@@ -299,7 +314,7 @@ public class DefaultExamSystem implements ExamSystem {
 
     @Override
     public String toString() {
-        return "ExamSystem:options=" + combinedOptions.length + ";queried="
+        return "ExamSystem:options=" + combinedOptions.size() + ";queried="
             + requestedOptionTypes.size();
     }
 
@@ -307,7 +322,7 @@ public class DefaultExamSystem implements ExamSystem {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + Arrays.hashCode(combinedOptions);
+        result = prime * result + Arrays.hashCode(combinedOptions.toArray());
         return result;
     }
 
@@ -323,7 +338,7 @@ public class DefaultExamSystem implements ExamSystem {
             return false;
         }
         DefaultExamSystem other = (DefaultExamSystem) obj;
-        if (!Arrays.equals(combinedOptions, other.combinedOptions)) {
+        if (!Arrays.equals(combinedOptions.toArray(), other.combinedOptions.toArray())) {
             return false;
         }
         return true;
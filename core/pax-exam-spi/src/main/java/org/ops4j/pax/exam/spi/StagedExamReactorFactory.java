@@ -25,4 +25,17 @@ import org.ops4j.pax.exam.TestProbeBuilder;
 public interface StagedExamReactorFactory {
 
     StagedExamReactor create(List<TestContainer> factory, List<TestProbeBuilder> probes);
+
+    /**
+     * Returns the number of containers to be created for the first configuration, which is the
+     * one the staged reactors run their tests in. Further configurations always get a single
+     * container. Reactors keeping a pool of equivalent containers return a value greater than one.
+     * The containers passed to {@link #create(List, List)} then start with the copies of the first
+     * configuration, followed by one container for each further configuration.
+     *
+     * @return number of copies of the first configuration
+     */
+    default int getCopiesOfFirstConfiguration() {
+        return 1;
+    }
 }
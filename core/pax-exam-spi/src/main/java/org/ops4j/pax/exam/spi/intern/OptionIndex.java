@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.intern;
+
+import static org.ops4j.pax.exam.OptionUtils.expand;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.ops4j.pax.exam.Option;
+
+/**
+ * Immutable list of expanded options, indexed by option type.
+ * <p>
+ * The options of each requested type are collected on the first lookup and cached, so that
+ * further lookups of the same type do not scan the options again. Appending options creates a new
+ * index which shares this index as its parent, so that neither the options nor the cached lookups
+ * of the parent are copied.
+ */
+public final class OptionIndex {
+
+    private final OptionIndex parent;
+
+    private final Option[] options;
+
+    private final int size;
+
+    private final Map<Class<?>, Option[]> byType = new ConcurrentHashMap<Class<?>, Option[]>();
+
+    /**
+     * Creates an index of the given options. Composite options are expanded.
+     *
+     * @param options
+     *            options, may be null
+     */
+    public OptionIndex(Option... options) {
+        this(null, options);
+    }
+
+    private OptionIndex(OptionIndex parent, Option[] options) {
+        this.parent = parent;
+        this.options = expand(options);
+        this.size = (parent == null ? 0 : parent.size) + this.options.length;
+    }
+
+    /**
+     * Returns a new index with the given options appended to the options of this index. This index
+     * is not modified.
+     *
+     * @param additionalOptions
+     *            options to be appended, may be null
+     * @return new index
+     */
+    public OptionIndex append(Option... additionalOptions) {
+        return new OptionIndex(this, additionalOptions);
+    }
+
+    /**
+     * Returns all options of the given type, in order.
+     *
+     * @param optionType
+     *            option type
+     * @return options of the given type, or an empty array
+     */
+    public <T extends Option> T[] get(Class<T> optionType) {
+        return lookup(optionType).clone();
+    }
+
+    /**
+     * Returns the last option of the given type, which takes precedence over earlier options.
+     *
+     * @param optionType
+     *            option type
+     * @return last option of the given type, or null
+     */
+    public <T extends Option> T getLast(Class<T> optionType) {
+        T[] found = lookup(optionType);
+        return found.length > 0 ? found[found.length - 1] : null;
+    }
+
+    /**
+     * @return number of options
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return all options, in order
+     */
+    public Option[] toArray() {
+        Option[] result = new Option[size];
+        OptionIndex index = this;
+        int end = size;
+        while (index != null) {
+            end -= index.options.length;
+            System.arraycopy(index.options, 0, result, end, index.options.length);
+            index = index.parent;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Option> T[] lookup(Class<T> optionType) {
+        T[] found = (T[]) byType.get(optionType);
+        if (found == null) {
+            List<T> matches = new ArrayList<T>();
+            for (Option option : options) {
+                if (optionType.isInstance(option)) {
+                    matches.add((T) option);
+                }
+            }
+            T[] inherited = parent == null ? null : parent.lookup(optionType);
+            if (matches.isEmpty() && inherited != null) {
+                found = inherited;
+            }
+            else {
+                int offset = inherited == null ? 0 : inherited.length;
+                found = (T[]) Array.newInstance(optionType, offset + matches.size());
+                if (inherited != null) {
+                    System.arraycopy(inherited, 0, found, 0, offset);
+                }
+                for (int i = 0; i < matches.size(); i++) {
+                    found[offset + i] = matches.get(i);
+                }
+            }
+            byType.put(optionType, found);
+        }
+        return found;
+    }
+}
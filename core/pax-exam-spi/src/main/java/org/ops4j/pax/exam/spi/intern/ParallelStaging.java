@@ -0,0 +1,48 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.intern;
+
+import org.ops4j.pax.exam.ConfigurationManager;
+import org.ops4j.pax.exam.Constants;
+import org.ops4j.pax.exam.util.ParallelTasks;
+
+/**
+ * Runs staging tasks (container creation and startup) for multiple configurations on a bounded
+ * thread pool. The pool size is taken from {@link Constants#EXAM_REACTOR_STAGING_THREADS_KEY}. With
+ * the default value of 1, all tasks run sequentially on the calling thread.
+ */
+public class ParallelStaging extends ParallelTasks {
+
+    /**
+     * Creates a staging executor with the number of threads taken from the configuration.
+     */
+    public ParallelStaging() {
+        this(Integer.parseInt(new ConfigurationManager().getProperty(
+            Constants.EXAM_REACTOR_STAGING_THREADS_KEY, "1")));
+    }
+
+    /**
+     * Creates a staging executor with the given number of threads.
+     *
+     * @param threads
+     *            maximum number of concurrent tasks
+     */
+    public ParallelStaging(int threads) {
+        super(threads);
+    }
+}
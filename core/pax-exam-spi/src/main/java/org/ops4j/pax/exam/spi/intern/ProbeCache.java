@@ -0,0 +1,276 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.intern;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.ops4j.io.StreamUtils;
+import org.ops4j.pax.exam.Info;
+import org.ops4j.pax.exam.TestContainerException;
+import org.osgi.framework.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent, content-addressed cache of probe bundles.
+ * <p>
+ * The cache key is a digest over all collected probe resources (path and content), the probe
+ * headers and the Pax Exam version. The {@code Bundle-SymbolicName} header is not part of the key,
+ * since the default probe builder generates a random one per run. When a cached probe is reused
+ * with a different symbolic name, only its manifest is rewritten, so bnd is not run again.
+ */
+public class ProbeCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ProbeCache.class);
+
+    /** Maximum number of probes kept in the cache directory. */
+    private static final int MAX_ENTRIES = 32;
+
+    private static final String SUFFIX = ".jar";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File cacheDir;
+
+    /**
+     * Creates a probe cache in the given directory.
+     *
+     * @param cacheDir
+     *            cache directory, will be created if needed
+     */
+    public ProbeCache(File cacheDir) {
+        this.cacheDir = cacheDir;
+        cacheDir.mkdirs();
+    }
+
+    /**
+     * Computes the cache key for the given probe content.
+     *
+     * @param resources
+     *            probe resources, mapping entry paths to URLs
+     * @param headers
+     *            probe headers
+     * @return hex encoded digest
+     * @throws IOException
+     *             when a resource cannot be read
+     */
+    public String computeKey(Map<String, URL> resources, Properties headers) throws IOException {
+        MessageDigest digest = createDigest();
+        update(digest, Info.getPaxExamVersion());
+
+        Map<String, String> sortedHeaders = new TreeMap<String, String>();
+        for (String key : headers.stringPropertyNames()) {
+            if (!Constants.BUNDLE_SYMBOLICNAME.equals(key)) {
+                sortedHeaders.put(key, headers.getProperty(key));
+            }
+        }
+        for (Map.Entry<String, String> header : sortedHeaders.entrySet()) {
+            update(digest, header.getKey());
+            update(digest, header.getValue());
+        }
+
+        byte[] buffer = new byte[8192];
+        for (Map.Entry<String, URL> entry : new TreeMap<String, URL>(resources).entrySet()) {
+            update(digest, entry.getKey());
+            InputStream is = entry.getValue().openStream();
+            try {
+                int len;
+                while ((len = is.read(buffer)) != -1) {
+                    digest.update(buffer, 0, len);
+                }
+            }
+            finally {
+                is.close();
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Opens the cached probe with the given key, if any. If the cached probe has a different
+     * symbolic name, it is rewritten with the given one.
+     *
+     * @param key
+     *            cache key
+     * @param symbolicName
+     *            required symbolic name of the probe
+     * @return input stream of the probe, or null on a cache miss
+     * @throws IOException
+     *             when the cached probe cannot be read
+     */
+    public InputStream load(String key, String symbolicName) throws IOException {
+        File file = getFile(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        LOG.debug("using cached probe {}", file);
+        file.setLastModified(System.currentTimeMillis());
+
+        JarInputStream jis = new JarInputStream(new FileInputStream(file));
+        Manifest manifest = jis.getManifest();
+        String cachedName = (manifest == null) ? null : manifest.getMainAttributes().getValue(
+            Constants.BUNDLE_SYMBOLICNAME);
+        if (manifest == null || symbolicName == null || symbolicName.equals(cachedName)) {
+            jis.close();
+            return new FileInputStream(file);
+        }
+        try {
+            File renamed = File.createTempFile(key, TEMP_SUFFIX, cacheDir);
+            manifest.getMainAttributes().put(new Attributes.Name(Constants.BUNDLE_SYMBOLICNAME),
+                symbolicName);
+            JarOutputStream jos = new JarOutputStream(new FileOutputStream(renamed), manifest);
+            try {
+                JarEntry entry;
+                while ((entry = jis.getNextJarEntry()) != null) {
+                    jos.putNextEntry(new JarEntry(entry.getName()));
+                    StreamUtils.copyStream(jis, jos, false);
+                    jos.closeEntry();
+                }
+            }
+            finally {
+                jos.close();
+            }
+            return new DeleteOnCloseInputStream(renamed);
+        }
+        finally {
+            jis.close();
+        }
+    }
+
+    /**
+     * Stores a probe under the given key. The probe is written to a temporary file first and then
+     * renamed, so concurrent builds never see a partially written probe.
+     *
+     * @param key
+     *            cache key
+     * @param probe
+     *            probe content
+     * @return input stream of the cached probe
+     * @throws IOException
+     *             when the probe cannot be written
+     */
+    public InputStream store(String key, InputStream probe) throws IOException {
+        File file = getFile(key);
+        File temp = File.createTempFile(key, TEMP_SUFFIX, cacheDir);
+        OutputStream os = new FileOutputStream(temp);
+        try {
+            StreamUtils.copyStream(probe, os, false);
+        }
+        finally {
+            os.close();
+            probe.close();
+        }
+        if (!temp.renameTo(file) && !file.isFile()) {
+            temp.delete();
+            throw new TestContainerException("cannot store probe in " + file);
+        }
+        temp.delete();
+        prune();
+        return new FileInputStream(file);
+    }
+
+    private void prune() {
+        File[] probes = cacheDir.listFiles(new FileFilter() {
+
+            @Override
+            public boolean accept(File file) {
+                return file.getName().endsWith(SUFFIX);
+            }
+        });
+        if (probes == null || probes.length <= MAX_ENTRIES) {
+            return;
+        }
+        Arrays.sort(probes, new Comparator<File>() {
+
+            @Override
+            public int compare(File left, File right) {
+                return Long.compare(right.lastModified(), left.lastModified());
+            }
+        });
+        for (int i = MAX_ENTRIES; i < probes.length; i++) {
+            LOG.debug("evicting cached probe {}", probes[i]);
+            probes[i].delete();
+        }
+    }
+
+    private File getFile(String key) {
+        return new File(cacheDir, key + SUFFIX);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException exc) {
+            throw new TestContainerException(exc);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Input stream on a temporary file which is deleted when the stream is closed.
+     */
+    private static class DeleteOnCloseInputStream extends FileInputStream {
+
+        private final File file;
+
+        DeleteOnCloseInputStream(File file) throws IOException {
+            super(file);
+            this.file = file;
+        }
+
+        @Override
+        public void close() throws IOException {
+            super.close();
+            file.delete();
+        }
+    }
+}
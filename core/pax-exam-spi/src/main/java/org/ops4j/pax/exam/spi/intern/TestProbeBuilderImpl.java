@@ -55,11 +55,31 @@ public class TestProbeBuilderImpl implements TestProbeBuilder {
     private final Set<String> ignorePackages = new HashSet<String>();
     private File tempDir;
     private final Store<InputStream> store;
+    private final ProbeCache probeCache;
 
     public TestProbeBuilderImpl(File tempDir, Store<InputStream> store) throws IOException {
+        this(tempDir, store, null);
+    }
+
+    /**
+     * Creates a probe builder reusing probes from the given cache, if the probe content is
+     * unchanged.
+     *
+     * @param tempDir
+     *            temporary directory
+     * @param store
+     *            store for built probes
+     * @param probeCache
+     *            persistent probe cache, or null to always build the probe
+     * @throws IOException
+     *             on I/O error
+     */
+    public TestProbeBuilderImpl(File tempDir, Store<InputStream> store, ProbeCache probeCache)
+        throws IOException {
         this.anchors = new ArrayList<Class<?>>();
         this.tempDir = tempDir;
         this.store = store;
+        this.probeCache = probeCache;
         extraProperties = new Properties();
     }
 
@@ -94,17 +114,41 @@ public class TestProbeBuilderImpl implements TestProbeBuilder {
     @Override
     public TestProbeProvider build() {
         try {
-            TinyBundle bundle = prepareProbeBundle(createExtraIgnores());
-            return new DefaultTestProbeProvider(store,
-                store.store(bundle.build(withClassicBuilder())));
-
+            Properties extraIgnores = createExtraIgnores();
+            Map<String, URL> resources = collectResources();
+            if (probeCache == null) {
+                TinyBundle bundle = prepareProbeBundle(extraIgnores, resources);
+                return new DefaultTestProbeProvider(store,
+                    store.store(bundle.build(withClassicBuilder())));
+            }
+            return buildCached(extraIgnores, resources);
         }
         catch (IOException e) {
             throw new TestContainerException(e);
         }
     }
 
-    private TinyBundle prepareProbeBundle(Properties p) throws IOException {
+    private TestProbeProvider buildCached(Properties extraIgnores, Map<String, URL> resources)
+        throws IOException {
+        Properties headers = new Properties();
+        headers.putAll(extraProperties);
+        headers.putAll(extraIgnores);
+        String key = probeCache.computeKey(resources, headers);
+        InputStream probe = probeCache.load(key,
+            extraProperties.getProperty(Constants.BUNDLE_SYMBOLICNAME));
+        if (probe == null) {
+            TinyBundle bundle = prepareProbeBundle(extraIgnores, resources);
+            probe = probeCache.store(key, bundle.build(withClassicBuilder()));
+        }
+        try {
+            return new DefaultTestProbeProvider(store, store.store(probe));
+        }
+        finally {
+            probe.close();
+        }
+    }
+
+    private TinyBundle prepareProbeBundle(Properties p, Map<String, URL> map) throws IOException {
         TinyBundle bundle = bundle(store).set(Constants.DYNAMICIMPORT_PACKAGE, "*");
 
         bundle.set(PROBE_EXECUTABLE, "");
@@ -117,7 +161,6 @@ public class TestProbeBuilderImpl implements TestProbeBuilder {
             bundle.set((String) key, (String) p.get(key));
         }
 
-        Map<String, URL> map = collectResources();
         for (String item : map.keySet()) {
             bundle.add(item, map.get(item));
         }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.intern;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ops4j.pax.exam.ConfigurationManager;
+import org.ops4j.pax.exam.Constants;
+import org.ops4j.pax.exam.TestContainer;
+import org.ops4j.pax.exam.TestDescription;
+import org.ops4j.pax.exam.TestFailure;
+import org.ops4j.pax.exam.TestFilter;
+import org.ops4j.pax.exam.TestListener;
+import org.ops4j.pax.exam.util.ParallelTasks;
+
+/**
+ * Dispatches a test class to a list of staged containers. The number of shards is taken from
+ * {@link Constants#EXAM_REACTOR_SHARDS_KEY}, and the reactor factory stages as many copies of the
+ * first configuration. If there is more than one shard and the description of the class has a
+ * filter listing the unique ids of its tests, the ids are split round-robin among these copies
+ * and each share runs concurrently in a copy of its own. The events of all shares are passed to
+ * the given listener one at a time. Containers of further configurations are not used.
+ * <p>
+ * Otherwise, the whole class runs in the first container.
+ */
+public class TestSharding {
+
+    private final int shards;
+
+    /**
+     * Creates a dispatcher with the number of shards taken from the configuration.
+     */
+    public TestSharding() {
+        this(Integer.parseInt(new ConfigurationManager().getProperty(
+            Constants.EXAM_REACTOR_SHARDS_KEY, "1")));
+    }
+
+    /**
+     * Creates a dispatcher with the given number of shards.
+     *
+     * @param shards
+     *            number of copies of the first configuration to split the tests among
+     */
+    public TestSharding(int shards) {
+        this.shards = Math.max(1, shards);
+    }
+
+    /**
+     * Returns the number of shards, which is also the number of containers to be staged for the
+     * first configuration.
+     *
+     * @return number of shards
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Is sharding enabled? Drivers must then pass the unique ids of all tests of a class in the
+     * filter of its description, even if no tests are filtered out.
+     *
+     * @return true if sharding is enabled
+     */
+    public boolean isEnabled() {
+        return shards > 1;
+    }
+
+    /**
+     * Runs the given test or test class.
+     *
+     * @param containers
+     *            staged containers, starting with the copies of the first configuration
+     * @param description
+     *            test description
+     * @param listener
+     *            listener for test events
+     * @throws Exception
+     *             if a container fails to run its tests, after all shares have completed
+     */
+    public void runTest(List<TestContainer> containers, TestDescription description,
+        TestListener listener) throws Exception {
+        List<TestDescription> shares = split(description, Math.min(shards, containers.size()));
+        if (shares.size() <= 1) {
+            containers.get(0).runTest(description, listener);
+            return;
+        }
+
+        TestListener synchronizedListener = new SynchronizedTestListener(listener);
+        List<Integer> indexes = new ArrayList<Integer>(shares.size());
+        for (int i = 0; i < shares.size(); i++) {
+            indexes.add(i);
+        }
+        // a failing share does not interrupt the other ones, so that all events are reported
+        new ParallelTasks(shares.size()).map(indexes, index -> {
+            containers.get(index).runTest(shares.get(index), synchronizedListener);
+            return index;
+        });
+    }
+
+    /**
+     * Splits a class level description into at most the given number of descriptions, each
+     * filtering a disjoint share of the tests.
+     *
+     * @param description
+     *            test description
+     * @param maxShards
+     *            maximum number of shards
+     * @return list of descriptions, just the given one if the tests cannot be split
+     */
+    List<TestDescription> split(TestDescription description, int maxShards) {
+        List<TestDescription> shards = new ArrayList<TestDescription>();
+        TestFilter filter = description.getFilter();
+        if (maxShards <= 1 || description.getMethodName() != null || filter == null
+            || filter.getUniqueIds().size() <= 1) {
+            shards.add(description);
+            return shards;
+        }
+
+        List<String> uniqueIds = filter.getUniqueIds();
+        int numShards = Math.min(maxShards, uniqueIds.size());
+        List<TestFilter> filters = new ArrayList<TestFilter>(numShards);
+        for (int i = 0; i < numShards; i++) {
+            filters.add(new TestFilter(filter.getDescription()));
+        }
+        for (int i = 0; i < uniqueIds.size(); i++) {
+            filters.get(i % numShards).addUniqueId(uniqueIds.get(i));
+        }
+        for (TestFilter shardFilter : filters) {
+            shards.add(new TestDescription(description.getClassName(), null,
+                description.getIndex(), shardFilter));
+        }
+        return shards;
+    }
+
+    /**
+     * Serializes events reported concurrently by multiple containers, since test framework
+     * notifiers are not thread-safe.
+     */
+    private static class SynchronizedTestListener implements TestListener {
+
+        private final TestListener delegate;
+
+        SynchronizedTestListener(TestListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void testStarted(TestDescription description) {
+            delegate.testStarted(description);
+        }
+
+        @Override
+        public synchronized void testFinished(TestDescription description) {
+            delegate.testFinished(description);
+        }
+
+        @Override
+        public synchronized void testFailure(TestFailure failure) {
+            delegate.testFailure(failure);
+        }
+
+        @Override
+        public synchronized void testAssumptionFailure(TestFailure failure) {
+            delegate.testAssumptionFailure(failure);
+        }
+
+        @Override
+        public synchronized void testIgnored(TestDescription description) {
+            delegate.testIgnored(description);
+        }
+    }
+}
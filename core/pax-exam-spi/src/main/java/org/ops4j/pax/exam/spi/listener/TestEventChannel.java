@@ -0,0 +1,231 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.listener;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ops4j.pax.exam.RelativeTimeout;
+import org.ops4j.pax.exam.TestContainerException;
+import org.ops4j.pax.exam.TestEvent;
+import org.ops4j.pax.exam.TestEventCodec;
+import org.ops4j.pax.exam.TestEventType;
+import org.ops4j.pax.exam.TestListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Receives test events from a container on a single server socket, which stays open for the
+ * lifetime of the container. The container connects once and keeps the connection open for all
+ * test runs.
+ * <p>
+ * Each test run is registered with a run id, which the container includes in each event. A test
+ * run is complete when the container sends a {@link TestEventType#RUN_FINISHED} event for its run
+ * id. Events are decoded by {@link TestEventCodec}.
+ */
+public class TestEventChannel implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TestEventChannel.class);
+
+    private static final AtomicLong RUN_IDS = new AtomicLong();
+
+    private final ServerSocket serverSocket;
+
+    private final Map<Long, Run> runs = new ConcurrentHashMap<Long, Run>();
+
+    private final List<Socket> connections = new CopyOnWriteArrayList<Socket>();
+
+    private volatile boolean closed;
+
+    /**
+     * Opens a channel on the given port.
+     *
+     * @param port
+     *            invoker port, or 0 for any free port
+     * @throws IOException
+     *             if the port cannot be bound
+     */
+    public TestEventChannel(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        Thread acceptor = new Thread("pax-exam-events-" + port) {
+
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        };
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * @return the local port of this channel
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Registers a new test run.
+     *
+     * @param listener
+     *            listener for the events of this run
+     * @return run id, to be passed to the container
+     */
+    public long register(TestListener listener) {
+        long runId = RUN_IDS.incrementAndGet();
+        runs.put(runId, new Run(listener));
+        return runId;
+    }
+
+    /**
+     * Waits until the container has finished the given test run, and unregisters the run.
+     *
+     * @param runId
+     *            run id
+     * @param timeout
+     *            maximum time to wait for the end of the run. The default timeout is used instead
+     *            of no wait, since the end of the run may still be in transit.
+     */
+    public void await(long runId, RelativeTimeout timeout) {
+        Run run = runs.get(runId);
+        if (run == null) {
+            return;
+        }
+        long millis = timeout.isNoWait() ? RelativeTimeout.TIMEOUT_DEFAULT.getValue()
+            : timeout.getValue();
+        try {
+            if (!run.finished.await(millis, TimeUnit.MILLISECONDS)) {
+                throw new TestContainerException("no end of test run " + runId + " received after "
+                    + millis + " ms");
+            }
+        }
+        catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new TestContainerException(exc);
+        }
+        finally {
+            runs.remove(runId);
+        }
+    }
+
+    /**
+     * Unregisters the given test run without waiting for it.
+     *
+     * @param runId
+     *            run id
+     */
+    public void cancel(long runId) {
+        runs.remove(runId);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            try {
+                final Socket socket = serverSocket.accept();
+                connections.add(socket);
+                Thread reader = new Thread(Thread.currentThread().getName() + "-reader") {
+
+                    @Override
+                    public void run() {
+                        readEvents(socket);
+                    }
+                };
+                reader.setDaemon(true);
+                reader.start();
+            }
+            catch (IOException exc) {
+                if (!closed) {
+                    LOG.warn("cannot accept test event connection", exc);
+                }
+            }
+        }
+    }
+
+    private void readEvents(Socket socket) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            socket.getInputStream()))) {
+            TestEventCodec.readHeader(in);
+            while (!closed) {
+                handleEvent(TestEventCodec.read(in));
+            }
+        }
+        catch (EOFException | SocketException exc) {
+            LOG.debug("test event connection closed");
+        }
+        catch (IOException exc) {
+            if (!closed) {
+                LOG.warn("cannot read test events", exc);
+            }
+        }
+        finally {
+            connections.remove(socket);
+        }
+    }
+
+    private void handleEvent(TestEvent event) {
+        Run run = runs.get(event.getRunId());
+        if (run == null) {
+            LOG.warn("ignoring {} event for unknown test run {}", event.getType(),
+                event.getRunId());
+            return;
+        }
+        if (event.getType() == TestEventType.RUN_FINISHED) {
+            run.finished.countDown();
+            return;
+        }
+        try {
+            TestListenerTask.dispatch(event, run.listener);
+        }
+        catch (RuntimeException exc) {
+            LOG.error("test listener failed", exc);
+        }
+    }
+
+    private static class Run {
+
+        private final TestListener listener;
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        Run(TestListener listener) {
+            this.listener = listener;
+        }
+    }
+}
@@ -17,10 +17,11 @@
  */
 package org.ops4j.pax.exam.spi.listener;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.util.concurrent.ExecutionException;
@@ -28,6 +29,8 @@ import java.util.concurrent.Future;
 
 import org.ops4j.pax.exam.TestContainerException;
 import org.ops4j.pax.exam.TestEvent;
+import org.ops4j.pax.exam.TestEventCodec;
+import org.ops4j.pax.exam.TestEventType;
 import org.ops4j.pax.exam.TestFailure;
 import org.ops4j.pax.exam.TestListener;
 import org.ops4j.pax.exam.util.Exceptions;
@@ -57,19 +60,19 @@ public class TestListenerTask implements Runnable {
 
     @Override
     public void run() {
-        try (ObjectInputStream ois = openObjectInputStream()) {
+        try (DataInputStream in = openInputStream()) {
+            TestEventCodec.readHeader(in);
             while (!closed) {
-                Object obj = ois.readObject();
-                if (obj instanceof TestEvent) {
-                    TestEvent event = (TestEvent) obj;
-                    handleEvent(event);
+                TestEvent event = TestEventCodec.read(in);
+                if (event.getType() != TestEventType.RUN_FINISHED) {
+                    dispatch(event, delegate);
                 }
             }
         }
         catch (EOFException exc) {
             closed = true;
         }
-        catch (ClassNotFoundException | IOException exc) {
+        catch (IOException exc) {
             throw new TestContainerException(exc);
         }
     }
@@ -80,14 +83,14 @@ public class TestListenerTask implements Runnable {
      * @throws ExecutionException
      * @throws InterruptedException
      */
-    private ObjectInputStream openObjectInputStream() throws IOException {
+    private DataInputStream openInputStream() throws IOException {
         if (serverSocket != null) {
             Socket socket = serverSocket.accept();
-            return new ObjectInputStream(socket.getInputStream());
+            return new DataInputStream(new BufferedInputStream(socket.getInputStream()));
         }
         else {
             try {
-                return new ObjectInputStream(isFuture.get());
+                return new DataInputStream(new BufferedInputStream(isFuture.get()));
             }
             catch (InterruptedException | ExecutionException exc) {
                 throw Exceptions.unchecked(exc);
@@ -96,9 +99,14 @@ public class TestListenerTask implements Runnable {
     }
 
     /**
+     * Passes the given event to the given listener.
+     *
      * @param event
+     *            test event
+     * @param delegate
+     *            test listener
      */
-    private void handleEvent(TestEvent event) {
+    static void dispatch(TestEvent event, TestListener delegate) {
         switch (event.getType()) {
             case TEST_ASSUMPTION_FAILED:
                 delegate.testAssumptionFailure(
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.reactors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ops4j.pax.exam.TestContainer;
+import org.ops4j.pax.exam.TestContainerException;
+import org.ops4j.pax.exam.TestProbeBuilder;
+import org.ops4j.pax.exam.TestProbeProvider;
+import org.ops4j.pax.exam.spi.intern.ParallelStaging;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts the containers of a staged reactor and installs the probes. Each probe is built once on
+ * the calling thread, since probe builders are not thread-safe. If any container fails, all
+ * containers started so far are stopped again.
+ */
+final class ContainerStaging {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContainerStaging.class);
+
+    private ContainerStaging() {
+    }
+
+    static void start(List<TestContainer> containers, List<TestProbeBuilder> probes) {
+        List<TestProbeProvider> providers = new ArrayList<TestProbeProvider>(probes.size());
+        for (TestProbeBuilder builder : probes) {
+            providers.add(builder.build());
+        }
+        new ParallelStaging().map(containers, container -> {
+            try {
+                container.start();
+            }
+            catch (IOException exc) {
+                throw new TestContainerException("Test-Container Setup failed", exc);
+            }
+            try {
+                for (TestProbeProvider provider : providers) {
+                    LOG.debug("installing probe " + provider);
+                    container.installProbe(provider.getStream());
+                }
+            }
+            catch (IOException exc) {
+                stopQuietly(container);
+                throw new TestContainerException("Unable to build the probe.", exc);
+            }
+            catch (RuntimeException exc) {
+                stopQuietly(container);
+                throw exc;
+            }
+            return container;
+        }, ContainerStaging::stopQuietly);
+    }
+
+    private static void stopQuietly(TestContainer container) {
+        try {
+            container.stop();
+        }
+        catch (IOException | RuntimeException exc) {
+            LOG.warn("cannot stop container " + container, exc);
+        }
+    }
+}
@@ -26,8 +26,7 @@ import org.ops4j.pax.exam.TestDescription;
 import org.ops4j.pax.exam.TestListener;
 import org.ops4j.pax.exam.TestProbeBuilder;
 import org.ops4j.pax.exam.spi.StagedExamReactor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.ops4j.pax.exam.spi.intern.TestSharding;
 
 /**
  * One target only reactor implementation (simpliest and fastest)
@@ -36,10 +35,9 @@ import org.slf4j.LoggerFactory;
  */
 public class EagerSingleStagedReactor implements StagedExamReactor {
 
-    private static final Logger LOG = LoggerFactory.getLogger(EagerSingleStagedReactor.class);
-
     private final List<TestContainer> targetContainer;
     private final List<TestProbeBuilder> probes;
+    private final TestSharding sharding = new TestSharding();
 
     /**
      * @param containers
@@ -53,25 +51,7 @@ public class EagerSingleStagedReactor implements StagedExamReactor {
     }
 
     public void setUp() {
-        for (TestContainer container : targetContainer) {
-            try {
-                container.start();
-            }
-            catch (IOException e1) {
-                throw new TestContainerException("Test-Container Setup failed", e1);
-            }
-
-            for (TestProbeBuilder builder : probes) {
-                LOG.debug("installing probe " + builder);
-
-                try {
-                    container.installProbe(builder.build().getStream());
-                }
-                catch (IOException e) {
-                    throw new TestContainerException("Unable to build the probe.", e);
-                }
-            }
-        }
+        ContainerStaging.start(targetContainer, probes);
     }
 
 
@@ -118,7 +98,6 @@ public class EagerSingleStagedReactor implements StagedExamReactor {
             return;
         }
 
-        TestContainer testContainer = targetContainer.get(0);
-        testContainer.runTest(description, listener);
+        sharding.runTest(targetContainer, description, listener);
     }
 }
@@ -21,6 +21,7 @@ import org.ops4j.pax.exam.TestContainer;
 import org.ops4j.pax.exam.TestProbeBuilder;
 import org.ops4j.pax.exam.spi.StagedExamReactor;
 import org.ops4j.pax.exam.spi.StagedExamReactorFactory;
+import org.ops4j.pax.exam.spi.intern.TestSharding;
 
 /**
  * @deprecated Use {@link PerClass} instead.
@@ -32,4 +33,9 @@ public class EagerSingleStagedReactorFactory implements StagedExamReactorFactory
     public StagedExamReactor create(List<TestContainer> containers, List<TestProbeBuilder> mProbes) {
         return new EagerSingleStagedReactor(containers, mProbes);
     }
+
+    @Override
+    public int getCopiesOfFirstConfiguration() {
+        return new TestSharding().getShards();
+    }
 }
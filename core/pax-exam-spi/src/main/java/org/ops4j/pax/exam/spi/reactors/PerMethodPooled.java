@@ -0,0 +1,56 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.reactors;
+
+import java.util.List;
+
+import org.ops4j.pax.exam.ConfigurationManager;
+import org.ops4j.pax.exam.Constants;
+import org.ops4j.pax.exam.TestContainer;
+import org.ops4j.pax.exam.TestProbeBuilder;
+import org.ops4j.pax.exam.spi.StagedExamReactor;
+import org.ops4j.pax.exam.spi.StagedExamReactorFactory;
+
+/**
+ * This reactor factory creates a test reactor which runs each test method in a fresh container,
+ * like {@link PerMethod}, but keeps a pool of running containers and resets them between test
+ * methods instead of restarting them. The pool size is taken from
+ * {@link Constants#EXAM_REACTOR_POOL_SIZE_KEY}.
+ *
+ * @see PooledConfinedStagedReactor
+ */
+public class PerMethodPooled implements StagedExamReactorFactory {
+
+    private final int poolSize;
+
+    public PerMethodPooled() {
+        this.poolSize = Math.max(1, Integer.parseInt(new ConfigurationManager().getProperty(
+            Constants.EXAM_REACTOR_POOL_SIZE_KEY, "2")));
+    }
+
+    @Override
+    public StagedExamReactor create(List<TestContainer> containers, List<TestProbeBuilder> probes) {
+        return new PooledConfinedStagedReactor(
+            containers.subList(0, Math.min(poolSize, containers.size())), probes);
+    }
+
+    @Override
+    public int getCopiesOfFirstConfiguration() {
+        return poolSize;
+    }
+}
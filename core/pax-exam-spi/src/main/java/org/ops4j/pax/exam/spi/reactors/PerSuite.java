@@ -23,6 +23,7 @@ import org.ops4j.pax.exam.TestContainer;
 import org.ops4j.pax.exam.TestProbeBuilder;
 import org.ops4j.pax.exam.spi.StagedExamReactor;
 import org.ops4j.pax.exam.spi.StagedExamReactorFactory;
+import org.ops4j.pax.exam.spi.intern.TestSharding;
 
 /**
  * This reactor factory creates a test reactor which is used for the entire test suite. The reactor
@@ -35,4 +36,9 @@ public class PerSuite implements StagedExamReactorFactory {
     public StagedExamReactor create(List<TestContainer> containers, List<TestProbeBuilder> probes) {
         return new PerSuiteStagedReactor(containers, probes);
     }
+
+    @Override
+    public int getCopiesOfFirstConfiguration() {
+        return new TestSharding().getShards();
+    }
 }
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.reactors;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.ops4j.pax.exam.TestContainer;
+import org.ops4j.pax.exam.TestContainerException;
+import org.ops4j.pax.exam.TestDescription;
+import org.ops4j.pax.exam.TestListener;
+import org.ops4j.pax.exam.TestProbeBuilder;
+import org.ops4j.pax.exam.TestProbeProvider;
+import org.ops4j.pax.exam.spi.StagedExamReactor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Like {@link AllConfinedStagedReactor}, this reactor runs each test method in a container of its
+ * own, but it keeps a pool of containers running in the background. Each test method takes a
+ * container from the pool. After the test, the container is reset to its initial state and
+ * returned to the pool. If a container cannot be reset, it is restarted.
+ * <p>
+ * All containers in the pool are created from the first configuration of the test class.
+ */
+public class PooledConfinedStagedReactor implements StagedExamReactor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PooledConfinedStagedReactor.class);
+
+    private final List<TestContainer> pool;
+    private final List<TestProbeBuilder> probes;
+    private final LinkedBlockingQueue<Future<PooledContainer>> ready = new LinkedBlockingQueue<>();
+
+    private ExecutorService executor;
+    private TestProbeProvider probe;
+
+    /**
+     * @param containers
+     *            pooled containers, all created from the same configuration
+     * @param probes
+     *            probes to be installed
+     */
+    public PooledConfinedStagedReactor(List<TestContainer> containers,
+        List<TestProbeBuilder> probes) {
+        this.pool = containers;
+        this.probes = probes;
+    }
+
+    @Override
+    public void beforeSuite() {
+        // empty
+    }
+
+    @Override
+    public void beforeClass() {
+        fillPool();
+    }
+
+    private synchronized void fillPool() {
+        if (executor != null || pool.isEmpty()) {
+            return;
+        }
+        executor = Executors.newFixedThreadPool(pool.size());
+        for (TestContainer container : pool) {
+            ready.add(executor.submit(() -> start(container)));
+        }
+    }
+
+    @Override
+    public void runTest(TestDescription description, TestListener listener) throws Exception {
+        assert (description != null) : "TestDescription must not be null.";
+        if (description.getMethodName() == null) {
+            return;
+        }
+        fillPool();
+        PooledContainer pooled = ready.take().get();
+        TestContainer container = pooled.container;
+        if (pooled.failure != null) {
+            ready.add(executor.submit(() -> restart(container)));
+            throw new TestContainerException("Test-Container Setup failed", pooled.failure);
+        }
+        try {
+            container.installProbe(getProbe().getStream());
+            container.runTest(description, listener);
+        }
+        finally {
+            ready.add(executor.submit(() -> recycle(container)));
+        }
+    }
+
+    private synchronized TestProbeProvider getProbe() {
+        if (probe == null) {
+            probe = probes.get(0).build();
+        }
+        return probe;
+    }
+
+    private PooledContainer start(TestContainer container) {
+        try {
+            container.start();
+            return new PooledContainer(container, null);
+        }
+        catch (IOException | RuntimeException exc) {
+            return new PooledContainer(container, exc);
+        }
+    }
+
+    private PooledContainer restart(TestContainer container) {
+        LOG.debug("restarting container {}", container);
+        try {
+            container.stop();
+        }
+        catch (IOException | RuntimeException exc) {
+            LOG.warn("cannot stop container " + container, exc);
+        }
+        return start(container);
+    }
+
+    private PooledContainer recycle(TestContainer container) {
+        try {
+            if (container.reset()) {
+                return new PooledContainer(container, null);
+            }
+        }
+        catch (IOException | RuntimeException exc) {
+            LOG.warn("cannot reset container " + container, exc);
+        }
+        return restart(container);
+    }
+
+    @Override
+    public synchronized void afterClass() {
+        if (executor == null) {
+            return;
+        }
+        try {
+            for (Future<PooledContainer> future : ready) {
+                TestContainer container = future.get().container;
+                try {
+                    container.stop();
+                }
+                catch (IOException | RuntimeException exc) {
+                    LOG.warn("cannot stop container " + container, exc);
+                }
+            }
+        }
+        catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new TestContainerException(exc);
+        }
+        catch (ExecutionException exc) {
+            throw new TestContainerException(exc.getCause());
+        }
+        finally {
+            ready.clear();
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public void afterSuite() {
+        // empty
+    }
+
+    /**
+     * A pooled container together with the failure of its last start, if any.
+     */
+    private static class PooledContainer {
+
+        private final TestContainer container;
+        private final Exception failure;
+
+        PooledContainer(TestContainer container, Exception failure) {
+            this.container = container;
+            this.failure = failure;
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.ops4j.pax.exam.spi.reactors;
 import static org.ops4j.pax.exam.Constants.EXAM_REACTOR_STRATEGY_KEY;
 import static org.ops4j.pax.exam.Constants.EXAM_REACTOR_STRATEGY_PER_CLASS;
 import static org.ops4j.pax.exam.Constants.EXAM_REACTOR_STRATEGY_PER_METHOD;
+import static org.ops4j.pax.exam.Constants.EXAM_REACTOR_STRATEGY_PER_METHOD_POOLED;
 import static org.ops4j.pax.exam.Constants.EXAM_REACTOR_STRATEGY_PER_SUITE;
 import static org.ops4j.pax.exam.Constants.EXAM_SERVICE_TIMEOUT_DEFAULT;
 import static org.ops4j.pax.exam.Constants.EXAM_SERVICE_TIMEOUT_KEY;
@@ -131,10 +132,11 @@ public class ReactorManager {
         try {
             cm = new ConfigurationManager();
             system = createExamSystem();
-            reactorStrategies = new HashMap<String, StagedExamReactorFactory>(3);
+            reactorStrategies = new HashMap<String, StagedExamReactorFactory>(4);
             reactorStrategies.put(EXAM_REACTOR_STRATEGY_PER_SUITE, new PerSuite());
             reactorStrategies.put(EXAM_REACTOR_STRATEGY_PER_CLASS, new PerClass());
             reactorStrategies.put(EXAM_REACTOR_STRATEGY_PER_METHOD, new PerMethod());
+            reactorStrategies.put(EXAM_REACTOR_STRATEGY_PER_METHOD_POOLED, new PerMethodPooled());
         }
         catch (IOException exc) {
             throw new TestContainerException("cannot create Exam system", exc);
@@ -26,8 +26,7 @@ import org.ops4j.pax.exam.TestDescription;
 import org.ops4j.pax.exam.TestListener;
 import org.ops4j.pax.exam.TestProbeBuilder;
 import org.ops4j.pax.exam.spi.StagedExamReactor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.ops4j.pax.exam.spi.intern.TestSharding;
 
 /**
  * A singleton reactor which starts the container and installs the probes just once. The teardown
@@ -38,12 +37,11 @@ import org.slf4j.LoggerFactory;
  */
 public class SingletonStagedReactor implements StagedExamReactor {
 
-    private static final Logger LOG = LoggerFactory.getLogger(SingletonStagedReactor.class);
-
     private static SingletonStagedReactor instance;
 
     private List<TestContainer> testContainers;
     private List<TestProbeBuilder> probes;
+    private TestSharding sharding = new TestSharding();
 
     private SingletonStagedReactor(List<TestContainer> containers, List<TestProbeBuilder> mProbes) {
         testContainers = containers;
@@ -77,25 +75,7 @@ public class SingletonStagedReactor implements StagedExamReactor {
 
     @Override
     public void beforeSuite() {
-        for (TestContainer container : testContainers) {
-            try {
-                container.start();
-            }
-            catch (IOException e1) {
-                new TestContainerException("start of container failed", e1);
-            }
-
-            for (TestProbeBuilder builder : probes) {
-                LOG.debug("installing probe " + builder);
-
-                try {
-                    container.installProbe(builder.build().getStream());
-                }
-                catch (IOException e) {
-                    throw new TestContainerException("Unable to build the probe.", e);
-                }
-            }
-        }
+        ContainerStaging.start(testContainers, probes);
     }
 
     @Override
@@ -123,7 +103,6 @@ public class SingletonStagedReactor implements StagedExamReactor {
     public void runTest(TestDescription description, TestListener listener) throws Exception {
         assert (description != null) : "TestAddress must not be null.";
 
-        TestContainer testContainer = testContainers.get(0);
-        testContainer.runTest(description, listener);
+        sharding.runTest(testContainers, description, listener);
     }
 }
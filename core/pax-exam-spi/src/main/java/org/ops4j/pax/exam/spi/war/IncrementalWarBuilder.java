@@ -0,0 +1,259 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.war;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.ops4j.io.StreamUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Builds a WAR incrementally, based on the WAR built by the previous run. The previous WAR is kept
+ * in a cache directory, together with a manifest listing size, modification time and CRC of
+ * each entry.
+ * <p>
+ * If no entry has changed, the previous WAR is copied. Otherwise, the WAR is rewritten. Libraries
+ * are stored without compression, using the CRC from the manifest for libraries with unchanged
+ * size and modification time, so that unchanged libraries are copied verbatim without being read
+ * twice. Web resources are assembled in a fresh directory on each run, so they are compared by
+ * size and CRC.
+ */
+public class IncrementalWarBuilder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IncrementalWarBuilder.class);
+
+    private static final String WAR_SIZE = "#war.size";
+
+    private static final String WAR_MODIFIED = "#war.modified";
+
+    private final File cacheDir;
+
+    private final File cachedWar;
+
+    private final File manifestFile;
+
+    private final Map<String, File> libraries = new LinkedHashMap<String, File>();
+
+    private File webResourceDir;
+
+    /**
+     * Creates a builder for the WAR cached under the given key.
+     *
+     * @param cacheDir
+     *            cache directory
+     * @param key
+     *            cache key of the WAR
+     */
+    public IncrementalWarBuilder(File cacheDir, String key) {
+        cacheDir.mkdirs();
+        this.cacheDir = cacheDir;
+        this.cachedWar = new File(cacheDir, key + ".war");
+        this.manifestFile = new File(cacheDir, key + ".properties");
+    }
+
+    /**
+     * Adds a library.
+     *
+     * @param file
+     *            library file
+     * @param targetFile
+     *            path within the WAR
+     * @return this for fluent syntax
+     */
+    public IncrementalWarBuilder addLibrary(File file, String targetFile) {
+        libraries.put(targetFile, file);
+        return this;
+    }
+
+    /**
+     * Sets the directory with the web resources to be added at the root of the WAR.
+     *
+     * @param dir
+     *            web resource directory
+     * @return this for fluent syntax
+     */
+    public IncrementalWarBuilder setWebResourceDir(File dir) {
+        this.webResourceDir = dir;
+        return this;
+    }
+
+    /**
+     * Writes the WAR to the given file.
+     *
+     * @param war
+     *            WAR file to be created
+     * @return true if the WAR of the previous run has been reused unchanged
+     * @throws IOException
+     *             on I/O error
+     */
+    public boolean build(File war) throws IOException {
+        Properties previous = loadManifest();
+        Properties current = new Properties();
+        Map<String, File> files = new LinkedHashMap<String, File>();
+        for (Map.Entry<String, File> library : libraries.entrySet()) {
+            File file = library.getValue();
+            String record = file.length() + ":" + file.lastModified() + ":";
+            String previousRecord = previous.getProperty(library.getKey());
+            if (previousRecord == null || !previousRecord.startsWith(record)) {
+                previousRecord = record + crc(file);
+            }
+            current.setProperty(library.getKey(), previousRecord);
+            files.put(library.getKey(), file);
+        }
+        if (webResourceDir != null) {
+            collect(webResourceDir, "", current, files);
+        }
+
+        previous.remove(WAR_SIZE);
+        previous.remove(WAR_MODIFIED);
+        boolean reused = current.equals(previous);
+        if (reused) {
+            LOG.debug("reusing unchanged WAR {}", cachedWar);
+        }
+        else {
+            LOG.debug("rewriting WAR {}", cachedWar);
+            write(files, current);
+        }
+        Files.copy(cachedWar.toPath(), war.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return reused;
+    }
+
+    private void collect(File dir, String prefix, Properties manifest, Map<String, File> files)
+        throws IOException {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File child : children) {
+            String path = prefix + child.getName();
+            if (child.isDirectory()) {
+                manifest.setProperty(path + "/", "");
+                files.put(path + "/", null);
+                collect(child, path + "/", manifest, files);
+            }
+            else {
+                manifest.setProperty(path, child.length() + "::" + crc(child));
+                files.put(path, child);
+            }
+        }
+    }
+
+    /**
+     * Writes WAR and manifest to temporary files, which are moved into place, so that concurrent
+     * builds never see partially written files.
+     */
+    private void write(Map<String, File> files, Properties manifest) throws IOException {
+        File temp = File.createTempFile(cachedWar.getName(), ".tmp", cacheDir);
+        try {
+            writeWar(temp, files, manifest);
+            Files.move(temp.toPath(), cachedWar.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+
+        manifest.setProperty(WAR_SIZE, Long.toString(cachedWar.length()));
+        manifest.setProperty(WAR_MODIFIED, Long.toString(cachedWar.lastModified()));
+        File tempManifest = File.createTempFile(manifestFile.getName(), ".tmp", cacheDir);
+        try {
+            try (OutputStream os = new FileOutputStream(tempManifest)) {
+                manifest.store(os, "WAR probe manifest");
+            }
+            Files.move(tempManifest.toPath(), manifestFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(tempManifest.toPath());
+        }
+    }
+
+    private void writeWar(File temp, Map<String, File> files, Properties manifest)
+        throws IOException {
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(temp))) {
+            for (Map.Entry<String, File> entry : files.entrySet()) {
+                ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                File file = entry.getValue();
+                if (file == null) {
+                    zos.putNextEntry(zipEntry);
+                    continue;
+                }
+                if (libraries.containsKey(entry.getKey())) {
+                    String[] record = manifest.getProperty(entry.getKey()).split(":");
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(file.length());
+                    zipEntry.setCompressedSize(file.length());
+                    zipEntry.setCrc(Long.parseLong(record[2]));
+                }
+                zos.putNextEntry(zipEntry);
+                try (InputStream is = new FileInputStream(file)) {
+                    StreamUtils.copyStream(is, zos, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the manifest of the previous WAR. The manifest is ignored if it does not match the
+     * cached WAR.
+     */
+    private Properties loadManifest() {
+        Properties manifest = new Properties();
+        if (!cachedWar.exists() || !manifestFile.exists()) {
+            return manifest;
+        }
+        try (InputStream is = new FileInputStream(manifestFile)) {
+            manifest.load(is);
+        }
+        catch (IOException exc) {
+            LOG.debug("cannot read WAR manifest " + manifestFile, exc);
+            return new Properties();
+        }
+        if (!Long.toString(cachedWar.length()).equals(manifest.getProperty(WAR_SIZE))
+            || !Long.toString(cachedWar.lastModified()).equals(manifest.getProperty(WAR_MODIFIED))) {
+            return new Properties();
+        }
+        return manifest;
+    }
+
+    private static long crc(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream is = new FileInputStream(file)) {
+            int len;
+            while ((len = is.read(buffer)) != -1) {
+                crc.update(buffer, 0, len);
+            }
+        }
+        return crc.getValue();
+    }
+}
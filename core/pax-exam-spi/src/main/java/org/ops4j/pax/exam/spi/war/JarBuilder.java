@@ -75,9 +75,9 @@ public class JarBuilder {
         try {
             File explodedJarDir = getExplodedJarDir();
             File probeJar = new File(tempDir, option.getName() + ".jar");
-            ZipBuilder builder = new ZipBuilder(probeJar);
-            builder.addDirectory(explodedJarDir, "");
-            builder.close();
+            try (ZipBuilder builder = new ZipBuilder(probeJar, option.getCompressionThreads())) {
+                builder.addDirectory(explodedJarDir, "");
+            }
             URI warUri = probeJar.toURI();
             LOG.info("JAR probe = {}", warUri);
             return warUri;
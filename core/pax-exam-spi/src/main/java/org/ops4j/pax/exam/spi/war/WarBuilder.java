@@ -24,7 +24,14 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
 import java.util.regex.Matcher;
@@ -63,6 +70,12 @@ public class WarBuilder {
      */
     private Pattern filterPattern;
 
+    /**
+     * Directory for keeping the WAR and the JARs built from class path directories across
+     * runs, or null to build from scratch.
+     */
+    private File cacheDir;
+
     /**
      * Constructs a WAR builder for the given option.
      *
@@ -72,8 +85,24 @@ public class WarBuilder {
      *            WAR probe option
      */
     public WarBuilder(File tempDir, WarProbeOption option) {
+        this(tempDir, option, null);
+    }
+
+    /**
+     * Constructs a WAR builder for the given option, which builds the WAR incrementally from
+     * the one built by a previous run, if a cache directory is given.
+     *
+     * @param tempDir
+     *            temporary directory
+     * @param option
+     *            WAR probe option
+     * @param cacheDir
+     *            cache directory, or null
+     */
+    public WarBuilder(File tempDir, WarProbeOption option, File cacheDir) {
         this.option = option;
         this.tempDir = tempDir;
+        this.cacheDir = cacheDir;
     }
 
     /**
@@ -82,6 +111,7 @@ public class WarBuilder {
      * @return file URI referencing the WAR in a temporary directory
      */
     public URI buildWar() {
+        String cacheKey = computeCacheKey(option.getName());
         if (option.getName() == null) {
             option.name(UUID.randomUUID().toString());
         }
@@ -89,7 +119,7 @@ public class WarBuilder {
         try {
             File webResourceDir = getWebResourceDir();
             File probeWar = new File(tempDir, option.getName() + ".war");
-            ZipBuilder builder = new ZipBuilder(probeWar);
+            Map<String, File> libraries = new LinkedHashMap<String, File>();
             for (String library : option.getLibraries()) {
 
                 File file = toLocalFile(library);
@@ -103,10 +133,25 @@ public class WarBuilder {
                     file = toJar(file);
                 }
                 LOG.debug("including library {} = {}", library, file);
-                builder.addFile(file, "WEB-INF/lib/" + file.getName());
+                libraries.put("WEB-INF/lib/" + file.getName(), file);
+            }
+            if (cacheDir == null) {
+                try (ZipBuilder builder = new ZipBuilder(probeWar,
+                    option.getCompressionThreads())) {
+                    for (Map.Entry<String, File> library : libraries.entrySet()) {
+                        builder.addFile(library.getValue(), library.getKey());
+                    }
+                    builder.addDirectory(webResourceDir, "");
+                }
+            }
+            else {
+                IncrementalWarBuilder builder = new IncrementalWarBuilder(cacheDir, cacheKey);
+                for (Map.Entry<String, File> library : libraries.entrySet()) {
+                    builder.addLibrary(library.getValue(), library.getKey());
+                }
+                builder.setWebResourceDir(webResourceDir);
+                builder.build(probeWar);
             }
-            builder.addDirectory(webResourceDir, "");
-            builder.close();
             URI warUri = probeWar.toURI();
             LOG.info("WAR probe = {}", warUri);
             return warUri;
@@ -124,20 +169,88 @@ public class WarBuilder {
      * <p>
      * Otherwise the file is named <code>$&#123;uuid&#125;.jar</code>, where {@code uuid} represents a random
      * {@link UUID}.
+     * <p>
+     * With a cache directory, the file is kept in a subdirectory of the cache directory derived
+     * from the root directory path, and it is only rebuilt when a file or directory in the root
+     * directory is newer than the file. In this case, the file is named
+     * <code>$&#123;hash&#125;.jar</code> unless there is a {@code pom.properties} resource.
      *
      * @param root root directory with archive contents
      * @return archive file
      * @throws IOException
      */
     private File toJar(File root) throws IOException {
+        if (cacheDir == null) {
+            File jar = new File(tempDir, findArtifactName(root));
+            writeJar(root, jar);
+            return jar;
+        }
+        String hash = sha1(root.getAbsolutePath());
         String artifactName = findArtifactName(root);
-        File jar = new File(tempDir, artifactName);
-        ZipBuilder builder = new ZipBuilder(jar);
-        builder.addDirectory(root, "");
-        builder.close();
+        if (FileFinder.findFile(root, "pom.properties") == null) {
+            artifactName = hash + ".jar";
+        }
+        File jarDir = new File(cacheDir, "jars/" + hash);
+        File jar = new File(jarDir, artifactName);
+        if (jar.exists() && lastModified(root) < jar.lastModified()) {
+            LOG.debug("reusing {} for {}", jar, root);
+            return jar;
+        }
+        jarDir.mkdirs();
+
+        // the cached JAR may be read by a concurrent build, so it is replaced, never overwritten
+        File temp = File.createTempFile(artifactName, ".tmp", jarDir);
+        try {
+            writeJar(root, temp);
+            Files.move(temp.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(temp.toPath());
+        }
         return jar;
     }
 
+    private void writeJar(File root, File jar) throws IOException {
+        try (ZipBuilder builder = new ZipBuilder(jar, option.getCompressionThreads())) {
+            builder.addDirectory(root, "");
+        }
+    }
+
+    private static long lastModified(File dir) {
+        long lastModified = dir.lastModified();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                lastModified = Math.max(lastModified, file.isDirectory() ? lastModified(file)
+                    : file.lastModified());
+            }
+        }
+        return lastModified;
+    }
+
+    /**
+     * Computes the key of the cached WAR, which identifies the WAR across runs by the working
+     * directory and the probe name, if any.
+     */
+    private String computeCacheKey(String name) {
+        return sha1(System.getProperty("user.dir") + ":" + name);
+    }
+
+    private static String sha1(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest(text.getBytes(StandardCharsets.UTF_8))) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        }
+        catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException(exc);
+        }
+    }
+
     private String findArtifactName(File root) {
         File pomProperties = FileFinder.findFile(root, "pom.properties");
         if (pomProperties != null) {
@@ -35,15 +35,26 @@ public class WarTestProbeBuilderImpl implements TestProbeBuilder {
     private File tempDir;
     private WarProbeOption option;
     private DefaultExamSystem system;
+    private File cacheDir;
 
     public WarTestProbeBuilderImpl(File tempDir, DefaultExamSystem system) {
+        this(tempDir, system, null);
+    }
+
+    public WarTestProbeBuilderImpl(File tempDir, DefaultExamSystem system, File cacheDir) {
         this.tempDir = tempDir;
         this.system = system;
+        this.cacheDir = cacheDir;
     }
 
     public WarTestProbeBuilderImpl(File tempDir, WarProbeOption option) {
+        this(tempDir, option, null);
+    }
+
+    public WarTestProbeBuilderImpl(File tempDir, WarProbeOption option, File cacheDir) {
         this.tempDir = tempDir;
         this.option = option;
+        this.cacheDir = cacheDir;
     }
 
     @Override
@@ -70,7 +81,7 @@ public class WarTestProbeBuilderImpl implements TestProbeBuilder {
                 option = system.getLatestWarProbeOption();
             }
         }
-        WarBuilder warBuilder = new WarBuilder(tempDir, option);
+        WarBuilder warBuilder = new WarBuilder(tempDir, option, cacheDir);
         URI warUri = warBuilder.buildWar();
         return new WarTestProbeProvider(warUri);
     }
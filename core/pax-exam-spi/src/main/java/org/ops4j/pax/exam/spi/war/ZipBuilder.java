@@ -18,10 +18,26 @@
 
 package org.ops4j.pax.exam.spi.war;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -29,14 +45,42 @@ import org.ops4j.io.StreamUtils;
 
 /**
  * Builds a ZIP archive from individual files and directories.
+ * <p>
+ * In parallel mode, nested JARs are stored without compression, and all other files are
+ * compressed by a pool of worker threads. The entries are written in the order they were added,
+ * as soon as they are ready. The number of entries in flight is bounded, so that only a few
+ * compressed entries are held in memory at a time. The worker threads are daemon threads, and
+ * they are stopped by {@link #close()}.
  *
  * @author Harald Wellmann
  *
  */
-public class ZipBuilder {
+public class ZipBuilder implements Closeable {
+
+    /**
+     * Maximum number of entries in flight per compression thread.
+     */
+    private static final int ENTRIES_PER_THREAD = 4;
+
+    private static final ThreadFactory THREAD_FACTORY = new ThreadFactory() {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "pax-exam-zip-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    };
 
     private FileOutputStream os;
     private ZipOutputStream jarOutputStream;
+    private ExecutorService executor;
+    private ZipStreamWriter writer;
+    private Deque<Future<PendingEntry>> pendingEntries;
+    private int maxPendingEntries;
+    private boolean failed;
 
     /**
      * Creates a ZIP archive in the given file. Allocates underlying file system resources. The user
@@ -48,8 +92,33 @@ public class ZipBuilder {
      *             on I/O error
      */
     public ZipBuilder(File zipFile) throws IOException {
+        this(zipFile, 0);
+    }
+
+    /**
+     * Creates a ZIP archive in the given file, using the given number of threads for compressing
+     * entries. Allocates underlying file system resources. The user must call {@link #close()} to
+     * release these resources.
+     *
+     * @param zipFile
+     *            archive file to be created
+     * @param compressionThreads
+     *            number of compression threads. If zero, all entries are compressed sequentially
+     *            while being added. Otherwise, nested JARs are stored uncompressed.
+     * @throws IOException
+     *             on I/O error
+     */
+    public ZipBuilder(File zipFile, int compressionThreads) throws IOException {
         this.os = new FileOutputStream(zipFile);
-        this.jarOutputStream = new ZipOutputStream(os);
+        if (compressionThreads > 0) {
+            this.executor = Executors.newFixedThreadPool(compressionThreads, THREAD_FACTORY);
+            this.writer = new ZipStreamWriter(os);
+            this.pendingEntries = new ArrayDeque<Future<PendingEntry>>();
+            this.maxPendingEntries = compressionThreads * ENTRIES_PER_THREAD;
+        }
+        else {
+            this.jarOutputStream = new ZipOutputStream(os);
+        }
     }
 
     /**
@@ -101,6 +170,10 @@ public class ZipBuilder {
      *             on I/O error
      */
     public ZipBuilder addFile(File sourceFile, String targetFile) throws IOException {
+        if (executor != null) {
+            submit(sourceFile, targetFile);
+            return this;
+        }
         FileInputStream fis = new FileInputStream(sourceFile);
         ZipEntry jarEntry = new ZipEntry(targetFile);
         jarOutputStream.putNextEntry(jarEntry);
@@ -111,13 +184,27 @@ public class ZipBuilder {
 
     /**
      * Closes the archive and releases file system resources. No more files or directories may be
-     * added after calling this method.
+     * added after calling this method. In parallel mode, the archive is not completed if adding
+     * an entry has failed before.
      *
      * @throws IOException
      *             on I/O error
      */
+    @Override
     public void close() throws IOException {
-        if (jarOutputStream != null) {
+        if (executor != null) {
+            try {
+                if (!failed) {
+                    writePendingEntries(true);
+                    writer.finish();
+                }
+            }
+            finally {
+                executor.shutdownNow();
+                os.close();
+            }
+        }
+        else if (jarOutputStream != null) {
             jarOutputStream.close();
         }
         else if (os != null) {
@@ -147,8 +234,13 @@ public class ZipBuilder {
         // broken
         if (!directory.equals(root)) {
             String path = normalizePath(root, directory);
-            ZipEntry jarEntry = new ZipEntry(prefix + path + "/");
-            jarOutputStream.putNextEntry(jarEntry);
+            if (executor != null) {
+                submit(null, prefix + path + "/");
+            }
+            else {
+                ZipEntry jarEntry = new ZipEntry(prefix + path + "/");
+                jarOutputStream.putNextEntry(jarEntry);
+            }
         }
         File[] children = directory.listFiles();
         // loop through dirList, and zip the files
@@ -175,6 +267,10 @@ public class ZipBuilder {
      * @throws IOException
      */
     private void addFile(File root, File file, String prefix, ZipOutputStream zos) throws IOException {
+        if (executor != null) {
+            submit(file, prefix + normalizePath(root, file));
+            return;
+        }
         FileInputStream fis = new FileInputStream(file);
         ZipEntry jarEntry = new ZipEntry(prefix + normalizePath(root, file));
         zos.putNextEntry(jarEntry);
@@ -200,4 +296,122 @@ public class ZipBuilder {
         String path = relativePath.replaceAll("\\" + File.separator, "/");
         return path;
     }
+
+    /**
+     * Submits an entry to the compression threads. Finished entries at the head of the queue are
+     * written, and if too many entries are in flight, this waits for the oldest one.
+     */
+    private void submit(final File file, final String name) throws IOException {
+        pendingEntries.add(executor.submit(new Callable<PendingEntry>() {
+
+            @Override
+            public PendingEntry call() throws IOException {
+                return prepare(file, name);
+            }
+        }));
+        writePendingEntries(false);
+    }
+
+    /**
+     * Writes the entries at the head of the queue which are finished, and waits for the oldest
+     * entries while too many are in flight.
+     *
+     * @param all
+     *            true if all entries shall be written
+     */
+    private void writePendingEntries(boolean all) throws IOException {
+        try {
+            while (!pendingEntries.isEmpty() && (all || pendingEntries.size() > maxPendingEntries
+                || pendingEntries.peek().isDone())) {
+                writer.write(get(pendingEntries.poll()));
+            }
+        }
+        catch (IOException | RuntimeException exc) {
+            failed = true;
+            throw exc;
+        }
+    }
+
+    /**
+     * Computes the CRC of the given file, and compresses the file unless it is a JAR.
+     */
+    private static PendingEntry prepare(File file, String name) throws IOException {
+        PendingEntry entry = new PendingEntry(name);
+        if (file == null) {
+            entry.time = System.currentTimeMillis();
+            return entry;
+        }
+        entry.time = file.lastModified();
+        CRC32 crc = new CRC32();
+        if (name.endsWith(".jar")) {
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream is = new FileInputStream(file)) {
+                int len;
+                while ((len = is.read(buffer)) != -1) {
+                    crc.update(buffer, 0, len);
+                    entry.size += len;
+                }
+            }
+            entry.source = file;
+            entry.compressedSize = entry.size;
+        }
+        else {
+            byte[] content = Files.readAllBytes(file.toPath());
+            crc.update(content);
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 64);
+            try (DeflaterOutputStream dos = new DeflaterOutputStream(compressed, deflater)) {
+                dos.write(content);
+            }
+            finally {
+                deflater.end();
+            }
+            entry.method = ZipEntry.DEFLATED;
+            entry.size = content.length;
+            entry.data = compressed.toByteArray();
+            entry.compressedSize = entry.data.length;
+        }
+        entry.crc = crc.getValue();
+        return entry;
+    }
+
+    private static PendingEntry get(Future<PendingEntry> future) throws IOException {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exc);
+        }
+        catch (ExecutionException exc) {
+            Throwable cause = exc.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * An archive entry prepared by a worker thread. Stored entries are copied from their source
+     * file, compressed entries are kept in memory.
+     */
+    static class PendingEntry {
+
+        final String name;
+        int method = ZipEntry.STORED;
+        long time;
+        long crc;
+        long size;
+        long compressedSize;
+        File source;
+        byte[] data;
+
+        PendingEntry(String name) {
+            this.name = name;
+        }
+    }
 }
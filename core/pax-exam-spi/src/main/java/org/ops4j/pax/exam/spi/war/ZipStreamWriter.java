@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.war;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
+
+import org.ops4j.io.StreamUtils;
+
+/**
+ * Writes a ZIP archive from entries with precomputed CRC and sizes. Unlike
+ * {@link java.util.zip.ZipOutputStream}, this writer accepts data which has been deflated
+ * elsewhere, so that entries can be compressed concurrently.
+ * <p>
+ * Only the plain ZIP format is supported, so archives are limited to 65535 entries and 4 GB.
+ */
+class ZipStreamWriter {
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_HEADER = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int DIRECTORY_ATTRIBUTE = 0x10;
+    private static final long MAX_VALUE = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    private final OutputStream os;
+    private final ByteArrayOutputStream centralDirectory = new ByteArrayOutputStream();
+    private long offset;
+    private int entries;
+
+    /**
+     * @param os
+     *            output stream, which is not closed by this writer
+     */
+    ZipStreamWriter(OutputStream os) {
+        this.os = os;
+    }
+
+    /**
+     * Writes the given entry.
+     *
+     * @param entry
+     *            entry with precomputed CRC and sizes
+     * @throws IOException
+     *             on I/O error, or if the archive exceeds the limits of the ZIP format
+     */
+    void write(ZipBuilder.PendingEntry entry) throws IOException {
+        byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+        if (entries == MAX_ENTRIES || offset > MAX_VALUE || entry.size > MAX_VALUE) {
+            throw new IOException("archive too large for parallel compression: " + entry.name);
+        }
+        int dosTime = toDosTime(entry.time);
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        writeInt(header, LOCAL_HEADER);
+        writeShort(header, VERSION);
+        writeCommon(header, entry, name, dosTime);
+        header.write(name);
+        header.writeTo(os);
+
+        writeInt(centralDirectory, CENTRAL_HEADER);
+        writeShort(centralDirectory, VERSION);
+        writeShort(centralDirectory, VERSION);
+        writeCommon(centralDirectory, entry, name, dosTime);
+        writeShort(centralDirectory, 0);
+        writeShort(centralDirectory, 0);
+        writeShort(centralDirectory, 0);
+        writeInt(centralDirectory, entry.name.endsWith("/") ? DIRECTORY_ATTRIBUTE : 0);
+        writeInt(centralDirectory, (int) offset);
+        centralDirectory.write(name);
+
+        if (entry.data != null) {
+            os.write(entry.data);
+        }
+        else if (entry.source != null) {
+            try (InputStream is = new FileInputStream(entry.source)) {
+                StreamUtils.copyStream(is, os, false);
+            }
+        }
+        offset += header.size() + entry.compressedSize;
+        entries++;
+    }
+
+    /**
+     * Writes the central directory. No more entries may be written after calling this method.
+     *
+     * @throws IOException
+     *             on I/O error
+     */
+    void finish() throws IOException {
+        if (offset > MAX_VALUE) {
+            throw new IOException("archive too large for parallel compression");
+        }
+        centralDirectory.writeTo(os);
+        ByteArrayOutputStream end = new ByteArrayOutputStream();
+        writeInt(end, END_HEADER);
+        writeShort(end, 0);
+        writeShort(end, 0);
+        writeShort(end, entries);
+        writeShort(end, entries);
+        writeInt(end, centralDirectory.size());
+        writeInt(end, (int) offset);
+        writeShort(end, 0);
+        end.writeTo(os);
+        os.flush();
+    }
+
+    private static void writeCommon(ByteArrayOutputStream out, ZipBuilder.PendingEntry entry,
+        byte[] name, int dosTime) {
+        writeShort(out, UTF8_FLAG);
+        writeShort(out, entry.method);
+        writeInt(out, dosTime);
+        writeInt(out, (int) entry.crc);
+        writeInt(out, (int) entry.compressedSize);
+        writeInt(out, (int) entry.size);
+        writeShort(out, name.length);
+        writeShort(out, 0);
+    }
+
+    private static int toDosTime(long time) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (year - 1980) << 25 | (calendar.get(Calendar.MONTH) + 1) << 21
+            | calendar.get(Calendar.DAY_OF_MONTH) << 16 | calendar.get(Calendar.HOUR_OF_DAY) << 11
+            | calendar.get(Calendar.MINUTE) << 5 | calendar.get(Calendar.SECOND) >> 1;
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        writeShort(out, value & 0xFFFF);
+        writeShort(out, value >>> 16);
+    }
+}
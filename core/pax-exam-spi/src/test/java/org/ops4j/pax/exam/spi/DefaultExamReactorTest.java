@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.ops4j.pax.exam.ExamSystem;
+import org.ops4j.pax.exam.Option;
+import org.ops4j.pax.exam.TestContainer;
+import org.ops4j.pax.exam.TestContainerFactory;
+import org.ops4j.pax.exam.TestProbeBuilder;
+
+public class DefaultExamReactorTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void stageCopiesOfFirstConfigurationOnly() {
+        ExamSystem system = mock(ExamSystem.class);
+        when(system.getTempFolder()).thenReturn(new File("target"));
+        when(system.createID(anyString())).thenReturn("container");
+        List<Integer> forkedOptions = new ArrayList<Integer>();
+        when(system.fork(any(Option[].class))).thenAnswer(invocation -> {
+            forkedOptions.add(((Option[]) invocation.getArguments()[0]).length);
+            return mock(ExamSystem.class);
+        });
+        TestContainerFactory containerFactory = mock(TestContainerFactory.class);
+        when(containerFactory.create(any(ExamSystem.class))).thenAnswer(
+            invocation -> mock(TestContainer.class));
+        StagedExamReactorFactory reactorFactory = mock(StagedExamReactorFactory.class);
+        when(reactorFactory.getCopiesOfFirstConfiguration()).thenReturn(3);
+
+        DefaultExamReactor reactor = new DefaultExamReactor(system, containerFactory);
+        reactor.addConfiguration(new Option[0]);
+        reactor.addConfiguration(new Option[0]);
+        reactor.stage(reactorFactory);
+
+        ArgumentCaptor<List> containers = ArgumentCaptor.forClass(List.class);
+        verify(reactorFactory).create(containers.capture(), any(List.class));
+        assertThat(containers.getValue().size(), is(4));
+        // copies of the first configuration get a working directory of their own
+        assertThat(forkedOptions, is(Arrays.asList(0, 1, 1, 0)));
+    }
+}
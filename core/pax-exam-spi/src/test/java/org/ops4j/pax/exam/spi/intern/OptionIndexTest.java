@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.intern;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.ops4j.pax.exam.CoreOptions.composite;
+import static org.ops4j.pax.exam.CoreOptions.systemProperty;
+import static org.ops4j.pax.exam.CoreOptions.when;
+import static org.ops4j.pax.exam.CoreOptions.workingDirectory;
+
+import org.junit.Test;
+import org.ops4j.pax.exam.Option;
+import org.ops4j.pax.exam.options.PropagateSystemPropertyOption;
+import org.ops4j.pax.exam.options.SystemPropertyOption;
+import org.ops4j.pax.exam.options.ValueOption;
+import org.ops4j.pax.exam.options.extra.WorkingDirectoryOption;
+
+public class OptionIndexTest {
+
+    private final SystemPropertyOption foo = systemProperty("foo").value("1");
+    private final SystemPropertyOption bar = systemProperty("bar").value("2");
+    private final WorkingDirectoryOption work = workingDirectory("target/work");
+
+    @Test
+    public void findOptionsByType() {
+        OptionIndex index = new OptionIndex(foo, composite(work, bar),
+            when(false).useOptions(systemProperty("baz")));
+
+        assertThat(index.size(), is(3));
+        assertThat(index.get(SystemPropertyOption.class), is(new SystemPropertyOption[] {
+            foo, bar }));
+        assertThat(index.get(ValueOption.class), is(new ValueOption<?>[] { foo, bar }));
+        assertThat(index.get(Option.class), is(new Option[] { foo, work, bar }));
+        assertThat(index.getLast(SystemPropertyOption.class), is(bar));
+        assertThat(index.getLast(PropagateSystemPropertyOption.class), is(nullValue()));
+        assertThat(index.toArray(), is(new Option[] { foo, work, bar }));
+    }
+
+    @Test
+    public void appendWithoutModifyingParent() {
+        OptionIndex parent = new OptionIndex(foo, work);
+        assertThat(parent.getLast(SystemPropertyOption.class), is(foo));
+
+        OptionIndex child = parent.append(bar);
+        assertThat(child.size(), is(3));
+        assertThat(child.get(SystemPropertyOption.class), is(new SystemPropertyOption[] {
+            foo, bar }));
+        assertThat(child.getLast(SystemPropertyOption.class), is(bar));
+        assertThat(child.getLast(WorkingDirectoryOption.class), is(work));
+        assertThat(child.toArray(), is(new Option[] { foo, work, bar }));
+
+        assertThat(parent.size(), is(2));
+        assertThat(parent.getLast(SystemPropertyOption.class), is(foo));
+        assertThat(parent.toArray(), is(new Option[] { foo, work }));
+    }
+}
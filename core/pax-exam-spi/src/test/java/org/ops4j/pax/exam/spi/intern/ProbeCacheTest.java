@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.intern;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.jar.JarInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+import org.ops4j.pax.exam.TestProbeProvider;
+import org.ops4j.pax.exam.spi.DefaultExamSystem;
+import org.ops4j.pax.exam.spi.ExamReactor;
+import org.ops4j.pax.exam.spi.reactors.PerClass;
+import org.ops4j.store.intern.TemporaryStore;
+
+public class ProbeCacheTest {
+
+    private File tempDir;
+    private File cacheDir;
+
+    @Before
+    public void before() {
+        tempDir = DefaultExamSystem.createTempDir();
+        cacheDir = new File(tempDir, "probes");
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.delete(tempDir);
+    }
+
+    private TestProbeBuilderImpl createBuilder(String symbolicName) throws IOException {
+        TestProbeBuilderImpl builder = new TestProbeBuilderImpl(tempDir, new TemporaryStore(
+            tempDir, false), new ProbeCache(cacheDir));
+        builder.setHeader("Bundle-SymbolicName", symbolicName);
+        return builder;
+    }
+
+    private String getSymbolicName(TestProbeProvider provider) throws IOException {
+        InputStream is = provider.getStream();
+        try {
+            return new JarInputStream(is).getManifest().getMainAttributes()
+                .getValue("Bundle-SymbolicName");
+        }
+        finally {
+            is.close();
+        }
+    }
+
+    @Test
+    public void reuseUnchangedProbe() throws IOException {
+        TestProbeBuilderImpl builder = createBuilder("probe");
+        builder.addTest(ExamReactor.class);
+        assertThat(getSymbolicName(builder.build()), is("probe"));
+        assertThat(cacheDir.list().length, is(1));
+
+        TestProbeBuilderImpl other = createBuilder("other");
+        other.addTest(ExamReactor.class);
+        assertThat(getSymbolicName(other.build()), is("other"));
+        assertThat(cacheDir.list().length, is(1));
+    }
+
+    @Test
+    public void keyDependsOnContent() throws IOException {
+        ProbeCache cache = new ProbeCache(cacheDir);
+        Map<String, URL> resources = new HashMap<String, URL>();
+        new CollectFromItems(Collections.<Class<?>> singletonList(ExamReactor.class))
+            .collect(resources);
+        Properties headers = new Properties();
+        String key = cache.computeKey(resources, headers);
+        assertThat(cache.load(key, "probe"), is(nullValue()));
+
+        new CollectFromItems(Collections.<Class<?>> singletonList(PerClass.class))
+            .collect(resources);
+        assertThat(cache.computeKey(resources, headers), is(not(key)));
+
+        headers.setProperty("Ignore-Package", "org.ops4j.pax.exam.spi");
+        String withIgnores = cache.computeKey(resources, headers);
+        headers.setProperty("Bundle-SymbolicName", "probe");
+        assertThat(cache.computeKey(resources, headers), is(withIgnores));
+        assertThat(withIgnores, is(not(key)));
+    }
+}
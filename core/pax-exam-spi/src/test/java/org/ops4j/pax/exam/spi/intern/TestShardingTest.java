@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.intern;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.ops4j.pax.exam.TestContainer;
+import org.ops4j.pax.exam.TestDescription;
+import org.ops4j.pax.exam.TestFilter;
+import org.ops4j.pax.exam.TestListener;
+
+public class TestShardingTest {
+
+    private static TestDescription classDescription(String... uniqueIds) {
+        return new TestDescription("Foo", null, null,
+            new TestFilter("All", Arrays.asList(uniqueIds)));
+    }
+
+    @Test
+    public void splitRoundRobin() {
+        List<TestDescription> shards = new TestSharding(2).split(
+            classDescription("1", "2", "3", "4", "5"), 2);
+        assertThat(shards.size(), is(2));
+        assertThat(shards.get(0).getFilter().getUniqueIds(), is(Arrays.asList("1", "3", "5")));
+        assertThat(shards.get(1).getFilter().getUniqueIds(), is(Arrays.asList("2", "4")));
+        assertThat(shards.get(1).getClassName(), is("Foo"));
+    }
+
+    @Test
+    public void doNotSplitSingleShard() {
+        TestDescription description = classDescription("1", "2");
+        assertThat(new TestSharding(2).split(description, 1), is(Arrays.asList(description)));
+        assertThat(new TestSharding(2).split(new TestDescription("Foo"), 2).size(), is(1));
+    }
+
+    @Test
+    public void runSharesConcurrently() throws Exception {
+        CountDownLatch running = new CountDownLatch(2);
+        TestContainer first = mock(TestContainer.class);
+        TestContainer second = mock(TestContainer.class);
+        TestContainer otherConfiguration = mock(TestContainer.class);
+        for (TestContainer container : Arrays.asList(first, second)) {
+            doAnswer(invocation -> {
+                running.countDown();
+                // both shares must be running at the same time
+                assertThat(running.await(10, TimeUnit.SECONDS), is(true));
+                TestDescription shard = (TestDescription) invocation.getArguments()[0];
+                ((TestListener) invocation.getArguments()[1]).testStarted(shard);
+                return null;
+            }).when(container).runTest(any(TestDescription.class), any(TestListener.class));
+        }
+
+        TestListener listener = mock(TestListener.class);
+        new TestSharding(2).runTest(Arrays.asList(first, second, otherConfiguration),
+            classDescription("1", "2", "3"), listener);
+
+        verify(listener, times(2)).testStarted(any(TestDescription.class));
+        verify(otherConfiguration, never()).runTest(any(TestDescription.class),
+            any(TestListener.class));
+    }
+
+    @Test
+    public void completeAllSharesBeforeFailing() throws Exception {
+        TestContainer failing = mock(TestContainer.class);
+        doThrow(new IllegalStateException()).when(failing).runTest(any(TestDescription.class),
+            any(TestListener.class));
+        TestContainer slow = mock(TestContainer.class);
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            ((TestListener) invocation.getArguments()[1]).testFinished(
+                (TestDescription) invocation.getArguments()[0]);
+            return null;
+        }).when(slow).runTest(any(TestDescription.class), any(TestListener.class));
+
+        TestListener listener = mock(TestListener.class);
+        try {
+            new TestSharding(2).runTest(Arrays.asList(failing, slow), classDescription("1", "2"),
+                listener);
+            fail("failure not rethrown");
+        }
+        catch (IllegalStateException exc) {
+            // expected
+        }
+        verify(listener).testFinished(any(TestDescription.class));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.listener;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.junit.Test;
+import org.ops4j.pax.exam.RelativeTimeout;
+import org.ops4j.pax.exam.TestContainerException;
+import org.ops4j.pax.exam.TestDescription;
+import org.ops4j.pax.exam.TestEvent;
+import org.ops4j.pax.exam.TestEventCodec;
+import org.ops4j.pax.exam.TestEventType;
+import org.ops4j.pax.exam.TestListener;
+
+public class TestEventChannelTest {
+
+    private static final RelativeTimeout TIMEOUT = new RelativeTimeout(5000);
+
+    private void send(DataOutputStream out, long runId, TestEventType type,
+        TestDescription description) throws IOException {
+        TestEventCodec.write(out, new TestEvent(runId, type, description, null));
+    }
+
+    @Test
+    public void dispatchEventsOfConcurrentRuns() throws IOException {
+        try (TestEventChannel channel = new TestEventChannel(0);
+            Socket socket = new Socket(InetAddress.getLocalHost(), channel.getPort());
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream())) {
+            TestEventCodec.writeHeader(out);
+            TestListener first = mock(TestListener.class);
+            TestListener second = mock(TestListener.class);
+            long firstRun = channel.register(first);
+            long secondRun = channel.register(second);
+            TestDescription foo = new TestDescription("Foo", "test");
+            TestDescription bar = new TestDescription("Bar", "test");
+
+            // a single connection carries the events of both runs
+            for (int i = 0; i < 2; i++) {
+                send(out, firstRun, TestEventType.TEST_STARTED, foo);
+                send(out, secondRun, TestEventType.TEST_STARTED, bar);
+                send(out, firstRun, TestEventType.TEST_FINISHED, foo);
+                send(out, secondRun, TestEventType.TEST_FINISHED, bar);
+                send(out, firstRun, TestEventType.RUN_FINISHED, null);
+                send(out, secondRun, TestEventType.RUN_FINISHED, null);
+                out.flush();
+                channel.await(firstRun, TIMEOUT);
+                channel.await(secondRun, TIMEOUT);
+
+                verify(first).testStarted(foo);
+                verify(first).testFinished(foo);
+                verify(first, never()).testStarted(bar);
+                verify(second).testStarted(bar);
+                verify(second).testFinished(bar);
+
+                first = mock(TestListener.class);
+                second = mock(TestListener.class);
+                firstRun = channel.register(first);
+                secondRun = channel.register(second);
+            }
+        }
+    }
+
+    @Test(expected = TestContainerException.class)
+    public void failWithoutEndOfRun() throws IOException {
+        try (TestEventChannel channel = new TestEventChannel(0)) {
+            long runId = channel.register(mock(TestListener.class));
+            channel.await(runId, new RelativeTimeout(100));
+        }
+    }
+}
@@ -17,10 +17,25 @@
  */
 package org.ops4j.pax.exam.spi.reactors;
 
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import org.junit.Test;
 import org.ops4j.pax.exam.TestContainer;
+import org.ops4j.pax.exam.TestContainerException;
 import org.ops4j.pax.exam.TestProbeBuilder;
+import org.ops4j.pax.exam.TestProbeProvider;
 import org.ops4j.pax.exam.spi.StagedExamReactor;
 
 /**
@@ -33,4 +48,29 @@ public class EagerSingleStagedReactorTest extends BaseStagedReactorTest {
         List<TestProbeBuilder> providers) {
         return new EagerSingleStagedReactor(containers, providers);
     }
+
+    @Test
+    public void stopStartedContainersOnFailure() throws IOException {
+        TestContainer started = mock(TestContainer.class);
+        TestContainer failing = mock(TestContainer.class);
+        doThrow(new IOException("cannot start")).when(failing).start();
+        TestProbeBuilder builder = mock(TestProbeBuilder.class);
+        TestProbeProvider provider = mock(TestProbeProvider.class);
+        when(builder.build()).thenReturn(provider);
+
+        StagedExamReactor reactor = getReactor(Arrays.asList(started, failing),
+            Collections.singletonList(builder));
+        try {
+            reactor.beforeClass();
+            fail("expected TestContainerException");
+        }
+        catch (TestContainerException exc) {
+            // expected
+        }
+
+        verify(builder, times(1)).build();
+        verify(started, times(1)).installProbe(any(InputStream.class));
+        verify(started, times(1)).stop();
+        verify(failing, times(0)).stop();
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.spi.reactors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.ops4j.pax.exam.TestContainer;
+import org.ops4j.pax.exam.TestDescription;
+import org.ops4j.pax.exam.TestListener;
+import org.ops4j.pax.exam.TestProbeBuilder;
+import org.ops4j.pax.exam.TestProbeProvider;
+import org.ops4j.pax.exam.spi.StagedExamReactor;
+
+public class PooledConfinedStagedReactorTest extends BaseStagedReactorTest {
+
+    @Override
+    protected StagedExamReactor getReactor(List<TestContainer> containers,
+        List<TestProbeBuilder> providers) {
+        return new PooledConfinedStagedReactor(containers, providers);
+    }
+
+    @Test
+    public void resetOrRestartContainers() throws Exception {
+        TestContainer resettable = mock(TestContainer.class);
+        when(resettable.reset()).thenReturn(true);
+        TestContainer restartable = mock(TestContainer.class);
+        TestProbeBuilder builder = mock(TestProbeBuilder.class);
+        when(builder.build()).thenReturn(mock(TestProbeProvider.class));
+
+        StagedExamReactor reactor = getReactor(Arrays.asList(resettable, restartable),
+            Collections.singletonList(builder));
+        reactor.beforeClass();
+        for (int i = 0; i < 4; i++) {
+            reactor.runTest(new TestDescription("Foo", "test" + i), mock(TestListener.class));
+        }
+        reactor.afterClass();
+
+        verify(builder, times(1)).build();
+        verify(resettable, times(1)).start();
+        verify(resettable, times(2)).runTest(any(TestDescription.class), any(TestListener.class));
+        verify(resettable, times(1)).stop();
+        verify(restartable, times(3)).start();
+        verify(restartable, times(2)).installProbe(any(InputStream.class));
+        verify(restartable, times(3)).stop();
+    }
+}
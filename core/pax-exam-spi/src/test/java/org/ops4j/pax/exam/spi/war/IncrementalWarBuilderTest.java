@@ -0,0 +1,97 @@
+package org.ops4j.pax.exam.spi.war;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ops4j.io.FileUtils;
+import org.ops4j.pax.exam.spi.DefaultExamSystem;
+
+public class IncrementalWarBuilderTest {
+
+    private File tempDir;
+    private File cacheDir;
+    private File library;
+    private File webResourceDir;
+
+    @Before
+    public void before() throws IOException {
+        tempDir = DefaultExamSystem.createTempDir();
+        cacheDir = new File(tempDir, "cache");
+        library = new File(tempDir, "lib.jar");
+        try (ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(library))) {
+            zos.putNextEntry(new ZipEntry("foo.txt"));
+            zos.write("foo".getBytes("UTF-8"));
+        }
+        webResourceDir = new File(tempDir, "webapp");
+        write(new File(webResourceDir, "WEB-INF/beans.xml"), "");
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.delete(tempDir);
+    }
+
+    private void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        try (OutputStream os = new FileOutputStream(file)) {
+            os.write(content.getBytes("UTF-8"));
+        }
+    }
+
+    private boolean build(File war) throws IOException {
+        return new IncrementalWarBuilder(cacheDir, "probe")
+            .addLibrary(library, "WEB-INF/lib/lib.jar").setWebResourceDir(webResourceDir)
+            .build(war);
+    }
+
+    @Test
+    public void reuseUnchangedWar() throws IOException {
+        File war = new File(tempDir, "probe.war");
+        assertThat(build(war), is(false));
+        assertThat(build(war), is(true));
+        try (ZipFile zipFile = new ZipFile(war)) {
+            ZipEntry entry = zipFile.getEntry("WEB-INF/lib/lib.jar");
+            assertThat(entry.getMethod(), is(ZipEntry.STORED));
+            assertThat(entry.getSize(), is(library.length()));
+            assertThat(zipFile.getEntry("WEB-INF/beans.xml"), is(notNullValue()));
+        }
+    }
+
+    @Test
+    public void rewriteChangedWar() throws IOException {
+        File war = new File(tempDir, "probe.war");
+        assertThat(build(war), is(false));
+        write(new File(webResourceDir, "WEB-INF/web.xml"), "<web-app/>");
+        assertThat(build(war), is(false));
+        try (ZipFile zipFile = new ZipFile(war)) {
+            assertThat(zipFile.getEntry("WEB-INF/web.xml").getSize(), is(10L));
+            assertThat(zipFile.getEntry("WEB-INF/lib/lib.jar").getSize(), is(library.length()));
+        }
+        assertThat(build(war), is(true));
+        // no temporary files are left behind
+        assertThat(cacheDir.list().length, is(2));
+    }
+
+    @Test
+    public void rewriteWhenCachedWarIsModified() throws IOException {
+        File war = new File(tempDir, "probe.war");
+        build(war);
+        write(new File(cacheDir, "probe.war"), "garbage");
+        assertThat(build(war), is(false));
+        try (ZipFile zipFile = new ZipFile(war)) {
+            assertThat(zipFile.getEntry("WEB-INF/beans.xml"), is(notNullValue()));
+        }
+    }
+}
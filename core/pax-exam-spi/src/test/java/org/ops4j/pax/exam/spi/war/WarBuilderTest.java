@@ -173,4 +173,24 @@ public class WarBuilderTest {
         URI uri = warBuilder.buildWar();
         assertThat(new File(uri).getName(), is("foo.war"));
     }
+
+    @Test
+    public void buildWarWithCacheDir() throws IOException {
+        File cacheDir = new File(tempDir, "cache");
+        for (int i = 0; i < 2; i++) {
+            WarBuilder warBuilder = new WarBuilder(DefaultExamSystem.createTempDir(),
+                warProbe().library("target/classes"), cacheDir);
+            File probeWar = new File(warBuilder.buildWar());
+            try (ZipFile zip = new ZipFile(probeWar)) {
+                String entry = String.format("WEB-INF/lib/pax-exam-spi-%s.jar",
+                    Info.getPaxExamVersion());
+                assertThat(zip.getEntry(entry), is(notNullValue()));
+            }
+        }
+        File[] jarDirs = new File(cacheDir, "jars").listFiles();
+        assertThat(jarDirs.length, is(1));
+        String[] jars = jarDirs[0].list();
+        assertThat(jars.length, is(1));
+        assertThat(jars[0], is("pax-exam-spi-" + Info.getPaxExamVersion() + ".jar"));
+    }
 }
@@ -20,15 +20,24 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.ops4j.io.FileUtils;
+import org.ops4j.io.StreamUtils;
 import org.ops4j.pax.exam.spi.DefaultExamSystem;
 
 public class ZipBuilderTest {
@@ -60,4 +69,103 @@ public class ZipBuilderTest {
                 is(nullValue()));
         }
     }
+
+    @Test
+    public void shouldCompressInParallel() throws IOException {
+        File jar = new File(tempDir, "foo.jar");
+        new ZipBuilder(jar).addDirectory(new File("target", "classes"), "").close();
+        File archive = new File(tempDir, "test.zip");
+        ZipBuilder zipBuilder = new ZipBuilder(archive, 4);
+        zipBuilder.addDirectory(new File("target", "classes"), "WEB-INF/classes");
+        zipBuilder.addFile(jar, "WEB-INF/lib/foo.jar");
+        zipBuilder.close();
+
+        File classFile = new File("target/classes/org/ops4j/pax/exam/spi/ExamReactor.class");
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            ZipEntry entry = zipFile.getEntry(
+                "WEB-INF/classes/org/ops4j/pax/exam/spi/ExamReactor.class");
+            assertThat(entry.getMethod(), is(ZipEntry.DEFLATED));
+            try (InputStream is = zipFile.getInputStream(entry);
+                InputStream expected = new FileInputStream(classFile)) {
+                assertThat(StreamUtils.compareStreams(is, expected), is(true));
+            }
+            assertThat(zipFile.getEntry("WEB-INF/classes/org/ops4j/pax/exam/spi/").isDirectory(),
+                is(true));
+            entry = zipFile.getEntry("WEB-INF/lib/foo.jar");
+            assertThat(entry.getMethod(), is(ZipEntry.STORED));
+            assertThat(entry.getCompressedSize(), is(jar.length()));
+        }
+
+        int entries = 0;
+        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(archive))) {
+            byte[] buffer = new byte[4096];
+            while (zis.getNextEntry() != null) {
+                while (zis.read(buffer) != -1) {
+                    // verifies CRC at end of entry
+                }
+                entries++;
+            }
+        }
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            assertThat(entries, is(zipFile.size()));
+        }
+    }
+
+    @Test
+    public void shouldKeepOrderWithFewThreads() throws IOException {
+        File archive = new File(tempDir, "test.zip");
+        File source = new File(tempDir, "source.txt");
+        Files.write(source.toPath(), "content".getBytes("UTF-8"));
+        // more entries than may be in flight for a single thread
+        ZipBuilder zipBuilder = new ZipBuilder(archive, 1);
+        for (int i = 0; i < 20; i++) {
+            zipBuilder.addFile(source, "entry" + i + ".txt");
+        }
+        zipBuilder.close();
+
+        try (ZipInputStream zis = new ZipInputStream(new FileInputStream(archive))) {
+            for (int i = 0; i < 20; i++) {
+                assertThat(zis.getNextEntry().getName(), is("entry" + i + ".txt"));
+            }
+            assertThat(zis.getNextEntry(), is(nullValue()));
+        }
+    }
+
+    private boolean isCompressing() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && thread.getName().startsWith("pax-exam-zip-")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void shouldStopThreadsOnFailure() throws IOException, InterruptedException {
+        File archive = new File(tempDir, "test.zip");
+        File source = new File(tempDir, "source.txt");
+        Files.write(source.toPath(), "content".getBytes("UTF-8"));
+        try {
+            try (ZipBuilder zipBuilder = new ZipBuilder(archive, 2)) {
+                zipBuilder.addFile(source, "first.txt");
+                zipBuilder.addFile(new File(tempDir, "missing.txt"), "missing.txt");
+                zipBuilder.addFile(source, "last.txt");
+            }
+            fail("missing file must not be added");
+        }
+        catch (NoSuchFileException exc) {
+            // expected
+        }
+
+        for (int i = 0; i < 50 && isCompressing(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(isCompressing(), is(false));
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            fail("incomplete archive must not be finished");
+        }
+        catch (ZipException exc) {
+            // expected
+        }
+    }
 }
@@ -89,13 +89,40 @@ public class Constants {
     public static final String EXAM_SYSTEM_TEST = "test";
 
     /**
-     * Default reactor strategy. Legal values are {@code PerSuite, PerClass, PerMethod}.
+     * Default reactor strategy. Legal values are {@code PerSuite, PerClass, PerMethod,
+     * PerMethodPooled}.
      */
     public static final String EXAM_REACTOR_STRATEGY_KEY = "pax.exam.reactor.strategy";
 
     public static final String EXAM_REACTOR_STRATEGY_PER_SUITE = "PerSuite";
     public static final String EXAM_REACTOR_STRATEGY_PER_CLASS = "PerClass";
     public static final String EXAM_REACTOR_STRATEGY_PER_METHOD = "PerMethod";
+    public static final String EXAM_REACTOR_STRATEGY_PER_METHOD_POOLED = "PerMethodPooled";
+
+    /**
+     * Number of containers kept running by the {@code PerMethodPooled} reactor strategy. Defaults
+     * to 2.
+     */
+    public static final String EXAM_REACTOR_POOL_SIZE_KEY = "pax.exam.reactor.pool.size";
+
+    /**
+     * Maximum number of test containers created and started concurrently when a test class has
+     * multiple configurations. The default value 1 stages all containers sequentially.
+     * <p>
+     * Containers started concurrently take their ports from
+     * {@link org.ops4j.pax.exam.util.FreePorts}. System properties set by the configurations in
+     * the driver VM are shared, so configurations staged concurrently must not set different
+     * values for the same system property.
+     */
+    public static final String EXAM_REACTOR_STAGING_THREADS_KEY = "pax.exam.reactor.staging.threads";
+
+    /**
+     * Number of copies of the first configuration started by the {@code PerClass} and
+     * {@code PerSuite} reactor strategies. The test methods of each class are split among the
+     * copies and run concurrently. Containers of further configurations are never used for
+     * sharding. The default value 1 runs all tests in a single container.
+     */
+    public static final String EXAM_REACTOR_SHARDS_KEY = "pax.exam.reactor.shards";
 
     /**
      * Timeout for service lookup in milliseconds.
@@ -158,6 +185,55 @@ public class Constants {
      */
     public static final String EXAM_FORKED_INVOKER_PORT_RANGE_UPPERBOUND = "pax.exam.forked.invoker.port.range.upperbound";
 
+    /**
+     * Number of threads used by the native container to download provisioned bundles before
+     * installing them. The default value 1 lets the framework open each bundle URL in turn.
+     */
+    public static final String EXAM_PROVISION_PREFETCH_THREADS_KEY = "pax.exam.provision.prefetch.threads";
+
+    /**
+     * Should probe bundles be cached under the Exam configuration folder and reused across test
+     * classes and runs, as long as their content is unchanged? For WAR probes, the WAR of the
+     * previous run is kept and only rewritten where its content has changed. Values: true |
+     * false.
+     */
+    public static final String EXAM_PROBE_CACHE_KEY = "pax.exam.probe.cache";
+
+    /**
+     * Should Karaf distributions be extracted once into a persistent cache and copied from there
+     * for each container? Values: true | false (default).
+     */
+    public static final String EXAM_KARAF_DISTRIBUTION_CACHE_KEY = "pax.exam.karaf.distribution.cache";
+
+    /**
+     * Should a running Karaf instance be kept after its test container has been stopped and be
+     * taken over by the next Karaf test container with the same configuration? Missing features
+     * are installed into the running instance. Values: true | false (default).
+     */
+    public static final String EXAM_KARAF_REUSE_KEY = "pax.exam.karaf.reuse";
+
+    /**
+     * Should the Maven test dependencies of a Karaf container be resolved on the host and copied
+     * into the {@code system/} folder of the container, so that Karaf installs them from local
+     * files without resolving them at boot time? Values: true | false (default).
+     */
+    public static final String EXAM_KARAF_SYSTEM_DEPENDENCIES_KEY = "pax.exam.karaf.system.dependencies";
+
+    /**
+     * Should the bundles resolved by the Karaf features service at boot time be cached, so that
+     * later starts with the same distribution, configuration and feature repositories install
+     * them from {@code etc/startup.properties} without running the features resolver? Values:
+     * true | false (default).
+     */
+    public static final String EXAM_KARAF_FEATURES_CACHE_KEY = "pax.exam.karaf.features.cache";
+
+    /**
+     * Should embedded Karaf instances of the same distribution share the class loader of the
+     * Karaf launcher, so that the launcher classes are loaded only once per VM? Values: true |
+     * false (default).
+     */
+    public static final String EXAM_KARAF_EMBEDDED_SHARED_KEY = "pax.exam.karaf.embedded.shared";
+
     /** Hidden utility class constructor. */
     private Constants() {
     }
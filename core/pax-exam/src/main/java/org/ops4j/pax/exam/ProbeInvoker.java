@@ -25,5 +25,14 @@ public interface ProbeInvoker {
 
     void runTest(TestDescription description, TestListener listener);
 
+    /**
+     * Runs the test given by an encoded description including a run id, sending all events of the
+     * run, followed by {@link TestEventType#RUN_FINISHED}, to the event channel of the driver. The
+     * driver waits for the end of the run, so the final event must be sent even if the run fails.
+     *
+     * @param description
+     *            test description encoded with {@link TestDescription#toString(long)}
+     * @see org.ops4j.pax.exam.util.EventConnection
+     */
     void runTestClass(String description);
 }
@@ -72,6 +72,21 @@ public interface TestContainer {
      */
     void stop() throws TestContainerException, IOException;
 
+    /**
+     * Restores the state the container had right after {@link #start()}: the probe and any other
+     * bundles installed since then are uninstalled, and all remaining bundles are returned to
+     * their original state. This allows reusing a running container instead of restarting it.
+     *
+     * @return true if the container has been reset, false if the container does not support
+     *         resetting or the original state cannot be restored. In the latter case, the
+     *         container needs to be restarted.
+     * @throws IOException
+     *             - in case of I/O problem
+     */
+    default boolean reset() throws IOException {
+        return false;
+    }
+
     /**
      * @param description
      * @throws IOException
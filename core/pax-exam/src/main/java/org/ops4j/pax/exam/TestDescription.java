@@ -105,6 +105,19 @@ public class TestDescription implements Serializable {
         return builder.toString();
     }
 
+    /**
+     * Encodes this description for a test run with the given id. The run id tags all events of
+     * the run on a persistent event channel.
+     *
+     * @param runId
+     *            run id
+     * @return encoded description, to be decoded by {@link #parse(String)} and
+     *         {@link #parseRunId(String)}
+     */
+    public String toString(long runId) {
+        return runId + "@" + toString();
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -155,11 +168,29 @@ public class TestDescription implements Serializable {
         return true;
     }
 
+    /**
+     * Returns the run id of an encoded description.
+     *
+     * @param s
+     *            encoded description
+     * @return run id, or 0 if the description does not include a run id
+     */
+    public static long parseRunId(String s) {
+        int at = findRunIdSeparator(s);
+        return at < 0 ? 0 : Long.parseLong(s.substring(0, at));
+    }
+
+    private static int findRunIdSeparator(String s) {
+        int at = s.indexOf('@');
+        int colon = s.indexOf(':');
+        return (colon >= 0 && at > colon) ? -1 : at;
+    }
+
     public static TestDescription parse(String s) {
         TestFilter filter = null;
         Integer index = null;
 
-        String[] parts = s.split(":");
+        String[] parts = s.substring(findRunIdSeparator(s) + 1).split(":");
         switch (parts.length) {
             case 4:
                 if (nonEmpty(parts[3]) != null) {
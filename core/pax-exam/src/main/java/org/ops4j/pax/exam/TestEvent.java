@@ -26,6 +26,7 @@ public class TestEvent implements Serializable {
     private final TestEventType type;
     private final TestDescription description;
     private final Throwable exception;
+    private final long runId;
 
 
 
@@ -34,6 +35,12 @@ public class TestEvent implements Serializable {
     }
 
     public TestEvent(TestEventType type, TestDescription description, Throwable exception) {
+        this(0, type, description, exception);
+    }
+
+    public TestEvent(long runId, TestEventType type, TestDescription description,
+        Throwable exception) {
+        this.runId = runId;
         this.type = type;
         this.description = description;
         this.exception = exception;
@@ -62,4 +69,12 @@ public class TestEvent implements Serializable {
     public Throwable getException() {
         return exception;
     }
+
+
+    /**
+     * @return the id of the test run this event belongs to, or 0
+     */
+    public long getRunId() {
+        return runId;
+    }
 }
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binary wire format for {@link TestEvent}s, replacing Java serialization on test event streams.
+ * <p>
+ * A stream starts with a header carrying the format version. Each event is written as a length
+ * prefixed frame, so that a reader stays in sync even if the exception of an event cannot be
+ * decoded. Events without exception only contain the type, the run id and the fields of the
+ * description.
+ * <p>
+ * Exceptions are encoded as class name, message, stack trace and cause, if all throwables of the
+ * cause chain can be rebuilt from this information, i.e. have no state of their own and public
+ * constructors without arguments and with a message. Other exceptions are encoded by Java
+ * serialization.
+ */
+public final class TestEventCodec {
+
+    /**
+     * Version of the wire format. Must be incremented on any change of the format.
+     */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x50584556;
+
+    private static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+    private static final int MAX_CAUSES = 32;
+
+    private static final int NO_EXCEPTION = 0;
+
+    private static final int PLAIN_EXCEPTION = 1;
+
+    private static final int SERIALIZED_EXCEPTION = 2;
+
+    private static final TestEventType[] TYPES = TestEventType.values();
+
+    private static final Map<Class<?>, Boolean> PLAIN_CLASSES =
+        new ConcurrentHashMap<Class<?>, Boolean>();
+
+    /** Hidden utility class constructor. */
+    private TestEventCodec() {
+    }
+
+    /**
+     * Writes the stream header. Must be called once before writing the first event.
+     *
+     * @param out
+     *            output stream
+     * @throws IOException
+     *             on I/O error
+     */
+    public static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * Reads and checks the stream header.
+     *
+     * @param in
+     *            input stream
+     * @throws IOException
+     *             on I/O error, or if the stream has an unsupported version
+     */
+    public static void readHeader(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        int version = in.readInt();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("unsupported test event stream version " + version
+                + ", expected version " + VERSION);
+        }
+    }
+
+    /**
+     * Writes the given event. The output stream is not flushed.
+     *
+     * @param out
+     *            output stream
+     * @param event
+     *            test event
+     * @throws IOException
+     *             on I/O error
+     */
+    public static void write(DataOutputStream out, TestEvent event) throws IOException {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(128);
+        DataOutputStream dos = new DataOutputStream(frame);
+        dos.writeByte(event.getType().ordinal());
+        dos.writeLong(event.getRunId());
+        writeDescription(dos, event.getDescription());
+        writeException(dos, event.getException());
+        dos.flush();
+        out.writeInt(frame.size());
+        frame.writeTo(out);
+    }
+
+    /**
+     * Reads the next event. Exceptions of classes which are not visible to the context class
+     * loader or to this class are replaced by a {@link TestContainerException} with the original
+     * message and stack trace.
+     *
+     * @param in
+     *            input stream
+     * @return test event
+     * @throws java.io.EOFException
+     *             at the end of the stream
+     * @throws IOException
+     *             on I/O error, or if the stream is corrupt
+     */
+    public static TestEvent read(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        if (size < 0 || size > MAX_FRAME_SIZE) {
+            throw new IOException("corrupt test event stream, frame size " + size);
+        }
+        byte[] frame = new byte[size];
+        in.readFully(frame);
+        DataInputStream dis = new DataInputStream(new ByteArrayInputStream(frame));
+        int type = dis.readUnsignedByte();
+        if (type >= TYPES.length) {
+            throw new IOException("unknown test event type " + type);
+        }
+        long runId = dis.readLong();
+        TestDescription description = readDescription(dis);
+        Throwable exception = readException(dis);
+        return new TestEvent(runId, TYPES[type], description, exception);
+    }
+
+    private static void writeDescription(DataOutputStream out, TestDescription description)
+        throws IOException {
+        out.writeBoolean(description != null);
+        if (description == null) {
+            return;
+        }
+        writeString(out, description.getClassName());
+        writeString(out, description.getMethodName());
+        Integer index = description.getIndex();
+        out.writeBoolean(index != null);
+        if (index != null) {
+            out.writeInt(index);
+        }
+        TestFilter filter = description.getFilter();
+        out.writeBoolean(filter != null);
+        if (filter != null) {
+            writeString(out, filter.getDescription());
+            out.writeInt(filter.getUniqueIds().size());
+            for (String uniqueId : filter.getUniqueIds()) {
+                writeString(out, uniqueId);
+            }
+        }
+    }
+
+    private static TestDescription readDescription(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String className = readString(in);
+        String methodName = readString(in);
+        Integer index = in.readBoolean() ? in.readInt() : null;
+        TestFilter filter = null;
+        if (in.readBoolean()) {
+            filter = new TestFilter(readString(in));
+            int uniqueIds = in.readInt();
+            for (int i = 0; i < uniqueIds; i++) {
+                filter.addUniqueId(readString(in));
+            }
+        }
+        return new TestDescription(className, methodName, index, filter);
+    }
+
+    private static void writeException(DataOutputStream out, Throwable exception)
+        throws IOException {
+        if (exception == null) {
+            out.writeByte(NO_EXCEPTION);
+        }
+        else if (isPlainChain(exception)) {
+            out.writeByte(PLAIN_EXCEPTION);
+            for (Throwable t = exception; t != null; t = t.getCause()) {
+                out.writeBoolean(true);
+                writeString(out, t.getClass().getName());
+                writeString(out, t.getMessage());
+                writeStackTrace(out, t.getStackTrace());
+            }
+            out.writeBoolean(false);
+        }
+        else {
+            out.writeByte(SERIALIZED_EXCEPTION);
+            writeString(out, exception.getClass().getName());
+            writeString(out, exception.getMessage());
+            writeStackTrace(out, exception.getStackTrace());
+            // a fresh stream per exception, so that no references are retained between events
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                oos.writeObject(exception);
+            }
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        }
+    }
+
+    private static Throwable readException(DataInputStream in) throws IOException {
+        int kind = in.readUnsignedByte();
+        switch (kind) {
+            case NO_EXCEPTION:
+                return null;
+            case PLAIN_EXCEPTION:
+                return readPlainChain(in);
+            case SERIALIZED_EXCEPTION:
+                String className = readString(in);
+                String message = readString(in);
+                StackTraceElement[] stackTrace = readStackTrace(in);
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (ObjectInputStream ois = new ClassLoaderObjectInputStream(
+                    new ByteArrayInputStream(bytes))) {
+                    return (Throwable) ois.readObject();
+                }
+                catch (ClassNotFoundException | ClassCastException exc) {
+                    return substitute(className, message, stackTrace, null);
+                }
+            default:
+                throw new IOException("unknown exception encoding " + kind);
+        }
+    }
+
+    private static Throwable readPlainChain(DataInputStream in) throws IOException {
+        List<String> classNames = new ArrayList<String>();
+        List<String> messages = new ArrayList<String>();
+        List<StackTraceElement[]> stackTraces = new ArrayList<StackTraceElement[]>();
+        while (in.readBoolean()) {
+            classNames.add(readString(in));
+            messages.add(readString(in));
+            stackTraces.add(readStackTrace(in));
+        }
+        Throwable cause = null;
+        for (int i = classNames.size() - 1; i >= 0; i--) {
+            cause = instantiate(classNames.get(i), messages.get(i), stackTraces.get(i), cause);
+        }
+        return cause;
+    }
+
+    private static Throwable instantiate(String className, String message,
+        StackTraceElement[] stackTrace, Throwable cause) {
+        Throwable t;
+        try {
+            Class<?> klass = loadClass(className);
+            if (message == null) {
+                t = (Throwable) klass.getConstructor().newInstance();
+            }
+            else {
+                t = (Throwable) findMessageConstructor(klass).newInstance(message);
+            }
+        }
+        // CHECKSTYLE:SKIP
+        catch (Exception exc) {
+            return substitute(className, message, stackTrace, cause);
+        }
+        if (cause != null && t.getCause() == null) {
+            t.initCause(cause);
+        }
+        t.setStackTrace(stackTrace);
+        return t;
+    }
+
+    private static Throwable substitute(String className, String message,
+        StackTraceElement[] stackTrace, Throwable cause) {
+        TestContainerException exc = new TestContainerException(
+            message == null ? className : className + ": " + message, cause);
+        exc.setStackTrace(stackTrace);
+        return exc;
+    }
+
+    /**
+     * Checks if all throwables of the cause chain can be rebuilt from class name, message and
+     * stack trace.
+     */
+    private static boolean isPlainChain(Throwable exception) {
+        int depth = 0;
+        for (Throwable t = exception; t != null; t = t.getCause()) {
+            if (++depth > MAX_CAUSES || t.getSuppressed().length > 0 || !isPlain(t.getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPlain(Class<?> klass) {
+        Boolean plain = PLAIN_CLASSES.get(klass);
+        if (plain == null) {
+            plain = computePlain(klass);
+            PLAIN_CLASSES.put(klass, plain);
+        }
+        return plain;
+    }
+
+    private static boolean computePlain(Class<?> klass) {
+        if (!Modifier.isPublic(klass.getModifiers())) {
+            return false;
+        }
+        try {
+            klass.getConstructor();
+            findMessageConstructor(klass);
+            if (klass.getMethod("getMessage").getDeclaringClass() != Throwable.class) {
+                return false;
+            }
+        }
+        catch (NoSuchMethodException exc) {
+            return false;
+        }
+        for (Class<?> c = klass; c != Throwable.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the constructor taking a message. {@link AssertionError} only has a constructor
+     * taking an object.
+     */
+    private static Constructor<?> findMessageConstructor(Class<?> klass)
+        throws NoSuchMethodException {
+        try {
+            return klass.getConstructor(String.class);
+        }
+        catch (NoSuchMethodException exc) {
+            return klass.getConstructor(Object.class);
+        }
+    }
+
+    /**
+     * Writes class, method, file and line of each element. Module and class loader names of
+     * Java 9 and later are not transferred.
+     */
+    private static void writeStackTrace(DataOutputStream out, StackTraceElement[] stackTrace)
+        throws IOException {
+        out.writeInt(stackTrace.length);
+        for (StackTraceElement element : stackTrace) {
+            writeString(out, element.getClassName());
+            writeString(out, element.getMethodName());
+            writeString(out, element.getFileName());
+            out.writeInt(element.getLineNumber());
+        }
+    }
+
+    private static StackTraceElement[] readStackTrace(DataInputStream in) throws IOException {
+        StackTraceElement[] stackTrace = new StackTraceElement[in.readInt()];
+        for (int i = 0; i < stackTrace.length; i++) {
+            stackTrace[i] = new StackTraceElement(readString(in), readString(in), readString(in),
+                in.readInt());
+        }
+        return stackTrace;
+    }
+
+    /**
+     * Writes a string of any length, unlike {@link DataOutputStream#writeUTF(String)}.
+     */
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Class<?> loadClass(String className) throws ClassNotFoundException {
+        ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+        if (tccl != null) {
+            try {
+                return Class.forName(className, false, tccl);
+            }
+            catch (ClassNotFoundException exc) {
+                // try our own class loader
+            }
+        }
+        return Class.forName(className, false, TestEventCodec.class.getClassLoader());
+    }
+
+    /**
+     * Resolves classes like {@link TestEventCodec#loadClass(String)}.
+     */
+    private static class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+        ClassLoaderObjectInputStream(InputStream is) throws IOException {
+            super(is);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc)
+            throws IOException, ClassNotFoundException {
+            try {
+                return loadClass(desc.getName());
+            }
+            catch (ClassNotFoundException exc) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+}
@@ -23,5 +23,9 @@ public enum TestEventType {
     TEST_FINISHED,
     TEST_FAILED,
     TEST_ASSUMPTION_FAILED,
-    TEST_IGNORED
+    TEST_IGNORED,
+    /**
+     * Marks the end of a test run on a persistent event channel. Not passed to listeners.
+     */
+    RUN_FINISHED
 }
@@ -43,6 +43,7 @@ public class JarProbeOption implements Option {
     private List<Class<?>> classes;
     private List<String> metaInfResources;
     private String name;
+    private int compressionThreads;
 
     /**
      * Creates an empty JAR probe option. Application code should not invoke this constructor. Use
@@ -107,6 +108,31 @@ public class JarProbeOption implements Option {
         return this;
     }
 
+    /**
+     * Builds the JAR with the given number of compression threads. Nested JARs are stored
+     * without compression, and all other entries are compressed in parallel. With the default
+     * value 0, all entries are compressed sequentially.
+     * 
+     * @param threads
+     *            number of compression threads
+     * @return {@code this} for fluent syntax
+     */
+    public JarProbeOption compressionThreads(int threads) {
+        this.compressionThreads = threads;
+        return this;
+    }
+
+    /**
+     * Returns the number of compression threads.
+     * <p>
+     * Internal API, do no use in application code.
+     * 
+     * @return number of threads, or 0 for sequential compression
+     */
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
     /**
      * Returns the base name of this JAR.
      * <p>
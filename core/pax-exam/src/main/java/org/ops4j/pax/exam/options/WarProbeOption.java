@@ -75,6 +75,7 @@ public class WarProbeOption implements Option {
     private List<String> classpathFilters;
     private boolean useClasspath;
     private String name;
+    private int compressionThreads;
 
     /**
      * Creates an empty WAR probe option. Application code should not invoke this constructor. Use
@@ -263,6 +264,24 @@ public class WarProbeOption implements Option {
         return this;
     }
 
+    /**
+     * Builds the WAR with the given number of compression threads. Nested JARs are stored
+     * without compression, since they are compressed already, and all other entries are
+     * compressed in parallel. With the default value 0, all entries are compressed sequentially.
+     * <p>
+     * This setting does not apply to the WAR itself when probes are cached (see
+     * {@link org.ops4j.pax.exam.Constants#EXAM_PROBE_CACHE_KEY}): cached WARs store all libraries
+     * without compression and are only rewritten when their content has changed.
+     *
+     * @param threads
+     *            number of compression threads
+     * @return {@code this} for fluent syntax
+     */
+    public WarProbeOption compressionThreads(int threads) {
+        this.compressionThreads = threads;
+        return this;
+    }
+
     /**
      * Returns the application name of this WAR.
      * <p>
@@ -274,6 +293,17 @@ public class WarProbeOption implements Option {
         return name;
     }
 
+    /**
+     * Returns the number of compression threads.
+     * <p>
+     * Internal API, do no use in application code.
+     *
+     * @return number of threads, or 0 for sequential compression
+     */
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
     /**
      * Shall libraries and class folders be added automatically from the current classpath?
      * <p>
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.util;
+
+/**
+ * Exponential backoff for retry loops. The delay starts with an initial value and is doubled after
+ * each retry, up to a maximum delay.
+ * <p>
+ * Usage:
+ *
+ * <pre>
+ * Backoff backoff = new Backoff(10, 500);
+ * while (!done()) {
+ *     if (!backoff.sleep()) {
+ *         // interrupted
+ *     }
+ * }
+ * </pre>
+ */
+public class Backoff {
+
+    private final long maxDelay;
+
+    private long delay;
+
+    /**
+     * Creates a backoff.
+     *
+     * @param initialDelay
+     *            delay before the first retry in milliseconds
+     * @param maxDelay
+     *            maximum delay in milliseconds
+     */
+    public Backoff(long initialDelay, long maxDelay) {
+        this.delay = Math.max(1, initialDelay);
+        this.maxDelay = Math.max(delay, maxDelay);
+    }
+
+    /**
+     * Returns the delay before the next retry, and doubles the delay for the following retry.
+     *
+     * @return delay in milliseconds
+     */
+    public long nextDelay() {
+        long result = delay;
+        delay = Math.min(delay * 2, maxDelay);
+        return result;
+    }
+
+    /**
+     * Sleeps for the next delay.
+     *
+     * @return false if the current thread has been interrupted. The interrupt flag of the thread
+     *         is set again in this case.
+     */
+    public boolean sleep() {
+        try {
+            Thread.sleep(nextDelay());
+            return true;
+        }
+        catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
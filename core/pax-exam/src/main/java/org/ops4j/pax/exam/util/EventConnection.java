@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.util;
+
+import static org.ops4j.pax.exam.Constants.EXAM_INVOKER_PORT;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.ops4j.pax.exam.TestContainerException;
+import org.ops4j.pax.exam.TestEventCodec;
+import org.osgi.framework.BundleContext;
+
+/**
+ * Persistent connection to the test event channel of the driver, shared by all probe invokers in
+ * the container. The connection is opened on the first test run and kept open until an invoker
+ * bundle is stopped, or until writing to it fails.
+ * <p>
+ * Probe invokers implement {@link org.ops4j.pax.exam.ProbeInvoker#runTestClass(String)} by sending
+ * all events of the run to a listener obtained from {@link #createListener(BundleContext, long)}
+ * and finishing with {@link OutputStreamTestListener#runFinished()}.
+ */
+public final class EventConnection {
+
+    private static Socket socket;
+    private static DataOutputStream out;
+    private static int connectedPort;
+
+    /** Hidden utility class constructor. */
+    private EventConnection() {
+    }
+
+    /**
+     * Returns a listener sending the events of the given run to the invoker port of the driver,
+     * as configured in the given bundle context.
+     *
+     * @param ctx
+     *            bundle context of the probe invoker
+     * @param runId
+     *            run id encoded in the test description
+     * @return event listener
+     * @throws TestContainerException
+     *             if the port is not configured or the connection cannot be established
+     */
+    public static OutputStreamTestListener createListener(BundleContext ctx, long runId) {
+        try {
+            return new OutputStreamTestListener(get(getPort(ctx)), runId);
+        }
+        catch (IOException exc) {
+            throw new TestContainerException(exc);
+        }
+    }
+
+    /**
+     * Returns the stream for sending events to the given port, connecting if required.
+     *
+     * @param port
+     *            invoker port of the driver
+     * @return event output stream, to be synchronized on by writers
+     * @throws IOException
+     *             if the connection cannot be established
+     */
+    public static synchronized DataOutputStream get(int port) throws IOException {
+        if (out == null || port != connectedPort) {
+            close();
+            socket = new Socket(InetAddress.getLocalHost(), port);
+            socket.setTcpNoDelay(true);
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            TestEventCodec.writeHeader(out);
+            out.flush();
+            connectedPort = port;
+        }
+        return out;
+    }
+
+    /**
+     * Closes the connection, if any. The next call to {@link #get(int)} reconnects.
+     */
+    public static synchronized void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            }
+            catch (IOException exc) {
+                // ignore
+            }
+        }
+        socket = null;
+        out = null;
+    }
+
+    private static int getPort(BundleContext ctx) {
+        String port = ctx.getProperty(EXAM_INVOKER_PORT);
+        if (port == null) {
+            throw new TestContainerException(
+                "System property " + EXAM_INVOKER_PORT + " is not set");
+        }
+        try {
+            return Integer.parseInt(port);
+        }
+        catch (NumberFormatException exc) {
+            throw new TestContainerException(
+                "Cannot parse value of system property " + EXAM_INVOKER_PORT, exc);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.util;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.ops4j.pax.exam.TestContainerException;
+
+/**
+ * Reserves free ports for test containers started concurrently in the same VM.
+ * <p>
+ * A port which is merely found to be free is usually bound later by an RMI registry or by a
+ * forked process, so two containers probing at the same time would pick the same port. A reserved
+ * port is not handed out again until it is released, even if nothing is bound to it yet.
+ */
+public final class FreePorts {
+
+    private static final Set<Integer> RESERVED = new HashSet<Integer>();
+
+    /** Hidden utility class constructor. */
+    private FreePorts() {
+    }
+
+    /**
+     * Reserves the first port of the given range which is neither reserved nor bound.
+     *
+     * @param from
+     *            lower bound of the range, inclusive
+     * @param to
+     *            upper bound of the range, inclusive
+     * @return reserved port
+     * @throws TestContainerException
+     *             if there is no free port in the range
+     */
+    public static synchronized int reserve(int from, int to) {
+        for (int port = from; port <= to; port++) {
+            if (!RESERVED.contains(port) && isFree(port)) {
+                RESERVED.add(port);
+                return port;
+            }
+        }
+        throw new TestContainerException("no free port in range " + from + ":" + to);
+    }
+
+    /**
+     * Releases the given port. Does nothing if the port is not reserved.
+     *
+     * @param port
+     *            reserved port
+     */
+    public static synchronized void release(int port) {
+        RESERVED.remove(port);
+    }
+
+    private static boolean isFree(int port) {
+        try (ServerSocket socket = new ServerSocket(port)) {
+            return true;
+        }
+        catch (IOException exc) {
+            return false;
+        }
+    }
+}
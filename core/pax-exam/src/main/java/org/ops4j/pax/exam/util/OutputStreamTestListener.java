@@ -15,73 +15,97 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package org.ops4j.pax.exam.invoker.junit.internal;
+package org.ops4j.pax.exam.util;
 
 import static org.ops4j.pax.exam.TestEventType.TEST_ASSUMPTION_FAILED;
 import static org.ops4j.pax.exam.TestEventType.TEST_FAILED;
 import static org.ops4j.pax.exam.TestEventType.TEST_FINISHED;
 import static org.ops4j.pax.exam.TestEventType.TEST_IGNORED;
+import static org.ops4j.pax.exam.TestEventType.RUN_FINISHED;
 import static org.ops4j.pax.exam.TestEventType.TEST_STARTED;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 
 import org.ops4j.pax.exam.TestContainerException;
 import org.ops4j.pax.exam.TestDescription;
 import org.ops4j.pax.exam.TestEvent;
+import org.ops4j.pax.exam.TestEventCodec;
 import org.ops4j.pax.exam.TestFailure;
 import org.ops4j.pax.exam.TestListener;
 
 /**
+ * Sends the events of a test run to the driver. The stream may be shared by concurrent test runs,
+ * so all events are tagged with the run id, and each event is written and flushed while holding
+ * the lock of the stream. Events are encoded by {@link TestEventCodec}.
+ *
  * @author Harald Wellmann
  *
  */
 public class OutputStreamTestListener implements TestListener {
 
-    private ObjectOutputStream oos;
+    private DataOutputStream out;
+    private long runId;
+
+    public OutputStreamTestListener(DataOutputStream out) {
+        this(out, 0);
+    }
 
-    public OutputStreamTestListener(ObjectOutputStream oos) {
-        this.oos = oos;
+    public OutputStreamTestListener(DataOutputStream out, long runId) {
+        this.out = out;
+        this.runId = runId;
     }
 
     @Override
     public void testStarted(TestDescription description) {
-        TestEvent event = new TestEvent(TEST_STARTED, description);
+        TestEvent event = new TestEvent(runId, TEST_STARTED, description, null);
         sendEvent(event);
     }
 
+    /**
+     * Signals the end of the test run to the driver.
+     */
+    public void runFinished() {
+        sendEvent(new TestEvent(runId, RUN_FINISHED, null, null));
+    }
+
     private void sendEvent(TestEvent event) {
         try {
-            oos.writeObject(event);
+            synchronized (out) {
+                TestEventCodec.write(out, event);
+                out.flush();
+            }
         }
         catch (IOException exc) {
+            EventConnection.close();
             throw new TestContainerException(exc);
         }
     }
 
     @Override
     public void testFinished(TestDescription description) {
-        TestEvent event = new TestEvent(TEST_FINISHED, description);
+        TestEvent event = new TestEvent(runId, TEST_FINISHED, description, null);
         sendEvent(event);
     }
 
     @Override
     public void testFailure(TestFailure failure) {
-        TestEvent event = new TestEvent(TEST_FAILED, failure.getDescription(),
+        TestEvent event = new TestEvent(runId, TEST_FAILED, failure.getDescription(),
             failure.getException());
         sendEvent(event);
     }
 
     @Override
     public void testAssumptionFailure(TestFailure failure) {
-        TestEvent event = new TestEvent(TEST_ASSUMPTION_FAILED, failure.getDescription(),
+        TestEvent event = new TestEvent(runId, TEST_ASSUMPTION_FAILED,
+            failure.getDescription(),
             failure.getException());
         sendEvent(event);
     }
 
     @Override
     public void testIgnored(TestDescription description) {
-        TestEvent event = new TestEvent(TEST_IGNORED, description);
+        TestEvent event = new TestEvent(runId, TEST_IGNORED, description, null);
         sendEvent(event);
     }
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.ops4j.pax.exam.TestContainerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Applies a task to a list of items on a bounded thread pool. With a single thread, all tasks run
+ * sequentially on the calling thread.
+ * <p>
+ * A failing task does not interrupt the other ones. When all tasks have completed, the results of
+ * the successful tasks are passed to an optional cleanup, e.g. for stopping containers already
+ * started or deleting files already downloaded, and the first failure is rethrown.
+ */
+public class ParallelTasks {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelTasks.class);
+
+    /**
+     * A task mapping an item to a result.
+     *
+     * @param <T>
+     *            item type
+     * @param <R>
+     *            result type
+     */
+    public interface Task<T, R> {
+
+        R apply(T item) throws Exception;
+    }
+
+    /**
+     * Releases the result of a successful task when another task has failed.
+     *
+     * @param <R>
+     *            result type
+     */
+    public interface Cleanup<R> {
+
+        void apply(R result) throws Exception;
+    }
+
+    private final int threads;
+
+    /**
+     * Creates an executor with the given number of threads.
+     *
+     * @param threads
+     *            maximum number of concurrent tasks
+     */
+    public ParallelTasks(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Applies the given task to all items and returns the results in item order.
+     *
+     * @param items
+     *            items to be processed
+     * @param task
+     *            task to be applied to each item
+     * @return list of results, in the same order as the items
+     */
+    public <T, R> List<R> map(List<T> items, Task<T, R> task) {
+        return map(items, task, null);
+    }
+
+    /**
+     * Applies the given task to all items and returns the results in item order. If any task
+     * fails, the cleanup is applied to the results of all successful tasks and the first failure
+     * is rethrown. In sequential mode, no further tasks are started after a failure.
+     *
+     * @param items
+     *            items to be processed
+     * @param task
+     *            task to be applied to each item
+     * @param cleanup
+     *            cleanup for the results of successful tasks on failure, or null
+     * @return list of results, in the same order as the items
+     */
+    public <T, R> List<R> map(List<T> items, Task<T, R> task, Cleanup<? super R> cleanup) {
+        List<R> results = new ArrayList<R>(items.size());
+        Throwable failure = null;
+        if (threads <= 1 || items.size() <= 1) {
+            for (T item : items) {
+                try {
+                    results.add(task.apply(item));
+                }
+                // CHECKSTYLE:SKIP : catch all wanted
+                catch (Throwable exc) {
+                    failure = exc;
+                    break;
+                }
+            }
+        }
+        else {
+            failure = mapConcurrently(items, task, results);
+        }
+        if (failure != null) {
+            cleanUp(results, cleanup);
+            throw propagate(failure);
+        }
+        return results;
+    }
+
+    /**
+     * Runs all tasks concurrently and waits for all of them, adding the results of the successful
+     * ones to the given list.
+     *
+     * @return the first failure in item order, or null
+     */
+    private <T, R> Throwable mapConcurrently(List<T> items, Task<T, R> task, List<R> results) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, items.size()));
+        try {
+            List<Future<R>> futures = new ArrayList<Future<R>>(items.size());
+            for (T item : items) {
+                futures.add(executor.submit(() -> task.apply(item)));
+            }
+            Throwable failure = null;
+            for (Future<R> future : futures) {
+                try {
+                    results.add(future.get());
+                }
+                catch (ExecutionException exc) {
+                    if (failure == null) {
+                        failure = exc.getCause();
+                    }
+                }
+            }
+            return failure;
+        }
+        catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            return exc;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <R> void cleanUp(List<R> results, Cleanup<? super R> cleanup) {
+        if (cleanup == null) {
+            return;
+        }
+        for (R result : results) {
+            try {
+                cleanup.apply(result);
+            }
+            // CHECKSTYLE:SKIP : catch all wanted
+            catch (Exception exc) {
+                LOG.warn("cannot clean up " + result, exc);
+            }
+        }
+    }
+
+    private static RuntimeException propagate(Throwable failure) {
+        if (failure instanceof RuntimeException) {
+            return (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        return new TestContainerException(failure);
+    }
+}
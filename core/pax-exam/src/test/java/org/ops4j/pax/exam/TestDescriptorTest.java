@@ -24,4 +24,12 @@ public class TestDescriptorTest {
         assertThat(descriptor, equalTo(TestDescription.parse(descriptor.toString())));
     }
 
+    @Test
+    public void testParseWithRunId() {
+        TestDescription descriptor = new TestDescription("className", "methodName", 3);
+        assertThat(TestDescription.parse(descriptor.toString(42)), equalTo(descriptor));
+        assertThat(TestDescription.parseRunId(descriptor.toString(42)), equalTo(42L));
+        assertThat(TestDescription.parseRunId(descriptor.toString()), equalTo(0L));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package org.ops4j.pax.exam;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TestEventCodecTest {
+
+    private static final TestDescription DESCRIPTION = new TestDescription("className",
+        "methodName", 3, new TestFilter("All methods", Arrays.asList("1", "2")));
+
+    public static class CustomException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int code;
+
+        public CustomException(int code) {
+            super("code " + code);
+            this.code = code;
+        }
+    }
+
+    private TestEvent[] roundTrip(TestEvent... events) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        TestEventCodec.writeHeader(out);
+        for (TestEvent event : events) {
+            TestEventCodec.write(out, event);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        TestEventCodec.readHeader(in);
+        TestEvent[] result = new TestEvent[events.length];
+        for (int i = 0; i < events.length; i++) {
+            result[i] = TestEventCodec.read(in);
+        }
+        try {
+            TestEventCodec.read(in);
+            throw new AssertionError("expected end of stream");
+        }
+        catch (EOFException exc) {
+            return result;
+        }
+    }
+
+    @Test
+    public void encodeEventsWithoutException() throws IOException {
+        TestEvent[] events = roundTrip(
+            new TestEvent(42, TestEventType.TEST_STARTED, DESCRIPTION, null),
+            new TestEvent(42, TestEventType.TEST_FINISHED, new TestDescription("className"), null),
+            new TestEvent(42, TestEventType.RUN_FINISHED, null, null));
+        assertThat(events[0].getRunId(), is(42L));
+        assertThat(events[0].getType(), is(TestEventType.TEST_STARTED));
+        assertThat(events[0].getDescription(), equalTo(DESCRIPTION));
+        assertThat(events[0].getDescription().getFilter(), equalTo(DESCRIPTION.getFilter()));
+        assertThat(events[0].getException(), is(nullValue()));
+        assertThat(events[1].getDescription(), equalTo(new TestDescription("className")));
+        assertThat(events[2].getType(), is(TestEventType.RUN_FINISHED));
+        assertThat(events[2].getDescription(), is(nullValue()));
+    }
+
+    @Test
+    public void encodePlainExceptionChain() throws IOException {
+        IllegalStateException cause = new IllegalStateException();
+        AssertionError failure = new AssertionError("expected foo");
+        failure.initCause(cause);
+        TestEvent event = roundTrip(
+            new TestEvent(1, TestEventType.TEST_FAILED, DESCRIPTION, failure))[0];
+
+        Throwable exception = event.getException();
+        assertThat(exception, instanceOf(AssertionError.class));
+        assertThat(exception.getMessage(), is("expected foo"));
+        assertStackTrace(exception.getStackTrace(), failure.getStackTrace());
+        assertThat(exception.getCause(), instanceOf(IllegalStateException.class));
+        assertThat(exception.getCause().getMessage(), is(nullValue()));
+        assertStackTrace(exception.getCause().getStackTrace(), cause.getStackTrace());
+    }
+
+    /**
+     * Compares the encoded fields only, since stack trace elements of Java 9 and later also hold
+     * module and class loader names.
+     */
+    private static void assertStackTrace(StackTraceElement[] actual, StackTraceElement[] expected) {
+        assertThat(actual.length, is(expected.length));
+        for (int i = 0; i < expected.length; i++) {
+            assertThat(actual[i].getClassName(), is(expected[i].getClassName()));
+            assertThat(actual[i].getMethodName(), is(expected[i].getMethodName()));
+            assertThat(actual[i].getFileName(), is(expected[i].getFileName()));
+            assertThat(actual[i].getLineNumber(), is(expected[i].getLineNumber()));
+        }
+    }
+
+    @Test
+    public void serializeExceptionWithState() throws IOException {
+        TestEvent event = roundTrip(
+            new TestEvent(1, TestEventType.TEST_FAILED, DESCRIPTION, new CustomException(7)))[0];
+
+        assertThat(event.getException(), instanceOf(CustomException.class));
+        assertThat(((CustomException) event.getException()).code, is(7));
+    }
+}
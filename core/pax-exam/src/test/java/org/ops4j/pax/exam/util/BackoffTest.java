@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class BackoffTest {
+
+    @Test
+    public void doubleDelayUpToMaximum() {
+        Backoff backoff = new Backoff(10, 50);
+        assertThat(backoff.nextDelay(), is(10L));
+        assertThat(backoff.nextDelay(), is(20L));
+        assertThat(backoff.nextDelay(), is(40L));
+        assertThat(backoff.nextDelay(), is(50L));
+        assertThat(backoff.nextDelay(), is(50L));
+    }
+
+    @Test
+    public void stopSleepingWhenInterrupted() {
+        Thread.currentThread().interrupt();
+        assertThat(new Backoff(1000, 1000).sleep(), is(false));
+        assertThat(Thread.interrupted(), is(true));
+    }
+}
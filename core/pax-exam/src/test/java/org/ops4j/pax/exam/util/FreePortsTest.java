@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+import org.junit.Test;
+import org.ops4j.pax.exam.TestContainerException;
+
+public class FreePortsTest {
+
+    private int findFreePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    public void doNotHandOutReservedPort() throws IOException {
+        int port = findFreePort();
+        assertThat(FreePorts.reserve(port, port), is(port));
+        try {
+            FreePorts.reserve(port, port);
+            fail("reserved port must not be handed out again");
+        }
+        catch (TestContainerException exc) {
+            // expected
+        }
+        FreePorts.release(port);
+        assertThat(FreePorts.reserve(port, port), is(port));
+        FreePorts.release(port);
+    }
+
+    @Test
+    public void reserveDistinctPortsOfRange() throws IOException {
+        int port = findFreePort();
+        int first = FreePorts.reserve(port, port + 50);
+        int second = FreePorts.reserve(port, port + 50);
+        assertThat(second, is(not(first)));
+        FreePorts.release(first);
+        FreePorts.release(second);
+    }
+
+    @Test(expected = TestContainerException.class)
+    public void skipBoundPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            FreePorts.reserve(socket.getLocalPort(), socket.getLocalPort());
+        }
+    }
+}
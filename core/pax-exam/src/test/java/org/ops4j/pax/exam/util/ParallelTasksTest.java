@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.
+ *
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.exam.util;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.ops4j.pax.exam.TestContainerException;
+
+public class ParallelTasksTest {
+
+    @Test
+    public void keepItemOrder() {
+        List<Integer> items = Arrays.asList(5, 4, 3, 2, 1);
+        List<Integer> results = new ParallelTasks(3).map(items, item -> {
+            Thread.sleep(item * 10);
+            return item * 2;
+        });
+        assertThat(results, is(Arrays.asList(10, 8, 6, 4, 2)));
+    }
+
+    @Test(expected = TestContainerException.class)
+    public void wrapCheckedException() {
+        new ParallelTasks(2).map(Arrays.asList(1, 2), item -> {
+            if (item == 2) {
+                throw new IOException("cannot start container");
+            }
+            return item;
+        });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rethrowRuntimeException() {
+        new ParallelTasks(1).map(Arrays.asList(1, 2), item -> {
+            throw new IllegalStateException();
+        });
+    }
+
+    @Test
+    public void waitForAllTasksAndCleanUpOnFailure() {
+        List<Integer> finished = Collections.synchronizedList(new ArrayList<Integer>());
+        List<Integer> cleanedUp = new ArrayList<Integer>();
+        try {
+            new ParallelTasks(3).map(Arrays.asList(1, 2, 3), item -> {
+                if (item == 1) {
+                    throw new IllegalStateException();
+                }
+                Thread.sleep(100);
+                finished.add(item);
+                return item;
+            }, cleanedUp::add);
+            fail("failure not rethrown");
+        }
+        catch (IllegalStateException exc) {
+            // expected
+        }
+        Collections.sort(finished);
+        assertThat(finished, is(Arrays.asList(2, 3)));
+        assertThat(cleanedUp, is(Arrays.asList(2, 3)));
+    }
+
+    @Test
+    public void stopAfterFailureInSequentialMode() {
+        List<Integer> cleanedUp = new ArrayList<Integer>();
+        try {
+            new ParallelTasks(1).map(Arrays.asList(1, 2, 3), item -> {
+                if (item == 2) {
+                    throw new IOException();
+                }
+                return item;
+            }, cleanedUp::add);
+            fail("failure not rethrown");
+        }
+        catch (TestContainerException exc) {
+            // expected
+        }
+        assertThat(cleanedUp, is(Arrays.asList(1)));
+    }
+}
@@ -21,6 +21,7 @@ import java.util.Dictionary;
 import java.util.Hashtable;
 
 import org.ops4j.pax.exam.ProbeInvokerFactory;
+import org.ops4j.pax.exam.util.EventConnection;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 
@@ -36,6 +37,6 @@ public class Activator implements BundleActivator {
 
     @Override
     public void stop(BundleContext context) throws Exception {
-        // empty
+        EventConnection.close();
     }
 }
@@ -22,8 +22,10 @@ import java.util.Collections;
 import org.ops4j.pax.exam.ProbeInvoker;
 import org.ops4j.pax.exam.TestDescription;
 import org.ops4j.pax.exam.TestListener;
+import org.ops4j.pax.exam.util.EventConnection;
 import org.ops4j.pax.exam.util.Exceptions;
 import org.ops4j.pax.exam.util.Injector;
+import org.ops4j.pax.exam.util.OutputStreamTestListener;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.wiring.BundleWiring;
 import org.testng.TestNG;
@@ -79,9 +81,15 @@ public class TestNGProbeInvoker implements ProbeInvoker {
         testNG.run();
     }
 
-
-
     @Override
     public void runTestClass(String description) {
+        OutputStreamTestListener streamListener = EventConnection.createListener(ctx,
+            TestDescription.parseRunId(description));
+        try {
+            runTest(TestDescription.parse(description), streamListener);
+        }
+        finally {
+            streamListener.runFinished();
+        }
     }
 }
@@ -19,6 +19,7 @@ package org.ops4j.pax.exam.junit;
 
 import java.io.IOException;
 
+import org.junit.runner.manipulation.Filter;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.ParentRunner;
 import org.junit.runners.model.FrameworkMethod;
@@ -33,6 +34,7 @@ import org.ops4j.pax.exam.TestProbeBuilder;
 import org.ops4j.pax.exam.junit.impl.JUnitTestListener;
 import org.ops4j.pax.exam.spi.ExamReactor;
 import org.ops4j.pax.exam.spi.StagedExamReactor;
+import org.ops4j.pax.exam.spi.intern.TestSharding;
 import org.ops4j.pax.exam.spi.reactors.AllConfinedStagedReactor;
 import org.ops4j.pax.exam.spi.reactors.ReactorManager;
 import org.ops4j.pax.exam.util.Exceptions;
@@ -57,6 +59,8 @@ public class DriverExtension extends RunnerExtension {
 
     private TestFilter filter;
 
+    private TestSharding sharding = new TestSharding();
+
     /**
      * @throws InitializationError
      *
@@ -162,7 +166,12 @@ public class DriverExtension extends RunnerExtension {
     public void delegateClassBlock(RunNotifier notifier) {
         TestListener listener = new JUnitTestListener(notifier);
         try {
-            TestDescription description = new TestDescription(testClass.getName(), null, null, filter);
+            TestFilter classFilter = filter;
+            if (classFilter == null && sharding.isEnabled()) {
+                classFilter = createFilterForAllTests();
+            }
+            TestDescription description = new TestDescription(testClass.getName(), null, null,
+                classFilter);
             stagedReactor.runTest(description, listener);
         }
         // CHECKSTYLE:SKIP : StagedExamReactor API
@@ -171,6 +180,20 @@ public class DriverExtension extends RunnerExtension {
         }
     }
 
+    /**
+     * Creates a filter listing all test methods, so that the reactor can split them among
+     * multiple containers.
+     *
+     * @return filter matching all test methods
+     */
+    private TestFilter createFilterForAllTests() {
+        TestFilter allTests = new TestFilter(Filter.ALL.describe());
+        for (FrameworkMethod method : base.getChildren()) {
+            allTests.addUniqueId(String.valueOf(base.describeChild(method).hashCode()));
+        }
+        return allTests;
+    }
+
     @Override
     public void delegateMethodBlock(FrameworkMethod method, RunNotifier notifier) {
         TestDescription description = new TestDescription(testClass.getName(), method.getName());
@@ -122,4 +122,9 @@ public class ExtensibleRunner extends BlockJUnit4ClassRunner {
     public List<FrameworkMethod> getChildren() {
         return super.getChildren();
     }
+
+    @Override
+    public Description describeChild(FrameworkMethod method) {
+        return super.describeChild(method);
+    }
 }
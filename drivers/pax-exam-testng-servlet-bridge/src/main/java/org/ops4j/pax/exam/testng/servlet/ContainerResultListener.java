@@ -17,11 +17,13 @@
  */
 package org.ops4j.pax.exam.testng.servlet;
 
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 
 import org.ops4j.pax.exam.TestDescription;
 import org.ops4j.pax.exam.TestEvent;
+import org.ops4j.pax.exam.TestEventCodec;
 import org.ops4j.pax.exam.TestEventType;
 import org.ops4j.pax.exam.util.Exceptions;
 import org.testng.ITestContext;
@@ -29,15 +31,26 @@ import org.testng.ITestListener;
 import org.testng.ITestResult;
 
 /**
+ * Sends the results of a test run to the driver. Events are encoded by {@link TestEventCodec}.
+ *
  * @author Harald Wellmann
  *
  */
 public class ContainerResultListener implements ITestListener {
 
-    private ObjectOutputStream oos;
+    private DataOutputStream out;
 
-    public ContainerResultListener(ObjectOutputStream oos) {
-        this.oos = oos;
+    /**
+     * Creates a listener writing to the given stream and writes the stream header.
+     *
+     * @param os
+     *            output stream
+     * @throws IOException
+     *             on I/O error
+     */
+    public ContainerResultListener(OutputStream os) throws IOException {
+        this.out = new DataOutputStream(os);
+        TestEventCodec.writeHeader(out);
     }
 
     @Override
@@ -47,7 +60,8 @@ public class ContainerResultListener implements ITestListener {
 
     private void writeEvent(TestEvent event) {
         try {
-            oos.writeObject(event);
+            TestEventCodec.write(out, event);
+            out.flush();
         }
         catch (IOException exc) {
             throw Exceptions.unchecked(exc);
@@ -18,7 +18,6 @@
 package org.ops4j.pax.exam.testng.servlet;
 
 import java.io.IOException;
-import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 
@@ -68,12 +67,10 @@ public class TestRunnerServlet extends HttpServlet {
 
     private void runSuite(OutputStream os, Class<?> clazz, String methodName) throws IOException {
 
-        ObjectOutputStream oos = new ObjectOutputStream(os);
-
         TestNG testNG = new TestNG();
         testNG.setUseDefaultListeners(false);
         testNG.setVerbose(0);
-        ContainerResultListener listener = new ContainerResultListener(oos);
+        ContainerResultListener listener = new ContainerResultListener(os);
         testNG.addListener(listener);
         XmlSuite suite = new XmlSuite();
         suite.setName("PaxExamInternal");
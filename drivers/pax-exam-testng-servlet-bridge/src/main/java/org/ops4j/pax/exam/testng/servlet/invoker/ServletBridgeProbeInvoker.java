@@ -80,9 +80,15 @@ public class ServletBridgeProbeInvoker implements ProbeInvoker {
         task.run();
     }
 
+    /**
+     * Not supported. This invoker runs in the driver and receives the test events over HTTP, so
+     * there is no event channel to send them to. Throwing makes a remote target cancel the run
+     * instead of waiting for events which never arrive.
+     */
     @Override
     public void runTestClass(String description) {
-        // TODO Auto-generated method stub
+        throw new UnsupportedOperationException(
+            "runTestClass() is not supported by " + getClass().getSimpleName());
     }
 
 }